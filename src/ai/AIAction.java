@@ -1,6 +1,8 @@
 package ai;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import model.board.Tile;
@@ -9,6 +11,8 @@ import model.unit.MovingUnit;
 import model.unit.Summoner;
 import model.unit.Unit;
 import model.unit.ability.Ability;
+import model.unit.combatant.Combat;
+import model.unit.combatant.CombatProjection;
 import model.unit.combatant.Combatant;
 import model.unit.commander.Commander;
 
@@ -27,6 +31,18 @@ public final class AIAction {
     CAST_SPELL
   }
 
+  /**
+   * Orders actions by what they do rather than by identity - by type, then the tile of the acting
+   * unit, the targeted tile, and the name of the unit summoned or spell cast. No two of a player's
+   * possible actions at one time are equal in this order, and it is the same in every run.
+   */
+  public static final Comparator<AIAction> CONTENT_ORDER =
+      Comparator.<AIAction>comparingInt(a -> a.actionType.ordinal())
+          .thenComparingInt(a -> a.player.game.board.getTileIndex(a.actingUnit.getLocation()))
+          .thenComparingInt(a -> a.player.game.board.getTileIndex(a.targetedTile))
+          .thenComparing(a -> a.unitToSummon == null ? "" : a.unitToSummon.name)
+          .thenComparing(a -> a.spellToCast == null ? "" : a.spellToCast.name);
+
   /**
    * The player performing the action.
    */
@@ -70,6 +86,12 @@ public final class AIAction {
    */
   public final Ability spellToCast;
 
+  /**
+   * The context memoizing board queries for the game state this action was created in. Null if the
+   * creator didn't provide one.
+   */
+  private AIQueryContext queryContext;
+
   /**
    * Creates an AIAction that moves the given unit to the given adjacent tile.
    */
@@ -140,6 +162,48 @@ public final class AIAction {
     checkPreconditions();
   }
 
+  /**
+   * Returns the projected outcome of this attack in the current game state. Memoized in this
+   * action's query context, so every delegate scoring this action against one state shares one
+   * projection, and an action kept across a state change gets a fresh one. Throws an exception if
+   * this isn't an ATTACK action.
+   */
+  public CombatProjection getCombatProjection() {
+    if (actionType != AIActionType.ATTACK) {
+      throw new RuntimeException("Can't project combat for " + actionType + " action");
+    }
+    return getQueryContext()
+        .get(
+            Arrays.asList(CombatProjection.class, actingUnit, targetedTile),
+            () ->
+                new Combat((Combatant) actingUnit, targetedTile.getOccupyingUnit())
+                    .getProjection());
+  }
+
+  /**
+   * Sets the query context for the game state this action was created in and returns this. Must be
+   * set before the action is scored, and can't be changed once set.
+   */
+  public AIAction withQueryContext(AIQueryContext queryContext) {
+    if (this.queryContext != null) {
+      throw new RuntimeException("Can't set query context of " + this + ", already set");
+    }
+    if (queryContext.player != player) {
+      throw new RuntimeException("Can't use " + queryContext + " for action of " + player);
+    }
+    this.queryContext = queryContext;
+    return this;
+  }
+
+  /**
+   * Returns the context memoizing board queries for the game state this action was created in. If
+   * none was provided, returns a new context, so queries are still correct but aren't shared with
+   * other actions.
+   */
+  public AIQueryContext getQueryContext() {
+    return queryContext != null ? queryContext : new AIQueryContext(player);
+  }
+
   /**
    * Asserts that all preconditions are valid for this Action, given the type.
    */
@@ -0,0 +1,170 @@
+package ai;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import model.board.Terrain;
+import model.board.Tile;
+import model.game.Player;
+import model.unit.Unit;
+import model.unit.building.Building;
+import model.unit.commander.Commander;
+
+/**
+ * Memoizes board queries made while scoring a player's possible actions, so every action scored
+ * against the same game state shares one computation of each query instead of making it again.
+ * Holds the views of the board many delegates need (visible enemies, unbuilt ancient ground), and
+ * any other query a delegate wants to share under a key of its choosing.
+ *
+ * <p>Results are only valid for the state they were computed in. The owner of a context must call
+ * {@link #invalidate()} whenever the game state changes, which bumps the state version and drops
+ * every memoized result. Queries may be made from multiple threads at once, but not concurrently
+ * with invalidation.
+ */
+public final class AIQueryContext {
+
+  /**
+   * The player actions are being scored for.
+   */
+  public final Player player;
+
+  /**
+   * The number of times the state has changed since this context was created.
+   */
+  private volatile long stateVersion;
+
+  /**
+   * The memoized results for the current state version, by key. Replaced on invalidation, so a
+   * result computed for an older state can never be stored in the current one.
+   */
+  private volatile Map<Object, Object> results;
+
+  /**
+   * Constructs a new, empty AIQueryContext for the given player.
+   */
+  public AIQueryContext(Player player) {
+    this.player = player;
+    stateVersion = 0;
+    results = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the number of times the state has changed since this context was created.
+   */
+  public long getStateVersion() {
+    return stateVersion;
+  }
+
+  /**
+   * Drops every memoized result, since the game state changed.
+   */
+  public void invalidate() {
+    stateVersion++;
+    results = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the result of the given query for the current state, computing it if it hasn't been
+   * yet. The key must identify the query and everything it depends on other than the game state -
+   * as with a list of the asking class and the query's arguments. The query must not return null.
+   * May compute the query more than once if asked from multiple threads at once, but always returns
+   * the first stored result.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Supplier<T> query) {
+    Map<Object, Object> current = results;
+    Object result = current.get(key);
+    if (result == null) {
+      // Computed outside of the map, so queries can make other queries.
+      Object computed = query.get();
+      result = current.putIfAbsent(key, computed);
+      if (result == null) {
+        result = computed;
+      }
+    }
+    return (T) result;
+  }
+
+  /**
+   * Returns the units of other players that the player can see.
+   */
+  public List<Unit> getVisibleEnemyUnits() {
+    return get(
+        VisibleEnemyUnitsKey.INSTANCE,
+        () ->
+            Collections.unmodifiableList(
+                player
+                    .game
+                    .getOtherPlayersUnits(player)
+                    .stream()
+                    .filter(player::canSee)
+                    .collect(Collectors.toList())));
+  }
+
+  /**
+   * Returns the locations of the commanders of other players that the player can see.
+   */
+  public List<Tile> getVisibleEnemyCommanderLocations() {
+    return get(
+        VisibleEnemyCommanderLocationsKey.INSTANCE,
+        () ->
+            Collections.unmodifiableList(
+                getVisibleEnemyUnits()
+                    .stream()
+                    .filter(u -> u instanceof Commander)
+                    .map(Unit::getLocation)
+                    .collect(Collectors.toList())));
+  }
+
+  /**
+   * Returns the ancient ground tiles the player doesn't know to have a building on them.
+   */
+  public Set<Tile> getUnbuiltAncientGround() {
+    return get(
+        UnbuiltAncientGroundKey.INSTANCE,
+        () ->
+            Collections.unmodifiableSet(
+                player
+                    .game
+                    .board
+                    .getTilesWithTerrainType(Terrain.ANCIENT_GROUND)
+                    .stream()
+                    .filter(
+                        t ->
+                            !t.isOccupied()
+                                || !(t.getOccupyingUnit() instanceof Building)
+                                || !player.canSee(t))
+                    .collect(Collectors.toSet())));
+  }
+
+  /**
+   * Key for {@link #getVisibleEnemyUnits()}.
+   */
+  private enum VisibleEnemyUnitsKey {
+    INSTANCE
+  }
+
+  /**
+   * Key for {@link #getVisibleEnemyCommanderLocations()}.
+   */
+  private enum VisibleEnemyCommanderLocationsKey {
+    INSTANCE
+  }
+
+  /**
+   * Key for {@link #getUnbuiltAncientGround()}.
+   */
+  private enum UnbuiltAncientGroundKey {
+    INSTANCE
+  }
+
+  @Override
+  public String toString() {
+    return "Query context for " + player + " at state " + stateVersion;
+  }
+}
@@ -114,6 +114,35 @@ public abstract class ByNameDelegate extends Delegate {
     }
   }
 
+  /**
+   * Has a feature for each name's subweight, plus one for the fallback subweight, if features are
+   * weighted by name.
+   */
+  @Override
+  public int getFeatureCount() {
+    return hasSubweightFeatures() ? getSubweightsLength() + 1 : 1;
+  }
+
+  /**
+   * The last feature is scaled by the fallback subweight, if features are weighted by name.
+   */
+  @Override
+  double getFeatureSubweight(int index) {
+    if (hasSubweightFeatures() && index == getSubweightsLength()) {
+      return fallbackSubweight;
+    }
+    return super.getFeatureSubweight(index);
+  }
+
+  /**
+   * Writes the given value to the feature for the given name - the feature of its subweight, or the
+   * fallback feature if the name doesn't map to an index.
+   */
+  void writeNameFeature(String name, double value, double[] features, int offset) {
+    Integer index = nameToSubweightIndexMap.get(name);
+    features[offset + (index != null ? index : getSubweightsLength())] = value;
+  }
+
   /**
    * Alters the current weight of this delegate by the given delta. Overridden to narrow return
    * type.
@@ -25,6 +25,16 @@ public final class CastDelegates {
    * Cast delegate that wants to cast a certain name of spell.
    */
   public static final class CastSpellByNameDelegate extends CastByNameDelegate {
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      writeNameFeature(action.spellToCast.name, 1, features, offset);
+    }
+
     @Override
     double getRawScore(AIAction action) {
       return getSubWeight(action.spellToCast.name);
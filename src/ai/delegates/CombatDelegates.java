@@ -6,9 +6,7 @@ import ai.AIAction.AIActionType;
 import java.util.Arrays;
 import java.util.List;
 
-import model.unit.Unit;
-import model.unit.combatant.Combat;
-import model.unit.combatant.Combatant;
+import model.unit.combatant.CombatProjection;
 
 /**
  * A list of delegates for combat.
@@ -48,12 +46,23 @@ public final class CombatDelegates {
       return Arrays.asList("MinAttack", "MaxAttack");
     }
 
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      CombatProjection projection = action.getCombatProjection();
+      features[offset] = projection.projectedMaxAttack;
+      features[offset + 1] = projection.projectedMinAttack;
+    }
+
     @Override
     double getRawScore(AIAction action) {
-      Combat combat =
-          new Combat((Combatant) action.actingUnit, action.targetedTile.getOccupyingUnit());
-      return combat.getProjectedMaxAttack() * getSubWeight(0)
-          + combat.getProjectedMinAttack() * getSubWeight(1);
+      CombatProjection projection = action.getCombatProjection();
+      return getSubWeight(0) * projection.projectedMaxAttack
+          + getSubWeight(1) * projection.projectedMinAttack;
     }
   }
 
@@ -80,12 +89,23 @@ public final class CombatDelegates {
       return Arrays.asList("MinCounterAttack", "MaxCounterAttack");
     }
 
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      CombatProjection projection = action.getCombatProjection();
+      features[offset] = -projection.projectedMaxCounterAttack;
+      features[offset + 1] = -projection.projectedMinCounterAttack;
+    }
+
     @Override
     double getRawScore(AIAction action) {
-      Combat combat =
-          new Combat((Combatant) action.actingUnit, action.targetedTile.getOccupyingUnit());
-      return -(combat.getProjectedMaxCounterAttack() * getSubWeight(0)
-          + combat.getProjectedMinCounterAttack() * getSubWeight(1));
+      CombatProjection projection = action.getCombatProjection();
+      return getSubWeight(0) * -projection.projectedMaxCounterAttack
+          + getSubWeight(1) * -projection.projectedMinCounterAttack;
     }
   }
 
@@ -112,28 +132,23 @@ public final class CombatDelegates {
       return Arrays.asList("ChanceOpponentDies", "ChanceAllyDies (neg)");
     }
 
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      CombatProjection projection = action.getCombatProjection();
+      features[offset] = projection.chanceDefenderDies;
+      features[offset + 1] = -projection.getChanceAttackerDies();
+    }
+
     @Override
     double getRawScore(AIAction action) {
-      Unit defender = action.targetedTile.getOccupyingUnit();
-      Combat combat = new Combat((Combatant) action.actingUnit, defender);
-      double chanceOpponentDies =
-          Math.min(
-              1,
-              Math.max(
-                  0,
-                  (combat.getProjectedMaxAttack() - defender.getHealth())
-                      / (combat.getProjectedMaxAttack() + 1 - combat.getProjectedMinAttack())));
-      double chanceAllyDies =
-          Math.min(
-              1,
-              Math.max(
-                  0,
-                  (combat.getProjectedMaxCounterAttack() - action.actingUnit.getHealth())
-                      / Math.max(
-                      1,
-                      combat.getProjectedMaxCounterAttack()
-                          - combat.getProjectedMinCounterAttack())));
-      return chanceOpponentDies * getSubWeight(0) - chanceAllyDies * getSubWeight(1);
+      CombatProjection projection = action.getCombatProjection();
+      return getSubWeight(0) * projection.chanceDefenderDies
+          + getSubWeight(1) * -projection.getChanceAttackerDies();
     }
   }
 }
@@ -157,6 +157,61 @@ public abstract class Delegate {
    */
   abstract double getRawScore(AIAction action);
 
+  /**
+   * Returns true iff this delegate's raw score is its raw features each scaled by its subweight,
+   * in which case it has one feature per subweight. False by default, for delegates whose raw score
+   * is a single feature scaled by the weight alone. Delegates that return true must override {@link
+   * #writeRawFeatures(AIAction, double[], int)}, and compute the same weighted sum in {@link
+   * #getRawScore(AIAction)} directly, since that is called for every action scored.
+   */
+  boolean hasSubweightFeatures() {
+    return false;
+  }
+
+  /**
+   * Returns the number of features this delegate extracts from an action.
+   */
+  public int getFeatureCount() {
+    return hasSubweightFeatures() ? subWeights.length : 1;
+  }
+
+  /**
+   * Returns the factor the feature at the given index is scaled by in the raw score.
+   */
+  double getFeatureSubweight(int index) {
+    return hasSubweightFeatures() ? subWeights[index] : 1;
+  }
+
+  /**
+   * Writes the raw features of the given action to features, starting at offset. The features are
+   * already zeroed. By default writes the raw score as the only feature.
+   */
+  void writeRawFeatures(AIAction action, double[] features, int offset) {
+    features[offset] = getRawScore(action);
+  }
+
+  /**
+   * Writes the {@link #getFeatureCount()} features of the given action to features, starting at
+   * offset. The processed score of the action is the dot product of these with the weights written
+   * by {@link #writeFeatureWeights(double[], int)}, up to floating point rounding.
+   */
+  public final void writeFeatures(AIAction action, double[] features, int offset) {
+    Arrays.fill(features, offset, offset + getFeatureCount(), 0);
+    if (validActionTypes.contains(action.actionType)) {
+      writeRawFeatures(action, features, offset);
+    }
+  }
+
+  /**
+   * Writes the weight of each of this delegate's features - its weight times the feature's
+   * subweight - to weights, starting at offset.
+   */
+  public void writeFeatureWeights(double[] weights, int offset) {
+    for (int i = 0; i < getFeatureCount(); i++) {
+      weights[offset + i] = weight * getFeatureSubweight(i);
+    }
+  }
+
   /**
    * Returns the processed score of how much this Delegate likes the given action.
    */
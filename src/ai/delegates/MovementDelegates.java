@@ -2,8 +2,9 @@ package ai.delegates;
 
 import ai.AIAction;
 import ai.AIAction.AIActionType;
+import ai.AIQueryContext;
 import model.board.Board;
-import model.board.Terrain;
+import model.board.TerrainDistances;
 import model.board.Tile;
 import model.unit.MovingUnit;
 import model.unit.Unit;
@@ -13,12 +14,10 @@ import model.unit.commander.Commander;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A list of delegates for moving units.
@@ -34,6 +33,18 @@ public final class MovementDelegates {
     private MovementDelegate() {
       super(AIActionType.MOVE_UNIT);
     }
+
+    /**
+     * Returns the whole board distance from the given tile to the nearest of the given targets for
+     * the given unit, or empty if none of the targets can be reached.
+     */
+    static OptionalInt getDistanceToNearest(MovingUnit unit, Tile from, Stream<Tile> targets) {
+      Board board = unit.owner.game.board;
+      return targets
+          .mapToInt(t -> board.getWholeBoardDistance(unit, from, t))
+          .filter(d -> d != TerrainDistances.UNREACHABLE)
+          .min();
+    }
   }
 
   /**
@@ -56,16 +67,8 @@ public final class MovementDelegates {
       if (!(action.actingUnit instanceof Combatant)) {
         return 0;
       }
-      Map<Combatant, Set<Tile>> dangerRadius = new HashMap<>(action.player.getDangerRadius());
-      int preMoveDangerRadiusCount = getDangerRadiusSize(dangerRadius);
-      Combatant combatant = (Combatant) action.actingUnit;
-      dangerRadius.put(combatant, combatant.getDangerRadiusFromTile(action.targetedTile, true));
-      int postMoveDangerRadiusCount = getDangerRadiusSize(dangerRadius);
-      return postMoveDangerRadiusCount - preMoveDangerRadiusCount;
-    }
-
-    private int getDangerRadiusSize(Map<Combatant, Set<Tile>> dangerRadius) {
-      return dangerRadius.values().stream().flatMap(Set::stream).collect(Collectors.toSet()).size();
+      return action.player.getDangerRadiusGrowth(
+          (Combatant) action.actingUnit, action.targetedTile);
     }
   }
 
@@ -94,30 +97,55 @@ public final class MovementDelegates {
       return Arrays.asList("Combatant", "Building", "Commander");
     }
 
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    /**
+     * Returns the index of the subweight for attacking the given enemy unit.
+     */
+    private static int getSubweightIndex(Unit u) {
+      if (u instanceof Combatant) {
+        return 0;
+      } else if (u instanceof Building) {
+        return 1;
+      } else if (u instanceof Commander) {
+        return 2;
+      } else {
+        throw new RuntimeException("Unexpected unit type " + u.getClass());
+      }
+    }
+
+    /**
+     * Counts the attackable enemy units of each type.
+     */
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      if (!(action.actingUnit instanceof Combatant)) {
+        return;
+      }
+      Combatant combatant = (Combatant) action.actingUnit;
+      for (Tile t : combatant.getAttackableTilesFrom(action.targetedTile)) {
+        if (t.isOccupied() && t.getOccupyingUnit().owner != action.player) {
+          features[offset + getSubweightIndex(t.getOccupyingUnit())]++;
+        }
+      }
+    }
+
     @Override
     double getRawScore(AIAction action) {
       if (!(action.actingUnit instanceof Combatant)) {
         return 0;
       }
       Combatant combatant = (Combatant) action.actingUnit;
-      return combatant
-          .getAttackableTilesFrom(action.targetedTile)
-          .stream()
-          .filter(t -> t.isOccupied() && t.getOccupyingUnit().owner != action.player)
-          .map(Tile::getOccupyingUnit)
-          .mapToDouble(
-              u -> {
-                if (u instanceof Combatant) {
-                  return getSubWeight(0);
-                } else if (u instanceof Building) {
-                  return getSubWeight(1);
-                } else if (u instanceof Commander) {
-                  return getSubWeight(2);
-                } else {
-                  throw new RuntimeException("Unexpected unit type " + u.getClass());
-                }
-              })
-          .sum();
+      double score = 0;
+      for (Tile t : combatant.getAttackableTilesFrom(action.targetedTile)) {
+        if (t.isOccupied() && t.getOccupyingUnit().owner != action.player) {
+          score += getSubWeight(getSubweightIndex(t.getOccupyingUnit()));
+        }
+      }
+      return score;
     }
   }
 
@@ -221,20 +249,28 @@ public final class MovementDelegates {
       return Arrays.asList("Commander", "Combatant");
     }
 
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    /**
+     * Returns the index of the subweight for moving the given unit.
+     */
+    private static int getSubweightIndex(Unit u) {
+      return u instanceof Commander ? 0 : 1;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      features[offset + getSubweightIndex(action.actingUnit)] =
+          -action.player.game.getThreatCount(action.player, action.targetedTile);
+    }
+
     @Override
     double getRawScore(AIAction action) {
-      return action
-          .player
-          .game
-          .getDangerRadius(action.player)
-          .entrySet()
-          .stream()
-          .filter(e -> e.getKey().owner != action.player)
-          .filter(e -> action.player.canSee(e.getKey()))
-          .filter(e -> e.getValue().contains(action.targetedTile))
-          .count()
-          * -1
-          * (action.actingUnit instanceof Commander ? getSubWeight(0) : getSubWeight(1));
+      return getSubWeight(getSubweightIndex(action.actingUnit))
+          * -action.player.game.getThreatCount(action.player, action.targetedTile);
     }
   }
 
@@ -259,16 +295,22 @@ public final class MovementDelegates {
       if (!(action.actingUnit instanceof Commander)) {
         return 0;
       }
-      return Math.min(
-          action.actingUnit.getActionsRemaining(),
+      int summonRange = action.actingUnit.getSummonRange();
+      long openTiles =
           action
-              .player
-              .game
-              .board
-              .getRadialCloud(action.targetedTile, action.actingUnit.getSummonRange())
-              .stream()
-              .filter(t -> !t.isOccupied() && action.player.canSee(t))
-              .count());
+              .getQueryContext()
+              .get(
+                  Arrays.asList(MoveToSummonDelegate.class, action.targetedTile, summonRange),
+                  () ->
+                      action
+                          .player
+                          .game
+                          .board
+                          .getRadialCloud(action.targetedTile, summonRange)
+                          .stream()
+                          .filter(t -> !t.isOccupied() && action.player.canSee(t))
+                          .count());
+      return Math.min(action.actingUnit.getActionsRemaining(), openTiles);
     }
   }
 
@@ -292,42 +334,27 @@ public final class MovementDelegates {
       if (!(action.actingUnit instanceof Commander)) {
         return 0;
       }
-      Board board = action.player.game.board;
-      List<Tile> wholeBoardPreMove =
-          board.getMovementCloudWholeBoard(
-              (MovingUnit) action.actingUnit, action.actingUnit.getLocation());
-      int pathComputationId = board.getPathComputationId();
+      MovingUnit unit = (MovingUnit) action.actingUnit;
+      AIQueryContext context = action.getQueryContext();
+      Set<Tile> unbuiltAncientGround = context.getUnbuiltAncientGround();
+      // The same for every move of the unit, so only computed once per state.
       OptionalInt distToNearestUnbuiltAncientGroundPreMove =
-          wholeBoardPreMove
-              .stream()
-              .filter(t -> t.terrain == Terrain.ANCIENT_GROUND)
-              .filter(
-                  t ->
-                      !t.isOccupied()
-                          || !(t.getOccupyingUnit() instanceof Building)
-                          || !action.player.canSee(t))
-              .filter(t -> t != action.actingUnit.getLocation())
-              .mapToInt(t -> board.getDist(pathComputationId, t))
-              .max();
+          context.get(
+              Arrays.asList(MoveToBuildOnAncientGroundDelegate.class, unit),
+              () ->
+                  getDistanceToNearest(
+                      unit,
+                      unit.getLocation(),
+                      unbuiltAncientGround.stream().filter(t -> t != unit.getLocation())));
       if (distToNearestUnbuiltAncientGroundPreMove.isPresent()) {
-        List<Tile> wholeBoardPostMove =
-            board.getMovementCloudWholeBoard((MovingUnit) action.actingUnit, action.targetedTile);
-        int newPathComputationId = board.getPathComputationId();
         OptionalInt distToNearestUnbuiltAncientGroundPostMove =
-            wholeBoardPostMove
-                .stream()
-                .filter(t -> t.terrain == Terrain.ANCIENT_GROUND)
-                .filter(
-                    t ->
-                        !t.isOccupied()
-                            || !(t.getOccupyingUnit() instanceof Building)
-                            || !action.player.canSee(t))
-                .filter(t -> t != action.targetedTile)
-                .mapToInt(t -> board.getDist(newPathComputationId, t))
-                .max();
+            getDistanceToNearest(
+                unit,
+                action.targetedTile,
+                unbuiltAncientGround.stream().filter(t -> t != action.targetedTile));
         if (distToNearestUnbuiltAncientGroundPostMove.isPresent()) {
-          return distToNearestUnbuiltAncientGroundPostMove.getAsInt()
-              - distToNearestUnbuiltAncientGroundPreMove.getAsInt();
+          return distToNearestUnbuiltAncientGroundPreMove.getAsInt()
+              - distToNearestUnbuiltAncientGroundPostMove.getAsInt();
         }
       }
       return 0;
@@ -352,40 +379,23 @@ public final class MovementDelegates {
 
     @Override
     double getRawScore(AIAction action) {
-      Board board = action.player.game.board;
-      List<Tile> wholeBoardPreMove =
-          board.getMovementCloudWholeBoard(
-              (MovingUnit) action.actingUnit, action.actingUnit.getLocation());
-      int pathComputationId = board.getPathComputationId();
+      MovingUnit unit = (MovingUnit) action.actingUnit;
+      AIQueryContext context = action.getQueryContext();
+      List<Tile> visibleEnemyCommanderLocations = context.getVisibleEnemyCommanderLocations();
+      // The same for every move of the unit, so only computed once per state.
       OptionalInt distToNearestVisibleCommanderPreMove =
-          wholeBoardPreMove
-              .stream()
-              .filter(
-                  t ->
-                      t.isOccupied()
-                          && t.getOccupyingUnit() instanceof Commander
-                          && t.getOccupyingUnit().owner != action.player)
-              .filter(action.player::canSee)
-              .mapToInt(t -> board.getDist(pathComputationId, t))
-              .max();
+          context.get(
+              Arrays.asList(MoveTowardsEnemyCommanderMovementDelegate.class, unit),
+              () ->
+                  getDistanceToNearest(
+                      unit, unit.getLocation(), visibleEnemyCommanderLocations.stream()));
 
       if (distToNearestVisibleCommanderPreMove.isPresent()) {
-        List<Tile> wholeBoardPostMove =
-            board.getMovementCloudWholeBoard((MovingUnit) action.actingUnit, action.targetedTile);
-        int newPathComputationId = board.getPathComputationId();
         OptionalInt distToNearestVisibleCommanderPostMove =
-            wholeBoardPostMove
-                .stream()
-                .filter(
-                    t ->
-                        t.isOccupied()
-                            && t.getOccupyingUnit() instanceof Commander
-                            && t.getOccupyingUnit().owner != action.player)
-                .filter(action.player::canSee)
-                .mapToInt(t -> board.getDist(newPathComputationId, t))
-                .max();
+            getDistanceToNearest(
+                unit, action.targetedTile, visibleEnemyCommanderLocations.stream());
         if (distToNearestVisibleCommanderPostMove.isPresent()) {
-          return distToNearestVisibleCommanderPostMove.getAsInt()
+          return distToNearestVisibleCommanderPreMove.getAsInt()
               - distToNearestVisibleCommanderPostMove.getAsInt();
         }
       }
@@ -2,10 +2,12 @@ package ai.delegates;
 
 import ai.AIAction;
 import ai.AIAction.AIActionType;
+import ai.AIQueryContext;
 import model.board.Terrain;
 import model.unit.building.Building;
 import model.unit.combatant.Combatant;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -57,18 +59,21 @@ public final class SummonDelegates {
         return 0;
       }
       Combatant combatantToSummon = (Combatant) action.unitToSummon;
-      return action
-          .player
-          .game
-          .getOtherPlayersUnits(action.player)
-          .stream()
-          .filter(u -> u instanceof Combatant && action.player.canSee(u))
-          .map(u -> (Combatant) u)
-          .mapToInt(
-              c ->
-                  Combatant.CombatantClass.getBonusLevel(
-                      combatantToSummon.combatantClasses, c.combatantClasses))
-          .sum();
+      AIQueryContext context = action.getQueryContext();
+      // The same for every tile the combatant could be summoned on, so computed once per state.
+      return context.get(
+          Arrays.asList(SummonCombatantWithTypeAdvantageDelegate.class, combatantToSummon),
+          () ->
+              context
+                  .getVisibleEnemyUnits()
+                  .stream()
+                  .filter(u -> u instanceof Combatant)
+                  .map(u -> (Combatant) u)
+                  .mapToInt(
+                      c ->
+                          Combatant.CombatantClass.getBonusLevel(
+                              combatantToSummon.combatantClasses, c.combatantClasses))
+                  .sum());
     }
   }
 
@@ -102,6 +107,18 @@ public final class SummonDelegates {
    * Summon delegate that wants to summon a certain name of combatant.
    */
   public static final class SummonCombatantByNameDelegate extends SummonByNameDelegate {
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      if (action.unitToSummon instanceof Combatant) {
+        writeNameFeature(action.unitToSummon.name, 1, features, offset);
+      }
+    }
+
     @Override
     double getRawScore(AIAction action) {
       if (!(action.unitToSummon instanceof Combatant)) {
@@ -115,6 +132,18 @@ public final class SummonDelegates {
    * Summon delegate that wants to summon a certain name of building.
    */
   public static final class SummonBuildingByNameDelegate extends SummonByNameDelegate {
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      if (action.unitToSummon instanceof Building) {
+        writeNameFeature(action.unitToSummon.name, 1, features, offset);
+      }
+    }
+
     @Override
     double getRawScore(AIAction action) {
       if (!(action.unitToSummon instanceof Building)) {
@@ -129,13 +158,29 @@ public final class SummonDelegates {
    * already has, to encourage unit diversity.
    */
   public static final class SummonCombatantByNameScalingDelegate extends SummonByNameDelegate {
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      if (action.unitToSummon instanceof Combatant) {
+        writeNameFeature(
+            action.unitToSummon.name,
+            -action.player.getUnitCountByName(action.unitToSummon.name),
+            features,
+            offset);
+      }
+    }
+
     @Override
     double getRawScore(AIAction action) {
       if (!(action.unitToSummon instanceof Combatant)) {
         return 0;
       }
-      return -getSubWeight(action.unitToSummon.name)
-          * action.player.getUnitCountByName(action.unitToSummon.name);
+      return getSubWeight(action.unitToSummon.name)
+          * -action.player.getUnitCountByName(action.unitToSummon.name);
     }
   }
 
@@ -144,13 +189,29 @@ public final class SummonDelegates {
    * already has, to encourage unit diversity.
    */
   public static final class SummonBuildingByNameScalingDelegate extends SummonByNameDelegate {
+    @Override
+    boolean hasSubweightFeatures() {
+      return true;
+    }
+
+    @Override
+    void writeRawFeatures(AIAction action, double[] features, int offset) {
+      if (action.unitToSummon instanceof Building) {
+        writeNameFeature(
+            action.unitToSummon.name,
+            -action.player.getUnitCountByName(action.unitToSummon.name),
+            features,
+            offset);
+      }
+    }
+
     @Override
     double getRawScore(AIAction action) {
       if (!(action.unitToSummon instanceof Building)) {
         return 0;
       }
-      return -getSubWeight(action.unitToSummon.name)
-          * action.player.getUnitCountByName(action.unitToSummon.name);
+      return getSubWeight(action.unitToSummon.name)
+          * -action.player.getUnitCountByName(action.unitToSummon.name);
     }
   }
 }
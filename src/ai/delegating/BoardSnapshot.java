@@ -0,0 +1,248 @@
+package ai.delegating;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import model.board.Board;
+import model.board.Terrain;
+import model.board.Tile;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Unit;
+import model.unit.combatant.Combatant;
+import model.unit.commander.Commander;
+
+/**
+ * The parts of the game state a player's possible actions are computed from, captured at one point
+ * in time. Comparing two snapshots gives the tiles and units whose state changed in between, which
+ * tells {@link DelegatingAIController} which of its cached actions are still valid. Also records
+ * how threatened each tile is by either side, which some move scores depend on without the moving
+ * unit's tiles changing, and which enemies can see each of the player's units, which attack scores
+ * depend on through whether the defender can counterattack.
+ */
+final class BoardSnapshot {
+
+  /**
+   * The board this is a snapshot of.
+   */
+  private final Board board;
+
+  /**
+   * The unit on each tile, by tile index. Null for unoccupied tiles.
+   */
+  private final Unit[] occupants;
+
+  /**
+   * The health of the unit on each tile, by tile index. 0 for unoccupied tiles.
+   */
+  private final int[] healths;
+
+  /**
+   * The stats of the unit on each tile, by tile index. Stats are replaced whenever a unit's stat
+   * modifiers change, so comparing by identity detects stat changes.
+   */
+  private final Object[] stats;
+
+  /**
+   * The number of modifiers on the unit on each tile, by tile index. Catches modifiers that don't
+   * alter stats.
+   */
+  private final int[] modifierCounts;
+
+  /**
+   * The number of the player's combatants that threaten each tile, capped at 2, by tile index.
+   * Danger radius growth only tells apart tiles threatened by none, one or more combatants.
+   */
+  private final byte[] dangerLevels;
+
+  /**
+   * The number of enemy combatants visible to the player that threaten each tile, by tile index.
+   */
+  private final int[] threatCounts;
+
+  /**
+   * Which tiles the player can see.
+   */
+  private final BitSet visible;
+
+  /**
+   * The other players that can see each tile the player has a unit on, as a mask of bits shifted by
+   * player index, by tile index. 0 for other tiles.
+   */
+  private final int[] seenByEnemies;
+
+  /**
+   * The player's mana.
+   */
+  final int mana;
+
+  /**
+   * The state of each of the player's units that determines which actions it can take.
+   */
+  private final Map<Unit, List<Object>> unitStates;
+
+  /**
+   * Takes a snapshot of the current state of the given player's game.
+   */
+  BoardSnapshot(Player player) {
+    board = player.game.board;
+    int size = board.getWidth() * board.getHeight();
+    occupants = new Unit[size];
+    healths = new int[size];
+    stats = new Object[size];
+    modifierCounts = new int[size];
+    dangerLevels = new byte[size];
+    int[] dangerCounts = new int[size];
+    player.addDangerCounts(dangerCounts, player);
+    threatCounts = player.game.getThreatCounts(player);
+    visible = new BitSet(size);
+    seenByEnemies = new int[size];
+    for (int i = 0; i < size; i++) {
+      Tile t = board.getTileAtIndex(i);
+      if (t.isOccupied()) {
+        Unit u = t.getOccupyingUnit();
+        occupants[i] = u;
+        healths[i] = u.getHealth();
+        stats[i] = u.getStats();
+        modifierCounts[i] = u.getModifiers().size();
+      }
+      dangerLevels[i] = (byte) Math.min(dangerCounts[i], 2);
+      if (player.canSee(t)) {
+        visible.set(i);
+      }
+    }
+    for (Player p : player.game.getRemainingPlayers()) {
+      if (p == player) {
+        continue;
+      }
+      for (Unit u : player.getUnits()) {
+        if (p.canSee(u.getLocation())) {
+          seenByEnemies[board.getTileIndex(u.getLocation())] |= 1 << p.index;
+        }
+      }
+    }
+    mana = player.getMana();
+    unitStates = new HashMap<>();
+    for (Unit u : player.getUnits()) {
+      unitStates.put(u, getState(u));
+    }
+  }
+
+  /**
+   * Returns the state of the given unit that determines which actions it can take.
+   */
+  private static List<Object> getState(Unit u) {
+    return Arrays.asList(
+        u.getLocation(),
+        u.getHealth(),
+        u.getActionsRemaining(),
+        u.getStats(),
+        u.getModifiers().size(),
+        u instanceof MovingUnit ? ((MovingUnit) u).getMovement() : 0,
+        u instanceof Combatant && ((Combatant) u).canFight(),
+        u instanceof Commander && ((Commander) u).canCast());
+  }
+
+  /**
+   * Returns the indices of the tiles whose occupant, occupant state, or visibility differs between
+   * this and the given later snapshot.
+   */
+  BitSet getChangedTiles(BoardSnapshot later) {
+    BitSet changed = new BitSet(occupants.length);
+    for (int i = 0; i < occupants.length; i++) {
+      if (occupants[i] != later.occupants[i]
+          || healths[i] != later.healths[i]
+          || stats[i] != later.stats[i]
+          || modifierCounts[i] != later.modifierCounts[i]
+          || visible.get(i) != later.visible.get(i)) {
+        changed.set(i);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the indices of the tiles whose danger level from the player's combatants or threat
+   * count from visible enemy combatants differs between this and the given later snapshot.
+   */
+  BitSet getChangedThreats(BoardSnapshot later) {
+    BitSet changed = new BitSet(threatCounts.length);
+    for (int i = 0; i < threatCounts.length; i++) {
+      if (dangerLevels[i] != later.dangerLevels[i] || threatCounts[i] != later.threatCounts[i]) {
+        changed.set(i);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the indices of the tiles whose set of other players that can see them differs between
+   * this and the given later snapshot, among the tiles the player has a unit on in either.
+   */
+  BitSet getChangedEnemyVision(BoardSnapshot later) {
+    BitSet changed = new BitSet(seenByEnemies.length);
+    for (int i = 0; i < seenByEnemies.length; i++) {
+      if (seenByEnemies[i] != later.seenByEnemies[i]) {
+        changed.set(i);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns true iff the set of enemy units visible to the given player differs between this and
+   * the given later snapshot, checking only the given changed tiles. Some scores depend on every
+   * visible enemy on the board, so this is a change that can't be localized. If commandersOnly,
+   * only considers enemy commanders.
+   */
+  boolean visibleEnemiesChanged(
+      BoardSnapshot later, BitSet changedTiles, Player player, boolean commandersOnly) {
+    for (int i = changedTiles.nextSetBit(0); i >= 0; i = changedTiles.nextSetBit(i + 1)) {
+      Unit before = getVisibleEnemy(i, player);
+      Unit after = later.getVisibleEnemy(i, player);
+      if (before != after
+          && (!commandersOnly || before instanceof Commander || after instanceof Commander)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true iff any of the given changed tiles is of the given terrain.
+   */
+  boolean anyHasTerrain(BitSet changedTiles, Terrain terrain) {
+    for (int i = changedTiles.nextSetBit(0); i >= 0; i = changedTiles.nextSetBit(i + 1)) {
+      if (board.getTileAtIndex(i).terrain == terrain) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the enemy of the given player visible on the tile at the given index, null if none.
+   */
+  private Unit getVisibleEnemy(int index, Player player) {
+    Unit u = occupants[index];
+    return u != null && u.owner != player && visible.get(index) ? u : null;
+  }
+
+  /**
+   * Returns true iff the given unit's state differs between this and the given later snapshot, or
+   * it isn't in one of them.
+   */
+  boolean unitChanged(BoardSnapshot later, Unit u) {
+    List<Object> state = unitStates.get(u);
+    return state == null || !Objects.equals(state, later.unitStates.get(u));
+  }
+
+  @Override
+  public String toString() {
+    return "Snapshot of " + board + " with " + unitStates.size() + " units";
+  }
+}
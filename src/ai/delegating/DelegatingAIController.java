@@ -2,23 +2,31 @@ package ai.delegating;
 
 import ai.AIAction;
 import ai.AIController;
+import ai.AIQueryContext;
 import ai.delegates.ByNameDelegate;
 import ai.delegates.Delegate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import model.board.Board;
+import model.board.MovementCloud;
+import model.board.Terrain;
 import model.board.Tile;
 import model.game.Player;
 import model.unit.MovingUnit;
@@ -30,9 +38,45 @@ import model.unit.commander.Commander;
 
 /**
  * An AI controller that maintains a set of delegates to determine its behavior.
+ *
+ * <p>Possible actions and their scores are cached between actions. After each executed action, only
+ * the action sets whose inputs changed are regenerated: those of units whose own state changed,
+ * units whose movement, attack, summon or cast range covers a tile whose occupant or visibility
+ * changed, and every summon and cast when mana changed. Scores that depend on the whole board are
+ * covered separately - summons are regenerated and moves re-scored when the set of visible enemies
+ * changes, since a visible enemy anywhere can block the whole board paths moves are scored along,
+ * and the commander's moves are regenerated when an ancient ground tile changes. Attack scores depend
+ * on whether the defender could counterattack, which needs its owner to see the attacker, so a
+ * unit's attacks are re-scored when the set of enemies that can see it changes. Move scores also
+ * depend on how threatened tiles are, by the player's danger radius and by enemy combatants, so a
+ * unit's moves are re-scored when the threat on its destinations changes, or, for combatants, when
+ * the threat or occupancy changes anywhere its danger radius could reach from a destination. Other
+ * actions keep their computed scores. Everything is regenerated at the start of each turn, after a
+ * failed action, and when an enemy commander appears or disappears, since every move scores its
+ * distance to them.
+ *
+ * <p>Every possible action is kept in a max-heap by score, so picking the best action doesn't scan
+ * them all. Regenerated actions enter the heap unscored, above every scored action, and are scored
+ * when they surface at the top - or all at once in parallel on a shared, bounded pool, unless
+ * parallel scoring is turned off. Scoring only reads the game state, and ties are broken by what
+ * the actions do ({@link AIAction#CONTENT_ORDER}), so the chosen action is the same either way, and
+ * the same in every run of a game with the same seed.
  */
 public final class DelegatingAIController implements AIController {
 
+  /**
+   * The pool actions are scored on when scoring in parallel. Shared by every controller, so running
+   * many games at once doesn't multiply the number of scoring threads.
+   */
+  private static final ForkJoinPool SCORING_POOL =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * The fewest actions scored per task. Smaller batches are scored on the calling thread, since
+   * handing them to the pool costs more than scoring them.
+   */
+  private static final int MIN_SCORING_BATCH_SIZE = 32;
+
   /**
    * The id of this AIController. May be empty to delegate setting to player.
    */
@@ -43,13 +87,33 @@ public final class DelegatingAIController implements AIController {
    */
   private final List<Delegate> delegates;
 
+  /**
+   * True iff unscored actions are scored in parallel on {@link #SCORING_POOL}. If false, all
+   * scoring happens on the thread calling {@link #getNextAction(Player)}.
+   */
+  private boolean parallelScoring;
+
+  /**
+   * True iff actions are scored by extracting their delegate features into a {@link
+   * FeatureMatrix} and multiplying it by the flattened delegate weights, rather than by summing
+   * each delegate's score. The two agree up to floating point rounding.
+   */
+  private boolean featureScoring;
+
+  /**
+   * The flattened feature weights of the delegates (see {@link FeatureMatrix#getWeights(List)}),
+   * or null if they need recomputing. Weights only change when delegates are added or reweighted,
+   * so this is dropped when a delegate is added and recomputed at the start of each turn.
+   */
+  private volatile double[] featureWeights;
+
   /**
    * A pair of an AIAction and a value of how much this controller likes it. The value can be
    * recomputed at any time. Null until it is computed for the first time. Hashes and computes
    * equality by AIAction alone, so value computation won't alter location in set or change
-   * equality.
+   * equality. Ordered in {@link #actionHeap} by value, with unscored actions on top.
    */
-  private final class AIActionWithValue implements Comparable<AIActionWithValue> {
+  private final class AIActionWithValue extends IndexedMaxHeap.Element {
     private final AIAction action;
     private Double value;
 
@@ -82,12 +146,27 @@ public final class DelegatingAIController implements AIController {
      * Recomputes the value of this Action.
      */
     private void recomputeValue() {
-      value = delegates.stream().mapToDouble(d -> d.getScore(action)).sum();
+      value = computeValue();
+    }
+
+    /**
+     * Computes the value of this Action without storing it. Only reads the game state, so may be
+     * called from any thread.
+     */
+    private double computeValue() {
+      if (featureScoring) {
+        return FeatureMatrix.score(delegates, action, getFeatureWeights());
+      } else {
+        return delegates.stream().mapToDouble(d -> d.getScore(action)).sum();
+      }
     }
 
+    /**
+     * Returns the value of this action, or positive infinity if it hasn't been scored yet.
+     */
     @Override
-    public int compareTo(AIActionWithValue o) {
-      return Double.compare(getValue(), o.getValue());
+    double getPriority() {
+      return value == null ? Double.POSITIVE_INFINITY : value;
     }
 
     /**
@@ -133,6 +212,55 @@ public final class DelegatingAIController implements AIController {
    */
   private final Set<AIActionWithValue> possibleSpellsToCast;
 
+  /**
+   * Every action in the possible action sets above, by value.
+   */
+  private final IndexedMaxHeap<AIActionWithValue> actionHeap;
+
+  /**
+   * Actions added to the heap since the last call to {@link #getNextAction(Player)}, to be scored
+   * together. May include actions that have since been removed.
+   */
+  private final List<AIActionWithValue> unscoredActions;
+
+  /**
+   * The tiles the current move actions of each moving unit depend on, by tile index.
+   */
+  private final Map<MovingUnit, BitSet> moveDependencies;
+
+  /**
+   * The tiles the scores of the current move actions of each moving unit depend on through their
+   * threat or occupancy, by tile index. Null for units whose scores depend on the whole board.
+   */
+  private final Map<MovingUnit, BitSet> moveScoreDependencies;
+
+  /**
+   * The tiles the current attack actions of each combatant depend on, by tile index.
+   */
+  private final Map<Combatant, BitSet> attackDependencies;
+
+  /**
+   * The tiles the current summon actions of each summoner depend on, by tile index.
+   */
+  private final Map<Summoner, BitSet> summonDependencies;
+
+  /**
+   * The tiles the current cast actions depend on, by tile index.
+   */
+  private BitSet spellDependencies;
+
+  /**
+   * The context memoizing board queries for the current game state, shared by every action
+   * created in it. Created at the start of each turn and invalidated after each action. Null before
+   * the first turn.
+   */
+  private AIQueryContext queryContext;
+
+  /**
+   * The state of the game when the current actions were computed. Null before the first turn.
+   */
+  private BoardSnapshot snapshot;
+
   /**
    * Constructs a new DelegatingAIController, initially with an empty set of delegates. The id is
    * left empty, thus the player will set it on its own.
@@ -148,10 +276,21 @@ public final class DelegatingAIController implements AIController {
   DelegatingAIController(String id) {
     this.id = id;
     this.delegates = new ArrayList<>();
+    parallelScoring = true;
+    featureScoring = false;
     possibleMoveActionsByUnit = new HashMap<>();
     possibleAttackActionsByUnit = new HashMap<>();
     possibleSummonActionsByUnit = new HashMap<>();
     possibleSpellsToCast = new HashSet<>();
+    actionHeap =
+        new IndexedMaxHeap<>(
+            Comparator.comparing(AIActionWithValue::getAction, AIAction.CONTENT_ORDER));
+    unscoredActions = new ArrayList<>();
+    moveDependencies = new HashMap<>();
+    moveScoreDependencies = new HashMap<>();
+    attackDependencies = new HashMap<>();
+    summonDependencies = new HashMap<>();
+    spellDependencies = new BitSet();
   }
 
   @Override
@@ -170,6 +309,48 @@ public final class DelegatingAIController implements AIController {
       }
     }
     delegates.add(delegate);
+    featureWeights = null;
+  }
+
+  /**
+   * Returns the flattened feature weights of the delegates, computing them if they were dropped.
+   */
+  private double[] getFeatureWeights() {
+    double[] weights = featureWeights;
+    if (weights == null) {
+      weights = FeatureMatrix.getWeights(delegates);
+      featureWeights = weights;
+    }
+    return weights;
+  }
+
+  /**
+   * Sets whether unscored actions are scored in parallel. Turning it off keeps all of this
+   * controller's work on the game thread, which is easier to profile and step through.
+   */
+  void setParallelScoring(boolean parallelScoring) {
+    this.parallelScoring = parallelScoring;
+  }
+
+  /**
+   * Returns true iff unscored actions are scored in parallel.
+   */
+  public boolean isParallelScoring() {
+    return parallelScoring;
+  }
+
+  /**
+   * Sets whether actions are scored through a feature matrix.
+   */
+  void setFeatureScoring(boolean featureScoring) {
+    this.featureScoring = featureScoring;
+  }
+
+  /**
+   * Returns true iff actions are scored through a feature matrix.
+   */
+  public boolean isFeatureScoring() {
+    return featureScoring;
   }
 
   /**
@@ -210,9 +391,31 @@ public final class DelegatingAIController implements AIController {
    */
   @Override
   public void turnStart(Player player) {
+    featureWeights = FeatureMatrix.getWeights(delegates);
+    queryContext = new AIQueryContext(player);
     recomputeAllActions(player);
   }
 
+  /**
+   * Returns the query context for the given player's current game state, creating one if the
+   * current context is missing or for a different player.
+   */
+  private AIQueryContext getQueryContext(Player player) {
+    if (queryContext == null || queryContext.player != player) {
+      queryContext = new AIQueryContext(player);
+    }
+    return queryContext;
+  }
+
+  /**
+   * Drops the queries memoized for the previous game state, since an action changed it.
+   */
+  private void invalidateQueryContext() {
+    if (queryContext != null) {
+      queryContext.invalidate();
+    }
+  }
+
   /**
    * Recomputes all possible actions the player can take.
    */
@@ -220,6 +423,12 @@ public final class DelegatingAIController implements AIController {
     possibleAttackActionsByUnit.clear();
     possibleMoveActionsByUnit.clear();
     possibleSummonActionsByUnit.clear();
+    actionHeap.clear();
+    unscoredActions.clear();
+    moveDependencies.clear();
+    moveScoreDependencies.clear();
+    attackDependencies.clear();
+    summonDependencies.clear();
     for (MovingUnit m : player.getMovingUnits()) {
       recomputeMoveActionsForUnit(player, m);
     }
@@ -230,6 +439,151 @@ public final class DelegatingAIController implements AIController {
       recomputeSummonActionsForUnit(player, (Unit & Summoner) s);
     }
     recomputeSpellsForCommander(player, player.getCommander());
+    snapshot = new BoardSnapshot(player);
+  }
+
+  /**
+   * Regenerates the actions whose inputs changed since they were computed, keeping the rest along
+   * with their scores.
+   */
+  private void updateActions(Player player) {
+    if (snapshot == null) {
+      recomputeAllActions(player);
+      return;
+    }
+    BoardSnapshot current = new BoardSnapshot(player);
+    BitSet changedTiles = snapshot.getChangedTiles(current);
+    if (snapshot.visibleEnemiesChanged(current, changedTiles, player, true)) {
+      recomputeAllActions(player);
+      return;
+    }
+    boolean manaChanged = snapshot.mana != current.mana;
+    boolean visibleEnemiesChanged =
+        snapshot.visibleEnemiesChanged(current, changedTiles, player, false);
+    boolean ancientGroundChanged = snapshot.anyHasTerrain(changedTiles, Terrain.ANCIENT_GROUND);
+    BitSet changedScoreTiles = snapshot.getChangedThreats(current);
+    changedScoreTiles.or(changedTiles);
+    BitSet changedEnemyVision = snapshot.getChangedEnemyVision(current);
+
+    Set<MovingUnit> movingUnits = player.getMovingUnits();
+    retainActionsOf(possibleMoveActionsByUnit, movingUnits);
+    moveDependencies.keySet().retainAll(movingUnits);
+    moveScoreDependencies.keySet().retainAll(movingUnits);
+    for (MovingUnit m : movingUnits) {
+      if (snapshot.unitChanged(current, m)
+          || (ancientGroundChanged && m instanceof Commander)
+          || dependsOnAny(moveDependencies.get(m), changedTiles)) {
+        recomputeMoveActionsForUnit(player, m);
+      } else if (visibleEnemiesChanged
+          || dependsOnAny(moveScoreDependencies.get(m), changedScoreTiles)) {
+        rescoreActions(possibleMoveActionsByUnit.get(m));
+      }
+    }
+
+    Board board = player.game.board;
+    Set<Combatant> combatants = player.getCombatants();
+    retainActionsOf(possibleAttackActionsByUnit, combatants);
+    attackDependencies.keySet().retainAll(combatants);
+    for (Combatant c : combatants) {
+      if (snapshot.unitChanged(current, c)
+          || dependsOnAny(attackDependencies.get(c), changedTiles)) {
+        recomputeAttackActionsForUnit(player, c);
+      } else if (changedEnemyVision.get(board.getTileIndex(c.getLocation()))) {
+        rescoreActions(possibleAttackActionsByUnit.get(c));
+      }
+    }
+
+    Set<Summoner> summoners = player.getSummoners();
+    retainActionsOf(possibleSummonActionsByUnit, summoners);
+    summonDependencies.keySet().retainAll(summoners);
+    for (Summoner s : summoners) {
+      if (manaChanged
+          || visibleEnemiesChanged
+          || snapshot.unitChanged(current, (Unit) s)
+          || dependsOnAny(summonDependencies.get(s), changedTiles)) {
+        recomputeSummonActionsForUnit(player, (Unit & Summoner) s);
+      }
+    }
+
+    Commander commander = player.getCommander();
+    if (manaChanged
+        || snapshot.unitChanged(current, commander)
+        || spellDependencies.intersects(changedTiles)) {
+      recomputeSpellsForCommander(player, commander);
+    }
+    snapshot = current;
+  }
+
+  /**
+   * Drops the actions of every unit in the given action sets that isn't in the given units.
+   */
+  private <U> void retainActionsOf(Map<U, Set<AIActionWithValue>> actionsByUnit, Set<U> units) {
+    actionsByUnit
+        .entrySet()
+        .removeIf(
+            e -> {
+              if (units.contains(e.getKey())) {
+                return false;
+              }
+              e.getValue().forEach(actionHeap::remove);
+              return true;
+            });
+  }
+
+  /**
+   * Replaces the actions of the given unit in the given action sets with the given actions.
+   */
+  private <U> void putActions(
+      Map<U, Set<AIActionWithValue>> actionsByUnit, U unit, Set<AIActionWithValue> actions) {
+    Set<AIActionWithValue> oldActions = actionsByUnit.put(unit, actions);
+    if (oldActions != null) {
+      oldActions.forEach(actionHeap::remove);
+    }
+    actions.forEach(this::addToHeap);
+  }
+
+  /**
+   * Adds the given unscored action to the heap.
+   */
+  private void addToHeap(AIActionWithValue action) {
+    actionHeap.add(action);
+    unscoredActions.add(action);
+  }
+
+  /**
+   * Drops the scores of the given actions, so they are scored again like newly added actions.
+   */
+  private void rescoreActions(Set<AIActionWithValue> actions) {
+    for (AIActionWithValue action : actions) {
+      action.value = null;
+      actionHeap.update(action);
+      unscoredActions.add(action);
+    }
+  }
+
+  /**
+   * Returns true iff the given dependencies include any of the given changed tiles. Missing
+   * dependencies are treated as depending on everything.
+   */
+  private static boolean dependsOnAny(BitSet dependencies, BitSet changedTiles) {
+    return dependencies == null || dependencies.intersects(changedTiles);
+  }
+
+  /**
+   * Adds the indices of every tile within the given manhattan radius of the given tile to the given
+   * dependencies.
+   */
+  private static void addRadius(BitSet dependencies, Board board, Tile center, int radius) {
+    for (int dRow = -radius; dRow <= radius; dRow++) {
+      int colRadius = radius - Math.abs(dRow);
+      for (int dCol = -colRadius; dCol <= colRadius; dCol++) {
+        int row = center.row + dRow;
+        int col = center.col + dCol;
+        if (board.isOnBoard(row, col)) {
+          dependencies.set(board.getTileIndex(board.getTileAt(row, col)));
+        }
+      }
+    }
   }
 
   /**
@@ -237,27 +591,67 @@ public final class DelegatingAIController implements AIController {
    */
   private void recomputeMoveActionsForUnit(Player p, MovingUnit movingUnit) {
     HashSet<AIActionWithValue> actionWithValues = new HashSet<>();
+    BitSet dependencies = new BitSet();
+    BitSet scoreDependencies = new BitSet();
     if (movingUnit.canMove()) {
       Board board = p.game.board;
-      List<Tile> cloud = board.getMovementCloud(movingUnit, false);
-      cloud.remove(movingUnit.getLocation());
-      int pathComputationId = board.getPathComputationId();
+      MovementCloud cloud = board.getMovementCloud(movingUnit, false);
+      // Scores look at what can be attacked or summoned onto from each destination, and the cloud
+      // itself can grow or shrink with occupancy of the tiles bordering it.
+      int radius = Math.max(movingUnit.getMaxAttackRange() + 1, movingUnit.getSummonRange());
       for (Tile t : cloud) {
-        List<Tile> movementPath = board.getMovementPath(pathComputationId, t);
-        if (t == movingUnit.getLocation()
-            // TODO - this allows the AI to cheat by not moving onto a tile that's occupied,
-            // even if it can't see it. Needs to be fixed up.
-            || t.isOccupied()
+        addRadius(dependencies, board, t, radius);
+        scoreDependencies.set(board.getTileIndex(t));
+      }
+      if (movingUnit instanceof Combatant) {
+        scoreDependencies = addDangerReach(scoreDependencies, board, movingUnit);
+      }
+      for (Tile t : cloud) {
+        if (t == movingUnit.getLocation()) {
+          continue;
+        }
+        List<Tile> movementPath = cloud.getPath(t);
+        // TODO - this allows the AI to cheat by not moving onto a tile that's occupied,
+        // even if it can't see it. Needs to be fixed up.
+        if (t.isOccupied()
             || movementPath
             .stream()
             .anyMatch(tile -> tile.isOccupied() && tile.getOccupyingUnit().owner != p)) {
           continue;
         }
         actionWithValues.add(
-            new AIActionWithValue(AIAction.moveUnit(p, movingUnit, t, movementPath)));
+            new AIActionWithValue(
+                AIAction.moveUnit(p, movingUnit, t, movementPath)
+                    .withQueryContext(getQueryContext(p))));
       }
     }
-    possibleMoveActionsByUnit.put(movingUnit, actionWithValues);
+    putActions(possibleMoveActionsByUnit, movingUnit, actionWithValues);
+    moveDependencies.put(movingUnit, dependencies);
+    moveScoreDependencies.put(movingUnit, scoreDependencies);
+  }
+
+  /**
+   * Adds every tile the danger radius of the given unit could reach from any of its destinations
+   * to the given dependencies and returns them: the destinations, the tiles it could move through
+   * from them with full movement, and the tiles it could attack from those. Bounded by manhattan
+   * distance, since every move costs at least the cheapest terrain. Returns null if some terrain
+   * costs nothing to move through, since then the reach isn't bounded.
+   */
+  private static BitSet addDangerReach(BitSet dependencies, Board board, MovingUnit unit) {
+    int minCost = Integer.MAX_VALUE;
+    for (Terrain t : Terrain.values()) {
+      minCost = Math.min(minCost, unit.getMovementCost(t));
+    }
+    if (minCost <= 0) {
+      return null;
+    }
+    int radius =
+        unit.getMovement() / minCost
+            + unit.getMovementCap() / minCost
+            + unit.getMaxAttackRange()
+            + 1;
+    addRadius(dependencies, board, unit.getLocation(), radius);
+    return dependencies;
   }
 
   /**
@@ -265,12 +659,20 @@ public final class DelegatingAIController implements AIController {
    */
   private void recomputeAttackActionsForUnit(Player p, Combatant combatant) {
     HashSet<AIActionWithValue> actionWithValues = new HashSet<>();
+    BitSet dependencies = new BitSet();
     if (combatant.canFight()) {
+      Board board = p.game.board;
+      for (Tile t : combatant.getAttackableTiles(false)) {
+        dependencies.set(board.getTileIndex(t));
+      }
       for (Tile t : combatant.getAttackableTiles(true)) {
-        actionWithValues.add(new AIActionWithValue(AIAction.attack(p, combatant, t)));
+        actionWithValues.add(
+            new AIActionWithValue(
+                AIAction.attack(p, combatant, t).withQueryContext(getQueryContext(p))));
       }
     }
-    possibleAttackActionsByUnit.put(combatant, actionWithValues);
+    putActions(possibleAttackActionsByUnit, combatant, actionWithValues);
+    attackDependencies.put(combatant, dependencies);
   }
 
   /**
@@ -278,7 +680,10 @@ public final class DelegatingAIController implements AIController {
    */
   private <U extends Unit & Summoner> void recomputeSummonActionsForUnit(Player p, U summonerUnit) {
     HashSet<AIActionWithValue> actionWithValues = new HashSet<>();
+    BitSet dependencies = new BitSet();
     if (summonerUnit.canSummon()) {
+      addRadius(
+          dependencies, p.game.board, summonerUnit.getLocation(), summonerUnit.getSummonRange());
       for (Unit summonUnit : summonerUnit.getSummonables().values()) {
         if (p.getMana() >= summonUnit.getManaCostWithScalingAndDiscountsForPlayer(p)) {
           for (Tile t : p.game.board.getSummonCloud(summonerUnit, summonUnit)) {
@@ -287,7 +692,8 @@ public final class DelegatingAIController implements AIController {
             }
             actionWithValues.add(
                 new AIActionWithValue(
-                    AIAction.summonCombatantOrBuildBuilding(p, summonerUnit, t, summonUnit)));
+                    AIAction.summonCombatantOrBuildBuilding(p, summonerUnit, t, summonUnit)
+                        .withQueryContext(getQueryContext(p))));
           }
         }
       }
@@ -299,25 +705,44 @@ public final class DelegatingAIController implements AIController {
             }
             actionWithValues.add(
                 new AIActionWithValue(
-                    AIAction.summonCombatantOrBuildBuilding(p, summonerUnit, t, summonUnit)));
+                    AIAction.summonCombatantOrBuildBuilding(p, summonerUnit, t, summonUnit)
+                        .withQueryContext(getQueryContext(p))));
           }
         }
       }
     }
-    possibleSummonActionsByUnit.put(summonerUnit, actionWithValues);
+    putActions(possibleSummonActionsByUnit, summonerUnit, actionWithValues);
+    summonDependencies.put(summonerUnit, dependencies);
   }
 
   /**
    * Recomputes the casting actions for the given commander.
    */
   private void recomputeSpellsForCommander(Player p, Commander commander) {
+    possibleSpellsToCast.forEach(actionHeap::remove);
     possibleSpellsToCast.clear();
+    spellDependencies = new BitSet();
     if (commander.canCast()) {
+      Board board = p.game.board;
       for (Ability ability : commander.getCastables().values()) {
+        // Any tile in the effect cloud of any tile in cast range may decide whether and how well
+        // the spell can be cast there.
+        for (Tile castTile :
+            board.getRadialCloud(
+                commander.getLocation(), ability.castDist + p.getCastSelectBoost())) {
+          for (Tile t :
+              ability.getTranslatedEffectCloud(commander, castTile, p.getCastCloudBoost())) {
+            spellDependencies.set(board.getTileIndex(t));
+          }
+        }
         if (p.getMana() >= ability.getManaCostWithDiscountsForPlayer(p)) {
           for (Tile t : p.game.board.getCastCloud(commander, ability)) {
-            possibleSpellsToCast.add(
-                new AIActionWithValue(AIAction.cast(p, commander, t, ability)));
+            AIActionWithValue action =
+                new AIActionWithValue(
+                    AIAction.cast(p, commander, t, ability).withQueryContext(getQueryContext(p)));
+            if (possibleSpellsToCast.add(action)) {
+              addToHeap(action);
+            }
           }
         }
       }
@@ -335,26 +760,161 @@ public final class DelegatingAIController implements AIController {
       return null;
     }
 
-    // Otherwise, get the best action. Execute if value is positive.
-    AIActionWithValue action =
-        Stream.<Stream<AIActionWithValue>>builder()
-            .add(possibleAttackActionsByUnit.values().stream().flatMap(Set::stream))
-            .add(possibleMoveActionsByUnit.values().stream().flatMap(Set::stream))
-            .add(possibleSummonActionsByUnit.values().stream().flatMap(Set::stream))
-            .add(possibleSpellsToCast.stream())
-            .build()
-            .flatMap(Function.identity())
-            .max(Comparator.naturalOrder())
-            .orElse(null);
+    // Score the new actions together if that can be spread over the pool or done as one matrix
+    // product. Otherwise each is scored below once it reaches the top of the heap.
+    if (parallelScoring || featureScoring) {
+      scoreActions(
+          unscoredActions
+              .stream()
+              .filter(a -> a.isInHeap() && a.value == null)
+              .collect(Collectors.toList()));
+    }
+    unscoredActions.clear();
+
+    // Get the best action, scoring unscored actions as they surface. Execute if value is positive.
+    AIActionWithValue action = actionHeap.peek();
+    while (action != null && action.value == null) {
+      action.recomputeValue();
+      actionHeap.update(action);
+      action = actionHeap.peek();
+    }
     return action != null && action.getValue() > 0 ? action.getAction() : null;
   }
 
+  /**
+   * Returns up to count of the best remaining actions with value > 0, best first, mapped to their
+   * values. Ties are ordered the same way as in {@link #getNextAction(Player)}, so the first action
+   * is the one it would return. Scores every unscored action. Empty if the game is over.
+   */
+  public Map<AIAction, Double> getBestActions(Player player, int count) {
+    Map<AIAction, Double> bestActions = new LinkedHashMap<>();
+    if (player.game.isGameOver()) {
+      return bestActions;
+    }
+
+    List<AIActionWithValue> actions = new ArrayList<>();
+    possibleMoveActionsByUnit.values().forEach(actions::addAll);
+    possibleAttackActionsByUnit.values().forEach(actions::addAll);
+    possibleSummonActionsByUnit.values().forEach(actions::addAll);
+    actions.addAll(possibleSpellsToCast);
+    scoreActions(actions.stream().filter(a -> a.value == null).collect(Collectors.toList()));
+    unscoredActions.clear();
+
+    actions.sort((a, b) -> actionHeap.isAbove(a, b) ? -1 : actionHeap.isAbove(b, a) ? 1 : 0);
+    for (AIActionWithValue action : actions) {
+      if (bestActions.size() == count || !(action.value > 0)) {
+        break;
+      }
+      bestActions.put(action.action, action.value);
+    }
+    return bestActions;
+  }
+
+  /**
+   * Scores every unscored action and returns the score of every possible action, ordered by {@link
+   * AIAction#CONTENT_ORDER}. Used to check the kept scores against scoring from scratch.
+   */
+  SortedMap<AIAction, Double> getAllScores() {
+    List<AIActionWithValue> actions = new ArrayList<>();
+    possibleMoveActionsByUnit.values().forEach(actions::addAll);
+    possibleAttackActionsByUnit.values().forEach(actions::addAll);
+    possibleSummonActionsByUnit.values().forEach(actions::addAll);
+    actions.addAll(possibleSpellsToCast);
+    scoreActions(actions.stream().filter(a -> a.value == null).collect(Collectors.toList()));
+    SortedMap<AIAction, Double> scores = new TreeMap<>(AIAction.CONTENT_ORDER);
+    for (AIActionWithValue action : actions) {
+      scores.put(action.action, action.value);
+    }
+    return scores;
+  }
+
+  /**
+   * Computes the values of the given actions and moves them to their place in the heap. Scores by
+   * feature matrix if feature scoring is on. Returns once every value is computed.
+   *
+   * <p>Scores are computed into an array, possibly on the pool, and only then stored and moved into
+   * place one action at a time on the calling thread. Each move assumes every other action is
+   * already in its place, so storing every score before moving any would leave the heap out of
+   * order, with a top that depends on the order the actions were listed in.
+   */
+  private void scoreActions(List<AIActionWithValue> actions) {
+    double[] scores;
+    if (featureScoring) {
+      FeatureMatrix features = new FeatureMatrix(delegates, actions.size());
+      forEachIndex(actions.size(), i -> features.extractRow(i, actions.get(i).action));
+      scores = features.multiply(getFeatureWeights());
+    } else {
+      double[] computed = new double[actions.size()];
+      forEachIndex(actions.size(), i -> computed[i] = actions.get(i).computeValue());
+      scores = computed;
+    }
+    for (int i = 0; i < scores.length; i++) {
+      AIActionWithValue action = actions.get(i);
+      action.value = scores[i];
+      actionHeap.update(action);
+    }
+  }
+
+  /**
+   * Runs the given consumer on each index in [0, count). Spreads the indices over {@link
+   * #SCORING_POOL} if parallel scoring is on and there are enough of them to be worth splitting.
+   * Returns once every index is done.
+   */
+  private void forEachIndex(int count, IntConsumer consumer) {
+    if (parallelScoring && count > MIN_SCORING_BATCH_SIZE) {
+      SCORING_POOL.invoke(new IndexRangeTask(0, count, consumer));
+    } else {
+      for (int i = 0; i < count; i++) {
+        consumer.accept(i);
+      }
+    }
+  }
+
+  /**
+   * A task that runs a consumer on a range of indices, splitting it in half until the pieces are
+   * small enough to run directly. Invoking the root task makes everything written by the consumer
+   * visible to the invoking thread.
+   */
+  private static final class IndexRangeTask extends RecursiveAction {
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final int start;
+    private final int end;
+    private final IntConsumer consumer;
+
+    /**
+     * Constructs a task that runs the given consumer on the indices in [start, end).
+     */
+    private IndexRangeTask(int start, int end, IntConsumer consumer) {
+      this.start = start;
+      this.end = end;
+      this.consumer = consumer;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= MIN_SCORING_BATCH_SIZE) {
+        for (int i = start; i < end; i++) {
+          consumer.accept(i);
+        }
+      } else {
+        int mid = (start + end) >>> 1;
+        invokeAll(
+            new IndexRangeTask(start, mid, consumer), new IndexRangeTask(mid, end, consumer));
+      }
+    }
+  }
+
   /**
    * Remove the action from the possible set and try again.
    */
   @Override
   public void actionFailed(Exception e, AIAction action) {
     e.printStackTrace();
+    invalidateQueryContext();
     recomputeAllActions(action.player);
   }
 
@@ -364,7 +924,8 @@ public final class DelegatingAIController implements AIController {
    */
   @Override
   public void actionExecuted(AIAction action) {
-    recomputeAllActions(action.player);
+    invalidateQueryContext();
+    updateActions(action.player);
   }
 
   /**
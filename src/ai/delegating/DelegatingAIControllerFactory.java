@@ -7,7 +7,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -42,15 +41,19 @@ public final class DelegatingAIControllerFactory {
   }
 
   /**
-   * Id suffix to assign. Will be regenerated between different class loadings, but that should be
-   * enough to guarantee id uniqueness.
+   * The id to set for the next call to build().
    */
-  private static final AtomicInteger idCounter = new AtomicInteger();
+  private String id = "";
 
   /**
-   * The id to set for the next call to build().
+   * Whether the next call to build() scores actions in parallel.
    */
-  private String id = "";
+  private boolean parallelScoring = true;
+
+  /**
+   * Whether the next call to build() scores actions through a feature matrix.
+   */
+  private boolean featureScoring = false;
 
   /**
    * The current set of delegates to add to the next call of build().
@@ -72,6 +75,8 @@ public final class DelegatingAIControllerFactory {
     DelegatingAIControllerFactory factory = new DelegatingAIControllerFactory();
     factory.delegates.addAll(delegatingAIController.getDelegates());
     factory.id = delegatingAIController.id();
+    factory.parallelScoring = delegatingAIController.isParallelScoring();
+    factory.featureScoring = delegatingAIController.isFeatureScoring();
     return factory;
   }
 
@@ -84,10 +89,20 @@ public final class DelegatingAIControllerFactory {
   }
 
   /**
-   * Sets the id to the timestamp plus the nextId returns this.
+   * Sets whether the built controller scores actions in parallel and returns this. Turn off to keep
+   * all AI work on the game thread.
+   */
+  public DelegatingAIControllerFactory setParallelScoring(boolean parallelScoring) {
+    this.parallelScoring = parallelScoring;
+    return this;
+  }
+
+  /**
+   * Sets whether the built controller scores actions by multiplying a matrix of delegate features
+   * by the flattened delegate weights, and returns this.
    */
-  public DelegatingAIControllerFactory setIdToTimestampPlusNextId() {
-    this.id = System.currentTimeMillis() + "-" + idCounter.getAndIncrement();
+  public DelegatingAIControllerFactory setFeatureScoring(boolean featureScoring) {
+    this.featureScoring = featureScoring;
     return this;
   }
 
@@ -134,6 +149,8 @@ public final class DelegatingAIControllerFactory {
    */
   public DelegatingAIController build() {
     DelegatingAIController delegatingAIController = new DelegatingAIController(id);
+    delegatingAIController.setParallelScoring(parallelScoring);
+    delegatingAIController.setFeatureScoring(featureScoring);
     for (Delegate d : delegates) {
       delegatingAIController.addDelegate(d);
     }
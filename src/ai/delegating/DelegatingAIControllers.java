@@ -25,6 +25,7 @@ import controller.game.CreatePlayerOptions;
 import controller.game.GameController;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -34,6 +35,7 @@ import model.game.Game.FogOfWar;
 import model.unit.ability.Abilities;
 import model.unit.building.Buildings;
 import model.unit.combatant.Combatants;
+import util.RandomStreams;
 
 /**
  * A listing of DelegatingAIControllers.
@@ -55,6 +57,16 @@ public final class DelegatingAIControllers {
    */
   public static final String DELEGATING_RANDOM_WITH_EDITS_AI_TYPE = "Del AI - Random w/Edits";
 
+  /**
+   * Stream of the random shuffling the player order of each generated game.
+   */
+  private static final String PLAYER_ORDER_STREAM = "player order";
+
+  /**
+   * Stream of the random choosing the seed of each generated game.
+   */
+  private static final String GAME_SEED_STREAM = "game seed";
+
   /**
    * A delegating AIController for testing.
    */
@@ -81,35 +93,42 @@ public final class DelegatingAIControllers {
         .addDelegate(new SummonCombatantWithTypeAdvantageDelegate())
         .addDelegate(new SummonBuildingOnAncientGroundDelegate())
         .addDelegate(
-            populateNamesWithRandomWeights(new SummonBuildingByNameDelegate(), buildingNames, 1, 1))
+            populateNamesWithEqualWeights(new SummonBuildingByNameDelegate(), buildingNames))
         .addDelegate(
-            populateNamesWithRandomWeights(
-                new SummonBuildingByNameScalingDelegate(), buildingNames, 1, 1))
+            populateNamesWithEqualWeights(new SummonBuildingByNameScalingDelegate(), buildingNames))
         .addDelegate(
-            populateNamesWithRandomWeights(
-                new SummonCombatantByNameDelegate(), combatantNames, 1, 1))
+            populateNamesWithEqualWeights(new SummonCombatantByNameDelegate(), combatantNames))
         .addDelegate(
-            populateNamesWithRandomWeights(
-                new SummonCombatantByNameScalingDelegate(), combatantNames, 1, 1))
+            populateNamesWithEqualWeights(
+                new SummonCombatantByNameScalingDelegate(), combatantNames))
         .addDelegate(
-            populateNamesWithRandomWeights(new CastSpellByNameDelegate(), abilityNames, 1, 1))
+            populateNamesWithEqualWeights(new CastSpellByNameDelegate(), abilityNames))
         .addDelegate(new MaximizeUnitsEffectedCastByNameDelegate())
         .addDelegate(
-            populateNamesWithRandomWeights(
-                new MinimizeRedundantEffectByNameCastDelegate(), abilityNames, 1, 1))
+            populateNamesWithEqualWeights(
+                new MinimizeRedundantEffectByNameCastDelegate(), abilityNames))
         .build();
   }
 
   /**
-   * A helper for generating random weights and weight arrays.
+   * A helper for generating random weights and weight arrays from a random.
    */
   private static final class RandomHelper {
-    private static final Random random = new Random();
+    /**
+     * A helper drawing from an unseeded random, for controllers that weren't given one.
+     */
+    private static final RandomHelper UNSEEDED = new RandomHelper(new Random());
+
+    private final Random random;
+
+    private RandomHelper(Random random) {
+      this.random = random;
+    }
 
     /**
      * Returns a random double in the given range, (effectively) inclusively.
      */
-    private static double nextRandom(double min, double max) {
+    private double nextRandom(double min, double max) {
       return random.nextDouble() * (max - min) + min;
     }
 
@@ -117,7 +136,7 @@ public final class DelegatingAIControllers {
      * Returns an array of random doubles in the given range, (effectively) inclusively, of the
      * given length.
      */
-    private static double[] nextRandoms(double min, double max, int length) {
+    private double[] nextRandoms(double min, double max, int length) {
       double[] arr = new double[length];
       for (int i = 0; i < arr.length; i++) {
         arr[i] = nextRandom(min, max);
@@ -126,18 +145,38 @@ public final class DelegatingAIControllers {
     }
   }
 
+  /**
+   * Populates the given ByNameDelegate with the given names to indexes, each with a subweight of 1.
+   */
+  private static ByNameDelegate populateNamesWithEqualWeights(
+      ByNameDelegate byNameDelegate, List<String> names) {
+    int i = 0;
+    for (String name : names) {
+      byNameDelegate.withNameToSubweightIndex(name, i);
+      i++;
+    }
+    double[] subweights = new double[i];
+    Arrays.fill(subweights, 1);
+    byNameDelegate.withSubweights(subweights);
+    return byNameDelegate;
+  }
+
   /**
    * Populates the given ByNameDelegate with the given names to indexes, with min and max random
    * values.
    */
   private static ByNameDelegate populateNamesWithRandomWeights(
-      ByNameDelegate byNameDelegate, List<String> names, double min, double max) {
+      RandomHelper randomHelper,
+      ByNameDelegate byNameDelegate,
+      List<String> names,
+      double min,
+      double max) {
     int i = 0;
     for (String name : names) {
       byNameDelegate.withNameToSubweightIndex(name, i);
       i++;
     }
-    byNameDelegate.withSubweights(RandomHelper.nextRandoms(min, max, i));
+    byNameDelegate.withSubweights(randomHelper.nextRandoms(min, max, i));
     return byNameDelegate;
   }
 
@@ -145,6 +184,22 @@ public final class DelegatingAIControllers {
    * A delegating AIController with random weights for testing and generating test data.
    */
   public static DelegatingAIController randomWeightsDelegatingAIController() {
+    return randomWeightsDelegatingAIController(RandomHelper.UNSEEDED);
+  }
+
+  /**
+   * A delegating AIController with weights drawn from the given random, for testing and generating
+   * test data.
+   */
+  public static DelegatingAIController randomWeightsDelegatingAIController(Random random) {
+    return randomWeightsDelegatingAIController(new RandomHelper(random));
+  }
+
+  /**
+   * A delegating AIController with weights drawn from the given helper.
+   */
+  private static DelegatingAIController randomWeightsDelegatingAIController(
+      RandomHelper randomHelper) {
     double min = 0;
     double max = 6.0;
     double subMin = 0.5;
@@ -160,88 +215,94 @@ public final class DelegatingAIControllers {
     return DelegatingAIControllerFactory.newBuilder()
         // Movement delegates.
         .addDelegate(
-            new ExpandDangerRadiusMovementDelegate().withWeight(RandomHelper.nextRandom(min, max)))
+            new ExpandDangerRadiusMovementDelegate().withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             new MoveToNotBeAttackedMovementDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 2)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 2)))
         .addDelegate(
             new MoveToAttackAndNotBeCounterAttackedMovementDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max)))
+                .withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             new MoveToAttackMovementDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 3)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 3)))
         .addDelegate(
             new MoveToAttackFavoredEnemiesMovementDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max)))
-        .addDelegate(new MoveToSummonDelegate().withWeight(RandomHelper.nextRandom(min, max)))
+                .withWeight(randomHelper.nextRandom(min, max)))
+        .addDelegate(new MoveToSummonDelegate().withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
-            new MoveToBuildOnAncientGroundDelegate().withWeight(RandomHelper.nextRandom(min, max)))
+            new MoveToBuildOnAncientGroundDelegate().withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             new MoveTowardsEnemyCommanderMovementDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 2)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 2)))
         // Combat delegates.
         .addDelegate(
             new GainUnitAdvantageCombatDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 2)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 2)))
         .addDelegate(
             new MaxExpectedDamageDealtCombatDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 2)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 2)))
         .addDelegate(
             new MinCounterAttackDamageCombatDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max))
-                .withSubweights(RandomHelper.nextRandoms(subMin, subMax, 2)))
+                .withWeight(randomHelper.nextRandom(min, max))
+                .withSubweights(randomHelper.nextRandoms(subMin, subMax, 2)))
         // Summon delegates.
         .addDelegate(
             new SummonCombatantWithTypeAdvantageDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max)))
+                .withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             new SummonBuildingOnAncientGroundDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max)))
+                .withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             populateNamesWithRandomWeights(
-                new SummonBuildingByNameDelegate().withWeight(RandomHelper.nextRandom(min, max)),
+                randomHelper,
+                new SummonBuildingByNameDelegate().withWeight(randomHelper.nextRandom(min, max)),
                 buildingNames,
                 subMin,
                 subMax))
         .addDelegate(
             populateNamesWithRandomWeights(
+                randomHelper,
                 new SummonBuildingByNameScalingDelegate()
-                    .withWeight(RandomHelper.nextRandom(min, max)),
+                    .withWeight(randomHelper.nextRandom(min, max)),
                 buildingNames,
                 subMin,
                 subMax))
         .addDelegate(
             populateNamesWithRandomWeights(
-                new SummonCombatantByNameDelegate().withWeight(RandomHelper.nextRandom(min, max)),
+                randomHelper,
+                new SummonCombatantByNameDelegate().withWeight(randomHelper.nextRandom(min, max)),
                 combatantNames,
                 subMin,
                 subMax))
         .addDelegate(
             populateNamesWithRandomWeights(
+                randomHelper,
                 new SummonCombatantByNameScalingDelegate()
-                    .withWeight(RandomHelper.nextRandom(min, max)),
+                    .withWeight(randomHelper.nextRandom(min, max)),
                 combatantNames,
                 subMin,
                 subMax))
         // Casting
         .addDelegate(
             populateNamesWithRandomWeights(
-                new CastSpellByNameDelegate().withWeight(RandomHelper.nextRandom(min, max)),
+                randomHelper,
+                new CastSpellByNameDelegate().withWeight(randomHelper.nextRandom(min, max)),
                 abilityNames,
                 subMin,
                 subMax))
         .addDelegate(
             new MaximizeUnitsEffectedCastByNameDelegate()
-                .withWeight(RandomHelper.nextRandom(min, max)))
+                .withWeight(randomHelper.nextRandom(min, max)))
         .addDelegate(
             populateNamesWithRandomWeights(
+                randomHelper,
                 new MinimizeRedundantEffectByNameCastDelegate()
-                    .withWeight(RandomHelper.nextRandom(min, max)),
+                    .withWeight(randomHelper.nextRandom(min, max)),
                 abilityNames,
                 subMin,
                 subMax))
@@ -253,7 +314,25 @@ public final class DelegatingAIControllers {
    * data.
    */
   public static DelegatingAIController randomWeightsWithManualEditsDelegatingAIController() {
-    DelegatingAIController randomWeightsController = randomWeightsDelegatingAIController();
+    return randomWeightsWithManualEditsDelegatingAIController(RandomHelper.UNSEEDED);
+  }
+
+  /**
+   * A delegating AIController with weights drawn from the given random plus manual edits, for
+   * testing and generating test data.
+   */
+  public static DelegatingAIController randomWeightsWithManualEditsDelegatingAIController(
+      Random random) {
+    return randomWeightsWithManualEditsDelegatingAIController(new RandomHelper(random));
+  }
+
+  /**
+   * A delegating AIController with weights drawn from the given helper plus manual edits.
+   */
+  private static DelegatingAIController randomWeightsWithManualEditsDelegatingAIController(
+      RandomHelper randomHelper) {
+    DelegatingAIController randomWeightsController =
+        randomWeightsDelegatingAIController(randomHelper);
     randomWeightsController
         .getDelegate(MoveTowardsEnemyCommanderMovementDelegate.class)
         .changeWeight(1);
@@ -269,6 +348,9 @@ public final class DelegatingAIControllers {
 
   /**
    * Runnable method that plays delegating AI controllers against each other.
+   *
+   * <p>Args: [board filename, seed in hex]. The seed is printed at the start, and every game is
+   * seeded from it.
    */
   public static void main(String[] args) throws Exception {
     // Force unit, building, spell, audio loading.
@@ -278,28 +360,36 @@ public final class DelegatingAIControllers {
 
     // Select initial board file and make start game.
     String boardFilename = args.length > 0 ? args[0] : "Backyard.csv";
-    genDataLoop(boardFilename);
+    long seed = args.length > 1 ? Long.parseUnsignedLong(args[1], 16) : RandomStreams.newSeed();
+    genDataLoop(boardFilename, seed);
   }
 
   /**
-   * Runs games repeatedly on the given boardFilename between two Delegating random AIs.
+   * Runs games repeatedly on the given boardFilename between two Delegating random AIs, drawing the
+   * player order and seed of each game from the given seed.
    */
-  private static void genDataLoop(String boardFilename) throws Exception {
+  private static void genDataLoop(String boardFilename, long seed) throws Exception {
+    System.out.println(String.format("Generating games with seed %x", seed));
+    RandomStreams randoms = new RandomStreams(seed);
+    Random playerOrderRandom = randoms.newRandom(PLAYER_ORDER_STREAM, 0);
+    Random gameSeedRandom = randoms.newRandom(GAME_SEED_STREAM, 0);
     List<String> defaultPlayerTypes = new ArrayList<>();
     defaultPlayerTypes.add(DELEGATING_RANDOM_AI_TYPE);
     defaultPlayerTypes.add(DELEGATING_RANDOM_WITH_EDITS_AI_TYPE);
     int i = 0;
     while (true) {
-      Collections.shuffle(defaultPlayerTypes);
+      Collections.shuffle(defaultPlayerTypes, playerOrderRandom);
       GameController controller =
-          GameController.loadAndStartHeadless(
+          GameController.loadHeadless(
               "game/boards/" + boardFilename,
               defaultPlayerTypes
                   .stream()
                   .map(CreatePlayerOptions::new)
                   .collect(Collectors.toList()),
               FogOfWar.REGULAR,
-              1);
+              1,
+              gameSeedRandom.nextLong());
+      controller.start();
       Thread.sleep(150);
       System.out.println("Game " + i + " started");
       while (controller.game.isRunning()) {
@@ -0,0 +1,157 @@
+package ai.delegating;
+
+import ai.AIAction;
+import ai.delegates.Delegate;
+
+import java.util.List;
+
+/**
+ * The features of a batch of actions under a list of delegates, stored densely with one row per
+ * action and one column per delegate feature, in delegate order. Scoring every action in the batch
+ * is then a single matrix-vector product against the delegates' flattened feature weights (see
+ * {@link #getWeights(List)}).
+ *
+ * <p>Features only depend on the game state and the delegates' configuration (which names they
+ * know), not on their weights, so {@link #multiply(double[])} accepts the weights of any delegates
+ * with the same layout. {@link DelegatingAIController} extracts and scores each batch of actions
+ * once, with its own weights; nothing keeps matrices to re-score them against other weights.
+ */
+public final class FeatureMatrix {
+
+  /**
+   * The delegates the features are extracted by.
+   */
+  private final List<Delegate> delegates;
+
+  /**
+   * The number of rows (actions) in this matrix.
+   */
+  private final int rows;
+
+  /**
+   * The number of columns (features per action) in this matrix.
+   */
+  private final int columns;
+
+  /**
+   * The features, in row-major order.
+   */
+  private final double[] features;
+
+  /**
+   * Constructs a zeroed FeatureMatrix with room for the given number of actions scored by the
+   * given delegates. Rows are filled by {@link #extractRow(int, AIAction)}.
+   */
+  public FeatureMatrix(List<Delegate> delegates, int rows) {
+    this.delegates = delegates;
+    this.rows = rows;
+    this.columns = getFeatureCount(delegates);
+    this.features = new double[rows * columns];
+  }
+
+  /**
+   * Returns the total number of features the given delegates extract from an action.
+   */
+  public static int getFeatureCount(List<Delegate> delegates) {
+    int count = 0;
+    for (Delegate d : delegates) {
+      count += d.getFeatureCount();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the flattened weight of each feature of the given delegates - each delegate's weight
+   * times the subweight of the feature - in the same column order as a FeatureMatrix.
+   */
+  public static double[] getWeights(List<Delegate> delegates) {
+    double[] weights = new double[getFeatureCount(delegates)];
+    int offset = 0;
+    for (Delegate d : delegates) {
+      d.writeFeatureWeights(weights, offset);
+      offset += d.getFeatureCount();
+    }
+    return weights;
+  }
+
+  /**
+   * Returns the score of the given action under the given delegates' flattened feature weights -
+   * the dot product of its features with the weights - without building a matrix for it.
+   */
+  public static double score(List<Delegate> delegates, AIAction action, double[] weights) {
+    int columns = getFeatureCount(delegates);
+    if (weights.length != columns) {
+      throw new RuntimeException(
+          "Can't score " + columns + " features with " + weights.length + " weights");
+    }
+    double[] row = new double[columns];
+    int offset = 0;
+    for (Delegate d : delegates) {
+      d.writeFeatures(action, row, offset);
+      offset += d.getFeatureCount();
+    }
+    double score = 0;
+    for (int c = 0; c < row.length; c++) {
+      score += row[c] * weights[c];
+    }
+    return score;
+  }
+
+  /**
+   * Returns the number of actions in this matrix.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Returns the number of features per action in this matrix.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Extracts the features of the given action into the given row. Different rows may be extracted
+   * concurrently.
+   */
+  public void extractRow(int row, AIAction action) {
+    int offset = row * columns;
+    for (Delegate d : delegates) {
+      d.writeFeatures(action, features, offset);
+      offset += d.getFeatureCount();
+    }
+  }
+
+  /**
+   * Returns the feature at the given row and column.
+   */
+  public double get(int row, int column) {
+    return features[row * columns + column];
+  }
+
+  /**
+   * Returns the score of every action in this matrix under the given feature weights, which must
+   * have one weight per column.
+   */
+  public double[] multiply(double[] weights) {
+    if (weights.length != columns) {
+      throw new RuntimeException(
+          "Can't score " + columns + " features with " + weights.length + " weights");
+    }
+    double[] scores = new double[rows];
+    for (int r = 0, offset = 0; r < rows; r++, offset += columns) {
+      double score = 0;
+      for (int c = 0; c < columns; c++) {
+        score += features[offset + c] * weights[c];
+      }
+      scores[r] = score;
+    }
+    return scores;
+  }
+
+  @Override
+  public String toString() {
+    return "Feature matrix of " + rows + " actions by " + columns + " features";
+  }
+}
@@ -0,0 +1,242 @@
+package ai.delegating;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A binary max-heap whose elements track their own position in it, so an element can be removed or
+ * moved after its priority changes in O(log n) without searching for it. Elements with equal
+ * priority are ordered by the heap's tie-break comparator, if it has one, and then in the order
+ * they were added, so the top of the heap doesn't depend on how the heap happens to be laid out.
+ * The order elements are added in is only as stable as the caller's - a caller that adds elements
+ * in an order that can differ between runs, as by iterating a hash set of identity-hashed objects,
+ * should give a comparator that orders every pair of its elements if the top has to be the same in
+ * every run.
+ *
+ * <p>An element can only be in one heap at a time. The heap doesn't notice when an element's
+ * priority changes - {@link #update(Element)} has to be called after every change.
+ */
+final class IndexedMaxHeap<E extends IndexedMaxHeap.Element> {
+
+  /**
+   * An element that can be stored in an IndexedMaxHeap.
+   */
+  abstract static class Element {
+    /**
+     * The index of this element in the heap's array, -1 if it isn't in a heap.
+     */
+    private int heapIndex = -1;
+
+    /**
+     * The order this element was added to its heap in, used to break ties between equal
+     * priorities that the heap's tie-break comparator doesn't.
+     */
+    private long sequence;
+
+    /**
+     * Returns the priority of this element. Higher priorities are closer to the top of the heap.
+     */
+    abstract double getPriority();
+
+    /**
+     * Returns true iff this element is currently in a heap.
+     */
+    final boolean isInHeap() {
+      return heapIndex >= 0;
+    }
+  }
+
+  /**
+   * Orders elements with equal priority before they are ordered by when they were added. Null to
+   * order them only by when they were added.
+   */
+  private final Comparator<? super E> tieBreak;
+
+  /**
+   * The elements of the heap, in heap order. Only the first size are used.
+   */
+  private Element[] elements;
+
+  /**
+   * The number of elements in the heap.
+   */
+  private int size;
+
+  /**
+   * The sequence number to give the next added element.
+   */
+  private long nextSequence;
+
+  /**
+   * Constructs a new, empty IndexedMaxHeap that breaks ties in priority by the order elements were
+   * added.
+   */
+  IndexedMaxHeap() {
+    this(null);
+  }
+
+  /**
+   * Constructs a new, empty IndexedMaxHeap that breaks ties in priority by the given comparator,
+   * where lesser elements are above greater ones, and then by the order elements were added.
+   */
+  IndexedMaxHeap(Comparator<? super E> tieBreak) {
+    this.tieBreak = tieBreak;
+    elements = new Element[16];
+  }
+
+  /**
+   * Returns the number of elements in this heap.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns true iff this heap is empty.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Adds the given element to this heap. Throws if it's already in a heap.
+   */
+  void add(E e) {
+    if (e.isInHeap()) {
+      throw new RuntimeException("Can't add " + e + ", already in a heap");
+    }
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+    }
+    Element element = e;
+    element.sequence = nextSequence++;
+    place(element, size);
+    size++;
+    siftUp(element.heapIndex);
+  }
+
+  /**
+   * Removes the given element from this heap. Does nothing if it isn't in a heap.
+   */
+  void remove(E e) {
+    if (!e.isInHeap()) {
+      return;
+    }
+    Element element = e;
+    int index = element.heapIndex;
+    if (elements[index] != element) {
+      throw new RuntimeException("Can't remove " + e + ", it belongs to a different heap");
+    }
+    size--;
+    if (index != size) {
+      Element last = elements[size];
+      place(last, index);
+      siftUp(index);
+      siftDown(last.heapIndex);
+    }
+    elements[size] = null;
+    element.heapIndex = -1;
+  }
+
+  /**
+   * Moves the given element to its correct position after its priority changed. Does nothing if it
+   * isn't in a heap.
+   */
+  void update(E e) {
+    if (!e.isInHeap()) {
+      return;
+    }
+    Element element = e;
+    siftUp(element.heapIndex);
+    siftDown(element.heapIndex);
+  }
+
+  /**
+   * Returns the element with the highest priority, the first by the tie-break order among ties.
+   * Returns null if this heap is empty.
+   */
+  @SuppressWarnings("unchecked")
+  E peek() {
+    return size == 0 ? null : (E) elements[0];
+  }
+
+  /**
+   * Removes every element from this heap.
+   */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      elements[i].heapIndex = -1;
+      elements[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns true iff a belongs above b in the heap.
+   */
+  @SuppressWarnings("unchecked")
+  boolean isAbove(Element a, Element b) {
+    int c = Double.compare(a.getPriority(), b.getPriority());
+    if (c != 0) {
+      return c > 0;
+    }
+    if (tieBreak != null) {
+      c = tieBreak.compare((E) a, (E) b);
+      if (c != 0) {
+        return c < 0;
+      }
+    }
+    return a.sequence < b.sequence;
+  }
+
+  /**
+   * Puts the given element at the given index.
+   */
+  private void place(Element e, int index) {
+    elements[index] = e;
+    e.heapIndex = index;
+  }
+
+  /**
+   * Moves the element at the given index up until its parent is above it.
+   */
+  private void siftUp(int index) {
+    Element e = elements[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (!isAbove(e, elements[parent])) {
+        break;
+      }
+      place(elements[parent], index);
+      index = parent;
+    }
+    place(e, index);
+  }
+
+  /**
+   * Moves the element at the given index down until it is above both of its children.
+   */
+  private void siftDown(int index) {
+    Element e = elements[index];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && isAbove(elements[child + 1], elements[child])) {
+        child++;
+      }
+      if (!isAbove(elements[child], e)) {
+        break;
+      }
+      place(elements[child], index);
+      index = child;
+    }
+    place(e, index);
+  }
+
+  @Override
+  public String toString() {
+    return "Heap of " + size + " elements";
+  }
+}
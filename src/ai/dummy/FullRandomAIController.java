@@ -2,6 +2,7 @@ package ai.dummy;
 
 import ai.AIAction;
 import ai.AIController;
+import model.board.MovementCloud;
 import model.board.Tile;
 import model.game.Player;
 import model.unit.MovingUnit;
@@ -32,13 +33,9 @@ public final class FullRandomAIController implements AIController {
    */
   private static final double END_TURN_EARLY_CHANCE = 0.2;
 
-  /**
-   * Random used to pick tiles for moving and summoning as well as which unit/building to summon.
-   */
-  private final Random random = new Random();
-
   @Override
   public AIAction getNextAction(Player player) {
+    Random random = player.getRandom();
     if (random.nextDouble() <= END_TURN_EARLY_CHANCE) {
       return null;
     }
@@ -65,21 +62,16 @@ public final class FullRandomAIController implements AIController {
    * move.
    */
   private AIAction getMoveAction(Player player) {
+    Random random = player.getRandom();
     List<Unit> movableUnits =
         player.getUnits().stream().filter(Unit::canMove).collect(Collectors.toList());
     if (movableUnits.isEmpty()) {
       return null;
     }
     MovingUnit movableUnit = (MovingUnit) movableUnits.get(random.nextInt(movableUnits.size()));
+    MovementCloud cloud = player.game.board.getMovementCloud(movableUnit, false);
     List<Tile> movableTiles =
-        player
-            .game
-            .board
-            .getMovementCloud(movableUnit, false)
-            .stream()
-            .filter(t -> !t.isOccupied())
-            .collect(Collectors.toList());
-    int pathComputationId = player.game.board.getPathComputationId();
+        cloud.stream().filter(t -> !t.isOccupied()).collect(Collectors.toList());
     if (movableTiles.isEmpty()) {
       return null;
     }
@@ -88,13 +80,14 @@ public final class FullRandomAIController implements AIController {
         player,
         movableUnit,
         toMoveTo,
-        player.game.board.getMovementPath(pathComputationId, toMoveTo));
+        cloud.getPath(toMoveTo));
   }
 
   /**
    * Returns an action for a random unit to attack. Returns null if no unit can attack.
    */
   private AIAction getAttackAction(Player player) {
+    Random random = player.getRandom();
     List<Combatant> unitsThatCanAttack =
         player
             .getUnits()
@@ -118,6 +111,7 @@ public final class FullRandomAIController implements AIController {
    * mana, out of actions, no room).
    */
   private AIAction getSummonAction(Player player) {
+    Random random = player.getRandom();
     if (player.getCommander().getActionsRemaining() == 0) {
       return null;
     }
@@ -86,16 +86,18 @@ final class EvoPlayer {
   private final DelegatingAIController aiController;
 
   /**
-   * Creates a new EvoPlayer with the given delegates list.
+   * Creates a new EvoPlayer with the given id and delegates list.
    */
-  EvoPlayer(Iterable<Delegate> delegates) {
+  EvoPlayer(String id, Iterable<Delegate> delegates) {
     points = STARTING_POINTS;
     delegateList = new ArrayList<>();
     delegates.forEach(delegateList::add);
     aiController =
         DelegatingAIControllerFactory.newBuilder()
-            .setIdToTimestampPlusNextId()
+            .setId(id)
             .addDelegates(delegateList)
+            // Games already run one per core, so scoring in parallel would only contend with them.
+            .setParallelScoring(false)
             .build();
   }
 
@@ -169,11 +171,10 @@ final class EvoPlayer {
   }
 
   /**
-   * Creates a new EvoPlayer that's the result of this splitting. Copies each delegate to a list,
-   * then performs a random evolutionary change.
+   * Creates a new EvoPlayer with the given id that's the result of this splitting. Copies each
+   * delegate to a list, then performs a random evolutionary change drawn from the given random.
    */
-  EvoPlayer split() {
-    Random random = new Random();
+  EvoPlayer split(Random random, String id) {
     List<Delegate> delegateCopies =
         delegateList.stream().map(Delegate::copy).collect(Collectors.toList());
     for (Delegate delegate : delegateCopies) {
@@ -190,6 +191,6 @@ final class EvoPlayer {
         }
       }
     }
-    return new EvoPlayer(delegateCopies);
+    return new EvoPlayer(id, delegateCopies);
   }
 }
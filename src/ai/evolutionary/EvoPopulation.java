@@ -2,33 +2,92 @@ package ai.evolutionary;
 
 import ai.AIController;
 import ai.evolutionary.EvoPlayer.PointChangeResult;
+import ai.replay.ActionLogWriter;
+import ai.replay.GameReplay;
 import controller.game.CreatePlayerOptions;
 import controller.game.GameController;
 import model.game.Game.FogOfWar;
 import model.game.Player;
+import util.RandomStreams;
+import util.ResultsPrinter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * A population of {@link EvoPlayer}s that will play against themselves, split, and knockout.
+ *
+ * <p>Games are streamed: up to one game per core runs at a time on a fixed pool of worker threads,
+ * and as soon as a game finishes its result is applied and its workers pick up the next pairing of
+ * idle players. A round ends once as many games have finished as there were pairs of players when
+ * it started. Each player plays at most one game at a time, and idle players who have played the
+ * fewest games this round are paired first.
  */
 final class EvoPopulation {
 
   /**
-   * The max number of games to run at a time.
+   * The max number of games to run at a time. Each game runs on one thread, so one per core.
    */
-  private static final int MAX_CONCURRENT_GAMES = 2;
+  private static final int MAX_CONCURRENT_GAMES = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Games that take longer than this have their action log saved, so they can be replayed.
+   */
+  private static final long SLOW_GAME_NANOS = 30_000_000_000L;
+
+  /**
+   * Directory the action logs of failed and slow games are saved to.
+   */
+  private static final String REPLAYS_FILEPATH =
+      ResultsPrinter.ROOT_OUTPUT_FILEPATH + "evo/replays/";
+
+  /**
+   * Stream of the random choosing each game's board.
+   */
+  private static final String BOARD_CHOOSER_STREAM = "board chooser";
+
+  /**
+   * Stream of the random choosing players to duplicate.
+   */
+  private static final String EXTRA_PLAYER_MUTATION_STREAM = "extra player mutation";
+
+  /**
+   * Stream of the random mutating players when they split.
+   */
+  private static final String SPLIT_STREAM = "split";
+
+  /**
+   * Stream of the random choosing each game's seed.
+   */
+  private static final String GAME_SEED_STREAM = "game seed";
+
+  /**
+   * Stream of the random breaking ties between idle players to pair.
+   */
+  private static final String PAIRING_STREAM = "pairing";
 
   /**
    * Valid boards to test on. A random one will be picked for every game.
@@ -41,7 +100,8 @@ final class EvoPopulation {
   private final Random boardChooserRandom;
 
   /**
-   * The set of players in this population.
+   * The set of players in this population, in the order they were added, so iterating it is the
+   * same in every run with the same seed.
    */
   private final Set<EvoPlayer> playerSet;
 
@@ -50,6 +110,31 @@ final class EvoPopulation {
    */
   private final Random extraPlayerMutationRandom;
 
+  /**
+   * Random instance to use to mutate players when they split.
+   */
+  private final Random splitRandom;
+
+  /**
+   * Random instance to use to get the seed of each game.
+   */
+  private final Random gameSeedRandom;
+
+  /**
+   * Random instance to use to break ties between idle players when pairing them.
+   */
+  private final Random pairingRandom;
+
+  /**
+   * The seed every random of this population is drawn from.
+   */
+  private final long seed;
+
+  /**
+   * The number of player ids handed out so far.
+   */
+  private int playerIdCounter;
+
   /**
    * The extra points stored up to cause a spontaneous mutation on a remaining player.
    */
@@ -66,16 +151,34 @@ final class EvoPopulation {
    */
   private boolean simulationStarted;
 
-  EvoPopulation(String... boardFilenames) {
+  /**
+   * Constructs a population that plays on the given boards, with every random drawn from the given
+   * seed.
+   */
+  EvoPopulation(long seed, String... boardFilenames) {
     this.boardFilenames = Arrays.asList(boardFilenames);
-    boardChooserRandom = new Random();
-    extraPlayerMutationRandom = new Random();
-    playerSet = new HashSet<>();
+    this.seed = seed;
+    RandomStreams randoms = new RandomStreams(seed);
+    boardChooserRandom = randoms.newRandom(BOARD_CHOOSER_STREAM, 0);
+    extraPlayerMutationRandom = randoms.newRandom(EXTRA_PLAYER_MUTATION_STREAM, 0);
+    splitRandom = randoms.newRandom(SPLIT_STREAM, 0);
+    gameSeedRandom = randoms.newRandom(GAME_SEED_STREAM, 0);
+    pairingRandom = randoms.newRandom(PAIRING_STREAM, 0);
+    playerSet = new LinkedHashSet<>();
+    playerIdCounter = 0;
     simulationStarted = false;
     extraMutationPoints = 0;
     printer = new EvoResultsPrinter(Long.toString(System.currentTimeMillis()));
   }
 
+  /**
+   * Returns a new id for a player in this population, made of the population's seed and the
+   * number of ids handed out before it, so ids are the same in every run with the same seed.
+   */
+  String newPlayerId() {
+    return String.format("%x-%d", seed, playerIdCounter++);
+  }
+
   /**
    * Adds the given EvoPlayer to this population and returns this. Throws an exception if the
    * simulation has already started.
@@ -89,9 +192,67 @@ final class EvoPopulation {
   }
 
   /**
-   * Has the given two players play each other and returns a result.
+   * A game between two players that finished, successfully or not.
    */
-  private GameController startGameAndReturnController(EvoPlayer player1, EvoPlayer player2) {
+  private static final class FinishedGame {
+    private final EvoPlayer player1;
+    private final EvoPlayer player2;
+
+    /**
+     * The seed of the game.
+     */
+    private final long seed;
+
+    /**
+     * How long the game took to run, in nanoseconds.
+     */
+    private final long durationNanos;
+
+    /**
+     * The log of the actions taken in the game, to save if it failed or was slow.
+     */
+    private final byte[] actionLog;
+
+    /**
+     * The result of the game, null if it threw.
+     */
+    private final EvoGameResult result;
+
+    /**
+     * The exception the game threw, null if it finished successfully.
+     */
+    private final Throwable exception;
+
+    /**
+     * Constructs a FinishedGame between the given players with the given result or exception.
+     */
+    private FinishedGame(
+        EvoPlayer player1,
+        EvoPlayer player2,
+        long seed,
+        long durationNanos,
+        byte[] actionLog,
+        EvoGameResult result,
+        Throwable exception) {
+      this.player1 = player1;
+      this.player2 = player2;
+      this.seed = seed;
+      this.durationNanos = durationNanos;
+      this.actionLog = actionLog;
+      this.result = result;
+      this.exception = exception;
+    }
+  }
+
+  /**
+   * Starts a game between the given two players on the given executor, recording its actions. Once
+   * it's over, adds it to the given queue of finished games.
+   */
+  private void startGame(
+      EvoPlayer player1,
+      EvoPlayer player2,
+      Executor executor,
+      BlockingQueue<FinishedGame> finishedGames) {
     String boardFilename = boardFilenames.get(boardChooserRandom.nextInt(boardFilenames.size()));
     System.out.println(
         String.format(
@@ -99,68 +260,137 @@ final class EvoPopulation {
             boardFilename.replace(".csv", ""),
             player1.getController().id(),
             player2.getController().id()));
-    return GameController.loadAndStartHeadless(
-        "game/boards/" + boardFilename,
+    List<CreatePlayerOptions> playerOptions =
         Stream.of(player1.getController(), player2.getController())
             .map(controller -> new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, controller))
-            .collect(Collectors.toList()),
-        FogOfWar.REGULAR,
-        1);
+            .collect(Collectors.toList());
+    long gameSeed = gameSeedRandom.nextLong();
+    GameController controller =
+        GameController.loadHeadless(
+            "game/boards/" + boardFilename, playerOptions, FogOfWar.REGULAR, 1, gameSeed);
+    ByteArrayOutputStream actionLog = new ByteArrayOutputStream();
+    ActionLogWriter actionLogWriter = new ActionLogWriter(actionLog, controller);
+    controller.setActionLog(actionLogWriter);
+    long start = System.nanoTime();
+    controller
+        .runOn(executor)
+        .whenComplete(
+            (gameController, exception) -> {
+              long durationNanos = System.nanoTime() - start;
+              try {
+                actionLogWriter.close();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+              finishedGames.add(
+                  new FinishedGame(
+                      player1,
+                      player2,
+                      gameSeed,
+                      durationNanos,
+                      actionLog.toByteArray(),
+                      exception == null ? getResult(gameController, player1, player2) : null,
+                      exception));
+            });
   }
 
   /**
-   * Checks if there is a game that hasn't reached game over yet in the given list.
+   * Returns the result of the given finished game between the given players.
    */
-  private boolean hasRunningGame(Collection<GameController> gameControllers) {
-    return gameControllers.stream().map(g -> g.game).anyMatch(g -> !g.isGameOver());
+  private static EvoGameResult getResult(
+      GameController gameController, EvoPlayer player1, EvoPlayer player2) {
+    List<Player> winnerPlayers = gameController.game.getRemainingPlayers();
+    if (winnerPlayers.isEmpty()) {
+      return EvoGameResult.forTie(player1, player2);
+    }
+    Player winningPlayer = winnerPlayers.get(0);
+    return winningPlayer.index == 1
+        ? EvoGameResult.forWinnerAndLoser(player1, player2)
+        : EvoGameResult.forWinnerAndLoser(player2, player1);
   }
 
   /**
-   * Runs the given set of players, pairing each with the next in the list (expects an even length).
-   * Blocks until all games are finished. Returns the the set of results.
+   * Starts a game between the two idle players that have played the fewest games this round, ties
+   * broken randomly. Returns false if there aren't two idle players.
    */
-  private List<EvoGameResult> runGamesBatch(List<EvoPlayer> playerList) {
-    if (playerList.size() % 2 != 0) {
-      throw new RuntimeException("Expected even playersLength size, got " + playerList.size());
+  private boolean startNextGame(
+      Set<EvoPlayer> playing,
+      Map<EvoPlayer, Integer> gamesThisRound,
+      Executor executor,
+      BlockingQueue<FinishedGame> finishedGames) {
+    List<EvoPlayer> idlePlayers =
+        playerSet.stream().filter(p -> !playing.contains(p)).collect(Collectors.toList());
+    if (idlePlayers.size() < 2) {
+      return false;
     }
-    // Start all games, collect controllers into list.
-    List<GameController> gameControllers = new ArrayList<>();
-    for (int i = 0; i < playerList.size() / 2; i++) {
-      gameControllers.add(
-          startGameAndReturnController(playerList.get(i * 2), playerList.get(i * 2 + 1)));
+    Collections.shuffle(idlePlayers, pairingRandom);
+    idlePlayers.sort(Comparator.comparingInt(p -> gamesThisRound.getOrDefault(p, 0)));
+    EvoPlayer player1 = idlePlayers.get(0);
+    EvoPlayer player2 = idlePlayers.get(1);
+    for (EvoPlayer player : Arrays.asList(player1, player2)) {
+      playing.add(player);
+      gamesThisRound.merge(player, 1, Integer::sum);
     }
+    startGame(player1, player2, executor, finishedGames);
+    return true;
+  }
 
-    // Sleep until all games are done.
-    System.out.print("|> Running");
-    do {
-      try {
-        Thread.sleep(750);
-        System.out.print(".");
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-    } while (hasRunningGame(gameControllers));
-    System.out.println();
-
-    // Collect results into list and return.
-    List<EvoGameResult> results = new ArrayList<>();
-    for (int i = 0; i < gameControllers.size(); i++) {
-      EvoPlayer player1 = playerList.get(i * 2);
-      EvoPlayer player2 = playerList.get(i * 2 + 1);
-      List<Player> winnerPlayers = gameControllers.get(i).game.getRemainingPlayers();
-      if (winnerPlayers.isEmpty()) {
-        results.add(EvoGameResult.forTie(player1, player2));
-      } else {
-        Player winningPlayer = winnerPlayers.get(0);
-        results.add(
-            winningPlayer.index == 1
-                ? EvoGameResult.forWinnerAndLoser(player1, player2)
-                : EvoGameResult.forWinnerAndLoser(player2, player1));
+  /**
+   * Frees the players of the given finished game and applies its result.
+   */
+  private void handleFinishedGame(FinishedGame finishedGame, Set<EvoPlayer> playing) {
+    playing.remove(finishedGame.player1);
+    playing.remove(finishedGame.player2);
+    if (finishedGame.exception != null || finishedGame.durationNanos > SLOW_GAME_NANOS) {
+      saveActionLog(finishedGame);
+    }
+    if (finishedGame.exception != null) {
+      System.out.println(
+          String.format(
+              "|> Game between %s and %s failed, ignoring it",
+              finishedGame.player1.getController().id(),
+              finishedGame.player2.getController().id()));
+      finishedGame.exception.printStackTrace();
+      return;
+    }
+    EvoGameResult result = finishedGame.result;
+    if (result.hasWinner()) {
+      changePointsAndHandleResult(result.getWinner(), true);
+      changePointsAndHandleResult(result.getLoser(), false);
+    } else {
+      changePointsAndHandleResult(result.getPlayer1(), false);
+      changePointsAndHandleResult(result.getPlayer2(), false);
+      extraMutationPoints += EvoPlayer.DELTA_POINTS * 2;
+      while (extraMutationPoints >= EvoPlayer.STARTING_POINTS) {
+        EvoPlayer playerToMutate =
+            playerSet
+                .stream()
+                .skip(extraPlayerMutationRandom.nextInt(playerSet.size()))
+                .findFirst()
+                .get();
+        playerSet.add(playerToMutate.split(splitRandom, newPlayerId()));
+        extraMutationPoints -= EvoPlayer.STARTING_POINTS;
       }
     }
-    System.out.println("\\> Batch completed");
-    System.out.println();
-    return results;
+  }
+
+  /**
+   * Saves the action log of the given game to {@link #REPLAYS_FILEPATH}, named by its seed, so it
+   * can be replayed with {@link GameReplay}. Logs and continues if it can't be saved.
+   */
+  private static void saveActionLog(FinishedGame finishedGame) {
+    Path path = Paths.get(REPLAYS_FILEPATH, Long.toHexString(finishedGame.seed) + ".log");
+    try {
+      Files.createDirectories(path.getParent());
+      Files.write(path, finishedGame.actionLog);
+      System.out.println(
+          String.format(
+              "|> Saved action log of game with seed %x, which took %.1f s, to %s",
+              finishedGame.seed, finishedGame.durationNanos / 1e9, path));
+    } catch (IOException e) {
+      System.out.println("|> Couldn't save action log to " + path);
+      e.printStackTrace();
+    }
   }
 
   /**
@@ -171,7 +401,7 @@ final class EvoPopulation {
     switch (pointChangeResult) {
       case SPLIT:
         player.resetPoints();
-        playerSet.add(player.split());
+        playerSet.add(player.split(splitRandom, newPlayerId()));
         return;
       case KNOCKOUT:
         playerSet.remove(player);
@@ -230,66 +460,70 @@ final class EvoPopulation {
   }
 
   /**
-   * Starts the simulation, running for the given number of iterations.
+   * Starts the given round: writes its diagnostic rows and clears the count of games each player
+   * has played. Returns the number of games in the round.
+   */
+  private int startRound(int iteration, Map<EvoPlayer, Integer> gamesThisRound) {
+    System.out.println("Starting iteration " + iteration + " - " + playerSet.size() + " players");
+    printer.writeRoundDividerRowToResultsAndConfig(iteration);
+    printer.writeSimulationRoundRow(iteration, playerSet.size(), calculateAverageWeights());
+    gamesThisRound.clear();
+    return Math.max(1, playerSet.size() / 2);
+  }
+
+  /**
+   * Starts the simulation, running for the given number of iterations. Blocks until every game
+   * started is finished and its result applied.
    */
   void runSimulation(int iterations) throws FileNotFoundException {
     // Start simulation.
     simulationStarted = true;
-    int batchSize = MAX_CONCURRENT_GAMES * 2;
+    System.out.println(String.format("Starting simulation with seed %x", seed));
     printer.writeSimulationHeaderRow(playerSet.stream().findAny().get());
+    AtomicInteger workerCounter = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            MAX_CONCURRENT_GAMES,
+            r -> {
+              Thread thread = new Thread(r, "Evo Game Worker " + workerCounter.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+    BlockingQueue<FinishedGame> finishedGames = new LinkedBlockingQueue<>();
+    Set<EvoPlayer> playing = new HashSet<>();
+    Map<EvoPlayer, Integer> gamesThisRound = new HashMap<>();
 
-    // Iterate and write diagnostic row before beginning.
-    for (int iteration = 0; iteration < iterations; iteration++) {
-      System.out.println("Starting iteration " + iteration + " - " + playerSet.size() + " players");
-      printer.writeRoundDividerRowToResultsAndConfig(iteration);
-      printer.writeSimulationRoundRow(iteration, playerSet.size(), calculateAverageWeights());
-
-      // Copy players to list and shuffle.
-      List<EvoPlayer> playerList = new ArrayList<>(playerSet);
-      Collections.shuffle(playerList);
-
-      // Run games in batches batches.
-      List<EvoGameResult> results = new ArrayList<>();
-      int i = 0;
-      int batches = playerList.size() / batchSize;
-      int realBatchCount = batches + (playerList.size() % batchSize > 0 ? 1 : 0);
-      for (; i < batches; i++) {
-        System.out.println(
-            "+ Batch " + (i + 1) + "/" + realBatchCount + " (" + batchSize + " players)");
-        results.addAll(runGamesBatch(playerList.subList(i * batchSize, (i + 1) * batchSize)));
-      }
-      // Run remainder (less than one batch), rounding to down to multiple of 2 as necessary.
-      // If there's an odd number, the final player won't play this round.
-      int remainderBatchSize = (playerList.size() - i * batchSize) / 2 * 2;
-      if (remainderBatchSize > 0) {
-        System.out.println(
-            "+ Batch " + (i + 1) + "/" + realBatchCount + " (" + remainderBatchSize + " players)");
-        results.addAll(
-            runGamesBatch(playerList.subList(i * batchSize, i * batchSize + remainderBatchSize)));
-      }
-
-      // Process results.
-      System.out.println("> Done, evaluating results\n");
-      for (EvoGameResult result : results) {
-        if (result.hasWinner()) {
-          changePointsAndHandleResult(result.getWinner(), true);
-          changePointsAndHandleResult(result.getLoser(), false);
-        } else {
-          changePointsAndHandleResult(result.getPlayer1(), false);
-          changePointsAndHandleResult(result.getPlayer2(), false);
-          extraMutationPoints += EvoPlayer.DELTA_POINTS * 2;
-          while (extraMutationPoints >= EvoPlayer.STARTING_POINTS) {
-            EvoPlayer playerToMutate =
-                playerSet
-                    .stream()
-                    .skip(extraPlayerMutationRandom.nextInt(playerSet.size()))
-                    .findFirst()
-                    .get();
-            playerSet.add(playerToMutate.split());
-            extraMutationPoints -= EvoPlayer.STARTING_POINTS;
+    try {
+      int iteration = 0;
+      int gamesInRound = startRound(iteration, gamesThisRound);
+      int gamesFinishedInRound = 0;
+      while (iteration < iterations) {
+        // Keep every worker busy, then wait for the next game to finish.
+        while (playing.size() / 2 < MAX_CONCURRENT_GAMES
+            && startNextGame(playing, gamesThisRound, executor, finishedGames)) {}
+        if (playing.isEmpty()) {
+          System.out.println("> Not enough players left to play a game, stopping");
+          break;
+        }
+        handleFinishedGame(finishedGames.take(), playing);
+        gamesFinishedInRound++;
+        if (gamesFinishedInRound >= gamesInRound) {
+          iteration++;
+          gamesFinishedInRound = 0;
+          if (iteration < iterations) {
+            gamesInRound = startRound(iteration, gamesThisRound);
           }
         }
       }
+
+      // Let the games still running finish, and apply their results too.
+      while (!playing.isEmpty()) {
+        handleFinishedGame(finishedGames.take(), playing);
+      }
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
     }
     printer.writeSimulationRoundRow(iterations, playerSet.size(), calculateAverageWeights());
   }
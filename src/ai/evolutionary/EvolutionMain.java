@@ -1,6 +1,7 @@
 package ai.evolutionary;
 
 import ai.delegating.DelegatingAIControllers;
+import util.RandomStreams;
 
 import java.io.FileNotFoundException;
 
@@ -10,16 +11,24 @@ import java.io.FileNotFoundException;
  * reselection). Players that win gain points, players that lose lose points. If a player loses all
  * points, they are knocked out of the pool. If a player gains enough points, it splits in half,
  * where the other half is a copy of itself with some modifications.
+ *
+ * <p>Args: [seed, in hex]. The seed is printed at the start. Every game is seeded from it, and the
+ * action logs of failed and slow games are saved so they can be replayed.
  */
 final class EvolutionMain {
 
   public static void main(String[] args) throws FileNotFoundException {
+    long seed = args.length > 0 ? Long.parseUnsignedLong(args[0], 16) : RandomStreams.newSeed();
+    RandomStreams randoms = new RandomStreams(seed);
     EvoPopulation population =
-        new EvoPopulation("Backyard.csv", "Darkwood.csv", "Hourglass.csv", "Ridges.csv");
+        new EvoPopulation(seed, "Backyard.csv", "Darkwood.csv", "Hourglass.csv", "Ridges.csv");
     for (int i = 0; i < 16; i++) {
       population.addPlayer(
           new EvoPlayer(
-              DelegatingAIControllers.randomWeightsDelegatingAIController().getDelegates()));
+              population.newPlayerId(),
+              DelegatingAIControllers.randomWeightsDelegatingAIController(
+                      randoms.newRandom(RandomStreams.AI_WEIGHTS, i))
+                  .getDelegates()));
     }
     population.runSimulation(1000);
   }
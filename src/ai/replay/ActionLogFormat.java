@@ -0,0 +1,75 @@
+package ai.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and helpers shared by the writer and reader of the binary action log format.
+ *
+ * <p>A log starts with a header: {@link #MAGIC}, {@link #VERSION}, the game's seed, the board
+ * filepath, the fog of war ordinal, the starting commander level and the number of players. Then
+ * comes one record per AI action or end of turn, in the order they happened. A record is a tag
+ * byte - the {@link ai.AIAction.AIActionType} ordinal, or {@link #END_OF_TURN} - followed for
+ * actions by the index of the acting unit's tile, then:
+ *
+ * <ul>
+ *   <li>MOVE_UNIT: the number of tiles moved through, then the index of each
+ *   <li>ATTACK: the index of the attacked tile
+ *   <li>SUMMON_COMBATANT_OR_BUILD_BUILDING: the index of the tile summoned on, then the name of the
+ *       summoned unit
+ *   <li>CAST_SPELL: the index of the targeted tile, then the name of the spell
+ * </ul>
+ *
+ * <p>Tile indices and counts are written as variable length ints, so most take one or two bytes.
+ */
+final class ActionLogFormat {
+
+  /**
+   * The first int of every action log.
+   */
+  static final int MAGIC = 0x46494E41;
+
+  /**
+   * The version of the format. Bumped whenever the format changes.
+   */
+  static final byte VERSION = 1;
+
+  /**
+   * The tag of an end of turn record.
+   */
+  static final byte END_OF_TURN = 0x7F;
+
+  private ActionLogFormat() {
+  }
+
+  /**
+   * Writes the given non-negative int in 7 bit groups, low first, with the high bit of each byte
+   * set if more follow.
+   */
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Can't write negative value " + value);
+    }
+    while (value >= 0x80) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Reads an int written by {@link #writeVarInt(DataOutput, int)}.
+   */
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length int");
+  }
+}
@@ -0,0 +1,187 @@
+package ai.replay;
+
+import ai.AIAction;
+import ai.AIAction.AIActionType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.board.Board;
+import model.board.Tile;
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Summoner;
+import model.unit.Unit;
+import model.unit.ability.Ability;
+import model.unit.combatant.Combatant;
+import model.unit.commander.Commander;
+
+/**
+ * Reads an action log written by {@link ActionLogWriter}, turning each record back into an action
+ * on the game being replayed. The header is read on construction. Actions are read in the order
+ * they were recorded, so the game replaying them must be in the same state the recorded game was
+ * in - loaded with the same board, settings and seed, and with every earlier action replayed.
+ */
+public final class ActionLogReader implements Closeable {
+
+  /**
+   * The seed of the recorded game.
+   */
+  public final long seed;
+
+  /**
+   * The filepath of the board the recorded game was played on.
+   */
+  public final String boardFilepath;
+
+  /**
+   * The fog of war setting of the recorded game.
+   */
+  public final FogOfWar fogOfWar;
+
+  /**
+   * The level commanders started at in the recorded game.
+   */
+  public final int startingCommanderLevel;
+
+  /**
+   * The number of players in the recorded game.
+   */
+  public final int playerCount;
+
+  /**
+   * The stream the log is read from.
+   */
+  private final DataInputStream in;
+
+  /**
+   * True once every record has been read.
+   */
+  private boolean finished;
+
+  /**
+   * Constructs a new ActionLogReader reading from the given stream, and reads the header. Throws if
+   * the stream doesn't start with an action log header of the current version.
+   */
+  public ActionLogReader(InputStream in) {
+    this.in = new DataInputStream(new BufferedInputStream(in));
+    try {
+      if (this.in.readInt() != ActionLogFormat.MAGIC) {
+        throw new RuntimeException("Not an action log");
+      }
+      byte version = this.in.readByte();
+      if (version != ActionLogFormat.VERSION) {
+        throw new RuntimeException("Can't read action log of version " + version);
+      }
+      seed = this.in.readLong();
+      boardFilepath = this.in.readUTF();
+      fogOfWar = FogOfWar.values()[this.in.readByte()];
+      startingCommanderLevel = ActionLogFormat.readVarInt(this.in);
+      playerCount = ActionLogFormat.readVarInt(this.in);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns true once every record in the log has been read.
+   */
+  public synchronized boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Reads the next record as an action of the given player on its game. Returns null if the record
+   * is an end of turn, or if the log is finished.
+   */
+  public synchronized AIAction readAction(Player player) {
+    if (finished) {
+      return null;
+    }
+    try {
+      int tag;
+      try {
+        tag = in.readByte();
+      } catch (EOFException e) {
+        finished = true;
+        return null;
+      }
+      if (tag == ActionLogFormat.END_OF_TURN) {
+        return null;
+      }
+      if (tag < 0 || tag >= AIActionType.values().length) {
+        throw new RuntimeException("Unknown action log record " + tag);
+      }
+      Board board = player.game.board;
+      Unit actingUnit = readTile(board).getOccupyingUnit();
+      switch (AIActionType.values()[tag]) {
+        case MOVE_UNIT:
+          int pathLength = ActionLogFormat.readVarInt(in);
+          List<Tile> path = new ArrayList<>(pathLength);
+          for (int i = 0; i < pathLength; i++) {
+            path.add(readTile(board));
+          }
+          return AIAction.moveUnit(
+              player, (MovingUnit) actingUnit, path.get(path.size() - 1), path);
+        case ATTACK:
+          return AIAction.attack(player, (Combatant) actingUnit, readTile(board));
+        case SUMMON_COMBATANT_OR_BUILD_BUILDING:
+          return summon(player, actingUnit, readTile(board), in.readUTF());
+        case CAST_SPELL:
+          Tile target = readTile(board);
+          String spellName = in.readUTF();
+          Ability spell = ((Commander) actingUnit).getCastables().get(spellName);
+          if (spell == null) {
+            throw new RuntimeException(actingUnit + " can't cast " + spellName + " from the log");
+          }
+          return AIAction.cast(player, (Commander) actingUnit, target, spell);
+        default:
+          throw new RuntimeException("Unknown action log record " + tag);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns an action of the given summoner summoning the unit with the given name on the given
+   * tile. Throws if the summoner can't summon a unit with that name.
+   */
+  @SuppressWarnings("unchecked")
+  private static <U extends Unit & Summoner> AIAction summon(
+      Player player, Unit summoner, Tile location, String unitName) {
+    U typedSummoner = (U) summoner;
+    Unit toSummon = typedSummoner.getSummonables().get(unitName);
+    if (toSummon == null) {
+      toSummon = typedSummoner.getBuildables().get(unitName);
+    }
+    if (toSummon == null) {
+      throw new RuntimeException(summoner + " can't summon " + unitName + " from the log");
+    }
+    return AIAction.summonCombatantOrBuildBuilding(player, typedSummoner, location, toSummon);
+  }
+
+  /**
+   * Reads a tile index and returns the tile at it on the given board.
+   */
+  private Tile readTile(Board board) throws IOException {
+    return board.getTileAtIndex(ActionLogFormat.readVarInt(in));
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    in.close();
+  }
+
+  @Override
+  public String toString() {
+    return "Action log reader for " + boardFilepath + " with seed " + seed;
+  }
+}
@@ -0,0 +1,118 @@
+package ai.replay;
+
+import ai.AIAction;
+import controller.game.GameController;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import model.board.Board;
+import model.board.Tile;
+
+/**
+ * Records the AI actions taken in a game to a compact binary log (see {@link ActionLogFormat}),
+ * which {@link GameReplay} can replay headlessly. Attach to a game before it starts with {@link
+ * GameController#setActionLog(ActionLogWriter)}. A game can only be replayed if every player in it
+ * is an AI, since only AI actions are recorded.
+ */
+public final class ActionLogWriter implements Closeable {
+
+  /**
+   * The stream the log is written to.
+   */
+  private final DataOutputStream out;
+
+  /**
+   * The board of the game being recorded, to index tiles on.
+   */
+  private final Board board;
+
+  /**
+   * Constructs a new ActionLogWriter writing the log of the given game to the given stream, and
+   * writes the header. The game must not have started yet.
+   */
+  public ActionLogWriter(OutputStream out, GameController controller) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+    this.board = controller.game.board;
+    try {
+      this.out.writeInt(ActionLogFormat.MAGIC);
+      this.out.writeByte(ActionLogFormat.VERSION);
+      this.out.writeLong(controller.getSeed());
+      this.out.writeUTF(board.filepath);
+      this.out.writeByte(controller.game.getFogOfWar().ordinal());
+      ActionLogFormat.writeVarInt(this.out, controller.getStartingCommanderLevel());
+      ActionLogFormat.writeVarInt(this.out, controller.game.getRemainingPlayers().size());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes a record of the given action, which is about to be taken.
+   */
+  public synchronized void writeAction(AIAction action) {
+    try {
+      out.writeByte(action.actionType.ordinal());
+      writeTile(action.actingUnit.getLocation());
+      switch (action.actionType) {
+        case MOVE_UNIT:
+          List<Tile> path = action.movePath;
+          ActionLogFormat.writeVarInt(out, path.size());
+          for (Tile t : path) {
+            writeTile(t);
+          }
+          break;
+        case ATTACK:
+          writeTile(action.targetedTile);
+          break;
+        case SUMMON_COMBATANT_OR_BUILD_BUILDING:
+          writeTile(action.targetedTile);
+          out.writeUTF(action.unitToSummon.name);
+          break;
+        case CAST_SPELL:
+          writeTile(action.targetedTile);
+          out.writeUTF(action.spellToCast.name);
+          break;
+        default:
+          throw new RuntimeException("Got unhandled actionType: " + action.actionType);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes a record of the current player ending their turn.
+   */
+  public synchronized void writeEndOfTurn() {
+    try {
+      out.writeByte(ActionLogFormat.END_OF_TURN);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes the index of the given tile.
+   */
+  private void writeTile(Tile t) throws IOException {
+    ActionLogFormat.writeVarInt(out, board.getTileIndex(t));
+  }
+
+  /**
+   * Flushes every record written so far to the underlying stream, then closes it.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+
+  @Override
+  public String toString() {
+    return "Action log writer for " + board.filepath;
+  }
+}
@@ -0,0 +1,64 @@
+package ai.replay;
+
+import ai.AIController;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Replays games recorded by an {@link ActionLogWriter}. A replayed game is loaded with the recorded
+ * game's board, settings and seed, then every player takes the recorded actions instead of
+ * deciding, headless and with no delays. So it ends up in the same states, with the same combat
+ * results, as the recorded game - but runs only the game engine, not the AI that chose the actions.
+ * Useful for profiling a slow or failing game from a training run.
+ *
+ * <p>Run with the path of a log to replay it and print how long it took.
+ */
+public final class GameReplay {
+
+  private GameReplay() {
+  }
+
+  /**
+   * Loads a game replaying the given log, without starting it. Start with {@link
+   * GameController#runOn(Executor)} or {@link GameController#start()}.
+   */
+  public static GameController load(ActionLogReader log) {
+    List<CreatePlayerOptions> playerOptions = new ArrayList<>();
+    for (int i = 0; i < log.playerCount; i++) {
+      playerOptions.add(
+          new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, new ReplayAIController(log)));
+    }
+    return GameController.loadHeadless(
+        log.boardFilepath, playerOptions, log.fogOfWar, log.startingCommanderLevel, log.seed);
+  }
+
+  /**
+   * Replays the log at the given path on the calling thread, returning the finished game.
+   */
+  public static GameController replay(String logFilepath) throws IOException {
+    try (InputStream in = new FileInputStream(logFilepath)) {
+      return load(new ActionLogReader(in)).runOn(Runnable::run).join();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      System.out.println("Usage: GameReplay <action log filepath>");
+      return;
+    }
+    long start = System.nanoTime();
+    GameController controller = replay(args[0]);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(
+        String.format(
+            "Replayed %s: %d turns in %.2f s, remaining players %s",
+            args[0], controller.game.getTurn(), seconds, controller.game.getRemainingPlayers()));
+  }
+}
@@ -0,0 +1,43 @@
+package ai.replay;
+
+import ai.AIAction;
+import ai.AIController;
+
+import model.game.Player;
+
+/**
+ * An AI controller that takes the actions recorded in an action log instead of deciding on its
+ * own. Every player of a replayed game has one of these, all reading from the same log, so the
+ * recorded actions are taken in the order they were recorded.
+ */
+public final class ReplayAIController implements AIController {
+
+  /**
+   * The log the actions are read from.
+   */
+  private final ActionLogReader log;
+
+  /**
+   * Constructs a new ReplayAIController taking the actions recorded in the given log.
+   */
+  public ReplayAIController(ActionLogReader log) {
+    this.log = log;
+  }
+
+  @Override
+  public AIAction getNextAction(Player player) {
+    return log.readAction(player);
+  }
+
+  /**
+   * Does nothing, since the action failed the same way when it was recorded.
+   */
+  @Override
+  public void actionFailed(Exception e, AIAction action) {
+  }
+
+  @Override
+  public String getConfigString() {
+    return "Replay of " + log;
+  }
+}
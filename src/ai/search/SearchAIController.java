@@ -0,0 +1,451 @@
+package ai.search;
+
+import ai.AIAction;
+import ai.AIController;
+import ai.delegating.DelegatingAIController;
+import ai.search.SearchState.AttackResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import model.game.Player;
+import model.unit.combatant.CombatOutcome;
+
+/**
+ * An AI controller that looks ahead before each action. The best few actions by a {@link
+ * DelegatingAIController}'s score are the candidates. Each candidate is played out on a {@link
+ * SearchState} and followed by an expectimax search over the rest of the turn's attacks: the player
+ * picks the best follow-up attack (or stops), and each attack branches on its chance of killing the
+ * defender, killing the attacker, or neither. A candidate's final score is its delegate score plus
+ * the search weight times how much the expected value of the searched state beats searching on
+ * without it. Actions the state doesn't model - summons and casts - keep their delegate score.
+ *
+ * <p>Searches deepen one attack at a time until they reach the max depth or run out of time, and
+ * the deepest search that finished is used. Candidates are searched in parallel on a shared,
+ * bounded pool, so more cores means deeper searches within the same time. Each action gets a time
+ * budget, and so does the whole turn - once the turn's budget is spent, the delegating controller's
+ * best action is played without searching.
+ */
+public final class SearchAIController implements AIController {
+
+  /**
+   * The type to show on the ui for a search AI controller with the default delegates and budgets.
+   */
+  public static final String SEARCH_DEFAULT_AI_TYPE = "Search AI - Default";
+
+  /**
+   * The default time budget for a whole turn, in milliseconds.
+   */
+  public static final long DEFAULT_TURN_BUDGET_MILLIS = 2000;
+
+  /**
+   * The default time budget for choosing one action, in milliseconds.
+   */
+  public static final long DEFAULT_ACTION_BUDGET_MILLIS = 200;
+
+  /**
+   * The default maximum number of attacks searched after a candidate action.
+   */
+  public static final int DEFAULT_MAX_DEPTH = 3;
+
+  /**
+   * The default number of candidate actions searched for each action.
+   */
+  public static final int DEFAULT_CANDIDATE_COUNT = 8;
+
+  /**
+   * The default weight of the search's value relative to the delegate score.
+   */
+  public static final double DEFAULT_SEARCH_WEIGHT = 0.1;
+
+  /**
+   * The pool candidates are searched on. Shared by every controller, so running many games at once
+   * doesn't multiply the number of search threads.
+   */
+  private static final ForkJoinPool SEARCH_POOL =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Thrown by a search that ran past its deadline. Shared and without a stack trace, since it's
+   * thrown often and only ever caught.
+   */
+  private static final SearchTimeoutException TIMEOUT = new SearchTimeoutException();
+
+  /**
+   * The type of {@link #TIMEOUT}.
+   */
+  private static final class SearchTimeoutException extends RuntimeException {
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    private SearchTimeoutException() {
+      super("Search ran out of time", null, false, false);
+    }
+  }
+
+  /**
+   * The controller that finds and scores the candidate actions, and keeps track of the game state
+   * between actions.
+   */
+  private final DelegatingAIController delegatingController;
+
+  /**
+   * The time budget for a whole turn, in nanoseconds.
+   */
+  private final long turnBudgetNanos;
+
+  /**
+   * The time budget for choosing one action, in nanoseconds.
+   */
+  private final long actionBudgetNanos;
+
+  /**
+   * The maximum number of attacks searched after a candidate action.
+   */
+  private final int maxDepth;
+
+  /**
+   * The number of candidate actions searched for each action.
+   */
+  private final int candidateCount;
+
+  /**
+   * The weight of the search's value relative to the delegate score.
+   */
+  private final double searchWeight;
+
+  /**
+   * The time the current turn's budget runs out, by {@link System#nanoTime()}.
+   */
+  private long turnDeadline;
+
+  /**
+   * The depth of the last finished search, 0 if the last action wasn't searched.
+   */
+  private int lastSearchDepth;
+
+  /**
+   * Constructs a SearchAIController that searches the candidates of the given delegating controller
+   * with the default budgets, depth and weight.
+   */
+  public SearchAIController(DelegatingAIController delegatingController) {
+    this(
+        delegatingController,
+        DEFAULT_TURN_BUDGET_MILLIS,
+        DEFAULT_ACTION_BUDGET_MILLIS,
+        DEFAULT_MAX_DEPTH,
+        DEFAULT_CANDIDATE_COUNT,
+        DEFAULT_SEARCH_WEIGHT);
+  }
+
+  /**
+   * Constructs a SearchAIController that searches the given number of candidates of the given
+   * delegating controller up to the given depth, within the given budgets, weighting the search's
+   * value by the given weight.
+   */
+  public SearchAIController(
+      DelegatingAIController delegatingController,
+      long turnBudgetMillis,
+      long actionBudgetMillis,
+      int maxDepth,
+      int candidateCount,
+      double searchWeight) {
+    if (turnBudgetMillis <= 0 || actionBudgetMillis <= 0) {
+      throw new IllegalArgumentException(
+          "Time budgets must be positive: " + turnBudgetMillis + ", " + actionBudgetMillis);
+    }
+    if (maxDepth <= 0 || candidateCount <= 0) {
+      throw new IllegalArgumentException(
+          "Depth and candidate count must be positive: " + maxDepth + ", " + candidateCount);
+    }
+    this.delegatingController = delegatingController;
+    this.turnBudgetNanos = turnBudgetMillis * 1_000_000;
+    this.actionBudgetNanos = actionBudgetMillis * 1_000_000;
+    this.maxDepth = maxDepth;
+    this.candidateCount = candidateCount;
+    this.searchWeight = searchWeight;
+  }
+
+  /**
+   * Returns the id of the delegating controller.
+   */
+  @Override
+  public String id() {
+    return delegatingController.id();
+  }
+
+  /**
+   * Returns the depth of the last finished search, 0 if the last action wasn't searched.
+   */
+  public int getLastSearchDepth() {
+    return lastSearchDepth;
+  }
+
+  /**
+   * Starts the turn's time budget and the delegating controller's turn.
+   */
+  @Override
+  public void turnStart(Player player) {
+    turnDeadline = System.nanoTime() + turnBudgetNanos;
+    delegatingController.turnStart(player);
+  }
+
+  /**
+   * Returns the candidate with the best searched score if that score is positive, null otherwise.
+   * If there is no time left to search, returns the delegating controller's best action.
+   */
+  @Override
+  public AIAction getNextAction(Player player) {
+    lastSearchDepth = 0;
+    Map<AIAction, Double> candidates =
+        delegatingController.getBestActions(player, candidateCount);
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    List<AIAction> actions = new ArrayList<>(candidates.keySet());
+    long deadline = Math.min(turnDeadline, System.nanoTime() + actionBudgetNanos);
+    double[] gains = search(new SearchState(player), actions, deadline);
+    if (gains == null) {
+      return actions.get(0);
+    }
+
+    AIAction bestAction = null;
+    double bestScore = 0;
+    for (int i = 0; i < actions.size(); i++) {
+      double score = candidates.get(actions.get(i)) + searchWeight * gains[i];
+      if (score > bestScore) {
+        bestAction = actions.get(i);
+        bestScore = score;
+      }
+    }
+    return bestAction;
+  }
+
+  /**
+   * Returns how much each of the given actions gains over not taking it, searching deeper until
+   * the max depth or the deadline. Returns the gains of the deepest finished search, or null if
+   * none finished in time. Every depth shares one transposition table, so deeper searches reuse
+   * the values of states reached in shallower ones.
+   */
+  private double[] search(SearchState root, List<AIAction> actions, long deadline) {
+    Search search = new Search(deadline);
+    double[] gains = null;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      double[] depthGains = searchToDepth(search, root, actions, depth);
+      if (depthGains == null) {
+        break;
+      }
+      gains = depthGains;
+      lastSearchDepth = depth;
+    }
+    return gains;
+  }
+
+  /**
+   * Returns how much each of the given actions gains over not taking it when followed by up to
+   * depth - 1 attacks, or null if the search didn't finish by the deadline. Each action that
+   * changes the state is searched as its own task on {@link #SEARCH_POOL}, on its own copy of the
+   * root, along with the state it's compared to.
+   */
+  private static double[] searchToDepth(
+      Search search, SearchState root, List<AIAction> actions, int depth) {
+    List<Callable<Double>> tasks = new ArrayList<>();
+    tasks.add(() -> search.getValue(root.copy(), depth - 1));
+    List<Integer> searchedIndices = new ArrayList<>();
+    for (int i = 0; i < actions.size(); i++) {
+      AIAction action = actions.get(i);
+      if (changesState(root, action)) {
+        searchedIndices.add(i);
+        tasks.add(() -> search.getValue(root.copy(), action, depth - 1));
+      }
+    }
+
+    double[] values = new double[tasks.size()];
+    List<Future<Double>> futures = SEARCH_POOL.invokeAll(tasks);
+    try {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = futures.get(i).get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() == TIMEOUT) {
+        return null;
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+
+    // Actions the search doesn't model gain nothing over not taking them.
+    double[] gains = new double[actions.size()];
+    for (int i = 0; i < searchedIndices.size(); i++) {
+      gains[searchedIndices.get(i)] = values[i + 1] - values[0];
+    }
+    return gains;
+  }
+
+  /**
+   * Returns true iff the given action is searched - a move or attack by a unit in the given state.
+   * Summons and casts aren't, since the state's value doesn't count mana or spell effects.
+   */
+  private static boolean changesState(SearchState state, AIAction action) {
+    switch (action.actionType) {
+      case MOVE_UNIT:
+        return state.indexOf(action.actingUnit) >= 0;
+      case ATTACK:
+        return state.indexOf(action.actingUnit) >= 0
+            && state.indexOf(action.targetedTile.getOccupyingUnit()) >= 0;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * One search for the best action: its deadline, and the values of the states it has searched.
+   * Searches states in place, undoing each change once its branch is searched, so each task only
+   * copies the root once. Can be used by many tasks at once, each on its own copy.
+   */
+  private static final class Search {
+
+    /**
+     * The most states kept in {@link #table}. Further states are searched without being kept.
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 20;
+
+    /**
+     * The time the search has to finish by, by {@link System#nanoTime()}.
+     */
+    private final long deadline;
+
+    /**
+     * The transposition table: the value of each searched state followed by up to some number of
+     * attacks, by {@link #tableKey(SearchState, int)}.
+     */
+    private final Map<Long, Double> table;
+
+    /**
+     * Constructs a new search that has to finish by the given deadline.
+     */
+    private Search(long deadline) {
+      this.deadline = deadline;
+      table = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the key of the given state followed by up to depth attacks in {@link #table}.
+     */
+    private static long tableKey(SearchState state, int depth) {
+      return state.getHash() + depth * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Returns the expected value of taking the given action in the given state, followed by up to
+     * depth attacks. The action must be searched. Leaves the state as it was.
+     */
+    private double getValue(SearchState state, AIAction action, int depth) {
+      if (action.actionType == AIAction.AIActionType.ATTACK) {
+        int attacker = state.indexOf(action.actingUnit);
+        int defender = state.indexOf(action.targetedTile.getOccupyingUnit());
+        return getAttackValue(state, attacker, defender, depth);
+      }
+      int mark = state.mark();
+      state.apply(action);
+      double value = getValue(state, depth);
+      state.undo(mark);
+      return value;
+    }
+
+    /**
+     * Returns the value of the given state when followed by the best sequence of up to depth
+     * attacks, counting stopping without attacking. Throws {@link #TIMEOUT} if the deadline passes.
+     * Leaves the state as it was.
+     */
+    private double getValue(SearchState state, int depth) {
+      if (System.nanoTime() > deadline) {
+        throw TIMEOUT;
+      }
+      double best = state.evaluate();
+      if (depth == 0) {
+        return best;
+      }
+      long key = tableKey(state, depth);
+      Double known = table.get(key);
+      if (known != null) {
+        return known;
+      }
+      int unitCount = state.getUnitCount();
+      for (int attacker = 0; attacker < unitCount; attacker++) {
+        if (!state.canFight(attacker)) {
+          continue;
+        }
+        for (int defender = 0; defender < unitCount; defender++) {
+          if (state.canAttack(attacker, defender)) {
+            best = Math.max(best, getAttackValue(state, attacker, defender, depth - 1));
+          }
+        }
+      }
+      if (table.size() < MAX_TABLE_SIZE) {
+        table.put(key, best);
+      }
+      return best;
+    }
+
+    /**
+     * Returns the expected value of the unit at the given attacker index attacking the unit at the
+     * given defender index in the given state, followed by up to depth attacks. Leaves the state
+     * as it was.
+     */
+    private double getAttackValue(SearchState state, int attacker, int defender, int depth) {
+      CombatOutcome outcome = state.getOutcome(attacker, defender);
+      double value = 0;
+      for (AttackResult result : AttackResult.values()) {
+        double chance = result.getChance(outcome);
+        if (chance > 0) {
+          int mark = state.mark();
+          state.applyAttack(attacker, defender, outcome, result);
+          value += chance * getValue(state, depth);
+          state.undo(mark);
+        }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Forwards the failure to the delegating controller.
+   */
+  @Override
+  public void actionFailed(Exception e, AIAction action) {
+    delegatingController.actionFailed(e, action);
+  }
+
+  /**
+   * Forwards the executed action to the delegating controller.
+   */
+  @Override
+  public void actionExecuted(AIAction action) {
+    delegatingController.actionExecuted(action);
+  }
+
+  /**
+   * Returns the config string of the delegating controller, since its weights determine the
+   * candidates and their scores.
+   */
+  @Override
+  public String getConfigString() {
+    return delegatingController.getConfigString();
+  }
+
+  @Override
+  public String toString() {
+    return "Search AI controller over " + delegatingController;
+  }
+}
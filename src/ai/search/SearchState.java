@@ -0,0 +1,692 @@
+package ai.search;
+
+import ai.AIAction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.board.Board;
+import model.board.Tile;
+import model.game.Player;
+import model.unit.Unit;
+import model.unit.combatant.Combat;
+import model.unit.combatant.CombatOutcome;
+import model.unit.combatant.Combatant;
+import model.unit.commander.Commander;
+
+/**
+ * A compact, copyable model of the parts of a game a player's turn is searched over, stored as
+ * parallel primitive arrays rather than linked objects. Each unit is identified by its index into
+ * the arrays, which hold its owner, location, health, can-fight flag and the stats the search
+ * needs. Each player is identified by its index into the per-player arrays, which hold its mana and
+ * research. Holds the player's own units and the enemy units it can see, plus any units summoned in
+ * the state.
+ *
+ * <p>Actions are applied in place, and every change is recorded so it can be undone: take a {@link
+ * #mark()}, apply any number of actions, and {@link #undo(int)} back to the mark. Undoing restores
+ * the state exactly, hash included. {@link #copy()} takes O(state) time and gives a state that can
+ * be changed independently, as by another thread.
+ *
+ * <p>Each state has a 64-bit Zobrist hash of its contents, kept up to date as actions are applied
+ * and undone, so searches can recognize states they have already evaluated. Each unit and player
+ * contributes a pseudo-random key of its slot and contents, and the hash is the xor of those keys,
+ * so changing one slot only swaps its key in and out.
+ *
+ * <p>Everything not in the state - stat modifiers, terrain, visibility, and the attack stats of
+ * projected combats - is taken from the game as it was when the state was created, so states go
+ * stale as soon as the game changes.
+ */
+final class SearchState {
+
+  /**
+   * The value of a full-health commander. Much higher than any other unit, since losing the
+   * commander loses the game.
+   */
+  static final double COMMANDER_VALUE = 1000;
+
+  /**
+   * Undo log field of a unit's location.
+   */
+  private static final int LOCATION = 0;
+
+  /**
+   * Undo log field of a unit's health.
+   */
+  private static final int HEALTH = 1;
+
+  /**
+   * Undo log field of a unit's can-fight flag.
+   */
+  private static final int CAN_FIGHT = 2;
+
+  /**
+   * Undo log field of a player's mana.
+   */
+  private static final int MANA = 3;
+
+  /**
+   * Undo log field of the number of units, changed by summoning.
+   */
+  private static final int UNIT_COUNT = 4;
+
+  /**
+   * The player whose turn is being searched.
+   */
+  final Player player;
+
+  /**
+   * The index of {@link #player} in {@link #players}.
+   */
+  private final int playerIndex;
+
+  /**
+   * The board the game is played on.
+   */
+  private final Board board;
+
+  /**
+   * The players in the game when this state was created. Shared between copies.
+   */
+  private final Player[] players;
+
+  /**
+   * The number of units in the state when it was created. Units at lower indices are in {@link
+   * #initialIndices}, units at higher indices were summoned in the state.
+   */
+  private final int initialUnitCount;
+
+  /**
+   * The index of each unit present when the state was created. Shared between copies.
+   */
+  private final Map<Unit, Integer> initialIndices;
+
+  /**
+   * The projected combat of each attacker, defender and attacker location, by {@link
+   * #combatKey(int, int, int)}. Shared between copies, so a combat projected in any state is reused
+   * by all of them. Only for units present when the state was created.
+   */
+  private final Map<Long, Combat> combats;
+
+  /**
+   * The number of units in the state. Only the first unitCount slots of the unit arrays are used.
+   */
+  private int unitCount;
+
+  /**
+   * The unit in each slot. Summoned units are the template unit summoned.
+   */
+  private Unit[] units;
+
+  /**
+   * The index of the owner of each unit in {@link #players}.
+   */
+  private int[] owners;
+
+  /**
+   * The pseudo-random seed of the hash key of each unit, from its slot and name.
+   */
+  private long[] unitSeeds;
+
+  /**
+   * The value of each unit at full health.
+   */
+  private double[] values;
+
+  /**
+   * The max health of each unit.
+   */
+  private int[] maxHealths;
+
+  /**
+   * The min attack range of each unit.
+   */
+  private int[] minAttackRanges;
+
+  /**
+   * The max attack range of each unit.
+   */
+  private int[] maxAttackRanges;
+
+  /**
+   * The tile index of each unit.
+   */
+  private int[] locations;
+
+  /**
+   * The health of each unit. 0 once it dies.
+   */
+  private int[] healths;
+
+  /**
+   * True for each of the player's combatants that can still attack.
+   */
+  private boolean[] canFight;
+
+  /**
+   * The mana of each player.
+   */
+  private final int[] mana;
+
+  /**
+   * The research of each player.
+   */
+  private final int[] research;
+
+  /**
+   * The changes made since the state was created or copied, oldest first. Each entry packs the
+   * field, the unit or player index and the old value - see {@link #log(int, int, int)}.
+   */
+  private long[] undoLog;
+
+  /**
+   * The number of entries in {@link #undoLog}.
+   */
+  private int undoLogSize;
+
+  /**
+   * The Zobrist hash of this state.
+   */
+  private long hash;
+
+  /**
+   * Creates a state from the current state of the given player's units and the enemy units it can
+   * see.
+   */
+  SearchState(Player player) {
+    this.player = player;
+    board = player.game.board;
+    players = player.game.getRemainingPlayers().toArray(new Player[0]);
+    playerIndex = Arrays.asList(players).indexOf(player);
+    mana = new int[players.length];
+    research = new int[players.length];
+    for (int p = 0; p < players.length; p++) {
+      mana[p] = players[p].getMana();
+      research[p] = players[p].getResearch();
+      hash ^= playerKey(p);
+    }
+
+    List<Unit> stateUnits = new ArrayList<>(player.getUnits());
+    for (Unit u : player.game.getOtherPlayersUnits(player)) {
+      if (player.canSee(u)) {
+        stateUnits.add(u);
+      }
+    }
+    initialUnitCount = stateUnits.size();
+    allocateUnits(Math.max(4, initialUnitCount * 2));
+    Map<Unit, Integer> indices = new HashMap<>();
+    for (Unit u : stateUnits) {
+      indices.put(u, unitCount);
+      addUnit(
+          u,
+          Arrays.asList(players).indexOf(u.owner),
+          u.getLocation(),
+          u.getHealth(),
+          u.owner == player && u instanceof Combatant && ((Combatant) u).canFight());
+    }
+    initialIndices = Collections.unmodifiableMap(indices);
+    combats = new ConcurrentHashMap<>();
+    undoLog = new long[16];
+  }
+
+  /**
+   * Constructs a copy of the given state, with an empty undo log.
+   */
+  private SearchState(SearchState state) {
+    player = state.player;
+    playerIndex = state.playerIndex;
+    board = state.board;
+    players = state.players;
+    initialUnitCount = state.initialUnitCount;
+    initialIndices = state.initialIndices;
+    combats = state.combats;
+    unitCount = state.unitCount;
+    units = state.units.clone();
+    owners = state.owners.clone();
+    unitSeeds = state.unitSeeds.clone();
+    values = state.values.clone();
+    maxHealths = state.maxHealths.clone();
+    minAttackRanges = state.minAttackRanges.clone();
+    maxAttackRanges = state.maxAttackRanges.clone();
+    locations = state.locations.clone();
+    healths = state.healths.clone();
+    canFight = state.canFight.clone();
+    mana = state.mana.clone();
+    research = state.research.clone();
+    undoLog = new long[16];
+    hash = state.hash;
+  }
+
+  /**
+   * Returns a copy of this state that can be changed without changing this. The copy's undo log
+   * starts empty.
+   */
+  SearchState copy() {
+    return new SearchState(this);
+  }
+
+  /**
+   * Sets the unit arrays to the given capacity, keeping their contents.
+   */
+  private void allocateUnits(int capacity) {
+    units = units == null ? new Unit[capacity] : Arrays.copyOf(units, capacity);
+    owners = owners == null ? new int[capacity] : Arrays.copyOf(owners, capacity);
+    unitSeeds = unitSeeds == null ? new long[capacity] : Arrays.copyOf(unitSeeds, capacity);
+    values = values == null ? new double[capacity] : Arrays.copyOf(values, capacity);
+    maxHealths = maxHealths == null ? new int[capacity] : Arrays.copyOf(maxHealths, capacity);
+    minAttackRanges =
+        minAttackRanges == null ? new int[capacity] : Arrays.copyOf(minAttackRanges, capacity);
+    maxAttackRanges =
+        maxAttackRanges == null ? new int[capacity] : Arrays.copyOf(maxAttackRanges, capacity);
+    locations = locations == null ? new int[capacity] : Arrays.copyOf(locations, capacity);
+    healths = healths == null ? new int[capacity] : Arrays.copyOf(healths, capacity);
+    canFight = canFight == null ? new boolean[capacity] : Arrays.copyOf(canFight, capacity);
+  }
+
+  /**
+   * Adds the given unit in the next slot with the given owner index and state, and adds its key to
+   * the hash. Doesn't log the change.
+   */
+  private void addUnit(Unit u, int owner, Tile location, int health, boolean fight) {
+    if (unitCount == units.length) {
+      allocateUnits(unitCount * 2);
+    }
+    int i = unitCount++;
+    units[i] = u;
+    owners[i] = owner;
+    unitSeeds[i] = mix(((long) i << 32) ^ u.name.hashCode());
+    values[i] = u instanceof Commander ? COMMANDER_VALUE : u.manaCost;
+    maxHealths[i] = u.getMaxHealth();
+    minAttackRanges[i] = u.getMinAttackRange();
+    maxAttackRanges[i] = u.getMaxAttackRange();
+    locations[i] = board.getTileIndex(location);
+    healths[i] = health;
+    canFight[i] = fight;
+    hash ^= unitKey(i);
+  }
+
+  /**
+   * Returns the number of units in this state, alive or dead.
+   */
+  int getUnitCount() {
+    return unitCount;
+  }
+
+  /**
+   * Returns the index of the given unit in this state, -1 if it isn't in it. Units summoned in the
+   * state are found by their template.
+   */
+  int indexOf(Unit unit) {
+    Integer index = initialIndices.get(unit);
+    if (index != null) {
+      return index;
+    }
+    for (int i = initialUnitCount; i < unitCount; i++) {
+      if (units[i] == unit) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the unit at the given index.
+   */
+  Unit getUnit(int index) {
+    return units[index];
+  }
+
+  /**
+   * Returns the health of the unit at the given index, 0 if it died.
+   */
+  int getHealth(int index) {
+    return healths[index];
+  }
+
+  /**
+   * Returns the tile the unit at the given index is on.
+   */
+  Tile getLocation(int index) {
+    return board.getTileAtIndex(locations[index]);
+  }
+
+  /**
+   * Returns the mana of the given player, who must have been in the game when the state was
+   * created.
+   */
+  int getMana(Player p) {
+    return mana[Arrays.asList(players).indexOf(p)];
+  }
+
+  /**
+   * Returns the Zobrist hash of this state. Equal states have equal hashes.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns true iff the unit at the given index is one of the player's combatants that is alive
+   * and can still attack.
+   */
+  boolean canFight(int index) {
+    return canFight[index] && healths[index] > 0;
+  }
+
+  /**
+   * Returns true iff the unit at the given attacker index could attack the unit at the given
+   * defender index in this state: the attacker can fight, the defender is a living enemy, and it is
+   * within the attacker's range.
+   */
+  boolean canAttack(int attacker, int defender) {
+    if (!canFight(attacker) || healths[defender] <= 0 || owners[defender] == playerIndex) {
+      return false;
+    }
+    int width = board.getWidth();
+    int from = locations[attacker];
+    int to = locations[defender];
+    int dist = Math.abs(from / width - to / width) + Math.abs(from % width - to % width);
+    return dist > minAttackRanges[attacker] && dist <= maxAttackRanges[attacker] + 1;
+  }
+
+  /**
+   * Applies the given action, which must be by the player. Moves change the unit's location,
+   * summons add the summoned unit and pay its cost, and casts pay the spell's cost. Costs are as
+   * of when the state was created, and spell effects aren't modeled. Throws for attacks, which have
+   * to be applied with a result by {@link #applyAttack(AIAction, AttackResult)}.
+   */
+  void apply(AIAction action) {
+    if (action.player != player) {
+      throw new RuntimeException("Can't apply " + action + " to state for " + player);
+    }
+    switch (action.actionType) {
+      case MOVE_UNIT:
+        setLocation(requireIndexOf(action.actingUnit), board.getTileIndex(action.targetedTile));
+        break;
+      case SUMMON_COMBATANT_OR_BUILD_BUILDING:
+        setMana(
+            playerIndex,
+            mana[playerIndex]
+                - action.unitToSummon.getManaCostWithScalingAndDiscountsForPlayer(player));
+        log(UNIT_COUNT, 0, unitCount);
+        addUnit(
+            action.unitToSummon,
+            playerIndex,
+            action.targetedTile,
+            action.unitToSummon.getMaxHealth(),
+            false);
+        break;
+      case CAST_SPELL:
+        setMana(playerIndex, mana[playerIndex] - action.spellToCast.manaCost);
+        break;
+      default:
+        throw new RuntimeException("Can't apply " + action + " without a result");
+    }
+  }
+
+  /**
+   * Applies the given attack action, which must be by the player, with the given result.
+   */
+  void applyAttack(AIAction action, AttackResult result) {
+    if (action.player != player || action.actionType != AIAction.AIActionType.ATTACK) {
+      throw new RuntimeException("Can't apply " + action + " as an attack for " + player);
+    }
+    int attacker = requireIndexOf(action.actingUnit);
+    int defender = requireIndexOf(action.targetedTile.getOccupyingUnit());
+    applyAttack(attacker, defender, getOutcome(attacker, defender), result);
+  }
+
+  /**
+   * Returns the index of the given unit, throwing if it isn't in this state.
+   */
+  private int requireIndexOf(Unit unit) {
+    int index = indexOf(unit);
+    if (index < 0) {
+      throw new RuntimeException("Can't find " + unit + " in " + this);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the exact distribution of outcomes of the unit at the given attacker index attacking
+   * the unit at the given defender index, with both at their health and location in this state.
+   * Both must have been in the state when it was created.
+   */
+  CombatOutcome getOutcome(int attacker, int defender) {
+    Combat combat =
+        combats.computeIfAbsent(
+            combatKey(attacker, defender, locations[attacker]),
+            k ->
+                new Combat(
+                    (Combatant) units[attacker],
+                    units[defender],
+                    board.getTileAtIndex(locations[attacker])));
+    return combat.getOutcome(healths[attacker], healths[defender]);
+  }
+
+  /**
+   * Returns the key of the combat of the given attacker at the given tile index attacking the
+   * given defender in {@link #combats}.
+   */
+  private long combatKey(int attacker, int defender, int attackerLocation) {
+    if (attacker >= initialUnitCount || defender >= initialUnitCount) {
+      throw new RuntimeException("Can't project combat with units summoned in " + this);
+    }
+    return ((long) attackerLocation * initialUnitCount + attacker) * initialUnitCount + defender;
+  }
+
+  /**
+   * The results of an attack a search branches on. Each stands in for every outcome of the combat
+   * in which it happens, with the damage dealt in the outcomes where a unit survives averaged.
+   */
+  enum AttackResult {
+    DEFENDER_DIES,
+    ATTACKER_DIES,
+    BOTH_SURVIVE;
+
+    /**
+     * Returns the chance of this result in the given outcome.
+     */
+    double getChance(CombatOutcome outcome) {
+      switch (this) {
+        case DEFENDER_DIES:
+          return outcome.chanceDefenderDies;
+        case ATTACKER_DIES:
+          return outcome.chanceAttackerDies;
+        case BOTH_SURVIVE:
+          return Math.max(0, 1 - outcome.chanceDefenderDies - outcome.chanceAttackerDies);
+        default:
+          throw new RuntimeException("Unknown attack result " + this);
+      }
+    }
+  }
+
+  /**
+   * Applies the given result of the unit at the given attacker index attacking the unit at the
+   * given defender index, with the given outcome of that attack. The attacker can't attack again
+   * afterwards.
+   */
+  void applyAttack(int attacker, int defender, CombatOutcome outcome, AttackResult result) {
+    setCanFight(attacker, false);
+    switch (result) {
+      case DEFENDER_DIES:
+        setHealth(defender, 0);
+        break;
+      case ATTACKER_DIES:
+        setHealth(
+            defender, damage(healths[defender], outcome.expectedDamageDealtIfDefenderSurvives));
+        setHealth(attacker, 0);
+        break;
+      case BOTH_SURVIVE:
+        setHealth(
+            defender, damage(healths[defender], outcome.expectedDamageDealtIfDefenderSurvives));
+        setHealth(
+            attacker, damage(healths[attacker], outcome.expectedDamageTakenIfBothSurvive));
+        break;
+      default:
+        throw new RuntimeException("Unknown attack result " + result);
+    }
+  }
+
+  /**
+   * Returns the given health after taking the given expected damage, for a unit known to survive.
+   */
+  private static int damage(int health, double expectedDamage) {
+    return Math.max(1, health - (int) Math.round(expectedDamage));
+  }
+
+  /**
+   * Returns a mark of the current point in the undo log, to pass to {@link #undo(int)}.
+   */
+  int mark() {
+    return undoLogSize;
+  }
+
+  /**
+   * Undoes every change made since the given mark was taken, newest first.
+   */
+  void undo(int mark) {
+    if (mark < 0 || mark > undoLogSize) {
+      throw new RuntimeException("Can't undo to " + mark + ", log has " + undoLogSize + " entries");
+    }
+    while (undoLogSize > mark) {
+      long entry = undoLog[--undoLogSize];
+      int field = (int) (entry >>> 56);
+      int index = (int) (entry >>> 32) & 0xFFFFFF;
+      int oldValue = (int) entry;
+      switch (field) {
+        case LOCATION:
+          hash ^= unitKey(index);
+          locations[index] = oldValue;
+          hash ^= unitKey(index);
+          break;
+        case HEALTH:
+          hash ^= unitKey(index);
+          healths[index] = oldValue;
+          hash ^= unitKey(index);
+          break;
+        case CAN_FIGHT:
+          hash ^= unitKey(index);
+          canFight[index] = oldValue != 0;
+          hash ^= unitKey(index);
+          break;
+        case MANA:
+          hash ^= playerKey(index);
+          mana[index] = oldValue;
+          hash ^= playerKey(index);
+          break;
+        case UNIT_COUNT:
+          while (unitCount > oldValue) {
+            hash ^= unitKey(--unitCount);
+            units[unitCount] = null;
+          }
+          break;
+        default:
+          throw new RuntimeException("Unknown undo log field " + field);
+      }
+    }
+  }
+
+  /**
+   * Records that the given field of the given unit or player had the given value before a change.
+   */
+  private void log(int field, int index, int oldValue) {
+    if (undoLogSize == undoLog.length) {
+      undoLog = Arrays.copyOf(undoLog, undoLogSize * 2);
+    }
+    undoLog[undoLogSize++] =
+        ((long) field << 56) | ((long) index << 32) | (oldValue & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Sets the location of the unit at the given index to the given tile index, logged and hashed.
+   */
+  private void setLocation(int index, int location) {
+    log(LOCATION, index, locations[index]);
+    hash ^= unitKey(index);
+    locations[index] = location;
+    hash ^= unitKey(index);
+  }
+
+  /**
+   * Sets the health of the unit at the given index, logged and hashed.
+   */
+  private void setHealth(int index, int health) {
+    log(HEALTH, index, healths[index]);
+    hash ^= unitKey(index);
+    healths[index] = health;
+    hash ^= unitKey(index);
+  }
+
+  /**
+   * Sets whether the unit at the given index can fight, logged and hashed.
+   */
+  private void setCanFight(int index, boolean fight) {
+    log(CAN_FIGHT, index, canFight[index] ? 1 : 0);
+    hash ^= unitKey(index);
+    canFight[index] = fight;
+    hash ^= unitKey(index);
+  }
+
+  /**
+   * Sets the mana of the player at the given index, logged and hashed.
+   */
+  private void setMana(int index, int value) {
+    log(MANA, index, mana[index]);
+    hash ^= playerKey(index);
+    mana[index] = value;
+    hash ^= playerKey(index);
+  }
+
+  /**
+   * Returns the hash key of the unit at the given index in its current state.
+   */
+  private long unitKey(int index) {
+    return mix(
+        unitSeeds[index]
+            ^ ((long) locations[index] << 32)
+            ^ ((long) healths[index] << 1)
+            ^ (canFight[index] ? 1 : 0));
+  }
+
+  /**
+   * Returns the hash key of the player at the given index in its current state.
+   */
+  private long playerKey(int index) {
+    return mix(~((long) index << 48) ^ ((long) research[index] << 24) ^ mana[index]);
+  }
+
+  /**
+   * Scrambles the given value into a pseudo-random 64-bit key. The finalizer of SplitMix64 - a
+   * bijection, so distinct values always get distinct keys.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns how good this state is for the player: the value of its units minus the value of the
+   * enemy units, each scaled by its fraction of health remaining.
+   */
+  double evaluate() {
+    double value = 0;
+    for (int i = 0; i < unitCount; i++) {
+      if (healths[i] > 0) {
+        double unitValue = values[i] * healths[i] / maxHealths[i];
+        value += owners[i] == playerIndex ? unitValue : -unitValue;
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "Search state for " + player + " with " + unitCount + " units";
+  }
+}
@@ -2,18 +2,28 @@ package controller.game;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import model.board.Board;
+import model.board.BoardTemplate;
 import model.board.Terrain;
 import model.util.MPoint;
 
 /**
  * Input class to read a board by filepath into memory.
  *
+ * <p>Each board file is only parsed once per process. Its {@link BoardTemplate} is cached, and
+ * every board read from the same file afterwards is a fresh {@link Board} over the cached template.
+ * Parsed csv boards are also compiled to {@link #COMPILED_BOARDS_FILEPATH} (see {@link
+ * CompiledBoardFormat}), so later processes load them with a memory-mapped read instead.
+ *
  * @author Mshnik
  */
 public final class BoardReader {
@@ -25,6 +35,16 @@ public final class BoardReader {
    */
   public static final String BOARDS_ROOT_FILEPATH = "game/boards/";
 
+  /**
+   * Root filepath for compiled boards. Only a cache of the board files, safe to delete.
+   */
+  public static final String COMPILED_BOARDS_FILEPATH = "data/boards/";
+
+  /**
+   * Extension of compiled board files.
+   */
+  private static final String COMPILED_BOARD_EXTENSION = ".board";
+
   /**
    * Special character for where a player starts.
    */
@@ -36,9 +56,82 @@ public final class BoardReader {
   private static final Terrain PLAYER_START_TERRAIN = Terrain.GRASS;
 
   /**
-   * Reads a board from memory at the given csvFilepath.
+   * The templates of the board files read so far in this process, by absolute board file path.
+   */
+  private static final Map<Path, BoardTemplate> templates = new ConcurrentHashMap<>();
+
+  /**
+   * Reads a board from memory at the given csvFilepath, with the player start locations in random
+   * order.
    */
   public static Board readBoard(String boardFilepath) {
+    return readBoard(boardFilepath, new Random());
+  }
+
+  /**
+   * Reads a board from memory at the given csvFilepath, with the player start locations shuffled
+   * by the given random.
+   */
+  public static Board readBoard(String boardFilepath, Random random) {
+    BoardTemplate template = getTemplate(boardFilepath);
+    List<MPoint> playerStartLocations = new ArrayList<>(template.getCommanderStartLocations());
+
+    // Randomize starting locations.
+    Collections.shuffle(playerStartLocations, random);
+
+    return new Board(boardFilepath, template, playerStartLocations);
+  }
+
+  /**
+   * Returns the template of the board file at the given path, reading it if it hasn't been read in
+   * this process yet.
+   */
+  public static BoardTemplate getTemplate(String boardFilepath) {
+    return templates.computeIfAbsent(
+        Paths.get(boardFilepath).toAbsolutePath().normalize(),
+        source -> loadTemplate(boardFilepath, source));
+  }
+
+  /**
+   * Loads the template of the given board file from its compiled board if it's current, otherwise
+   * parses the board file and compiles it. Compiling is best effort, since a compiled board is only
+   * a cache.
+   */
+  private static BoardTemplate loadTemplate(String boardFilepath, Path source) {
+    Path compiled = Paths.get(COMPILED_BOARDS_FILEPATH, getCompiledFilename(source));
+    try {
+      BoardTemplate template = CompiledBoardFormat.read(compiled, source, boardFilepath);
+      if (template != null) {
+        return template;
+      }
+    } catch (IOException | RuntimeException e) {
+      System.out.println("Recompiling " + boardFilepath + ", couldn't read " + compiled + ": " + e);
+    }
+
+    BoardTemplate template = parseBoard(boardFilepath);
+    try {
+      CompiledBoardFormat.write(template, source, compiled);
+    } catch (IOException e) {
+      System.out.println("Couldn't compile " + boardFilepath + " to " + compiled + ": " + e);
+    }
+    return template;
+  }
+
+  /**
+   * Returns the name of the compiled board for the given board file. Board files with the same
+   * name in different directories share a compiled board, which is recompiled when they alternate.
+   */
+  private static String getCompiledFilename(Path source) {
+    String filename = source.getFileName().toString();
+    int extension = filename.lastIndexOf('.');
+    return (extension > 0 ? filename.substring(0, extension) : filename)
+        + COMPILED_BOARD_EXTENSION;
+  }
+
+  /**
+   * Parses the csv board file at the given path.
+   */
+  private static BoardTemplate parseBoard(String boardFilepath) {
     List<String> fileLines;
     try {
       fileLines = Files.readAllLines(Paths.get(boardFilepath));
@@ -48,30 +141,30 @@ public final class BoardReader {
     int rows = fileLines.size();
 
     Terrain[][] terrainArr = new Terrain[rows][];
-    String[][] additionalInfo = new String[rows][];
+    int[][] seaTerrainIndices = new int[rows][];
     List<MPoint> playerStartLocations = new ArrayList<>();
 
     int row = 0;
     for (String line : fileLines) {
       String[] terrainRow = line.split(",");
       terrainArr[row] = new Terrain[terrainRow.length];
-      additionalInfo[row] = new String[terrainRow.length];
+      seaTerrainIndices[row] = new int[terrainRow.length];
       for (int col = 0; col < terrainRow.length; col++) {
         String str = terrainRow[col].toUpperCase();
+        seaTerrainIndices[row][col] = BoardTemplate.NO_SEA_TERRAIN_INDEX;
         if (PLAYER_START_STRING.equals(str.substring(0, PLAYER_START_STRING.length()))) {
           terrainArr[row][col] = PLAYER_START_TERRAIN;
           playerStartLocations.add(MPoint.get(row, col));
         } else {
           terrainArr[row][col] = Terrain.valueOfShort(str.substring(0, 1));
-          additionalInfo[row][col] = str.length() > 1 ? str.substring(1) : null;
+          if (terrainArr[row][col] == Terrain.SEA) {
+            seaTerrainIndices[row][col] = Integer.parseInt(str.substring(1));
+          }
         }
       }
       row++;
     }
 
-    // Randomize starting locations.
-    Collections.shuffle(playerStartLocations);
-
-    return new Board(boardFilepath, terrainArr, additionalInfo, playerStartLocations);
+    return BoardTemplate.create(boardFilepath, terrainArr, seaTerrainIndices, playerStartLocations);
   }
 }
@@ -0,0 +1,165 @@
+package controller.game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import model.board.BoardTemplate;
+
+/**
+ * The compiled board format: a {@link BoardTemplate} stored as flat binary arrays, so loading a
+ * board is a memory-mapped read instead of parsing its csv file. A compiled board records the path,
+ * size and modification time of the csv file it was compiled from, so it can be recognized as stale
+ * once that file changes.
+ *
+ * <p>All values are big-endian:
+ *
+ * <pre>
+ *   int     magic ({@link #MAGIC})
+ *   int     version ({@link #VERSION})
+ *   int     source path length, then that many bytes of UTF-8 source path
+ *   long    source size in bytes
+ *   long    source modification time in ms
+ *   int     height, int width
+ *   byte    terrain ordinal of each tile
+ *   short   sea terrain index of each tile
+ *   int     commander start location count, then that many start tile indices
+ *   int     mountain range id of each tile
+ * </pre>
+ *
+ * <p>Tiles are in row-major order.
+ */
+final class CompiledBoardFormat {
+  private CompiledBoardFormat() {
+  }
+
+  /**
+   * Marks a compiled board file ("FINB").
+   */
+  static final int MAGIC = 0x46494E42;
+
+  /**
+   * The current version of the format. Files with any other version are recompiled.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * Returns the fingerprint of the given source file a compiled board must match to be current -
+   * its size and modification time.
+   */
+  private static long[] getFingerprint(Path source) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+    return new long[]{attributes.size(), attributes.lastModifiedTime().toMillis()};
+  }
+
+  /**
+   * Reads the compiled board at the given path through a memory-mapped file. Returns null if it
+   * doesn't exist, wasn't compiled from the given source or is stale. Throws an IOException if it
+   * can't be read, and a RuntimeException if it is malformed.
+   */
+  static BoardTemplate read(Path compiled, Path source, String filepath) throws IOException {
+    if (!Files.exists(compiled)) {
+      return null;
+    }
+    long[] fingerprint = getFingerprint(source);
+    try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return null;
+      }
+      byte[] sourcePath = new byte[buffer.getInt()];
+      buffer.get(sourcePath);
+      if (!new String(sourcePath, StandardCharsets.UTF_8).equals(source.toString())
+          || buffer.getLong() != fingerprint[0]
+          || buffer.getLong() != fingerprint[1]) {
+        return null;
+      }
+
+      int height = buffer.getInt();
+      int width = buffer.getInt();
+      int size = height * width;
+      byte[] terrain = new byte[size];
+      buffer.get(terrain);
+      short[] seaTerrainIndices = new short[size];
+      buffer.asShortBuffer().get(seaTerrainIndices);
+      buffer.position(buffer.position() + size * Short.BYTES);
+      int[] commanderStartLocations = new int[buffer.getInt()];
+      buffer.asIntBuffer().get(commanderStartLocations);
+      buffer.position(buffer.position() + commanderStartLocations.length * Integer.BYTES);
+      int[] mountainRangeIds = new int[size];
+      buffer.asIntBuffer().get(mountainRangeIds);
+      buffer.position(buffer.position() + size * Integer.BYTES);
+      if (buffer.hasRemaining()) {
+        throw new RuntimeException("Trailing bytes in compiled board " + compiled);
+      }
+      return new BoardTemplate(
+          filepath,
+          height,
+          width,
+          terrain,
+          seaTerrainIndices,
+          commanderStartLocations,
+          mountainRangeIds);
+    } catch (BufferUnderflowException e) {
+      throw new RuntimeException("Compiled board " + compiled + " is truncated", e);
+    }
+  }
+
+  /**
+   * Writes the given template, compiled from the given source, to the given path. Writes to a
+   * temporary file first, so a concurrent reader never sees a partially written board.
+   */
+  static void write(BoardTemplate template, Path source, Path compiled) throws IOException {
+    long[] fingerprint = getFingerprint(source);
+    byte[] sourcePath = source.toString().getBytes(StandardCharsets.UTF_8);
+    int size = template.getSize();
+    int startCount = template.getCommanderStartLocationCount();
+    ByteBuffer buffer =
+        ByteBuffer.allocate(
+            6 * Integer.BYTES
+                + sourcePath.length
+                + 2 * Long.BYTES
+                + size * (Byte.BYTES + Short.BYTES + Integer.BYTES)
+                + startCount * Integer.BYTES);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putInt(sourcePath.length);
+    buffer.put(sourcePath);
+    buffer.putLong(fingerprint[0]);
+    buffer.putLong(fingerprint[1]);
+    buffer.putInt(template.getHeight());
+    buffer.putInt(template.getWidth());
+    for (int i = 0; i < size; i++) {
+      buffer.put((byte) template.getTerrain(i).ordinal());
+    }
+    for (int i = 0; i < size; i++) {
+      buffer.putShort((short) template.getSeaTerrainIndex(i));
+    }
+    buffer.putInt(startCount);
+    for (int i = 0; i < startCount; i++) {
+      buffer.putInt(template.getCommanderStartLocationIndex(i));
+    }
+    for (int i = 0; i < size; i++) {
+      buffer.putInt(template.getMountainRangeId(i));
+    }
+
+    Path directory = compiled.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, compiled.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temp, buffer.array());
+      Files.move(
+          temp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+}
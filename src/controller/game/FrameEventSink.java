@@ -0,0 +1,96 @@
+package controller.game;
+
+import controller.audio.AudioController;
+
+import java.util.List;
+
+import model.board.Tile;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Unit;
+import model.unit.combatant.Combatant;
+import model.unit.commander.Commander;
+import view.gui.Frame;
+import view.gui.panel.GamePanel;
+
+/**
+ * An event sink that shows every event on a Frame: redraws, alerts, animations and music.
+ */
+final class FrameEventSink implements GameEventSink {
+
+  /**
+   * The frame events are shown on.
+   */
+  private final Frame frame;
+
+  /**
+   * Constructs a new FrameEventSink showing events on the given frame.
+   */
+  FrameEventSink(Frame frame) {
+    this.frame = frame;
+  }
+
+  @Override
+  public void repaint() {
+    frame.repaint();
+  }
+
+  @Override
+  public void turnStarted(Player p) {
+    frame.startTurnFor(p);
+    AudioController.playMusicForTurn(p);
+  }
+
+  @Override
+  public void playerChanging(Player p) {
+    frame.showPlayerChangeAlert(p);
+  }
+
+  @Override
+  public void gameOver(Player winner) {
+    frame.showGameOverAlert(winner);
+  }
+
+  @Override
+  public void visionChanged(Player p) {
+    frame.getViewOptionsForPlayer(p).unitDangerRadiusChanged();
+  }
+
+  @Override
+  public void dangerRadiusChanged(Combatant c) {
+    frame.unitDangerRadiusChanged(c);
+  }
+
+  @Override
+  public void modifiersChanged(Unit u) {
+    frame.getGamePanel().refreshModifierIconFor(u);
+  }
+
+  @Override
+  public void unitMoved(MovingUnit u, List<Tile> path) {
+    frame.getGamePanel().addUnitMovementAnimation(u, path);
+  }
+
+  @Override
+  public void combatFinished(Combatant attacker, Unit defender, boolean counterAttack) {
+    GamePanel gamePanel = frame.getGamePanel();
+    if (attacker.isAlive()) {
+      gamePanel.addCombatAnimation(
+          attacker, defender.getLocation(), defender.isAlive() && counterAttack);
+    } else if (defender.isAlive() && counterAttack) {
+      gamePanel.addCombatAnimation((Combatant) defender, attacker.getLocation(), false);
+    }
+  }
+
+  @Override
+  public void spellCast(Commander caster) {
+    // Cause info update.
+    frame.getGamePanel().boardCursor.setElm(caster.getLocation());
+    frame.repaint();
+  }
+
+  @Override
+  public String toString() {
+    return "Event sink for " + frame;
+  }
+}
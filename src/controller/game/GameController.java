@@ -7,14 +7,18 @@ import static ai.delegating.DelegatingAIControllers.DELEGATING_RANDOM_WITH_EDITS
 import static ai.dummy.DoNothingAIController.DO_NOTHING_AI_TYPE;
 import static ai.dummy.FullRandomAIController.FULL_RANDOM_AI_TYPE;
 import static ai.dummy.MoveCommanderRandomlyAIController.MOVE_COMMANDER_RANDOMLY_AI_TYPE;
+import static ai.search.SearchAIController.SEARCH_DEFAULT_AI_TYPE;
 import static model.game.HumanPlayer.HUMAN_PLAYER_TYPE;
 
+import ai.AIAction;
 import ai.AIController;
 import ai.delegating.DelegatingAIControllerFactory;
 import ai.delegating.DelegatingAIControllers;
 import ai.dummy.DoNothingAIController;
 import ai.dummy.FullRandomAIController;
 import ai.dummy.MoveCommanderRandomlyAIController;
+import ai.replay.ActionLogWriter;
+import ai.search.SearchAIController;
 import controller.audio.AudioController;
 import controller.decision.Choice;
 import controller.decision.Decision;
@@ -38,6 +42,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -61,6 +67,7 @@ import model.unit.commander.Commander;
 import model.unit.commander.DummyCommander;
 import model.unit.modifier.Modifiers;
 import model.unit.modifier.Modifiers.ModifierDescription;
+import util.RandomStreams;
 import util.TextIO;
 import view.gui.Frame;
 import view.gui.ViewOptions;
@@ -142,6 +149,11 @@ public final class GameController {
    */
   private static final String INFO_PREFIX = "Info: ";
 
+  /**
+   * Time a do nothing AI pretends to think for on its turn when a frame is showing the game.
+   */
+  private static final int DO_NOTHING_SLEEP_TIME = 5000;
+
   /**
    * Colors that will be used to tint player units.
    */
@@ -203,7 +215,14 @@ public final class GameController {
   public final Frame frame;
 
   /**
-   * The thread the game is running in. Null if the game isn't running right now.
+   * Receives the events the game raises for its view. Shows them on frame if there is one,
+   * otherwise ignores them.
+   */
+  private final GameEventSink events;
+
+  /**
+   * The thread the game is running in. Null if the game isn't running right now, or is running on
+   * an executor.
    */
   private Thread gameThread;
 
@@ -222,11 +241,21 @@ public final class GameController {
    */
   private final int startingCommanderLevel;
 
+  /**
+   * The streams every random in this game is drawn from.
+   */
+  private final RandomStreams randoms;
+
   /**
    * The random instance used for generating combat damage.
    */
   private final Random random;
 
+  /**
+   * The log the AI actions taken in this game are recorded to. Null if they aren't recorded.
+   */
+  private ActionLogWriter actionLog;
+
   /**
    * The active location selector, if any
    */
@@ -268,6 +297,49 @@ public final class GameController {
         boardFilepath, playerTypes, fogOfWar, startingCommanderLevel, -1, -1, -1);
   }
 
+  /**
+   * Loads a board and creates the game in a new GameController with no graphical component, without
+   * starting it. Used for setting up game states to measure or test the model against.
+   */
+  public static GameController loadHeadless(
+      String boardFilepath,
+      List<CreatePlayerOptions> playerTypes,
+      FogOfWar fogOfWar,
+      int startingCommanderLevel) {
+    return loadHeadless(
+        boardFilepath, playerTypes, fogOfWar, startingCommanderLevel, RandomStreams.newSeed());
+  }
+
+  /**
+   * Loads a board and creates the game in a new GameController with no graphical component, without
+   * starting it, drawing all of its randomness from the given seed. Start with {@link
+   * #runOn(Executor)}.
+   */
+  public static GameController loadHeadless(
+      String boardFilepath,
+      List<CreatePlayerOptions> playerTypes,
+      FogOfWar fogOfWar,
+      int startingCommanderLevel,
+      long seed) {
+    return load(boardFilepath, playerTypes, fogOfWar, startingCommanderLevel, seed, -1, -1, -1);
+  }
+
+  /**
+   * Loads a board and runs the game in a new GameController with no graphical component on the
+   * given executor, instead of on a thread of its own. Returns a future that completes with the
+   * controller once the game is over, or exceptionally if the game throws. Used for running many
+   * games at once, as when training.
+   */
+  public static CompletableFuture<GameController> loadAndRunHeadless(
+      String boardFilepath,
+      List<CreatePlayerOptions> playerTypes,
+      FogOfWar fogOfWar,
+      int startingCommanderLevel,
+      Executor executor) {
+    return loadHeadless(boardFilepath, playerTypes, fogOfWar, startingCommanderLevel)
+        .runOn(executor);
+  }
+
   /**
    * Loads a board and starts the game in a new GameController.
    */
@@ -279,6 +351,33 @@ public final class GameController {
       int frameRows,
       int frameCols,
       int frameZoom) {
+    GameController gc =
+        load(
+            boardFilepath,
+            playerTypes,
+            fogOfWar,
+            startingCommanderLevel,
+            RandomStreams.newSeed(),
+            frameRows,
+            frameCols,
+            frameZoom);
+    gc.start();
+    return gc;
+  }
+
+  /**
+   * Loads a board and creates the game in a new GameController, without starting it. All of the
+   * game's randomness is drawn from the given seed.
+   */
+  private static GameController load(
+      String boardFilepath,
+      List<CreatePlayerOptions> playerTypes,
+      FogOfWar fogOfWar,
+      int startingCommanderLevel,
+      long seed,
+      int frameRows,
+      int frameCols,
+      int frameZoom) {
     if (playerTypes.size() < 2) {
       throw new RuntimeException("Can't have game with less than 2 players");
     }
@@ -293,21 +392,28 @@ public final class GameController {
     }
 
     // Read board and create game.
-    Board board = BoardReader.readBoard(boardFilepath);
+    RandomStreams randoms = new RandomStreams(seed);
+    Board board =
+        BoardReader.readBoard(boardFilepath, randoms.newRandom(RandomStreams.START_LOCATIONS, 0));
     Game g = new Game(board, fogOfWar);
     GameController gc =
-        new GameController(g, f, playerTypes, startingCommanderLevel, frameRows, frameCols);
+        new GameController(
+            g, f, playerTypes, startingCommanderLevel, randoms, frameRows, frameCols);
 
     // Create players.
     for (int i = 0; i < playerTypes.size(); i++) {
       BiFunction<Game, Color, Player> playerConstructor;
       CreatePlayerOptions createPlayerOptions = playerTypes.get(i);
+      Random weightsRandom = randoms.newRandom(RandomStreams.AI_WEIGHTS, i);
       switch (createPlayerOptions.typeName) {
         case HUMAN_PLAYER_TYPE:
           playerConstructor = HumanPlayer::new;
           break;
         case DO_NOTHING_AI_TYPE:
-          playerConstructor = (game, c) -> new AIPlayer(game, c, new DoNothingAIController(5000));
+          playerConstructor =
+              (game, c) ->
+                  new AIPlayer(
+                      game, c, new DoNothingAIController(f != null ? DO_NOTHING_SLEEP_TIME : 0));
           break;
         case MOVE_COMMANDER_RANDOMLY_AI_TYPE:
           playerConstructor =
@@ -325,7 +431,9 @@ public final class GameController {
           playerConstructor =
               (game, c) ->
                   new AIPlayer(
-                      game, c, DelegatingAIControllers.randomWeightsDelegatingAIController());
+                      game,
+                      c,
+                      DelegatingAIControllers.randomWeightsDelegatingAIController(weightsRandom));
           break;
         case DELEGATING_RANDOM_WITH_EDITS_AI_TYPE:
           playerConstructor =
@@ -333,7 +441,17 @@ public final class GameController {
                   new AIPlayer(
                       game,
                       c,
-                      DelegatingAIControllers.randomWeightsWithManualEditsDelegatingAIController());
+                      DelegatingAIControllers.randomWeightsWithManualEditsDelegatingAIController(
+                          weightsRandom));
+          break;
+        case SEARCH_DEFAULT_AI_TYPE:
+          playerConstructor =
+              (game, c) ->
+                  new AIPlayer(
+                      game,
+                      c,
+                      new SearchAIController(
+                          DelegatingAIControllers.defaultDelegatingAIController()));
           break;
         case PROVIDED_AI_TYPE:
           AIController explicitController = createPlayerOptions.explicitController;
@@ -387,30 +505,34 @@ public final class GameController {
       }
     }
 
-    // Start game.
-    gc.start();
     return gc;
   }
 
   /**
-   * Creates a new game controller for the given game and frame.
+   * Creates a new game controller for the given game and frame, drawing randomness from the given
+   * streams.
    */
   private GameController(
       Game g,
       Frame f,
       List<CreatePlayerOptions> playerTypes,
       int startingCommanderLevel,
+      RandomStreams randoms,
       int frameRows,
       int frameCols) {
     game = g;
     this.startingCommanderLevel = startingCommanderLevel;
+    this.randoms = randoms;
     this.playerTypes = Collections.unmodifiableList(playerTypes);
     game.setGameController(this);
     frame = f;
     if (frame != null) {
       frame.setController(this, frameRows, frameCols);
+      events = new FrameEventSink(frame);
+    } else {
+      events = GameEventSink.SIMULATION;
     }
-    random = new Random();
+    random = randoms.newRandom(RandomStreams.COMBAT, 0);
 
     playerColors = new HashMap<>();
     toggle = new Stack<>();
@@ -430,6 +552,14 @@ public final class GameController {
     return frame != null;
   }
 
+  /**
+   * Returns the sink the game should raise events for its view on. Ignores every event if this
+   * game is headless.
+   */
+  public GameEventSink getEvents() {
+    return events;
+  }
+
   /**
    * Starts this gameController running. Does nothing if currently running or game is already over
    */
@@ -440,6 +570,16 @@ public final class GameController {
     gameThread.start();
   }
 
+  /**
+   * Runs this gameController's game on the given executor instead of a thread of its own. Returns
+   * a future that completes with this once the game is over, or exceptionally if the game throws.
+   * Returns a completed future if currently running or the game is already over.
+   */
+  public synchronized CompletableFuture<GameController> runOn(Executor executor) {
+    if (isRunning() || game.isGameOver()) return CompletableFuture.completedFuture(this);
+    return CompletableFuture.runAsync(game, executor).thenApply(v -> this);
+  }
+
   /**
    * Stops this game controller. Does nothing if this game isn't running.
    */
@@ -447,7 +587,9 @@ public final class GameController {
     if (!isRunning()) return;
     frame.dispose();
     game.kill();
-    gameThread.interrupt();
+    if (gameThread != null) {
+      gameThread.interrupt();
+    }
     AudioController.stopMusic();
   }
 
@@ -485,6 +627,57 @@ public final class GameController {
         frame.getZoomIndex());
   }
 
+  /**
+   * Returns the streams every random in this game is drawn from.
+   */
+  public RandomStreams getRandoms() {
+    return randoms;
+  }
+
+  /**
+   * Returns the seed all of this game's randomness is drawn from.
+   */
+  public long getSeed() {
+    return randoms.seed;
+  }
+
+  /**
+   * Returns the level commanders start at in this game.
+   */
+  public int getStartingCommanderLevel() {
+    return startingCommanderLevel;
+  }
+
+  /**
+   * Records every AI action taken in this game from now on to the given log. Must be called before
+   * the game starts, so the log can be replayed from the start.
+   */
+  public synchronized void setActionLog(ActionLogWriter actionLog) {
+    if (isRunning()) {
+      throw new RuntimeException("Can't start recording " + this + ", game is already running");
+    }
+    this.actionLog = actionLog;
+  }
+
+  /**
+   * Records that an AI is about to take the given action, if recording. Actions are recorded
+   * before they are taken, so a failed action replays as the same failure.
+   */
+  public void recordAction(AIAction action) {
+    if (actionLog != null) {
+      actionLog.writeAction(action);
+    }
+  }
+
+  /**
+   * Records that an AI ended its turn, if recording.
+   */
+  public void recordEndOfTurn() {
+    if (actionLog != null) {
+      actionLog.writeEndOfTurn();
+    }
+  }
+
   /**
    * Returns the random to use for combat.
    */
@@ -523,9 +716,7 @@ public final class GameController {
    * Instructs the Frame to repaint, if there is one.
    */
   public void repaint() {
-    if (frame != null) {
-      frame.repaint();
-    }
+    events.repaint();
   }
 
   /**
@@ -539,10 +730,7 @@ public final class GameController {
    * Called when the model wants to begin the turn for player p
    */
   public void startTurnFor(Player p) {
-    if (hasFrame()) {
-      frame.startTurnFor(p);
-      AudioController.playMusicForTurn(p);
-    }
+    events.turnStarted(p);
   }
 
   /**
@@ -877,7 +1065,7 @@ public final class GameController {
 
   /**
    * Starts a levelup ability selection decision. Assumes c has leveled up but hasn't chosen an
-   * ability yet
+   * ability yet. If there is no frame to decide on, chooses the first ability instead.
    */
   private void startNewAbilityDecision(Commander c) throws RuntimeException {
     int abilityChoiceLevel = c.getAbilityChoiceNeededLevel();
@@ -886,6 +1074,11 @@ public final class GameController {
     }
 
     Ability[] a = c.getAbilityChoices(abilityChoiceLevel);
+    if (!hasFrame() && a != null && a.length > 0) {
+      c.chooseAbility(abilityChoiceLevel, 0);
+      startNewAbilityDecision(c);
+      return;
+    }
     if (a != null && a.length > 0) {
       decision = new Decision(DecisionType.NEW_ABILITY_DECISION, true, true);
       for (Ability ab : a) {
@@ -1226,11 +1419,7 @@ public final class GameController {
     }
     toCast.cast(caster, loc, caster.owner.getCastCloudBoost(), random);
     locationSelector = null;
-    if (hasFrame()) {
-      // Cause info update.
-      getGamePanel().boardCursor.setElm(caster.getLocation());
-    }
-    repaint();
+    events.spellCast(caster);
   }
 
   /**
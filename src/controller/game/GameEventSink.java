@@ -0,0 +1,93 @@
+package controller.game;
+
+import java.util.List;
+
+import model.board.Tile;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Unit;
+import model.unit.combatant.Combatant;
+import model.unit.commander.Commander;
+
+/**
+ * Receives the events the model raises for whatever is showing a game. The model calls these as
+ * the game changes instead of reaching into the view, so a game with no view - as when simulating
+ * many AI games - can skip all view work by using {@link #SIMULATION}, which ignores every event.
+ *
+ * <p>Events are raised on the game thread, in the order the changes happen.
+ */
+public interface GameEventSink {
+
+  /**
+   * An event sink that ignores every event, for games that nothing is showing.
+   */
+  GameEventSink SIMULATION = new GameEventSink() {
+    @Override
+    public String toString() {
+      return "Simulation event sink";
+    }
+  };
+
+  /**
+   * Called when the game changed in a way that needs redrawing. Does nothing by default.
+   */
+  default void repaint() {
+  }
+
+  /**
+   * Called when the given player's turn is about to start. Does nothing by default.
+   */
+  default void turnStarted(Player p) {
+  }
+
+  /**
+   * Called when control is about to pass to the given player, who is at the same computer as the
+   * previous one while fog of war is on. Does nothing by default.
+   */
+  default void playerChanging(Player p) {
+  }
+
+  /**
+   * Called when the game ends with the given winner, or null on a timeout. Does nothing by
+   * default.
+   */
+  default void gameOver(Player winner) {
+  }
+
+  /**
+   * Called when what the given player can see changed. Does nothing by default.
+   */
+  default void visionChanged(Player p) {
+  }
+
+  /**
+   * Called when the tiles the given combatant threatens changed. Does nothing by default.
+   */
+  default void dangerRadiusChanged(Combatant c) {
+  }
+
+  /**
+   * Called when a modifier was added to or removed from the given unit. Does nothing by default.
+   */
+  default void modifiersChanged(Unit u) {
+  }
+
+  /**
+   * Called when the given unit moved along the given path. Does nothing by default.
+   */
+  default void unitMoved(MovingUnit u, List<Tile> path) {
+  }
+
+  /**
+   * Called when a combat between the given units finished, whether or not either survived. Does
+   * nothing by default.
+   */
+  default void combatFinished(Combatant attacker, Unit defender, boolean counterAttack) {
+  }
+
+  /**
+   * Called when the given commander finished casting a spell. Does nothing by default.
+   */
+  default void spellCast(Commander caster) {
+  }
+}
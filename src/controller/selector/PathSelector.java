@@ -59,7 +59,7 @@ public final class PathSelector extends LocationSelector implements Paintable, I
   @Override
   protected void refreshPossibilitiesCloud() {
     if (path == null) return; // Don't do anything during super class initialziation.
-    cloud = controller.game.board.getMovementCloud(this);
+    cloud = controller.game.board.getMovementCloud(this).getTiles();
     controller.repaint();
   }
 
@@ -5,17 +5,17 @@ import controller.selector.PathSelector;
 import controller.selector.SummonSelector;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import model.game.Player;
 import model.game.Stringable;
@@ -43,14 +43,23 @@ public final class Board implements Iterable<Tile>, Stringable {
   private static final int WHOLE_BOARD_CLOUD_STARTING_DISTANCE = 1000;
 
   /**
-   * The csv file this board was read from.
+   * The board file this board was read from.
    */
   public final String filepath;
 
   /**
-   * The tiles that make up this model.board. Must be rectangular (non-jagged)
+   * The immutable terrain data this board was created from, shared with every other board read
+   * from the same file.
    */
-  private final Tile[][] tiles;
+  private final BoardTemplate template;
+
+  /**
+   * The tiles that make up this model.board, by tile index (row-major order). Created per board
+   * rather than shared through the template: tiles are compared by identity as keys of sets and
+   * maps throughout the game and the AIs, and reach their game's state through {@link Tile#board}.
+   * Tiles are small, since everything computed from terrain is kept in the template.
+   */
+  private final Tile[] tiles;
 
   /**
    * The locations where commanders start. Use up to as many as needed. (May be longer than
@@ -59,80 +68,74 @@ public final class Board implements Iterable<Tile>, Stringable {
   private final List<MPoint> commanderStartLocations;
 
   /**
-   * The most recent pathComputationId. Set to a new value whenever a new movement cloud is
-   * computed.
+   * The unit on each tile, by tile index. Null for unoccupied tiles. The only mutable per-game
+   * state of a board - everything computed from terrain is shared through the template.
    */
-  private int pathComputationId;
+  private final Unit[] occupyingUnits;
 
   /**
-   * Construct a simple model.board of just terrain Throws IllegalArgumentException if input array
-   * is jagged.
+   * Constructs a board from the given template, with fresh unoccupied tiles and the given order of
+   * commander start locations. Cheap, since everything computed from terrain is shared through the
+   * template.
    */
-  public Board(
-      String filepath,
-      Terrain[][] terrain,
-      String[][] additionalInfo,
-      List<MPoint> commanderStartLocations)
-      throws IllegalArgumentException {
+  public Board(String filepath, BoardTemplate template, List<MPoint> commanderStartLocations) {
     this.filepath = filepath;
-    tiles = new Tile[terrain.length][terrain[0].length];
-    for (int i = 0; i < terrain.length; i++) {
-
-      if (terrain[i].length != terrain[0].length)
-        throw new IllegalArgumentException(
-            "Jagged Array passed into model.board constructor " + Arrays.deepToString(terrain));
-
-      for (int j = 0; j < terrain[i].length; j++) {
-        tiles[i][j] =
-            new Tile(
-                this,
-                i,
-                j,
-                terrain[i][j],
-                terrain[i][j] == Terrain.SEA ? Integer.parseInt(additionalInfo[i][j]) : -1);
-      }
+    this.template = template;
+    int width = template.getWidth();
+    tiles = new Tile[template.getSize()];
+    for (int i = 0; i < tiles.length; i++) {
+      tiles[i] =
+          new Tile(
+              this, i / width, i % width, template.getTerrain(i), template.getSeaTerrainIndex(i));
     }
-    pathComputationId = 0;
     this.commanderStartLocations = Collections.unmodifiableList(commanderStartLocations);
+    occupyingUnits = new Unit[template.getSize()];
+  }
+
+  /**
+   * Returns the immutable terrain data this board was created from.
+   */
+  public BoardTemplate getTemplate() {
+    return template;
   }
 
   /**
    * Returns the height (# rows) of this Board
    */
   public int getHeight() {
-    return tiles.length;
+    return template.getHeight();
   }
 
   /**
    * Returns the width (# columns) of this Board
    */
   public int getWidth() {
-    return tiles[0].length;
+    return template.getWidth();
   }
 
   /**
    * Returns true iff the given r,c is on the board.
    */
   public boolean isOnBoard(int r, int c) {
-    return r >= 0 && r < tiles.length && c >= 0 && c < tiles[r].length;
+    return r >= 0 && r < getHeight() && c >= 0 && c < getWidth();
   }
 
   /**
    * Returns true iff the given point is on the board.
    */
   public boolean isOnBoard(MPoint p) {
-    return p.row >= 0 && p.row < tiles.length && p.col >= 0 && p.col < tiles[p.row].length;
+    return isOnBoard(p.row, p.col);
   }
 
   /**
    * Returns the tile at the given index, throws IllegalArgumentException
    */
   public Tile getTileAt(int r, int c) throws IllegalArgumentException {
-    if (r < 0 || r >= tiles.length || c < 0 || c >= tiles[r].length)
+    if (!isOnBoard(r, c))
       throw new IllegalArgumentException(
           "Can't get tile from " + this + " at index (" + r + "," + c + ")");
 
-    return tiles[r][c];
+    return tiles[r * getWidth() + c];
   }
 
   /**
@@ -143,55 +146,24 @@ public final class Board implements Iterable<Tile>, Stringable {
   }
 
   /**
-   * Return the tile in the given direction from this tile. If oob, returns null or if direction
-   * invalid.
+   * Returns the tile next to the given tile in the given direction, null if it would be off the
+   * board.
    */
-  private Tile getTileInDirection(Tile t, Direction... directions) {
-    int r = t.row;
-    int c = t.col;
-    for (Direction d : directions) {
-      r += d.dRow();
-      c += d.dCol();
-    }
-    if (isOnBoard(r, c)) {
-      return getTileAt(r, c);
-    } else {
-      return null;
-    }
-  }
-
-  /**
-   * Returns an array of neighbors of the given tile, null for oob spaces. If includeDiagonal is
-   * false, Returns in order [left, up, right, down]. If true, returns [left, left-up, up, right-up,
-   * right, down-right, down, down-left].
-   */
-  private Tile[] getTileNeighbors(Tile t, boolean includeDiagonal) {
-    if (includeDiagonal) {
-      return new Tile[]{
-          getTileInDirection(t, Direction.LEFT),
-          getTileInDirection(t, Direction.UP, Direction.LEFT),
-          getTileInDirection(t, Direction.UP),
-          getTileInDirection(t, Direction.UP, Direction.RIGHT),
-          getTileInDirection(t, Direction.RIGHT),
-          getTileInDirection(t, Direction.DOWN, Direction.RIGHT),
-          getTileInDirection(t, Direction.DOWN),
-          getTileInDirection(t, Direction.LEFT, Direction.DOWN),
-      };
-    } else {
-      return new Tile[]{
-          getTileInDirection(t, Direction.LEFT),
-          getTileInDirection(t, Direction.UP),
-          getTileInDirection(t, Direction.RIGHT),
-          getTileInDirection(t, Direction.DOWN)
-      };
-    }
+  public Tile getTileInDirection(Tile t, Direction direction) {
+    int neighbor = template.getNeighbor(t.index, direction);
+    return neighbor == BoardTemplate.NO_NEIGHBOR ? null : getTileAtIndex(neighbor);
   }
 
   /**
    * Returns a set of tiles that have the given terrain type.
    */
   public Set<Tile> getTilesWithTerrainType(Terrain terrain) {
-    return stream().filter(t -> t.terrain == terrain).collect(Collectors.toSet());
+    int[] indices = template.getTileIndicesWithTerrain(terrain);
+    Set<Tile> set = new HashSet<>(indices.length * 2);
+    for (int index : indices) {
+      set.add(tiles[index]);
+    }
+    return set;
   }
 
   /**
@@ -228,18 +200,8 @@ public final class Board implements Iterable<Tile>, Stringable {
     }
 
     Set<Tile> set = new HashSet<>();
-    LinkedList<Tile> exploreQueue = new LinkedList<>();
-    exploreQueue.add(center);
-
-    while (!exploreQueue.isEmpty()) {
-      Tile t = exploreQueue.poll();
-      set.add(t);
-      for (Direction d : Direction.values()) {
-        Tile neighbor = getTileInDirection(t, d);
-        if (neighbor != null && neighbor.terrain == Terrain.MOUNTAIN && !set.contains(neighbor)) {
-          exploreQueue.add(neighbor);
-        }
-      }
+    for (int index : template.getMountainRange(template.getMountainRangeId(getTileIndex(center)))) {
+      set.add(getTileAtIndex(index));
     }
     set = Collections.unmodifiableSet(set);
     // Store references to this computation for later.
@@ -249,34 +211,85 @@ public final class Board implements Iterable<Tile>, Stringable {
     return set;
   }
 
+  /**
+   * Returns the precomputed vision masks for this board.
+   */
+  public LineOfSight getLineOfSight() {
+    return template.getLineOfSight();
+  }
+
+  /**
+   * Returns the unit on the tile at the given index, null if it is unoccupied.
+   */
+  Unit getOccupyingUnit(int index) {
+    return occupyingUnits[index];
+  }
+
+  /**
+   * Sets the unit on the tile at the given index, null to make it unoccupied.
+   */
+  void setOccupyingUnit(int index, Unit u) {
+    occupyingUnits[index] = u;
+  }
+
+  /**
+   * Calls the given action on every tile whose manhattan distance from center is between
+   * minDistance and maxDistance, inclusive, in row-major order. The diamond is clipped to the
+   * board, so tiles off of it are never visited. Doesn't allocate.
+   */
+  public void forEachTileInRange(
+      Tile center, int minDistance, int maxDistance, Consumer<? super Tile> action) {
+    int width = getWidth();
+    int rowEnd = Math.min(getHeight() - 1, center.row + maxDistance);
+    for (int r = Math.max(0, center.row - maxDistance); r <= rowEnd; r++) {
+      int dRow = Math.abs(r - center.row);
+      int span = maxDistance - dRow;
+      // Tiles within innerSpan columns of center are closer than minDistance.
+      int innerSpan = minDistance - 1 - dRow;
+      int colEnd = Math.min(width - 1, center.col + span);
+      for (int c = Math.max(0, center.col - span); c <= colEnd; c++) {
+        if (Math.abs(c - center.col) <= innerSpan) {
+          c = center.col + innerSpan;
+          continue;
+        }
+        action.accept(tiles[r * width + c]);
+      }
+    }
+  }
+
+  /**
+   * Returns the tiles whose manhattan distance from center is between minDistance and
+   * maxDistance, inclusive, in row-major order. Doesn't check terrain or current occupants at all.
+   */
+  public ArrayList<Tile> getTilesInRange(Tile center, int minDistance, int maxDistance) {
+    ArrayList<Tile> tiles = new ArrayList<>(2 * (maxDistance + 1) * (maxDistance + 1));
+    forEachTileInRange(center, minDistance, maxDistance, tiles::add);
+    return tiles;
+  }
+
   /**
    * Return a set of tiles of radius radius centered at the given tile center. A radius of 0 will
    * return a set containing only center. Doesn't check terrain or current occupants at all.
    */
   public ArrayList<Tile> getRadialCloud(Tile center, int radius) {
-    ArrayList<Tile> tiles = new ArrayList<Tile>();
-    for (MPoint p : center.getPoint().radialCloud(radius).getPoints()) {
-      try {
-        tiles.add(getTileAt(p));
-      } catch (IllegalArgumentException e) {
-      } // OOB Tile - do nothing
-    }
-    Collections.sort(tiles);
-    return tiles;
+    return getTilesInRange(center, 0, radius);
   }
 
   /**
    * Returns the set of tiles the given summoner unit could choose to summon a new unit.
    */
   public <U extends Unit & Summoner> List<Tile> getSummonCloud(U summoner, Unit toSummon) {
-    ArrayList<Tile> radialTiles = getRadialCloud(summoner.getLocation(), summoner.getSummonRange());
-    HashSet<Tile> toRemove = new HashSet<Tile>();
-    for (Tile t : radialTiles) {
-      if (!summoner.owner.canSee(t) || t.isOccupied() || !toSummon.canOccupy(t.terrain))
-        toRemove.add(t);
-    }
-    radialTiles.removeAll(toRemove);
-    return radialTiles;
+    List<Tile> summonTiles = new ArrayList<>();
+    forEachTileInRange(
+        summoner.getLocation(),
+        0,
+        summoner.getSummonRange(),
+        t -> {
+          if (summoner.owner.canSee(t) && !t.isOccupied() && toSummon.canOccupy(t.terrain)) {
+            summonTiles.add(t);
+          }
+        });
+    return summonTiles;
   }
 
   /**
@@ -334,174 +347,138 @@ public final class Board implements Iterable<Tile>, Stringable {
   }
 
   /**
-   * Returns the most recent pathComputationId, from a call to getMovementCloud(..)
+   * Returns the index of the given tile on this board, in row-major order. Used to index per-tile
+   * arrays in computations over this board.
    */
-  public int getPathComputationId() {
-    return pathComputationId;
+  public int getTileIndex(Tile t) {
+    return t.index;
   }
 
   /**
-   * Helper for two getMovementCloud methods, using the given starting tile and unit. Assumes dist
-   * and prev fields of start have been set.
+   * Returns the tile at the given index on this board, in row-major order.
    */
-  private ArrayList<Tile> getMovementCloud(Tile start, MovingUnit unit) {
-    // Initialize non-start tile.
-    for (Tile t : this) {
-      if (t != start) {
-        t.dist = Integer.MIN_VALUE;
-        t.prev = null;
-      }
-    }
-
-    // frontier sorts with higher distance earlier
-    PriorityQueue<Tile> frontier =
-        new PriorityQueue<Tile>(
-            1,
-            new Comparator<Tile>() {
-              @Override
-              /* Use inverse of regular comparison (higher distance first) */
-              public int compare(Tile o1, Tile o2) {
-                return -(o1.dist - o2.dist);
-              }
-            });
-    frontier.add(start);
-    ArrayList<Tile> settled = new ArrayList<Tile>();
-
-    // Iteration
-    while (!frontier.isEmpty()) {
-      Tile current = frontier.poll();
-      settled.add(current);
-      for (Tile neighbor : getTileNeighbors(current, false)) {
-        if (neighbor != null) {
-          int nDist = current.dist - unit.getMovementCost(neighbor.terrain);
-          boolean unitObstacle =
-              neighbor.isOccupied()
-                  && neighbor.getOccupyingUnit().owner != unit.owner
-                  && unit.owner.canSee(neighbor.getOccupyingUnit());
-          if (nDist >= 0 && !unitObstacle && nDist > neighbor.dist) {
-            neighbor.dist = nDist;
-            neighbor.prev = current;
-            frontier.remove(neighbor);
-            frontier.add(neighbor);
-          }
-        }
-      }
-    }
-
-    // Just return settled tiles as possible movement. Remove duplicates as possible.
-    int i = 0;
-    while (i < settled.size()) {
-      if (settled.indexOf(settled.get(i)) != i) {
-        settled.remove(i);
-      } else {
-        i++;
-      }
-    }
-    pathComputationId++;
-    return settled;
+  public Tile getTileAtIndex(int index) {
+    return tiles[index];
   }
 
   /**
-   * Returns the set of tiles the given MovingUnit could move to from the given location with its
-   * movement cap. Only counts enemy units as obstacles if they are visible.
+   * Returns the tiles the given MovingUnit could move to from the given location with its movement
+   * cap. Only counts enemy units as obstacles if they are visible.
    */
-  public ArrayList<Tile> getMovementCloud(
+  public MovementCloud getMovementCloud(
       MovingUnit u, Tile startTile, boolean useMaxMovementInsteadOfCurrentMovement) {
-    u.getLocation().prev = null;
-    u.getLocation().dist =
-        useMaxMovementInsteadOfCurrentMovement ? u.getMovementCap() : u.getMovement();
-    return getMovementCloud(startTile, u);
-  }
-
-  /**
-   * Returns the set of tiles the given MovingUnit could move to from the given location with the
-   * given arbitrary movement cap. Useful for determining how close tiles on the board are without
-   * worrying about max movement in a single turn.
-   */
-  private ArrayList<Tile> getMovementCloudWithArbitraryMovementCap(
-      MovingUnit u, Tile startTile, int moveCap) {
-    u.getLocation().prev = null;
-    u.getLocation().dist = moveCap;
-    return getMovementCloud(startTile, u);
+    return new MovementCloud(
+        this,
+        u,
+        startTile,
+        useMaxMovementInsteadOfCurrentMovement ? u.getMovementCap() : u.getMovement());
   }
 
   /**
-   * Returns the set of tiles the given MovingUnit could move to from its current location with its
+   * Returns the tiles the given MovingUnit could move to from its current location with its
    * movement cap. Only counts enemy units as obstacles if they are visible.
    */
-  public ArrayList<Tile> getMovementCloud(
+  public MovementCloud getMovementCloud(
       MovingUnit u, boolean useMaxMovementInsteadOfCurrentMovement) {
-    u.getLocation().prev = null;
-    u.getLocation().dist =
-        useMaxMovementInsteadOfCurrentMovement ? u.getMovementCap() : u.getMovement();
-    return getMovementCloud(u.getLocation(), u);
+    return getMovementCloud(u, u.getLocation(), useMaxMovementInsteadOfCurrentMovement);
   }
 
   /**
-   * Returns the set of tiles the given path selector could move to from its current location with
-   * its movement cap. Only counts enemy units as obstacles if they are visible.
+   * Returns the tiles the given path selector could move to from its current location with its
+   * movement cap. Only counts enemy units as obstacles if they are visible.
    */
-  public ArrayList<Tile> getMovementCloud(PathSelector ps) {
+  public MovementCloud getMovementCloud(PathSelector ps) {
     MovingUnit unit = ps.unit;
     Tile start = ps.getPath().get(ps.getPath().size() - 1);
 
-    // Uses dist to hold remainingDistance as possible.
+    int remainingMovement;
     if (start != ps.unit.getLocation())
-      start.dist = unit.getMovement() - unit.getTotalMovementCost(ps.getPath());
-    else start.dist = unit.getMovement();
-    return getMovementCloud(start, unit);
+      remainingMovement = unit.getMovement() - unit.getTotalMovementCost(ps.getPath());
+    else remainingMovement = unit.getMovement();
+    return new MovementCloud(this, unit, start, remainingMovement);
+  }
+
+  /**
+   * Returns the tiles the given MovingUnit could move to from the given location with any amount
+   * of movement. (uses an arbitrarily high movement value). Only counts enemy units as obstacles if
+   * they are visible.
+   */
+  public MovementCloud getMovementCloudWholeBoard(MovingUnit u, Tile t) {
+    return new MovementCloud(this, u, t, WHOLE_BOARD_CLOUD_STARTING_DISTANCE);
   }
 
   /**
-   * Returns the set of tiles the given MovingUnit could move to from its current location with any
-   * amount of movement. (uses an arbitrarily high movement value). Only counts enemy units as
-   * obstacles if they are visible.
+   * Returns the terrain distance table for the given unit's movement costs, ignoring units on the
+   * board. Shared between all units with the same movement costs, in every game on this board's
+   * template. Cached on the unit until its stats change.
    */
-  public ArrayList<Tile> getMovementCloudWholeBoard(MovingUnit u, Tile t) {
-    u.getLocation().prev = null;
-    u.getLocation().dist = WHOLE_BOARD_CLOUD_STARTING_DISTANCE;
-    return getMovementCloud(t, u);
+  public TerrainDistances getTerrainDistances(MovingUnit u) {
+    return u.getTerrainDistances(template, WHOLE_BOARD_CLOUD_STARTING_DISTANCE);
   }
 
   /**
-   * Returns the path to the given tile from the last computed movement cloud, using the given
-   * pathComputationId. Throws an exception if the given tile wasn't computed in the last movement
-   * cloud computation.
+   * Returns the movement cost for the given MovingUnit to move from one tile to another with any
+   * amount of movement, or {@link TerrainDistances#UNREACHABLE} if it can't get there. Only counts
+   * enemy units as obstacles if they are visible, and never counts a unit on the destination tile
+   * as an obstacle.
+   *
+   * <p>Looks up the terrain distance first, and only falls back to a full movement cloud if a
+   * visible enemy unit is on the shortest terrain path.
    */
-  public List<Tile> getMovementPath(int pathComputationId, Tile destTile) {
-    if (pathComputationId != this.pathComputationId) {
-      throw new RuntimeException(
-          "Expected pathComputationId is out of date, is at " + pathComputationId);
+  public int getWholeBoardDistance(MovingUnit u, Tile from, Tile to) {
+    if (from == to) {
+      return 0;
     }
-    if (destTile.prev == null) {
-      throw new RuntimeException(destTile + " wasn't in last movement cloud computation");
+    TerrainDistances distances = getTerrainDistances(u);
+    int distance = distances.getDistance(from, to);
+    if (distance == TerrainDistances.UNREACHABLE || !distances.isPathObstructed(u, from, to)) {
+      return distance;
     }
-    LinkedList<Tile> path = new LinkedList<>();
-    while (destTile != null) {
-      path.push(destTile);
-      destTile = destTile.prev;
+
+    MovementCloud cloud = getMovementCloudWholeBoard(u, from);
+    int best = TerrainDistances.UNREACHABLE;
+    if (cloud.contains(to)) {
+      best = WHOLE_BOARD_CLOUD_STARTING_DISTANCE - cloud.getRemainingMovement(to);
+    }
+    int[] neighbors = template.getOrthogonalNeighborTable();
+    int base = to.index * BoardTemplate.ORTHOGONAL_NEIGHBORS;
+    for (int k = base; k < base + BoardTemplate.ORTHOGONAL_NEIGHBORS; k++) {
+      int neighbor = neighbors[k];
+      if (neighbor != BoardTemplate.NO_NEIGHBOR && cloud.contains(neighbor)) {
+        best =
+            Math.min(
+                best,
+                WHOLE_BOARD_CLOUD_STARTING_DISTANCE
+                    - cloud.getRemainingMovement(neighbor)
+                    + u.getMovementCost(to.terrain));
+      }
     }
-    return path;
+    return best > WHOLE_BOARD_CLOUD_STARTING_DISTANCE ? TerrainDistances.UNREACHABLE : best;
   }
 
   /**
-   * Returns the computed distance of the given tile from the last computed movement cloud, using
-   * the given pathComputationId.
+   * Returns a stream over the tiles in this Board, in row-major order.
    */
-  public int getDist(int pathComputationId, Tile t) {
-    if (pathComputationId != this.pathComputationId) {
-      throw new RuntimeException(
-          "Expected pathComputationId is out of date, is at " + pathComputationId);
-    }
-    return t.dist;
+  public Stream<Tile> stream() {
+    return StreamSupport.stream(spliterator(), false);
   }
 
   /**
-   * Returns a stream over the tiles in this Board.
+   * Returns a parallel stream over the tiles in this Board. The tiles are split evenly between
+   * threads, since the board knows its exact size.
    */
-  public Stream<Tile> stream() {
-    Iterator<Tile> iterator = iterator();
-    return Stream.generate(iterator::next).limit(getWidth() * getHeight());
+  public Stream<Tile> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Returns a sized, splittable spliterator over the tiles in this Board, in row-major order.
+   */
+  @Override
+  public Spliterator<Tile> spliterator() {
+    return Spliterators.spliterator(
+        tiles,
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
   }
 
   /**
@@ -517,38 +494,35 @@ public final class Board implements Iterable<Tile>, Stringable {
    */
   private class BoardIterator implements Iterator<Tile> {
 
-    private int r;
-    private int c;
+    /**
+     * The index of the next tile to return.
+     */
+    private int index;
 
     /**
-     * Constructs a new model.board iterator, with row and column set to 0
+     * Constructs a new model.board iterator, starting at the first tile
      */
     private BoardIterator() {
-      r = 0;
-      c = 0;
+      index = 0;
     }
 
     /**
-     * Return true iff r < tiles.length && c < tiles[r].length
+     * Return true iff there are tiles left to return
      */
     @Override
     public boolean hasNext() {
-      return r < tiles.length && c < tiles[r].length;
+      return index < tiles.length;
     }
 
     /**
-     * Gets the current tile, then advances one to the right. If this goes off the row, goes to the
-     * next row and resets the column counter
+     * Gets the current tile, then advances to the next one in row-major order.
      */
     @Override
     public Tile next() {
-      Tile t = getTileAt(r, c);
-      c++;
-      if (c == getWidth()) {
-        r++;
-        c = 0;
+      if (!hasNext()) {
+        throw new NoSuchElementException("No tiles left on " + Board.this);
       }
-      return t;
+      return tiles[index++];
     }
 
     /**
@@ -582,7 +556,7 @@ public final class Board implements Iterable<Tile>, Stringable {
     for (int i = 0; i < getHeight(); i++) {
       s += "[";
       for (int j = 0; j < getWidth(); j++) {
-        s += tiles[i][j].toStringLong() + " ";
+        s += getTileAt(i, j).toStringLong() + " ";
       }
       s += "] ";
     }
@@ -0,0 +1,484 @@
+package model.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.util.MPoint;
+
+/**
+ * The immutable part of a board, read once from its board file: its size, the terrain and sea index
+ * of every tile, where commanders start and which mountain range every mountain belongs to. Nothing
+ * here changes during a game, so a single template is shared by every {@link Board} (and so every
+ * game) played on the same board file, along with the tables precomputed from its terrain - vision
+ * masks and terrain distances.
+ *
+ * <p>Per-tile data is stored in flat arrays indexed in row-major order, matching {@link
+ * Board#getTileIndex(Tile)}.
+ */
+public final class BoardTemplate {
+
+  /**
+   * The terrains, by ordinal.
+   */
+  private static final Terrain[] TERRAINS = Terrain.values();
+
+  /**
+   * Mountain range id of tiles that aren't mountains.
+   */
+  public static final int NO_MOUNTAIN_RANGE = -1;
+
+  /**
+   * Sea terrain index of tiles that aren't sea.
+   */
+  public static final int NO_SEA_TERRAIN_INDEX = -1;
+
+  /**
+   * Value in the neighbor tables for neighbors that would be off the board.
+   */
+  public static final int NO_NEIGHBOR = -1;
+
+  /**
+   * The number of entries per tile in the orthogonal neighbor table.
+   */
+  public static final int ORTHOGONAL_NEIGHBORS = 4;
+
+  /**
+   * The number of entries per tile in the neighbor table that includes diagonals.
+   */
+  public static final int ALL_NEIGHBORS = 8;
+
+  /**
+   * The row and column offsets of the neighbors in the neighbor table that includes diagonals:
+   * left, up-left, up, up-right, right, down-right, down, down-left.
+   */
+  private static final int[][] ALL_NEIGHBOR_OFFSETS = {
+      {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}, {0, 1}, {1, 1}, {1, 0}, {1, -1}
+  };
+
+  /**
+   * The board file this template was read from.
+   */
+  public final String filepath;
+
+  /**
+   * The number of rows in this template.
+   */
+  private final int height;
+
+  /**
+   * The number of columns in this template.
+   */
+  private final int width;
+
+  /**
+   * The terrain ordinal of each tile.
+   */
+  private final byte[] terrain;
+
+  /**
+   * The sea terrain index of each tile, {@link #NO_SEA_TERRAIN_INDEX} for tiles that aren't sea.
+   */
+  private final short[] seaTerrainIndices;
+
+  /**
+   * The indices of the tiles where commanders start, in board file order.
+   */
+  private final int[] commanderStartLocations;
+
+  /**
+   * The mountain range id of each tile, {@link #NO_MOUNTAIN_RANGE} for tiles that aren't
+   * mountains. Ids count up from 0.
+   */
+  private final int[] mountainRangeIds;
+
+  /**
+   * The indices of the tiles in each mountain range, sorted ascending, by mountain range id.
+   */
+  private final int[][] mountainRanges;
+
+  /**
+   * The indices of the tiles with each terrain, sorted ascending, by terrain ordinal.
+   */
+  private final int[][] tilesByTerrain;
+
+  /**
+   * The index of each tile's orthogonal neighbors, {@link #ORTHOGONAL_NEIGHBORS} entries per tile
+   * in {@link Direction} order. {@link #NO_NEIGHBOR} for neighbors off the board.
+   */
+  private final int[] orthogonalNeighbors;
+
+  /**
+   * The index of each tile's neighbors including diagonals, {@link #ALL_NEIGHBORS} entries per tile
+   * in {@link #ALL_NEIGHBOR_OFFSETS} order. {@link #NO_NEIGHBOR} for neighbors off the board.
+   */
+  private final int[] allNeighbors;
+
+  /**
+   * Precomputed vision masks for this template.
+   */
+  private final LineOfSight lineOfSight;
+
+  /**
+   * Terrain distance tables for this template, by movement cost profile followed by maximum
+   * distance. Filled lazily as units with new movement costs need them.
+   */
+  private final Map<List<Integer>, TerrainDistances> terrainDistances;
+
+  /**
+   * Constructs a BoardTemplate from its flat per-tile arrays, which are copied. Throws
+   * IllegalArgumentException if the arrays don't match the given size, or if the mountain range
+   * ids don't match the terrain.
+   */
+  public BoardTemplate(
+      String filepath,
+      int height,
+      int width,
+      byte[] terrain,
+      short[] seaTerrainIndices,
+      int[] commanderStartLocations,
+      int[] mountainRangeIds)
+      throws IllegalArgumentException {
+    int size = height * width;
+    if (height <= 0
+        || width <= 0
+        || terrain.length != size
+        || seaTerrainIndices.length != size
+        || mountainRangeIds.length != size) {
+      throw new IllegalArgumentException(
+          "Tile arrays of " + filepath + " don't match its size " + width + "x" + height);
+    }
+    for (int location : commanderStartLocations) {
+      if (location < 0 || location >= size) {
+        throw new IllegalArgumentException(
+            "Commander start location " + location + " is off of " + filepath);
+      }
+    }
+    this.filepath = filepath;
+    this.height = height;
+    this.width = width;
+    this.terrain = Arrays.copyOf(terrain, size);
+    this.seaTerrainIndices = Arrays.copyOf(seaTerrainIndices, size);
+    this.commanderStartLocations =
+        Arrays.copyOf(commanderStartLocations, commanderStartLocations.length);
+    this.mountainRangeIds = Arrays.copyOf(mountainRangeIds, size);
+    orthogonalNeighbors = createOrthogonalNeighborTable(height, width);
+    allNeighbors = createNeighborTable(height, width, ALL_NEIGHBOR_OFFSETS);
+
+    int rangeCount = 0;
+    for (int i = 0; i < size; i++) {
+      if (getTerrain(i) == Terrain.MOUNTAIN) {
+        if (mountainRangeIds[i] < 0) {
+          throw new IllegalArgumentException(
+              "Mountain " + i + " of " + filepath + " has no mountain range");
+        }
+        rangeCount = Math.max(rangeCount, mountainRangeIds[i] + 1);
+      } else if (mountainRangeIds[i] != NO_MOUNTAIN_RANGE) {
+        throw new IllegalArgumentException(
+            "Non-mountain " + i + " of " + filepath + " has a mountain range");
+      }
+    }
+    int[] rangeSizes = new int[rangeCount];
+    for (int id : mountainRangeIds) {
+      if (id != NO_MOUNTAIN_RANGE) {
+        rangeSizes[id]++;
+      }
+    }
+    mountainRanges = new int[rangeCount][];
+    for (int id = 0; id < rangeCount; id++) {
+      mountainRanges[id] = new int[rangeSizes[id]];
+      rangeSizes[id] = 0;
+    }
+    for (int i = 0; i < size; i++) {
+      int id = mountainRangeIds[i];
+      if (id != NO_MOUNTAIN_RANGE) {
+        mountainRanges[id][rangeSizes[id]++] = i;
+      }
+    }
+
+    int[] terrainCounts = new int[TERRAINS.length];
+    for (byte t : terrain) {
+      terrainCounts[t]++;
+    }
+    tilesByTerrain = new int[TERRAINS.length][];
+    for (int t = 0; t < TERRAINS.length; t++) {
+      tilesByTerrain[t] = new int[terrainCounts[t]];
+      terrainCounts[t] = 0;
+    }
+    for (int i = 0; i < size; i++) {
+      tilesByTerrain[terrain[i]][terrainCounts[terrain[i]]++] = i;
+    }
+
+    lineOfSight = new LineOfSight(this);
+    terrainDistances = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a BoardTemplate from the given terrain and sea terrain indices by row and column,
+   * finding its mountain ranges. Throws IllegalArgumentException if the arrays are jagged or
+   * differently sized.
+   */
+  public static BoardTemplate create(
+      String filepath,
+      Terrain[][] terrain,
+      int[][] seaTerrainIndices,
+      List<MPoint> commanderStartLocations)
+      throws IllegalArgumentException {
+    int height = terrain.length;
+    int width = height == 0 ? 0 : terrain[0].length;
+    byte[] terrainOrdinals = new byte[height * width];
+    short[] seaIndices = new short[height * width];
+    for (int r = 0; r < height; r++) {
+      if (terrain[r].length != width || seaTerrainIndices[r].length != width) {
+        throw new IllegalArgumentException(
+            "Jagged Array passed into model.board constructor " + Arrays.deepToString(terrain));
+      }
+      for (int c = 0; c < width; c++) {
+        terrainOrdinals[r * width + c] = (byte) terrain[r][c].ordinal();
+        seaIndices[r * width + c] = (short) seaTerrainIndices[r][c];
+      }
+    }
+    int[] startLocations = new int[commanderStartLocations.size()];
+    for (int i = 0; i < startLocations.length; i++) {
+      MPoint p = commanderStartLocations.get(i);
+      if (p.row < 0 || p.row >= height || p.col < 0 || p.col >= width) {
+        throw new IllegalArgumentException(
+            "Commander start location " + p + " is off of " + filepath);
+      }
+      startLocations[i] = p.row * width + p.col;
+    }
+    return new BoardTemplate(
+        filepath,
+        height,
+        width,
+        terrainOrdinals,
+        seaIndices,
+        startLocations,
+        findMountainRanges(createOrthogonalNeighborTable(height, width), terrainOrdinals));
+  }
+
+  /**
+   * Returns the neighbor table of a board of the given size, with the neighbors at the given row
+   * and column offsets of each tile.
+   */
+  private static int[] createNeighborTable(int height, int width, int[][] offsets) {
+    int[] table = new int[height * width * offsets.length];
+    for (int r = 0; r < height; r++) {
+      for (int c = 0; c < width; c++) {
+        int base = (r * width + c) * offsets.length;
+        for (int k = 0; k < offsets.length; k++) {
+          int nRow = r + offsets[k][0];
+          int nCol = c + offsets[k][1];
+          table[base + k] =
+              nRow >= 0 && nRow < height && nCol >= 0 && nCol < width
+                  ? nRow * width + nCol
+                  : NO_NEIGHBOR;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Returns the orthogonal neighbor table of a board of the given size.
+   */
+  private static int[] createOrthogonalNeighborTable(int height, int width) {
+    Direction[] directions = Direction.values();
+    int[][] offsets = new int[directions.length][];
+    for (Direction d : directions) {
+      offsets[d.ordinal()] = new int[]{d.dRow(), d.dCol()};
+    }
+    return createNeighborTable(height, width, offsets);
+  }
+
+  /**
+   * Returns the mountain range id of every tile of a board with the given orthogonal neighbor table
+   * and terrain ordinals. A range is a set of mountains connected without diagonals, and ranges are
+   * numbered in the order their first tile appears in.
+   */
+  private static int[] findMountainRanges(int[] orthogonalNeighbors, byte[] terrain) {
+    int[] ids = new int[terrain.length];
+    Arrays.fill(ids, NO_MOUNTAIN_RANGE);
+    int[] queue = new int[terrain.length];
+    int nextId = 0;
+    for (int i = 0; i < terrain.length; i++) {
+      if (TERRAINS[terrain[i]] != Terrain.MOUNTAIN || ids[i] != NO_MOUNTAIN_RANGE) {
+        continue;
+      }
+      int id = nextId++;
+      ids[i] = id;
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = i;
+      while (head < tail) {
+        int current = queue[head++];
+        int base = current * ORTHOGONAL_NEIGHBORS;
+        for (int k = base; k < base + ORTHOGONAL_NEIGHBORS; k++) {
+          int neighbor = orthogonalNeighbors[k];
+          if (neighbor != NO_NEIGHBOR
+              && TERRAINS[terrain[neighbor]] == Terrain.MOUNTAIN
+              && ids[neighbor] == NO_MOUNTAIN_RANGE) {
+            ids[neighbor] = id;
+            queue[tail++] = neighbor;
+          }
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the number of rows in this template.
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the number of columns in this template.
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the number of tiles in this template.
+   */
+  public int getSize() {
+    return terrain.length;
+  }
+
+  /**
+   * Returns the terrain of the tile at the given index.
+   */
+  public Terrain getTerrain(int index) {
+    return TERRAINS[terrain[index]];
+  }
+
+  /**
+   * Returns the ordinal of the terrain of the tile at the given index.
+   */
+  public int getTerrainOrdinal(int index) {
+    return terrain[index];
+  }
+
+  /**
+   * Returns the indices of the tiles with the given terrain, sorted ascending. The returned array
+   * is shared, so it must not be modified.
+   */
+  public int[] getTileIndicesWithTerrain(Terrain t) {
+    return tilesByTerrain[t.ordinal()];
+  }
+
+  /**
+   * Returns the sea terrain index of the tile at the given index, {@link #NO_SEA_TERRAIN_INDEX} if
+   * it isn't sea.
+   */
+  public int getSeaTerrainIndex(int index) {
+    return seaTerrainIndices[index];
+  }
+
+  /**
+   * Returns the locations where commanders start, in board file order. Unmodifiable.
+   */
+  public List<MPoint> getCommanderStartLocations() {
+    List<MPoint> locations = new ArrayList<>(commanderStartLocations.length);
+    for (int index : commanderStartLocations) {
+      locations.add(MPoint.get(index / width, index % width));
+    }
+    return Collections.unmodifiableList(locations);
+  }
+
+  /**
+   * Returns the number of commander start locations in this template.
+   */
+  public int getCommanderStartLocationCount() {
+    return commanderStartLocations.length;
+  }
+
+  /**
+   * Returns the index of the i-th commander start location, in board file order.
+   */
+  public int getCommanderStartLocationIndex(int i) {
+    return commanderStartLocations[i];
+  }
+
+  /**
+   * Returns the orthogonal neighbor table of this template: the index of the neighbor of the tile
+   * at index i in direction d is at {@code i * ORTHOGONAL_NEIGHBORS + d.ordinal()}, {@link
+   * #NO_NEIGHBOR} if it is off the board. The returned array is shared, so it must not be modified.
+   */
+  public int[] getOrthogonalNeighborTable() {
+    return orthogonalNeighbors;
+  }
+
+  /**
+   * Returns the neighbor table of this template including diagonals: the neighbors of the tile at
+   * index i are at {@code i * ALL_NEIGHBORS} to {@code i * ALL_NEIGHBORS + 7}, in order left,
+   * up-left, up, up-right, right, down-right, down, down-left. {@link #NO_NEIGHBOR} for neighbors
+   * off the board. The returned array is shared, so it must not be modified.
+   */
+  public int[] getNeighborTable() {
+    return allNeighbors;
+  }
+
+  /**
+   * Returns the index of the neighbor of the tile at the given index in the given direction,
+   * {@link #NO_NEIGHBOR} if it is off the board.
+   */
+  public int getNeighbor(int index, Direction direction) {
+    return orthogonalNeighbors[index * ORTHOGONAL_NEIGHBORS + direction.ordinal()];
+  }
+
+  /**
+   * Returns the mountain range id of the tile at the given index, {@link #NO_MOUNTAIN_RANGE} if it
+   * isn't a mountain.
+   */
+  public int getMountainRangeId(int index) {
+    return mountainRangeIds[index];
+  }
+
+  /**
+   * Returns the number of mountain ranges in this template.
+   */
+  public int getMountainRangeCount() {
+    return mountainRanges.length;
+  }
+
+  /**
+   * Returns the indices of the tiles in the mountain range with the given id, sorted ascending. The
+   * returned array is shared, so it must not be modified.
+   */
+  public int[] getMountainRange(int id) {
+    return mountainRanges[id];
+  }
+
+  /**
+   * Returns the precomputed vision masks for this template.
+   */
+  public LineOfSight getLineOfSight() {
+    return lineOfSight;
+  }
+
+  /**
+   * Returns the terrain distance table for the given movement cost per terrain ordinal, storing
+   * distances up to the given maximum. Shared between everything asking for the same table.
+   */
+  public TerrainDistances getTerrainDistances(int[] terrainCosts, int maxDistance) {
+    List<Integer> key = new ArrayList<>(terrainCosts.length + 1);
+    for (int cost : terrainCosts) {
+      key.add(cost);
+    }
+    key.add(maxDistance);
+    return terrainDistances.computeIfAbsent(
+        key, k -> new TerrainDistances(this, terrainCosts, maxDistance));
+  }
+
+  @Override
+  public String toString() {
+    return "Board template of size " + width + "x" + height + " from " + filepath;
+  }
+}
@@ -0,0 +1,158 @@
+package model.board;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.util.Cloud;
+import model.util.ExpandableCloud;
+import model.util.MPoint;
+
+/**
+ * Precomputed vision masks for a {@link BoardTemplate}. A mask is the set of tile indices a unit
+ * standing on a given tile with a given vision range can see. Vision depends only on terrain, which
+ * never changes on a board, so each mask is computed once and shared by every player and unit in
+ * every game played on the template.
+ */
+public final class LineOfSight {
+
+  /**
+   * The template this computes vision on.
+   */
+  public final BoardTemplate template;
+
+  /**
+   * Computed masks, keyed by {@link #getKey(int, int, boolean)}.
+   */
+  private final Map<Long, int[]> masks;
+
+  /**
+   * Constructs a new LineOfSight for the given template.
+   */
+  LineOfSight(BoardTemplate template) {
+    this.template = template;
+    masks = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the key for the mask with the given parameters.
+   */
+  private static long getKey(int originIndex, int range, boolean radial) {
+    return ((long) range << 33) | (radial ? 1L << 32 : 0L) | originIndex;
+  }
+
+  /**
+   * Returns the indices of the tiles visible from the given origin with the given vision range,
+   * sorted ascending. Always includes the origin. If radial, vision is every tile within range,
+   * regardless of terrain. Otherwise vision is ray-based - mountains block vision beyond them
+   * (except those in the origin's own mountain range), and woods can only be seen from adjacent
+   * tiles.
+   *
+   * <p>The returned array is shared, so it must not be modified. The same array instance is
+   * returned for the same parameters, so masks can be compared by identity.
+   */
+  public int[] getVisionMask(Tile origin, int range, boolean radial) {
+    return getVisionMask(origin.index, range, radial);
+  }
+
+  /**
+   * Returns the vision mask from the tile at the given index. See {@link #getVisionMask(Tile, int,
+   * boolean)}.
+   */
+  public int[] getVisionMask(int originIndex, int range, boolean radial) {
+    return masks.computeIfAbsent(
+        getKey(originIndex, range, radial), k -> computeVisionMask(originIndex, range, radial));
+  }
+
+  /**
+   * Returns true iff the given r,c is on the template.
+   */
+  private boolean isOnBoard(int r, int c) {
+    return r >= 0 && r < template.getHeight() && c >= 0 && c < template.getWidth();
+  }
+
+  /**
+   * Computes a vision mask. Called at most once per set of parameters.
+   */
+  private int[] computeVisionMask(int origin, int range, boolean radial) {
+    int size = template.getSize();
+    int width = template.getWidth();
+    int row = origin / width;
+    int col = origin % width;
+    boolean[] visible = new boolean[size];
+    visible[origin] = true;
+
+    if (radial) {
+      Cloud cloud = ExpandableCloud.create(ExpandableCloud.ExpandableCloudType.CIRCLE, range);
+      for (int i = 0; i < cloud.getSize(); i++) {
+        int r = row + cloud.getRow(i);
+        int c = col + cloud.getCol(i);
+        if (isOnBoard(r, c)) {
+          visible[r * width + c] = true;
+        }
+      }
+    } else {
+      for (int radius = 1; radius <= range; radius++) {
+        boolean radiusIsOne = radius == 1;
+        addVisionPoint(visible, origin, row + radius, col, radiusIsOne);
+        addVisionPoint(visible, origin, row - radius, col, radiusIsOne);
+        addVisionPoint(visible, origin, row, col + radius, radiusIsOne);
+        addVisionPoint(visible, origin, row, col - radius, radiusIsOne);
+        for (int i = 1; i < radius; i++) {
+          addVisionPoint(visible, origin, row + radius - i, col + i, false);
+          addVisionPoint(visible, origin, row - radius + i, col - i, false);
+          addVisionPoint(visible, origin, row - i, col + radius - i, false);
+          addVisionPoint(visible, origin, row + i, col - radius + i, false);
+        }
+      }
+    }
+
+    int[] mask = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (visible[i]) {
+        mask[count++] = i;
+      }
+    }
+    return Arrays.copyOf(mask, count);
+  }
+
+  /**
+   * Helper for computeVisionMask - marks the tile at the given r,c as visible if:
+   * <li>it is in bounds.
+   * <li>No mountain outside of the origin's mountain range blocks the line to it.
+   * <li>If it is a woods, the origin is directly adjacent to it.
+   */
+  private void addVisionPoint(boolean[] visible, int origin, int r, int c, boolean isAdjacent) {
+    if (!isOnBoard(r, c)) {
+      // OOB - can't see.
+      return;
+    }
+    int width = template.getWidth();
+    int index = r * width + c;
+    Terrain terrain = template.getTerrain(index);
+
+    if (terrain != Terrain.MOUNTAIN) {
+      int originMountainRange = template.getMountainRangeId(origin);
+      Cloud line = MPoint.get(origin / width, origin % width).getLineCloudTo(MPoint.get(r, c));
+      for (int i = 0; i < line.getSize(); i++) {
+        int lineIndex = line.getRow(i) * width + line.getCol(i);
+        if (template.getTerrain(lineIndex) == Terrain.MOUNTAIN
+            && (originMountainRange == BoardTemplate.NO_MOUNTAIN_RANGE
+                || template.getMountainRangeId(lineIndex) != originMountainRange)) {
+          // Can't see past mountains.
+          return;
+        }
+      }
+    }
+
+    if (terrain != Terrain.WOODS || isAdjacent) {
+      visible[index] = true;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Line of sight on " + template + " (" + masks.size() + " masks)";
+  }
+}
@@ -0,0 +1,302 @@
+package model.board;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import model.unit.MovingUnit;
+
+/**
+ * The result of a single movement cloud computation on a {@link Board}. Holds the remaining
+ * movement and predecessor for each reachable tile in per-query arrays indexed by {@link
+ * Board#getTileIndex(Tile)}, so no state is stored on the tiles themselves. Instances are immutable
+ * once computed, so any number of clouds can be computed and queried concurrently on the same
+ * board.
+ */
+public final class MovementCloud implements Iterable<Tile> {
+
+  /**
+   * Value in remaining for tiles that weren't reached by this computation.
+   */
+  private static final int UNREACHED = Integer.MIN_VALUE;
+
+  /**
+   * Value in prev and the bucket links for no tile.
+   */
+  private static final int NONE = -1;
+
+  /**
+   * The board this cloud was computed on.
+   */
+  public final Board board;
+
+  /**
+   * The tile this cloud was computed from.
+   */
+  public final Tile start;
+
+  /**
+   * The movement remaining after reaching each tile, by tile index. {@link #UNREACHED} for tiles
+   * outside of this cloud.
+   */
+  private final int[] remaining;
+
+  /**
+   * The index of the tile before each tile on its path from start, by tile index. {@link #NONE}
+   * for start and tiles outside of this cloud.
+   */
+  private final int[] prev;
+
+  /**
+   * The indices of the tiles in this cloud, in the order they were settled.
+   */
+  private final int[] settled;
+
+  /**
+   * Computes a new movement cloud for the given unit from the given start tile with the given
+   * movement. Only counts enemy units as obstacles if they are visible to the unit's owner.
+   *
+   * <p>Movement costs are small non-negative ints, so this runs Dijkstra's algorithm with a bucket
+   * queue keyed by remaining movement instead of a comparison-based priority queue. Each bucket is
+   * an intrusive doubly linked list over tile indices, making both insertion and decrease-key
+   * constant time.
+   */
+  MovementCloud(Board board, MovingUnit unit, Tile start, int movement) {
+    this(board, getTerrainCosts(unit), t -> isObstacle(unit, t), start, movement);
+  }
+
+  /**
+   * Computes a new movement cloud from the given start tile with the given movement, using the
+   * given movement cost per terrain ordinal. Tiles matching the given obstacle predicate can't be
+   * moved onto.
+   */
+  MovementCloud(
+      Board board, int[] terrainCosts, Predicate<Tile> obstacle, Tile start, int movement) {
+    this.board = board;
+    this.start = start;
+    int size = board.getWidth() * board.getHeight();
+    remaining = new int[size];
+    prev = new int[size];
+    settled =
+        search(
+            board.getTemplate(),
+            terrainCosts,
+            i -> obstacle.test(board.getTileAtIndex(i)),
+            board.getTileIndex(start),
+            movement,
+            remaining,
+            prev);
+  }
+
+  /**
+   * Runs the movement cloud search on the given template from the tile at the given start index,
+   * filling remaining and prev, which must have one entry per tile. Tiles whose index matches the
+   * given obstacle predicate can't be moved onto. Returns the indices of the reached tiles, in the
+   * order they were settled.
+   */
+  static int[] search(
+      BoardTemplate template,
+      int[] terrainCosts,
+      IntPredicate obstacle,
+      int startIndex,
+      int movement,
+      int[] remaining,
+      int[] prev) {
+    int[] neighbors = template.getOrthogonalNeighborTable();
+    int size = template.getSize();
+    Arrays.fill(remaining, UNREACHED);
+    Arrays.fill(prev, NONE);
+    if (movement < 0) {
+      return new int[0];
+    }
+
+    int[] bucketHeads = new int[movement + 1];
+    Arrays.fill(bucketHeads, NONE);
+    int[] next = new int[size];
+    int[] before = new int[size];
+    boolean[] done = new boolean[size];
+    int[] settledOrder = new int[size];
+    int settledCount = 0;
+
+    remaining[startIndex] = movement;
+    link(bucketHeads, next, before, movement, startIndex);
+
+    for (int bucket = movement; bucket >= 0; bucket--) {
+      // Pop from the head until empty, so zero-cost moves landing in this bucket are handled.
+      while (bucketHeads[bucket] != NONE) {
+        int current = bucketHeads[bucket];
+        unlink(bucketHeads, next, before, bucket, current);
+        done[current] = true;
+        settledOrder[settledCount++] = current;
+
+        int base = current * BoardTemplate.ORTHOGONAL_NEIGHBORS;
+        for (int k = base; k < base + BoardTemplate.ORTHOGONAL_NEIGHBORS; k++) {
+          int neighbor = neighbors[k];
+          if (neighbor == BoardTemplate.NO_NEIGHBOR || done[neighbor]) {
+            continue;
+          }
+          int cost = terrainCosts[template.getTerrainOrdinal(neighbor)];
+          // Costs may be very large for impassable terrain, check before subtracting.
+          if (cost > bucket) {
+            continue;
+          }
+          int nDist = bucket - cost;
+          if (nDist <= remaining[neighbor] || obstacle.test(neighbor)) {
+            continue;
+          }
+          if (remaining[neighbor] != UNREACHED) {
+            unlink(bucketHeads, next, before, remaining[neighbor], neighbor);
+          }
+          remaining[neighbor] = nDist;
+          prev[neighbor] = current;
+          link(bucketHeads, next, before, nDist, neighbor);
+        }
+      }
+    }
+    return Arrays.copyOf(settledOrder, settledCount);
+  }
+
+  /**
+   * Returns the given unit's movement cost for each terrain, by terrain ordinal. Looked up once per
+   * computation rather than once per relaxation.
+   */
+  public static int[] getTerrainCosts(MovingUnit unit) {
+    Terrain[] terrains = Terrain.values();
+    int[] terrainCosts = new int[terrains.length];
+    for (Terrain t : terrains) {
+      terrainCosts[t.ordinal()] = unit.getMovementCost(t);
+    }
+    return terrainCosts;
+  }
+
+  /**
+   * Returns true iff the given tile contains a unit that blocks the given unit's movement - an
+   * enemy unit visible to the moving unit's owner.
+   */
+  static boolean isObstacle(MovingUnit unit, Tile tile) {
+    return tile.isOccupied()
+        && tile.getOccupyingUnit().owner != unit.owner
+        && unit.owner.canSee(tile.getOccupyingUnit());
+  }
+
+  /**
+   * Adds the given tile index to the head of the given bucket.
+   */
+  private static void link(int[] bucketHeads, int[] next, int[] before, int bucket, int index) {
+    int head = bucketHeads[bucket];
+    next[index] = head;
+    before[index] = NONE;
+    if (head != NONE) {
+      before[head] = index;
+    }
+    bucketHeads[bucket] = index;
+  }
+
+  /**
+   * Removes the given tile index from the given bucket.
+   */
+  private static void unlink(int[] bucketHeads, int[] next, int[] before, int bucket, int index) {
+    if (before[index] != NONE) {
+      next[before[index]] = next[index];
+    } else {
+      bucketHeads[bucket] = next[index];
+    }
+    if (next[index] != NONE) {
+      before[next[index]] = before[index];
+    }
+  }
+
+  /**
+   * Returns the number of tiles in this cloud.
+   */
+  public int size() {
+    return settled.length;
+  }
+
+  /**
+   * Returns true iff the given tile is reachable in this cloud.
+   */
+  public boolean contains(Tile t) {
+    return t.board == board && remaining[board.getTileIndex(t)] != UNREACHED;
+  }
+
+  /**
+   * Returns true iff the tile at the given index is reachable in this cloud.
+   */
+  boolean contains(int index) {
+    return remaining[index] != UNREACHED;
+  }
+
+  /**
+   * Returns the movement remaining after moving from start to the tile at the given index. Returns
+   * {@link Integer#MIN_VALUE} if it isn't in this cloud.
+   */
+  int getRemainingMovement(int index) {
+    return remaining[index];
+  }
+
+  /**
+   * Returns the movement remaining after moving from start to the given tile. Returns {@link
+   * Integer#MIN_VALUE} if the given tile isn't in this cloud.
+   */
+  public int getRemainingMovement(Tile t) {
+    return remaining[board.getTileIndex(t)];
+  }
+
+  /**
+   * Returns the path from start to the given tile, including both. Throws an exception if the
+   * given tile isn't in this cloud.
+   */
+  public List<Tile> getPath(Tile destTile) {
+    if (!contains(destTile)) {
+      throw new RuntimeException(destTile + " wasn't in this movement cloud computation");
+    }
+    LinkedList<Tile> path = new LinkedList<>();
+    for (int i = board.getTileIndex(destTile); i != NONE; i = prev[i]) {
+      path.push(board.getTileAtIndex(i));
+    }
+    return path;
+  }
+
+  /**
+   * Returns the tiles in this cloud, in the order they were reached. Unmodifiable.
+   */
+  public List<Tile> getTiles() {
+    return new AbstractList<Tile>() {
+      @Override
+      public Tile get(int index) {
+        return board.getTileAtIndex(settled[index]);
+      }
+
+      @Override
+      public int size() {
+        return settled.length;
+      }
+    };
+  }
+
+  /**
+   * Returns a stream over the tiles in this cloud.
+   */
+  public Stream<Tile> stream() {
+    return getTiles().stream();
+  }
+
+  /**
+   * Returns an iterator over the tiles in this cloud, in the order they were reached.
+   */
+  @Override
+  public Iterator<Tile> iterator() {
+    return getTiles().iterator();
+  }
+
+  @Override
+  public String toString() {
+    return "Movement cloud of " + size() + " tiles from " + start;
+  }
+}
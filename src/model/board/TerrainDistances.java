@@ -0,0 +1,206 @@
+package model.board;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import model.unit.MovingUnit;
+
+/**
+ * A table of terrain-only movement distances between every pair of tiles on a {@link
+ * BoardTemplate}, for a single movement cost profile. Terrain never changes on a board, so a table
+ * can be shared by every unit with the same movement costs in every game played on the template.
+ * Units on the board are ignored - see {@link Board#getWholeBoardDistance(model.unit.MovingUnit,
+ * Tile, Tile)} for distances that account for blocking units.
+ *
+ * <p>Each row of the table is the distance field from a single source tile, computed lazily the
+ * first time a distance from that tile is requested. Rows are published without locking, so
+ * concurrent games never wait on each other - two games racing on the same new row may both compute
+ * it, but they compute the same row.
+ */
+public final class TerrainDistances {
+
+  /**
+   * Distance value for tiles that can't be reached.
+   */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  /**
+   * Stored distance value for tiles that can't be reached.
+   */
+  private static final short UNREACHABLE_SHORT = -1;
+
+  /**
+   * The template this table is for.
+   */
+  public final BoardTemplate template;
+
+  /**
+   * The movement cost of each terrain, by terrain ordinal.
+   */
+  private final int[] terrainCosts;
+
+  /**
+   * The maximum distance stored in this table. Longer distances are stored as unreachable. Must
+   * fit in a short.
+   */
+  private final int maxDistance;
+
+  /**
+   * The computed distance fields, by source tile index. Null for sources not yet computed.
+   */
+  private final AtomicReferenceArray<short[]> rows;
+
+  /**
+   * Constructs a new table for the given template with the given movement cost per terrain
+   * ordinal. Distances beyond maxDistance are treated as unreachable.
+   */
+  TerrainDistances(BoardTemplate template, int[] terrainCosts, int maxDistance) {
+    if (maxDistance >= Short.MAX_VALUE) {
+      throw new RuntimeException("Can't store distances up to " + maxDistance);
+    }
+    this.template = template;
+    this.terrainCosts = Arrays.copyOf(terrainCosts, terrainCosts.length);
+    this.maxDistance = maxDistance;
+    rows = new AtomicReferenceArray<>(template.getSize());
+  }
+
+  /**
+   * Returns the distance field from the given source tile index, computing it if necessary.
+   */
+  private short[] getRow(int source) {
+    short[] row = rows.get(source);
+    if (row != null) {
+      return row;
+    }
+    int size = template.getSize();
+    int[] remaining = new int[size];
+    int[] settled =
+        MovementCloud.search(
+            template, terrainCosts, i -> false, source, maxDistance, remaining, new int[size]);
+    row = new short[size];
+    Arrays.fill(row, UNREACHABLE_SHORT);
+    for (int i : settled) {
+      row[i] = (short) (maxDistance - remaining[i]);
+    }
+    return rows.compareAndSet(source, null, row) ? row : rows.get(source);
+  }
+
+  /**
+   * Computes every row of this table. Useful to move the cost of computing this table to load
+   * time.
+   */
+  public void computeAll() {
+    for (int i = 0; i < rows.length(); i++) {
+      getRow(i);
+    }
+  }
+
+  /**
+   * Returns the terrain movement cost of moving from one tile to another, or {@link #UNREACHABLE}
+   * if the destination can't be reached from the source.
+   */
+  public int getDistance(Tile from, Tile to) {
+    short d = getRow(from.index)[to.index];
+    return d == UNREACHABLE_SHORT ? UNREACHABLE : d;
+  }
+
+  /**
+   * Returns true iff the given neighbor is the previous tile on some shortest path to dest in the
+   * given distance field.
+   */
+  private boolean precedes(short[] row, int neighbor, int dest) {
+    return row[neighbor] != UNREACHABLE_SHORT
+        && row[neighbor] + terrainCosts[template.getTerrainOrdinal(dest)] == row[dest];
+  }
+
+  /**
+   * Returns the tile index before the given one on a shortest path from source in the given
+   * distance field. Throws an exception if there is none, which means the field is inconsistent.
+   */
+  private int getPrevious(short[] row, int current, Tile from) {
+    int[] neighbors = template.getOrthogonalNeighborTable();
+    int base = current * BoardTemplate.ORTHOGONAL_NEIGHBORS;
+    for (int k = base; k < base + BoardTemplate.ORTHOGONAL_NEIGHBORS; k++) {
+      int neighbor = neighbors[k];
+      if (neighbor != BoardTemplate.NO_NEIGHBOR && precedes(row, neighbor, current)) {
+        return neighbor;
+      }
+    }
+    throw new RuntimeException("Inconsistent distance field from " + from);
+  }
+
+  /**
+   * Returns the distance field from one tile, after checking that the other can be reached from
+   * it. Throws an exception if it can't.
+   */
+  private short[] getRowReaching(Tile from, Tile to) {
+    short[] row = getRow(from.index);
+    if (row[to.index] == UNREACHABLE_SHORT) {
+      throw new RuntimeException("Can't reach " + to + " from " + from);
+    }
+    return row;
+  }
+
+  /**
+   * Returns the number of tiles on the path {@link #getPath(Tile, Tile)} returns, walking it
+   * without building it. Throws an exception if the destination can't be reached from the source.
+   */
+  private int getPathLength(short[] row, Tile from, Tile to) {
+    int length = 1;
+    for (int current = to.index; current != from.index; current = getPrevious(row, current, from)) {
+      // Zero cost terrain could otherwise lead this walk in circles.
+      if (++length > row.length) {
+        throw new RuntimeException("Inconsistent distance field from " + from);
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Returns a shortest path from one tile to another, including both, ignoring units. The path is
+   * made of the tiles of the source's board. Throws an exception if the destination can't be
+   * reached from the source.
+   */
+  public List<Tile> getPath(Tile from, Tile to) {
+    Board board = from.board;
+    short[] row = getRowReaching(from, to);
+    Tile[] path = new Tile[getPathLength(row, from, to)];
+    int current = to.index;
+    for (int i = path.length - 1; i > 0; i--) {
+      path[i] = board.getTileAtIndex(current);
+      current = getPrevious(row, current, from);
+    }
+    path[0] = from;
+    return Arrays.asList(path);
+  }
+
+  /**
+   * Returns true iff a tile strictly between the ends of the path {@link #getPath(Tile, Tile)}
+   * returns is an obstacle to the given unit, per {@link MovementCloud#isObstacle(MovingUnit,
+   * Tile)}. Walks the path in place rather than building it. Throws an exception if the destination
+   * can't be reached from the source.
+   */
+  boolean isPathObstructed(MovingUnit unit, Tile from, Tile to) {
+    Board board = from.board;
+    short[] row = getRowReaching(from, to);
+    int steps = 0;
+    int current = to.index;
+    while (current != from.index) {
+      current = getPrevious(row, current, from);
+      if (current != from.index && MovementCloud.isObstacle(unit, board.getTileAtIndex(current))) {
+        return true;
+      }
+      // Zero cost terrain could otherwise lead this walk in circles.
+      if (++steps >= row.length) {
+        throw new RuntimeException("Inconsistent distance field from " + from);
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "Terrain distances on " + template + " for costs " + Arrays.toString(terrainCosts);
+  }
+}
@@ -13,9 +13,10 @@ import model.util.MPoint;
 
 /**
  * A Tile is a single square in the model.board. Maintains information about its location, what kind
- * of tile it is, and what units are on it.
+ * of tile it is, and what units are on it. The unit on it is stored by its board, indexed by the
+ * tile's index.
  *
- * <p>Comparability is on distance, for dijkstra's implementations.
+ * <p>Comparability is on location, row then column.
  *
  * @author MPatashnik
  */
@@ -36,6 +37,11 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    */
   public final int col;
 
+  /**
+   * The index of this tile in its model.board, in row-major order.
+   */
+  final int index;
+
   /**
    * The terrain type of this tile.
    */
@@ -46,21 +52,6 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    */
   public final int seaTerrainIndex;
 
-  /**
-   * The model.unit on this tile, if any
-   */
-  private Unit occupyingUnit;
-
-  /**
-   * A convienence field for pathfinding implementations
-   */
-  int dist;
-
-  /**
-   * A convienence field for pathfinding implementations
-   */
-  Tile prev;
-
   /**
    * The mountain range this tile belongs to, if any. Computed lazily, as needed. Should only be
    * used for mountains.
@@ -78,6 +69,7 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
     board = b;
     row = r;
     col = c;
+    index = r * b.getWidth() + c;
     terrain = t;
     this.seaTerrainIndex = seaTerrainIndex;
   }
@@ -123,7 +115,7 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    * Returns the occupyingUnit, if there is one
    */
   public Unit getOccupyingUnit() {
-    return occupyingUnit;
+    return board.getOccupyingUnit(index);
   }
 
   /**
@@ -133,23 +125,23 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    * @throws IllegalArgumentException if u is null
    */
   public void addOccupyingUnit(Unit u) throws RuntimeException {
-    if (occupyingUnit != null)
+    if (isOccupied())
       throw new RuntimeException(
-          "Can't add model.unit to " + this + ", already occupied by " + occupyingUnit);
+          "Can't add model.unit to " + this + ", already occupied by " + getOccupyingUnit());
     if (u == null) {
       throw new IllegalArgumentException("Can't add a null model.unit to " + this);
     }
     if (!u.canOccupy(terrain)) {
       throw new RuntimeException("Unit can't occupy " + terrain);
     }
-    occupyingUnit = u;
+    board.setOccupyingUnit(index, u);
   }
 
   /**
    * Removes the current model.unit
    */
   public void removeOccupyingUnit() throws RuntimeException {
-    occupyingUnit = null;
+    board.setOccupyingUnit(index, null);
   }
 
   /**
@@ -158,7 +150,7 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    * @throws IllegalArgumentException if other is already occupied
    */
   public void moveUnitTo(Tile other) throws IllegalArgumentException {
-    other.addOccupyingUnit(occupyingUnit);
+    other.addOccupyingUnit(getOccupyingUnit());
     removeOccupyingUnit();
   }
 
@@ -166,7 +158,7 @@ public final class Tile implements Comparable<Tile>, MatrixElement, Stringable {
    * Returns true iff there is an occupyingUnit
    */
   public boolean isOccupied() {
-    return occupyingUnit != null;
+    return board.getOccupyingUnit(index) != null;
   }
 
   /**
@@ -4,7 +4,6 @@ import ai.AIAction;
 import ai.AIController;
 
 import java.awt.Color;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import model.unit.MovingUnit;
 import model.unit.combatant.Combat;
@@ -16,12 +15,6 @@ import model.unit.commander.Commander;
  */
 public final class AIPlayer extends Player {
 
-  /**
-   * Id suffix to assign. Will be regenerated between different class loadings, but that should be
-   * enough to guarantee id uniqueness.
-   */
-  private static final AtomicInteger idCounter = new AtomicInteger();
-
   /**
    * Causes the AIPlayer thread to sleep between executing each action If playing against at least
    * one human opponent.
@@ -29,7 +22,8 @@ public final class AIPlayer extends Player {
   private static final int SLEEP_TIME_BETWEEN_ACTIONS_AGAINST_HUMAN = 0;
 
   /**
-   * A unique id assigned at construction time. Useful for ML logs.
+   * A unique id assigned at construction time. Useful for ML logs. Unless the controller has an id,
+   * made of the game's seed and this player's index, so a replayed game has the same ids.
    */
   private final String id;
 
@@ -45,7 +39,7 @@ public final class AIPlayer extends Player {
     super(g, c);
     id =
         aiController.id().isEmpty()
-            ? System.currentTimeMillis() + "-" + idCounter.getAndIncrement()
+            ? Long.toHexString(g.getController().getSeed()) + "-" + index
             : aiController.id();
     this.aiController = aiController;
   }
@@ -77,10 +71,11 @@ public final class AIPlayer extends Player {
   }
 
   /**
-   * Sleeps for a short period of time, for realism against human.
+   * Sleeps for a short period of time, for realism against human. Never sleeps if the game is
+   * headless, since then nobody is watching.
    */
   private void sleepIfHumanOpponent() {
-    if (SLEEP_TIME_BETWEEN_ACTIONS_AGAINST_HUMAN > 0) {
+    if (SLEEP_TIME_BETWEEN_ACTIONS_AGAINST_HUMAN > 0 && game.getController().hasFrame()) {
       try {
         Thread.sleep(SLEEP_TIME_BETWEEN_ACTIONS_AGAINST_HUMAN);
       } catch (InterruptedException e) {
@@ -95,12 +90,14 @@ public final class AIPlayer extends Player {
 
   /**
    * Executes the turn for the AI - executes next actions as long as there is one, then terminates.
+   * Records each action and the end of the turn, in case the game is being recorded.
    */
   @Override
   protected final void turn() {
     aiController.turnStart(this);
     AIAction action = aiController.getNextAction(this);
     while (action != null) {
+      game.getController().recordAction(action);
       try {
         handleAction(action);
         aiController.actionExecuted(action);
@@ -110,6 +107,7 @@ public final class AIPlayer extends Player {
       sleepIfHumanOpponent();
       action = aiController.getNextAction(this);
     }
+    game.getController().recordEndOfTurn();
     sleepIfHumanOpponent();
   }
 
@@ -158,7 +158,7 @@ public final class Game implements Runnable, Stringable {
    * Tells the controller that this has changed, needs repainting
    */
   public void repaint() {
-    controller.repaint();
+    controller.getEvents().repaint();
   }
 
   /**
@@ -183,9 +183,7 @@ public final class Game implements Runnable, Stringable {
       }
       if (isGameOver()) {
         Player winner = getRemainingPlayers().isEmpty() ? null : getRemainingPlayers().get(0);
-        if (controller.hasFrame()) {
-          controller.frame.showGameOverAlert(winner);
-        }
+        controller.getEvents().gameOver(winner);
         players.forEach(p -> ResultsPrinter.printResults(p, p == winner, players));
         players.forEach(ResultsPrinter::printConfig);
       }
@@ -309,6 +307,34 @@ public final class Game implements Runnable, Stringable {
     return dangerRadius;
   }
 
+  /**
+   * Returns the number of combatants belonging to other players that threaten the given tile and
+   * are visible to the given player.
+   */
+  public int getThreatCount(Player player, Tile t) {
+    int count = 0;
+    for (Player p : players) {
+      if (p != player) {
+        count += p.getDangerCount(t, player);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of combatants belonging to other players that threaten each tile and are
+   * visible to the given player, by tile index.
+   */
+  public int[] getThreatCounts(Player player) {
+    int[] counts = new int[board.getWidth() * board.getHeight()];
+    for (Player p : players) {
+      if (p != player) {
+        p.addDangerCounts(counts, player);
+      }
+    }
+    return counts;
+  }
+
   /**
    * Returns the index of the current player, which rotates through as the players rotate.
    */
@@ -424,9 +450,7 @@ public final class Game implements Runnable, Stringable {
           && nextTurnPlayer.isLocalHumanPlayer()
           && nextTurnPlayer.index != mostRecentHumanPlayerIndex) {
         betweenTurnsFog = true;
-        if (controller.hasFrame()) {
-          controller.frame.showPlayerChangeAlert(nextTurnPlayer);
-        }
+        controller.getEvents().playerChanging(nextTurnPlayer);
       }
     }
   }
@@ -1,6 +1,6 @@
 package model.game;
 
-import model.board.Terrain;
+import model.board.MovementCloud;
 import model.board.Tile;
 import model.unit.MovingUnit;
 import model.unit.Summoner;
@@ -15,18 +15,20 @@ import model.unit.combatant.Combatant;
 import model.unit.commander.Commander;
 import model.unit.modifier.Modifiers;
 import model.util.Cloud;
-import model.util.ExpandableCloud;
-import model.util.MPoint;
+import util.RandomStreams;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -83,19 +85,67 @@ public abstract class Player implements Stringable {
   private final ArrayList<Temple> temples;
 
   /**
-   * The Tiles in the model.board this player has vision of, keyed by units
+   * The vision mask (visible tile indices) each unit this player controls currently contributes.
    */
-  private final Map<Unit, Set<Tile>> visionCloud;
+  private final Map<Unit, int[]> visionMasks;
 
   /**
-   * The Tiles in the model.board this player has vision of. A flattened version of visionCloud.
+   * The number of this player's units that can see each tile, by tile index. Kept up to date
+   * incrementally from visionMasks.
    */
-  private Set<Tile> visionCloudFlattened;
+  private final int[] visionCounts;
 
   /**
-   * The tiles that combatants this player controls threatens.
+   * The indices of the tiles that each combatant this player controls threatens, sorted. Also the
+   * lock guarding every other danger radius field.
    */
-  private final Map<Combatant, Set<Tile>> dangerRadius;
+  private final Map<Combatant, int[]> dangerRadius;
+
+  /**
+   * The number of this player's combatants that threaten each tile, by tile index. Kept up to date
+   * incrementally from dangerRadius.
+   */
+  private final int[] dangerCounts;
+
+  /**
+   * The number of tiles with a non-zero dangerCount - the size of the flattened danger radius.
+   */
+  private int dangerRadiusSize;
+
+  /**
+   * Scratch marks for computing a danger radius without building a set, by tile index. A tile is
+   * in the radius being computed iff its mark is dangerMarkEpoch, so starting a new radius only
+   * takes incrementing the epoch.
+   */
+  private final int[] dangerMarks;
+
+  /**
+   * The mark of tiles in the danger radius being computed.
+   */
+  private int dangerMarkEpoch;
+
+  /**
+   * Scratch list of the indices of the tiles marked with dangerMarkEpoch, in the order they were
+   * marked. Its first dangerScratchSize entries are in use.
+   */
+  private final int[] dangerScratch;
+
+  /**
+   * The number of entries of dangerScratch in use.
+   */
+  private int dangerScratchSize;
+
+  /**
+   * Marks the tile it is given in dangerMarks, and adds it to dangerScratch if it wasn't marked.
+   * Kept to not allocate a new consumer per danger radius computed.
+   */
+  private final Consumer<Tile> dangerMarker;
+
+  /**
+   * The danger radius as tile sets, for the view. Built from dangerRadius when asked for, and
+   * dropped whenever it changes. Null if not built.
+   */
+  private Map<Combatant, Set<Tile>> dangerRadiusSets;
 
   /**
    * The sum of all the mana per turn generation/costs this player owns
@@ -107,6 +157,11 @@ public abstract class Player implements Stringable {
    */
   private int researchPerTurn;
 
+  /**
+   * The random this player's decisions are drawn from, seeded from the game's seed.
+   */
+  private final Random random;
+
   /**
    * Constructor for Player class with just model.game.
    */
@@ -117,9 +172,30 @@ public abstract class Player implements Stringable {
     actionableUnits = new ArrayList<>();
     allUnitModifierBuildings = new HashSet<>();
     temples = new ArrayList<>();
-    visionCloud = new HashMap<>();
-    visionCloudFlattened = null;
-    dangerRadius = Collections.synchronizedMap(new HashMap<>());
+    visionMasks = new HashMap<>();
+    visionCounts = new int[g.board.getWidth() * g.board.getHeight()];
+    dangerRadius = new HashMap<>();
+    dangerCounts = new int[g.board.getWidth() * g.board.getHeight()];
+    dangerRadiusSize = 0;
+    dangerMarks = new int[dangerCounts.length];
+    dangerScratch = new int[dangerCounts.length];
+    dangerMarker =
+        t -> {
+          int i = game.board.getTileIndex(t);
+          if (dangerMarks[i] != dangerMarkEpoch) {
+            dangerMarks[i] = dangerMarkEpoch;
+            dangerScratch[dangerScratchSize++] = i;
+          }
+        };
+    random = g.getController().getRandoms().newRandom(RandomStreams.PLAYER, index);
+  }
+
+  /**
+   * Returns the random this player's decisions should be drawn from, so a game replayed with the
+   * same seed makes the same random decisions.
+   */
+  public Random getRandom() {
+    return random;
   }
 
   /**
@@ -438,8 +514,12 @@ public abstract class Player implements Stringable {
   public void removeUnit(Unit u) {
     units.remove(u);
     actionableUnits.remove(u);
-    visionCloud.remove(u);
-    visionCloudFlattened = null;
+    synchronized (visionMasks) {
+      int[] oldMask = visionMasks.remove(u);
+      if (oldMask != null) {
+        applyVisionMask(oldMask, -1);
+      }
+    }
     if (u instanceof Commander && u == commander) {
       commander = null;
     }
@@ -447,7 +527,12 @@ public abstract class Player implements Stringable {
       temples.remove(u);
     }
     if (u instanceof Combatant) {
-      dangerRadius.remove(u);
+      synchronized (dangerRadius) {
+        int[] oldDangerRadius = dangerRadius.remove(u);
+        if (oldDangerRadius != null) {
+          applyDangerRadius(oldDangerRadius, -1);
+        }
+      }
     }
     recalculateState();
   }
@@ -467,18 +552,7 @@ public abstract class Player implements Stringable {
    * Return true iff this player's vision contains tile T
    */
   public boolean canSee(Tile t) {
-    if (!game.getFogOfWar().active) {
-      return true;
-    }
-
-    if (visionCloudFlattened == null) {
-      synchronized (visionCloud) {
-        visionCloudFlattened =
-            visionCloud.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
-      }
-    }
-
-    return visionCloudFlattened.contains(t);
+    return !game.getFogOfWar().active || visionCounts[game.board.getTileIndex(t)] > 0;
   }
 
   /**
@@ -489,53 +563,58 @@ public abstract class Player implements Stringable {
   }
 
   /**
-   * Refreshes this player's vision cloud based on its units
+   * Refreshes this player's vision cloud for the given unit. Only applies the difference between
+   * the unit's old and new vision to this player's vision counts.
    */
   public void refreshVisionCloud(Unit u) {
-    Set<Tile> unitVisionCloud = visionCloud.getOrDefault(u, new HashSet<>());
-    unitVisionCloud.clear();
-    visionCloud.put(u, unitVisionCloud);
-    // Always have vision of a unit's location.
-    unitVisionCloud.add(u.getLocation());
-
-    // If the unit has eagle eye, they just have radial vision.
-    if (u.hasModifierByName(Modifiers.eagleEye())) {
-      unitVisionCloud.addAll(
-          ExpandableCloud.create(ExpandableCloud.ExpandableCloudType.CIRCLE, u.getVisionRange())
-              .translate(u.getLocation().getPoint())
-              .toTileSet(game.board));
-    } else {
-      // Otherwise, Calculate ray-based vision.
-      MPoint center = u.getLocation().getPoint();
-      for (int radius = 1; radius <= u.getVisionRange(); radius++) {
-        boolean radiusIsOne = radius == 1;
-        addVisionPoint(unitVisionCloud, center, center.add(radius, 0), radiusIsOne);
-        addVisionPoint(unitVisionCloud, center, center.add(-radius, 0), radiusIsOne);
-        addVisionPoint(unitVisionCloud, center, center.add(0, radius), radiusIsOne);
-        addVisionPoint(unitVisionCloud, center, center.add(0, -radius), radiusIsOne);
-        for (int i = 1; i < radius; i++) {
-          addVisionPoint(unitVisionCloud, center, center.add(radius - i, i), false);
-          addVisionPoint(unitVisionCloud, center, center.add(-radius + i, -i), false);
-          addVisionPoint(unitVisionCloud, center, center.add(-i, radius - i), false);
-          addVisionPoint(unitVisionCloud, center, center.add(i, -radius + i), false);
-        }
+    int[] newMask =
+        game.board
+            .getLineOfSight()
+            .getVisionMask(
+                u.getLocation(), u.getVisionRange(), u.hasModifierByName(Modifiers.EAGLE_EYE));
+    synchronized (visionMasks) {
+      int[] oldMask = visionMasks.put(u, newMask);
+      if (oldMask == newMask) {
+        return;
+      }
+      if (oldMask != null) {
+        applyVisionMask(oldMask, -1);
       }
+      applyVisionMask(newMask, 1);
     }
-    if (game.getController().hasFrame()) {
-      game.getController().frame.getViewOptionsForPlayer(this).unitDangerRadiusChanged();
+    game.getController().getEvents().visionChanged(this);
+  }
+
+  /**
+   * Adds delta to the vision count of each tile in the given vision mask.
+   */
+  private void applyVisionMask(int[] mask, int delta) {
+    for (int i : mask) {
+      visionCounts[i] += delta;
     }
-    visionCloudFlattened = null;
   }
 
   /**
    * Returns this player's danger radius - the set of tiles that combatants this player controls
    * threatens keyed by the unit threatening those tiles. Assumes units have max movement, so may be
    * inaccurate during a player's own turn. Should be mostly used during opponent's turns, so this
-   * should work.
+   * should work. Built from the danger radius indices the first time it's asked for after a change,
+   * since only the view needs sets of tiles.
    */
   public Map<Combatant, Set<Tile>> getDangerRadius() {
     synchronized (dangerRadius) {
-      return Collections.unmodifiableMap(dangerRadius);
+      if (dangerRadiusSets == null) {
+        Map<Combatant, Set<Tile>> sets = new HashMap<>();
+        for (Map.Entry<Combatant, int[]> e : dangerRadius.entrySet()) {
+          Set<Tile> tiles = new HashSet<>();
+          for (int i : e.getValue()) {
+            tiles.add(game.board.getTileAtIndex(i));
+          }
+          sets.put(e.getKey(), Collections.unmodifiableSet(tiles));
+        }
+        dangerRadiusSets = Collections.unmodifiableMap(sets);
+      }
+      return dangerRadiusSets;
     }
   }
 
@@ -544,71 +623,145 @@ public abstract class Player implements Stringable {
    */
   public Set<Tile> getDangerRadiusFlattened() {
     synchronized (dangerRadius) {
-      return Collections.unmodifiableSet(
-          dangerRadius.values().stream().flatMap(Set::stream).collect(Collectors.toSet()));
+      Set<Tile> tiles = new HashSet<>();
+      for (int i = 0; i < dangerCounts.length; i++) {
+        if (dangerCounts[i] > 0) {
+          tiles.add(game.board.getTileAtIndex(i));
+        }
+      }
+      return Collections.unmodifiableSet(tiles);
     }
   }
 
   /**
-   * Recomputes the danger radius for the given combatant.
+   * Returns the number of tiles in {@link #getDangerRadiusFlattened()}, without building it.
    */
-  public void recomputeDangerRadiusFor(Combatant combatant) {
+  public int getDangerRadiusSize() {
     synchronized (dangerRadius) {
-      dangerRadius.put(combatant, combatant.getDangerRadius(true));
+      return dangerRadiusSize;
     }
-    if (game.getController().hasFrame()) {
-      game.getController().frame.unitDangerRadiusChanged(combatant);
+  }
+
+  /**
+   * Returns the number of this player's combatants that threaten the given tile and are visible to
+   * the given viewer.
+   */
+  public int getDangerCount(Tile t, Player viewer) {
+    synchronized (dangerRadius) {
+      int index = game.board.getTileIndex(t);
+      int count = dangerCounts[index];
+      if (count == 0 || viewer == this || !game.getFogOfWar().active) {
+        return count;
+      }
+      // Hidden combatants are rare, so correct for them instead of indexing by visibility.
+      for (Map.Entry<Combatant, int[]> e : dangerRadius.entrySet()) {
+        if (!viewer.canSee(e.getKey()) && Arrays.binarySearch(e.getValue(), index) >= 0) {
+          count--;
+        }
+      }
+      return count;
     }
   }
 
   /**
-   * Helper for refreshVisionCloud - adds the tile at the given point if:
-   * <li>it is in bounds.
-   * <li>It is a woods and a unit is directly adjacent to it
+   * Adds the number of this player's combatants that threaten each tile and are visible to the
+   * given viewer to the given counts, by tile index. The same as {@link #getDangerCount(Tile,
+   * Player)} for every tile, without locking for each.
    */
-  private void addVisionPoint(
-      Set<Tile> visionCloud, MPoint origin, MPoint point, boolean unitIsAdjacent) {
-    Tile tile;
-    try {
-      tile = game.board.getTileAt(point);
-    } catch (IllegalArgumentException e) {
-      // OOB - can't see.
-      return;
+  public void addDangerCounts(int[] counts, Player viewer) {
+    synchronized (dangerRadius) {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += dangerCounts[i];
+      }
+      if (viewer == this || !game.getFogOfWar().active) {
+        return;
+      }
+      for (Map.Entry<Combatant, int[]> e : dangerRadius.entrySet()) {
+        if (!viewer.canSee(e.getKey())) {
+          for (int i : e.getValue()) {
+            counts[i]--;
+          }
+        }
+      }
     }
+  }
 
-    Cloud lineCloud = origin.getLineCloudTo(point);
-    if (tile.terrain != Terrain.MOUNTAIN) {
-      Tile originTile = game.board.getTileAt(origin);
+  /**
+   * Marks the danger radius of the given combatant over the given movement cloud with a new epoch
+   * in dangerMarks, and lists its tile indices in dangerScratch. Caller must hold the dangerRadius
+   * lock.
+   */
+  private void markDangerRadius(Combatant combatant, MovementCloud cloud) {
+    if (++dangerMarkEpoch == 0) {
+      // Marks from before the epoch wrapped around could collide with new ones.
+      Arrays.fill(dangerMarks, 0);
+      dangerMarkEpoch = 1;
+    }
+    dangerScratchSize = 0;
+    combatant.forEachTileInDangerRadius(cloud, dangerMarker);
+  }
 
-      Set<Tile> occupiedMountainRange =
-          originTile.terrain == Terrain.MOUNTAIN
-              ? game.board.getContiguousMountainRange(originTile)
-              : new HashSet<>();
+  /**
+   * Returns the number of tiles this player's danger radius would grow by (negative if it would
+   * shrink) if the given combatant stood on the given tile with its max movement, instead of
+   * threatening its current danger radius. Walks the combatant's movement cloud from the tile
+   * against the per-tile danger counts, without building its danger radius.
+   */
+  public int getDangerRadiusGrowth(Combatant combatant, Tile tile) {
+    MovementCloud cloud = game.board.getMovementCloud(combatant, tile, true);
+    synchronized (dangerRadius) {
+      markDangerRadius(combatant, cloud);
+      int growth = 0;
+      for (int k = 0; k < dangerScratchSize; k++) {
+        if (dangerCounts[dangerScratch[k]] == 0) {
+          growth++;
+        }
+      }
+      int[] oldDangerRadius = dangerRadius.get(combatant);
+      if (oldDangerRadius != null) {
+        for (int i : oldDangerRadius) {
+          if (dangerCounts[i] == 1 && dangerMarks[i] != dangerMarkEpoch) {
+            growth--;
+          }
+        }
+      }
+      return growth;
+    }
+  }
 
-      if (lineCloud
-          .getPoints()
-          .stream()
-          .filter(p -> !occupiedMountainRange.contains(game.board.getTileAt(p)))
-          .map(p -> game.board.getTileAt(p).terrain)
-          .anyMatch(t -> t == Terrain.MOUNTAIN)) {
-        // Can't see past mountains.
-        return;
+  /**
+   * Adds delta to the danger count of each tile index in the given danger radius. Caller must hold
+   * the dangerRadius lock.
+   */
+  private void applyDangerRadius(int[] radius, int delta) {
+    for (int i : radius) {
+      boolean wasThreatened = dangerCounts[i] > 0;
+      dangerCounts[i] += delta;
+      if (!wasThreatened && dangerCounts[i] > 0) {
+        dangerRadiusSize++;
+      } else if (wasThreatened && dangerCounts[i] == 0) {
+        dangerRadiusSize--;
       }
     }
+    dangerRadiusSets = null;
+  }
 
-    switch (tile.terrain) {
-      case GRASS:
-      case ANCIENT_GROUND:
-      case MOUNTAIN:
-      case SEA:
-        visionCloud.add(tile);
-        break;
-      case WOODS:
-        if (unitIsAdjacent) {
-          visionCloud.add(tile);
-        }
-        break;
+  /**
+   * Recomputes the danger radius for the given combatant.
+   */
+  public void recomputeDangerRadiusFor(Combatant combatant) {
+    MovementCloud cloud = game.board.getMovementCloud(combatant, true);
+    synchronized (dangerRadius) {
+      markDangerRadius(combatant, cloud);
+      int[] newDangerRadius = Arrays.copyOf(dangerScratch, dangerScratchSize);
+      Arrays.sort(newDangerRadius);
+      int[] oldDangerRadius = dangerRadius.put(combatant, newDangerRadius);
+      if (oldDangerRadius != null) {
+        applyDangerRadius(oldDangerRadius, -1);
+      }
+      applyDangerRadius(newDangerRadius, 1);
     }
+    game.getController().getEvents().dangerRadiusChanged(combatant);
   }
 
   // TURN
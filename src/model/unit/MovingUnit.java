@@ -3,7 +3,10 @@ package model.unit;
 import java.util.LinkedList;
 import java.util.List;
 
+import model.board.BoardTemplate;
+import model.board.MovementCloud;
 import model.board.Terrain;
+import model.board.TerrainDistances;
 import model.board.Tile;
 import model.game.Player;
 import model.unit.stat.StatType;
@@ -16,11 +19,37 @@ import model.unit.stat.Stats;
  */
 public abstract class MovingUnit extends Unit {
 
+  /**
+   * True iff debug info should be logged to the console.
+   */
+  private static final boolean DEBUG = false;
+
   /**
    * Units of movement remaining this turn. Can't move if this is 0
    */
   private int movement;
 
+  /**
+   * The terrain distance table last looked up for this unit, with what it was looked up for.
+   */
+  private static final class TerrainDistancesLookup {
+    private final Stats stats;
+    private final int maxDistance;
+    private final TerrainDistances distances;
+
+    private TerrainDistancesLookup(Stats stats, int maxDistance, TerrainDistances distances) {
+      this.stats = stats;
+      this.maxDistance = maxDistance;
+      this.distances = distances;
+    }
+  }
+
+  /**
+   * The last terrain distance lookup, or null if there hasn't been one. Stats are immutable and
+   * replaced whenever they change, so the lookup holds as long as the stats are the same instance.
+   */
+  private volatile TerrainDistancesLookup terrainDistancesLookup;
+
   /**
    * Constructor for MovingUnit. Also adds this model.unit to the tile it is on as an occupant, and
    * its owner as a model.unit that player owns, Subtracts manaCost from the owner, but throws a
@@ -85,7 +114,7 @@ public abstract class MovingUnit extends Unit {
    * turn).
    */
   public final int getMovementCap() {
-    return (Integer) stats.getStat(StatType.MOVEMENT_TOTAL);
+    return stats.getStatValue(StatType.MOVEMENT_TOTAL);
   }
 
   /**
@@ -96,16 +125,39 @@ public abstract class MovingUnit extends Unit {
     switch (t) {
       case ANCIENT_GROUND:
       case GRASS:
-        return (Integer) stats.getStat(StatType.GRASS_COST);
+        return stats.getStatValue(StatType.GRASS_COST);
       case MOUNTAIN:
-        return (Integer) stats.getStat(StatType.MOUNTAIN_COST);
+        return stats.getStatValue(StatType.MOUNTAIN_COST);
       case WOODS:
-        return (Integer) stats.getStat(StatType.WOODS_COST);
+        return stats.getStatValue(StatType.WOODS_COST);
       default:
         return Integer.MAX_VALUE;
     }
   }
 
+  /**
+   * Returns the terrain distance table for this unit's current movement costs on the given
+   * template, storing distances up to the given maximum. Looked up from the template only when this
+   * unit's stats have changed since the last call, so repeated queries don't rebuild the movement
+   * cost profile.
+   */
+  public TerrainDistances getTerrainDistances(BoardTemplate template, int maxDistance) {
+    TerrainDistancesLookup lookup = terrainDistancesLookup;
+    Stats current = stats;
+    if (lookup == null
+        || lookup.stats != current
+        || lookup.maxDistance != maxDistance
+        || lookup.distances.template != template) {
+      lookup =
+          new TerrainDistancesLookup(
+              current,
+              maxDistance,
+              template.getTerrainDistances(MovementCloud.getTerrainCosts(this), maxDistance));
+      terrainDistancesLookup = lookup;
+    }
+    return lookup.distances;
+  }
+
   /**
    * Return the total cost of traveling the given path for model.unit. Doesn't count the first tile
    * - tile the model.unit is already on. Expects the first element to be the current location of
@@ -180,7 +232,7 @@ public abstract class MovingUnit extends Unit {
     Tile oldLoc = location;
     for (Tile t : path) {
       if (t.isOccupied() && t.getOccupyingUnit().owner != owner) {
-        System.out.println("Hit enemy along path");
+        if (DEBUG) System.out.println("Hit enemy along path");
         break;
       }
       location = t;
@@ -195,9 +247,7 @@ public abstract class MovingUnit extends Unit {
     }
     if (oldLoc != location && i >= 0) {
       oldLoc.moveUnitTo(location);
-      if (owner.game.getController().hasFrame()) {
-        owner.game.getController().frame.getGamePanel().addUnitMovementAnimation(this, path);
-      }
+      owner.game.getController().getEvents().unitMoved(this, path);
     }
     movement -= cost;
     owner.refreshVisionCloud(this);
@@ -15,10 +15,11 @@ import model.unit.building.Building;
 import model.unit.building.PlayerModifierBuilding;
 import model.unit.combatant.Combatant;
 import model.unit.commander.Commander;
-import model.unit.modifier.CustomModifier;
 import model.unit.modifier.Modifier;
+import model.unit.modifier.ModifierIndex;
 import model.unit.modifier.Modifiers;
 import model.unit.modifier.PlayerModifier;
+import model.unit.modifier.StatModifier;
 import model.unit.stat.Stat;
 import model.unit.stat.StatType;
 import model.unit.stat.Stats;
@@ -93,6 +94,11 @@ public abstract class Unit implements Stringable {
    */
   private final List<Modifier> modifiers;
 
+  /**
+   * The modifiers in modifiers, indexed by name. Kept in sync with modifiers.
+   */
+  private final ModifierIndex modifierIndex;
+
   /**
    * Constructor for Unit. Also adds this model.unit to the tile it is on as an occupant, and its
    * owner as a model.unit that player owns, Subtracts manaCost from the owner, but throws a
@@ -128,6 +134,7 @@ public abstract class Unit implements Stringable {
     this.stats = new Stats(stats, Collections.emptyList());
     health = getMaxHealth();
     modifiers = new ArrayList<>();
+    modifierIndex = new ModifierIndex();
     grantedModifiers = new ArrayList<>();
   }
 
@@ -204,10 +211,10 @@ public abstract class Unit implements Stringable {
   }
 
   /**
-   * Refreshes this' stats with the locally stored modifiers
+   * Refreshes everything that depends on this' stats. Called whenever stats change. Stats
+   * themselves are kept up to date as modifiers are added and removed.
    */
   protected void refreshStats() {
-    stats = stats.modifiedWith(modifiers);
     if (owner != null) {
       owner.refreshVisionCloud(this);
     }
@@ -228,6 +235,10 @@ public abstract class Unit implements Stringable {
     }
     if (!deadModifiers.isEmpty()) {
       modifiers.removeAll(deadModifiers);
+      for (Modifier m : deadModifiers) {
+        modifierIndex.remove(m);
+      }
+      stats = stats.modifiedWith(modifiers);
       refreshStats();
     }
 
@@ -235,8 +246,8 @@ public abstract class Unit implements Stringable {
     actionsRemaining = getActionsPerTurn();
 
     // Start of turn modifiers.
-    for (Modifier m : getModifiersByName(Modifiers.tenacity(0))) {
-      changeHealth(((CustomModifier) m).val.intValue(), this);
+    if (hasModifierByName(Modifiers.TENACITY)) {
+      changeHealth(getModifierIntSumByName(Modifiers.TENACITY), this);
     }
   }
 
@@ -296,7 +307,7 @@ public abstract class Unit implements Stringable {
    * Returns the max health of this model.unit
    */
   public int getMaxHealth() {
-    return (Integer) stats.getStat(StatType.MAX_HEALTH);
+    return stats.getStatValue(StatType.MAX_HEALTH);
   }
 
   /**
@@ -368,18 +379,18 @@ public abstract class Unit implements Stringable {
   }
 
   /**
-   * Returns the full stats for this model.unit - returns by value, so altering the return won't do
+   * Returns the full stats for this model.unit. Stats are immutable, so altering the return won't do
    * anything to this model.unit
    */
   public Stats getStats() {
-    return new Stats(stats, Collections.emptyList());
+    return stats;
   }
 
   /**
    * Returns the min attack strength of this model.unit. 0 if this is not a combatant.
    */
   public int getMinAttack() {
-    return Math.max(0, (Integer) stats.getStat(StatType.MIN_ATTACK));
+    return Math.max(0, stats.getStatValue(StatType.MIN_ATTACK));
   }
 
   /**
@@ -393,7 +404,7 @@ public abstract class Unit implements Stringable {
    * Returns the max attack strength of this model.unit. 0 if this is not a combatant.
    */
   public int getMaxAttack() {
-    return Math.max(0, (Integer) stats.getStat(StatType.MAX_ATTACK));
+    return Math.max(0, stats.getStatValue(StatType.MAX_ATTACK));
   }
 
   /**
@@ -407,42 +418,42 @@ public abstract class Unit implements Stringable {
    * Returns the min attack range of this model.unit.
    */
   public int getMinAttackRange() {
-    return Math.max(0, (Integer) stats.getStat(StatType.MIN_ATTACK_RANGE));
+    return Math.max(0, stats.getStatValue(StatType.MIN_ATTACK_RANGE));
   }
 
   /**
    * Returns the attack range of this model.unit.
    */
   public int getMaxAttackRange() {
-    return Math.max(0, (Integer) stats.getStat(StatType.MAX_ATTACK_RANGE));
+    return Math.max(0, stats.getStatValue(StatType.MAX_ATTACK_RANGE));
   }
 
   /**
    * Returns the vision range of this model.unit.
    */
   public int getVisionRange() {
-    return Math.max(0, (Integer) stats.getStat(StatType.VISION_RANGE));
+    return Math.max(0, stats.getStatValue(StatType.VISION_RANGE));
   }
 
   /**
    * Returns the summon range of this model.unit.
    */
   public int getSummonRange() {
-    return Math.max(0, (Integer) stats.getStat(StatType.SUMMON_RANGE));
+    return Math.max(0, stats.getStatValue(StatType.SUMMON_RANGE));
   }
 
   /**
    * Returns the mana per turn this model.unit costs/generates
    */
   public int getManaPerTurn() {
-    return (Integer) stats.getStat(StatType.MANA_PER_TURN);
+    return stats.getStatValue(StatType.MANA_PER_TURN);
   }
 
   /**
    * Returns the actions per turn this unit can take
    */
   public int getActionsPerTurn() {
-    return (Integer) stats.getStat(StatType.ACTIONS_PER_TURN);
+    return stats.getStatValue(StatType.ACTIONS_PER_TURN);
   }
 
   /**
@@ -501,17 +512,21 @@ public abstract class Unit implements Stringable {
    * Returns true if this unit has a modifier matching the given name, false otherwise.
    */
   public boolean hasModifierByName(Modifier modifier) {
-    return getModifierByName(modifier.name) != null;
+    return hasModifierByName(modifier.name);
+  }
+
+  /**
+   * Returns true if this unit has a modifier with the given name, false otherwise.
+   */
+  public boolean hasModifierByName(String name) {
+    return modifierIndex.contains(name);
   }
 
   /**
    * Returns the first modifier modifying this with the given name, if any. Returns null otherwise
    */
   public Modifier getModifierByName(String name) {
-    for (Modifier m : modifiers) {
-      if (m.name.equals(name)) return m;
-    }
-    return null;
+    return modifierIndex.getFirst(name);
   }
 
   /**
@@ -519,10 +534,31 @@ public abstract class Unit implements Stringable {
    * otherwise. Should not be used for clone detection, only behavior specification.
    */
   public List<Modifier> getModifiersByName(Modifier modifier) {
-    return modifiers
-        .stream()
-        .filter(m -> m.name.equals(modifier.name))
-        .collect(Collectors.toList());
+    return getModifiersByName(modifier.name);
+  }
+
+  /**
+   * Returns a list of modifiers modifying this with the given name, if any. Returns an empty list
+   * otherwise. Pass-by-value, so editing the returned list won't alter this.
+   */
+  public List<Modifier> getModifiersByName(String name) {
+    return new ArrayList<>(modifierIndex.get(name));
+  }
+
+  /**
+   * Returns the sum of the values of the modifiers modifying this with the given name. Returns 0 if
+   * there are none. Maintained as modifiers are added and removed, so this is constant time.
+   */
+  public double getModifierSumByName(String name) {
+    return modifierIndex.getSum(name);
+  }
+
+  /**
+   * Returns the sum of the int values of the modifiers modifying this with the given name. Returns
+   * 0 if there are none. Maintained as modifiers are added and removed, so this is constant time.
+   */
+  public int getModifierIntSumByName(String name) {
+    return modifierIndex.getIntSum(name);
   }
 
   /**
@@ -548,15 +584,13 @@ public abstract class Unit implements Stringable {
         if (clone != null) {
           return false;
         }
-        modifiers.add(m);
-        refreshStats();
+        addModifierAndRefreshStats(m);
         return true;
       case DURATION_MAX:
         // Max stacking - if no clone, apply.
         // Otherwise apply only if duration > other duration.
         if (clone == null || m.getRemainingTurns() > clone.getRemainingTurns()) {
-          modifiers.add(m);
-          refreshStats();
+          addModifierAndRefreshStats(m);
           return true;
         } else {
           return false;
@@ -565,21 +599,31 @@ public abstract class Unit implements Stringable {
         // Add stacking 0 if no clone, apply.
         // Otherwise alter old modifier's turns and count that as applying this one.
         if (clone == null) {
-          modifiers.add(m);
-          refreshStats();
+          addModifierAndRefreshStats(m);
         } else {
           clone.changeRemainingTurns(m.getRemainingTurns());
         }
         return true;
       case STACKABLE:
-        modifiers.add(m);
-        refreshStats();
+        addModifierAndRefreshStats(m);
         return true;
       default:
         throw new RuntimeException("Unsupported stacking type " + m.stacking);
     }
   }
 
+  /**
+   * Adds the given modifier to the end of modifiers. Only re-folds the stat it modifies, if any.
+   */
+  private void addModifierAndRefreshStats(Modifier m) {
+    modifiers.add(m);
+    modifierIndex.add(m);
+    if (m instanceof StatModifier) {
+      stats = stats.withModifier((StatModifier) m);
+    }
+    refreshStats();
+  }
+
   /**
    * Removes the given modifier from this model.unit. Also updates stats with new modifier from its
    * original base stats. Called by modifier on death. Returns true if the modifier was applied,
@@ -588,9 +632,13 @@ public abstract class Unit implements Stringable {
   public boolean removeModifier(Modifier m) {
     if (modifiers.contains(m)) {
       modifiers.remove(m);
+      modifierIndex.remove(m);
+      if (m instanceof StatModifier) {
+        stats = stats.withoutModifier((StatModifier) m);
+      }
       refreshStats();
-      if (owner != null && owner.game.getController().hasFrame()) {
-        owner.game.getController().frame.getGamePanel().refreshModifierIconFor(this);
+      if (owner != null) {
+        owner.game.getController().getEvents().modifiersChanged(this);
       }
       return true;
     } else {
@@ -196,7 +196,7 @@ public class Ability implements Stringable {
         }
       }
     }
-    return boostedCloud.translate(castLocation.getPoint()).toTileSet(caster.owner.game.board);
+    return boostedCloud.toTileSet(caster.owner.game.board, castLocation.row, castLocation.col);
   }
 
   /**
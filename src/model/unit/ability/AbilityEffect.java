@@ -7,7 +7,6 @@ import model.unit.MovingUnit;
 import model.unit.Unit;
 import model.unit.combatant.Combatant;
 import model.unit.commander.Commander;
-import model.unit.modifier.CustomModifier;
 import model.unit.modifier.Modifier;
 import model.unit.modifier.ModifierBundle;
 import model.unit.modifier.Modifiers;
@@ -245,21 +244,10 @@ final class AbilityEffect {
     int damage = random.nextInt(maxDamage - minDamage + 1) + minDamage;
 
     // Subtract ratio from hexproof.
-    damage *=
-        Math.max(
-            0,
-            1
-                - u.getModifiersByName(Modifiers.hexproof(0))
-                .stream()
-                .mapToDouble(m -> ((CustomModifier) m).val.doubleValue())
-                .sum());
+    damage *= Math.max(0, 1 - u.getModifierSumByName(Modifiers.HEXPROOF));
 
     // Subtract constant from toughness.
-    damage -=
-        u.getModifiersByName(Modifiers.toughness(0))
-            .stream()
-            .mapToInt(m -> ((CustomModifier) m).val.intValue())
-            .sum();
+    damage -= u.getModifierIntSumByName(Modifiers.TOUGHNESS);
 
     // Make sure damage isn't negative.
     damage = Math.max(0, damage);
@@ -1,5 +1,6 @@
 package model.unit.building;
 
+import model.board.Board;
 import model.board.Direction;
 import model.board.Terrain;
 import model.board.Tile;
@@ -7,9 +8,7 @@ import model.game.Player;
 import model.unit.Unit;
 import model.unit.stat.Stats;
 import model.util.Cloud;
-import model.util.MPoint;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -124,19 +123,13 @@ public final class FanOrthogonallyBuilding extends Building<Integer> {
    * type, so long as there are no invalid, unseen, or blocked tiles in the way.
    */
   private void maybeFan(Player owner, Set<Tile> fanSet, Tile location, Direction direction) {
-    MPoint locationPoint = location.getPoint();
-    List<Tile> tiles = new ArrayList<>();
-    for (int i = 1; i <= getEffect(); i++) {
-      MPoint mPoint = locationPoint.add(direction.toPoint().times(i));
-      if (location.board.isOnBoard(mPoint)) {
-        tiles.add(location.board.getTileAt(mPoint));
-      }
-    }
-
-    int maxIndex = -1;
-    for (int i = 0; i < tiles.size(); i++) {
-      Tile t = tiles.get(i);
-      if (!canOccupy(t.terrain) || !owner.canSee(t)) {
+    Board board = location.board;
+    int effect = getEffect();
+    int reach = 0;
+    Tile t = location;
+    for (int i = 1; i <= effect; i++) {
+      t = board.getTileInDirection(t, direction);
+      if (t == null || !canOccupy(t.terrain) || !owner.canSee(t)) {
         break;
       }
 
@@ -146,15 +139,17 @@ public final class FanOrthogonallyBuilding extends Building<Integer> {
         }
 
         if (t.getOccupyingUnit().name.equals(name)) {
-          maxIndex = i;
+          reach = i;
         } else {
           break;
         }
       }
     }
 
-    if (maxIndex >= 0) {
-      fanSet.addAll(tiles.subList(0, maxIndex+1));
+    t = location;
+    for (int i = 1; i <= reach; i++) {
+      t = board.getTileInDirection(t, direction);
+      fanSet.add(t);
     }
   }
 }
@@ -5,14 +5,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+import model.board.Tile;
 import model.unit.Unit;
 import model.unit.building.Building;
 import model.unit.combatant.Combatant.CombatantClass;
 import model.unit.commander.Commander;
-import model.unit.modifier.CustomModifier;
-import model.unit.modifier.Modifier;
 import model.unit.modifier.Modifiers;
-import view.gui.panel.GamePanel;
 
 /**
  * A class that describes a prospective combat between two given units and can process it. Used to
@@ -32,7 +30,7 @@ public final class Combat {
    * Percentage bonus in attack and defense a combatant gets against another when it has a class
    * bonus. The bonus is stacked for each level of bonus.
    */
-  private static final double COMBAT_CLASS_BONUS = 0.2;
+  static final double COMBAT_CLASS_BONUS = 0.2;
 
   /**
    * The Combatant that will attack.
@@ -44,11 +42,28 @@ public final class Combat {
    */
   public final Unit defender;
 
+  /**
+   * The tile the attacker attacks from. The attacker's location unless this combat is a projection
+   * of the attacker attacking from elsewhere.
+   */
+  private final Tile attackerLocation;
+
   /**
    * Number of squares between attacker and defender's locations, accounting for melee.
    */
   private final int dist;
 
+  /**
+   * The class bonus for the attacker. Depends only on the classes of the two units, so it is
+   * computed once.
+   */
+  private final int classBonus;
+
+  /**
+   * True iff this combat is ranged. Neither unit moves during combat, so it is computed once.
+   */
+  private final boolean ranged;
+
   /**
    * The current {@link Stage} this is on.
    */
@@ -93,11 +108,29 @@ public final class Combat {
    * is called.
    */
   public Combat(Combatant attacker, Unit defender) {
+    this(attacker, defender, attacker.getLocation());
+  }
+
+  /**
+   * Creates a new combat on the given attacker and defender, with the attacker attacking from the
+   * given tile instead of its location. Only for projecting combat after a prospective move - can't
+   * be processed unless the tile is the attacker's location.
+   */
+  public Combat(Combatant attacker, Unit defender, Tile attackerLocation) {
     this.attacker = attacker;
     this.defender = defender;
+    this.attackerLocation = attackerLocation;
 
     // Account for melee = 0 range
-    dist = attacker.getLocation().manhattanDistance(defender.getLocation()) - 1;
+    dist = attackerLocation.manhattanDistance(defender.getLocation()) - 1;
+    if (defender instanceof Combatant) {
+      classBonus =
+          Combatant.CombatantClass.getBonusLevel(
+              attacker.combatantClasses, ((Combatant) defender).combatantClasses);
+    } else {
+      classBonus = 0;
+    }
+    ranged = attackerLocation.directionTo(defender.getLocation()) == null;
     stage = Stage.NOT_YET_STARTED;
   }
 
@@ -113,12 +146,7 @@ public final class Combat {
    * a combatant, this will always be 0.
    */
   public int getClassBonus() {
-    if (defender instanceof Combatant) {
-      return Combatant.CombatantClass.getBonusLevel(
-          attacker.combatantClasses, ((Combatant) defender).combatantClasses);
-    } else {
-      return 0;
-    }
+    return classBonus;
   }
 
   /**
@@ -147,7 +175,7 @@ public final class Combat {
    * Returns true if this combat is ranged - if the two combatants are not adjacent.
    */
   private boolean isRanged() {
-    return attacker.getLocation().directionTo(defender.getLocation()) == null;
+    return ranged;
   }
 
   /**
@@ -155,31 +183,71 @@ public final class Combat {
    * target.
    */
   private static double getTypeBonusRatio(Unit source, Unit target) {
-    Modifier m;
     if (target instanceof Building) {
-      m = Modifiers.siege(0);
+      return 1 + source.getModifierSumByName(Modifiers.SIEGE);
     } else if (target instanceof Commander) {
-      m = Modifiers.bloodlust(0);
+      return 1 + source.getModifierSumByName(Modifiers.BLOODLUST);
     } else {
       return 1;
     }
-    return 1
-        + source
-        .getModifiersByName(m)
-        .stream()
-        .mapToDouble(mod -> ((CustomModifier) mod).val.doubleValue())
-        .sum();
+  }
+
+  /**
+   * Returns the projected outcome of this combat given the current state of both units. Computes
+   * every projected number at once, so prefer this over the individual getProjected methods when
+   * more than one is needed. Should only be used for projections, not actual combat.
+   */
+  public CombatProjection getProjection() {
+    return new CombatProjection(this);
+  }
+
+  /**
+   * Returns the exact distribution of outcomes of this combat given the current state of both
+   * units. Shared between identical combats, so this is cheap to call repeatedly.
+   */
+  public CombatOutcome getOutcome() {
+    return CombatOutcome.of(this, attacker.getHealth(), defender.getHealth());
+  }
+
+  /**
+   * Returns the exact distribution of outcomes of this combat if the attacker and defender had the
+   * given health, with everything else as in their current state. Both units' damage ranges are
+   * scaled by the given health, as they would be in combat. For projecting combats that follow
+   * other prospective combats.
+   */
+  public CombatOutcome getOutcome(int attackerHealth, int defenderHealth) {
+    return CombatOutcome.of(this, attackerHealth, defenderHealth);
   }
 
   /**
    * Returns the minimum damage the attacker could do after scaling by combat classes and account
    * for modifiers.
    */
-  private int getMinAttack() {
-    double classBonus = 1 + COMBAT_CLASS_BONUS * getClassBonus();
+  int getMinAttack() {
+    return getMinAttack(attacker.getHealth());
+  }
+
+  /**
+   * Returns the minimum damage the attacker could do at the given health, after scaling by combat
+   * classes and account for modifiers. Scales by health the same way as {@link
+   * Unit#getMinAttackScaled()}.
+   */
+  int getMinAttack(int attackerHealth) {
+    double classBonusRatio = 1 + COMBAT_CLASS_BONUS * getClassBonus();
     return Math.max(
         0,
-        (int) (attacker.getMinAttackScaled() * classBonus * getTypeBonusRatio(attacker, defender)));
+        (int)
+            (scaleByHealth(attacker.getMinAttack(), attackerHealth)
+                * classBonusRatio
+                * getTypeBonusRatio(attacker, defender)));
+  }
+
+  /**
+   * Returns the given attack stat of the attacker scaled by the given health, matching {@link
+   * Unit#getMinAttackScaled()} and {@link Unit#getMaxAttackScaled()} at that health.
+   */
+  private int scaleByHealth(int attack, int attackerHealth) {
+    return (int) (attack * ((double) attackerHealth / (double) attacker.getMaxHealth()));
   }
 
   /**
@@ -187,11 +255,7 @@ public final class Combat {
    * account for modifiers. Should only be used for projections, not actual combat.
    */
   public int getProjectedMinAttack() {
-    return (int)
-        Math.max(
-            0,
-            getMinAttack() * Math.max(0, 1 - getDefenderPercentageDamageReduction())
-                - getDefenderFlatDamageReduction());
+    return getProjection().projectedMinAttack;
   }
 
   /**
@@ -199,18 +263,30 @@ public final class Combat {
    * account for modifiers.
    */
   public double getProjectedMinAttackPercent() {
-    return (double) getProjectedMinAttack() / defender.getMaxHealth();
+    return getProjection().projectedMinAttackPercent;
   }
 
   /**
    * Returns the maximum damage the attacker could do after scaling by combat classes and account
    * for modifiers.
    */
-  private int getMaxAttack() {
-    double classBonus = 1 + COMBAT_CLASS_BONUS * getClassBonus();
+  int getMaxAttack() {
+    return getMaxAttack(attacker.getHealth());
+  }
+
+  /**
+   * Returns the maximum damage the attacker could do at the given health, after scaling by combat
+   * classes and account for modifiers. Scales by health the same way as {@link
+   * Unit#getMaxAttackScaled()}.
+   */
+  int getMaxAttack(int attackerHealth) {
+    double classBonusRatio = 1 + COMBAT_CLASS_BONUS * getClassBonus();
     return Math.max(
         0,
-        (int) (attacker.getMaxAttackScaled() * classBonus * getTypeBonusRatio(attacker, defender)));
+        (int)
+            (scaleByHealth(attacker.getMaxAttack(), attackerHealth)
+                * classBonusRatio
+                * getTypeBonusRatio(attacker, defender)));
   }
 
   /**
@@ -218,11 +294,7 @@ public final class Combat {
    * account for modifiers. Should only be used for projections, not actual combat.
    */
   public int getProjectedMaxAttack() {
-    return (int)
-        Math.max(
-            0,
-            getMaxAttack() * Math.max(0, 1 - getDefenderPercentageDamageReduction())
-                - getDefenderFlatDamageReduction());
+    return getProjection().projectedMaxAttack;
   }
 
   /**
@@ -230,29 +302,21 @@ public final class Combat {
    * account for modifiers.
    */
   public double getProjectedMaxAttackPercent() {
-    return (double) getMaxAttack() / defender.getMaxHealth();
+    return getProjection().projectedMaxAttackPercent;
   }
 
   /**
    * Returns the sum of all percentage damage reduction for the defender, for the given combat.
    */
-  private double getAttackerPercentageDamageReduction() {
-    return attacker
-        .getModifiersByName(isRanged() ? Modifiers.elusive(0) : Modifiers.armored(0))
-        .stream()
-        .mapToDouble(m -> ((CustomModifier) m).val.doubleValue())
-        .sum();
+  double getAttackerPercentageDamageReduction() {
+    return attacker.getModifierSumByName(isRanged() ? Modifiers.ELUSIVE : Modifiers.ARMORED);
   }
 
   /**
    * Returns the sum of all damage reduction for the attacker.
    */
-  private int getAttackerFlatDamageReduction() {
-    return attacker
-        .getModifiersByName(Modifiers.toughness(0))
-        .stream()
-        .mapToInt(m -> ((CustomModifier) m).val.intValue())
-        .sum();
+  int getAttackerFlatDamageReduction() {
+    return attacker.getModifierIntSumByName(Modifiers.TOUGHNESS);
   }
 
   /**
@@ -260,7 +324,7 @@ public final class Combat {
    */
   public boolean defenderCouldCounterAttack() {
     return defender.isAlive()
-        && defender.owner.canSee(attacker)
+        && defender.owner.canSee(attackerLocation)
         && dist >= defender.getMinAttackRange()
         && dist <= defender.getMaxAttackRange()
         && defender instanceof Combatant;
@@ -271,27 +335,34 @@ public final class Combat {
    * for modifiers.
    */
   private int getMinCounterAttack() {
-    double classBonus = 1 - (COMBAT_CLASS_BONUS * getClassBonus());
+    double classBonusRatio = 1 - (COMBAT_CLASS_BONUS * getClassBonus());
     return Math.max(
         0,
         (int)
             (defender.getMinAttackScaled()
-                * classBonus
+                * classBonusRatio
                 * getTypeBonusRatio(defender, attacker)
                 * getDefenderCounterAttackBonusRatio()));
   }
 
+  /**
+   * Returns the type bonus ratio for the defender's counterattack on the attacker.
+   */
+  double getCounterAttackTypeBonusRatio() {
+    return getTypeBonusRatio(defender, attacker);
+  }
+
   /**
    * Returns the maximum damage the defender could do after scaling by combat classes and account
    * for modifiers.
    */
   private int getMaxCounterAttack() {
-    double classBonus = 1 - (COMBAT_CLASS_BONUS * getClassBonus());
+    double classBonusRatio = 1 - (COMBAT_CLASS_BONUS * getClassBonus());
     return Math.max(
         0,
         (int)
             (defender.getMaxAttackScaled()
-                * classBonus
+                * classBonusRatio
                 * getTypeBonusRatio(defender, attacker)
                 * getDefenderCounterAttackBonusRatio()));
   }
@@ -299,20 +370,11 @@ public final class Combat {
   /**
    * Returns the sum of all percentage damage reduction for the defender, for the given combat.
    */
-  private double getDefenderPercentageDamageReduction() {
+  double getDefenderPercentageDamageReduction() {
     double basePercentDamageReduction =
-        defender
-            .getModifiersByName(isRanged() ? Modifiers.elusive(0) : Modifiers.armored(0))
-            .stream()
-            .mapToDouble(m -> ((CustomModifier) m).val.doubleValue())
-            .sum();
-    if (isRanged() && !attacker.hasModifierByName(Modifiers.siege(0))) {
-      return basePercentDamageReduction
-          + defender
-          .getModifiersByName(Modifiers.solid(0))
-          .stream()
-          .mapToDouble(m -> ((CustomModifier) m).val.doubleValue())
-          .sum();
+        defender.getModifierSumByName(isRanged() ? Modifiers.ELUSIVE : Modifiers.ARMORED);
+    if (isRanged() && !attacker.hasModifierByName(Modifiers.SIEGE)) {
+      return basePercentDamageReduction + defender.getModifierSumByName(Modifiers.SOLID);
     } else {
       return basePercentDamageReduction;
     }
@@ -321,24 +383,15 @@ public final class Combat {
   /**
    * Returns the sum of all damage reduction for the defender.
    */
-  private int getDefenderFlatDamageReduction() {
-    return defender
-        .getModifiersByName(Modifiers.toughness(0))
-        .stream()
-        .mapToInt(m -> ((CustomModifier) m).val.intValue())
-        .sum();
+  int getDefenderFlatDamageReduction() {
+    return defender.getModifierIntSumByName(Modifiers.TOUGHNESS);
   }
 
   /**
    * Returns the sum of all counterattack damage boosting modifiers for the defender.
    */
-  private double getDefenderCounterAttackBonusRatio() {
-    return 1
-        + defender
-        .getModifiersByName(Modifiers.patience(0))
-        .stream()
-        .mapToDouble(m -> ((CustomModifier) m).val.doubleValue())
-        .sum();
+  double getDefenderCounterAttackBonusRatio() {
+    return 1 + defender.getModifierSumByName(Modifiers.PATIENCE);
   }
 
   /**
@@ -347,17 +400,7 @@ public final class Combat {
    * actual combat.
    */
   public int getProjectedMinCounterAttack() {
-    if (!defenderCouldCounterAttack()) {
-      return 0;
-    }
-    double minProjectedHealthPercentage =
-        ((double) defender.getHealth() + getDefenderFlatDamageReduction() - getMaxAttack())
-            / defender.getMaxHealth();
-    return (int)
-        (defender.getMinAttack()
-            * minProjectedHealthPercentage
-            * (1 - COMBAT_CLASS_BONUS * getClassBonus())
-            * getDefenderCounterAttackBonusRatio());
+    return getProjection().projectedMinCounterAttack;
   }
 
   /**
@@ -366,7 +409,7 @@ public final class Combat {
    * projections, not actual combat.
    */
   public double getProjectedMinCounterAttackPercent() {
-    return (double) getProjectedMinCounterAttack() / attacker.getMaxHealth();
+    return getProjection().projectedMinCounterAttackPercent;
   }
 
   /**
@@ -375,17 +418,7 @@ public final class Combat {
    * combat.
    */
   public int getProjectedMaxCounterAttack() {
-    if (!defenderCouldCounterAttack()) {
-      return 0;
-    }
-    double maxProjectedHealthPercentage =
-        ((double) defender.getHealth() + getDefenderFlatDamageReduction() - getMinAttack())
-            / defender.getMaxHealth();
-    return (int)
-        (defender.getMaxAttack()
-            * maxProjectedHealthPercentage
-            * (1 - COMBAT_CLASS_BONUS * getClassBonus())
-            * getDefenderCounterAttackBonusRatio());
+    return getProjection().projectedMaxCounterAttack;
   }
 
   /**
@@ -394,7 +427,7 @@ public final class Combat {
    * projections, not actual combat.
    */
   public double getProjectedMaxCounterAttackPercent() {
-    return (double) getProjectedMaxCounterAttack() / attacker.getMaxHealth();
+    return getProjection().projectedMaxCounterAttackPercent;
   }
 
   /**
@@ -410,6 +443,8 @@ public final class Combat {
   public final boolean process(Random random) throws IllegalArgumentException, RuntimeException {
     if (stage != Stage.NOT_YET_STARTED)
       throw new RuntimeException("Can't process " + this + "process() already called.");
+    if (attackerLocation != attacker.getLocation())
+      throw new RuntimeException("Can't process " + this + ", it is a projection from elsewhere");
     if (!attacker.isAlive()) throw new RuntimeException(attacker + " can't fight, it is dead.");
     if (!defender.isAlive())
       throw new IllegalArgumentException(defender + " can't fight, it is dead.");
@@ -489,16 +524,8 @@ public final class Combat {
     }
     stage = Stage.POST_ATTACK_COMPLETED;
 
-    // If frame, add animation(s).
-    if (attacker.owner.game.getController().hasFrame()) {
-      GamePanel gamePanel = attacker.owner.game.getController().frame.getGamePanel();
-      if (attacker.isAlive()) {
-        gamePanel.addCombatAnimation(
-            attacker, defender.getLocation(), defender.isAlive() && counterAttack);
-      } else if (defender.isAlive() && counterAttack) {
-        gamePanel.addCombatAnimation((Combatant) defender, attacker.getLocation(), false);
-      }
-    }
+    attacker.owner.game.getController().getEvents()
+        .combatFinished(attacker, defender, counterAttack);
 
     boolean defenderIsDead = !defender.isAlive();
 
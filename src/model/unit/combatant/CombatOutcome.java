@@ -0,0 +1,299 @@
+package model.unit.combatant;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The exact distribution of outcomes of a {@link Combat}, matching how {@link
+ * Combat#process(java.util.Random)} rolls damage. The attack roll is uniform over the attacker's
+ * damage range. If the defender survives and can counterattack, the counterattack roll is uniform
+ * over a range that depends on the defender's remaining health. Each distinct attack outcome is
+ * weighted by how many rolls produce it, and its counterattack outcomes are spread over it, so the
+ * probabilities are exact rather than sampled.
+ *
+ * <p>An outcome depends only on a handful of numbers derived from the two units (attack ranges,
+ * health, damage reductions and bonus ratios), so outcomes are cached by those numbers and shared
+ * between every combat that produces them - by the AI scoring many attacks and the combat preview
+ * repainting.
+ */
+public final class CombatOutcome {
+
+  /**
+   * Maximum number of cached outcomes. The cache is cleared when it grows past this, since stale
+   * entries (units at health values that no longer exist) accumulate over a long game.
+   */
+  private static final int MAX_CACHE_SIZE = 1 << 14;
+
+  /**
+   * Cached outcomes, by the inputs that determine them.
+   */
+  private static final Map<Key, CombatOutcome> CACHE = new ConcurrentHashMap<>();
+
+  /**
+   * The inputs that fully determine an outcome. Ints are stored as doubles, which is exact.
+   */
+  private static final class Key {
+    private final double[] values;
+
+    private Key(double... values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && Arrays.equals(values, ((Key) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(values);
+    }
+  }
+
+  /**
+   * Probability of each amount of final damage dealt by the attack, indexed by damage.
+   */
+  private final double[] damageDealtProbabilities;
+
+  /**
+   * Probability of each amount of final counterattack damage taken, indexed by damage. Only covers
+   * outcomes where a counterattack happens, so sums to {@link #chanceCounterAttack}.
+   */
+  private final double[] damageTakenProbabilities;
+
+  /**
+   * The chance the defender dies from the attack.
+   */
+  public final double chanceDefenderDies;
+
+  /**
+   * The chance the defender counterattacks.
+   */
+  public final double chanceCounterAttack;
+
+  /**
+   * The chance the attacker dies from the counterattack.
+   */
+  public final double chanceAttackerDies;
+
+  /**
+   * The expected final damage dealt by the attack.
+   */
+  public final double expectedDamageDealt;
+
+  /**
+   * The expected final damage taken from the counterattack, counting no counterattack as 0.
+   */
+  public final double expectedDamageTaken;
+
+  /**
+   * The expected final damage dealt by the attack in the outcomes where the defender survives. 0 if
+   * the defender always dies.
+   */
+  public final double expectedDamageDealtIfDefenderSurvives;
+
+  /**
+   * The expected final damage taken from the counterattack in the outcomes where both units
+   * survive, counting no counterattack as 0. 0 if one of them always dies.
+   */
+  public final double expectedDamageTakenIfBothSurvive;
+
+  /**
+   * Returns the outcome of the given combat given the current state of both units except for their
+   * health, which is given. The attacker's damage range is scaled by the given attacker health, and
+   * the counterattack range by the defender's health after the attack. From the cache if an
+   * identical combat was computed before.
+   */
+  static CombatOutcome of(Combat combat, int attackerHealth, int defenderHealth) {
+    boolean couldCounterAttack = combat.defenderCouldCounterAttack();
+    Key key =
+        new Key(
+            combat.getMinAttack(attackerHealth),
+            combat.getMaxAttack(attackerHealth),
+            combat.getDefenderPercentageDamageReduction(),
+            combat.getDefenderFlatDamageReduction(),
+            defenderHealth,
+            couldCounterAttack ? 1 : 0,
+            couldCounterAttack ? combat.defender.getMinAttack() : 0,
+            couldCounterAttack ? combat.defender.getMaxAttack() : 0,
+            couldCounterAttack ? combat.defender.getMaxHealth() : 0,
+            couldCounterAttack ? 1 - Combat.COMBAT_CLASS_BONUS * combat.getClassBonus() : 0,
+            couldCounterAttack ? combat.getCounterAttackTypeBonusRatio() : 0,
+            couldCounterAttack ? combat.getDefenderCounterAttackBonusRatio() : 0,
+            couldCounterAttack ? combat.getAttackerPercentageDamageReduction() : 0,
+            couldCounterAttack ? combat.getAttackerFlatDamageReduction() : 0,
+            couldCounterAttack ? attackerHealth : 0);
+    CombatOutcome outcome = CACHE.get(key);
+    if (outcome == null) {
+      if (CACHE.size() >= MAX_CACHE_SIZE) {
+        CACHE.clear();
+      }
+      outcome = CACHE.computeIfAbsent(key, k -> new CombatOutcome(k.values));
+    }
+    return outcome;
+  }
+
+  /**
+   * Drops every cached outcome, so the next outcome of every combat is computed from scratch.
+   */
+  public static void clearCache() {
+    CACHE.clear();
+  }
+
+  /**
+   * Returns the final damage dealt for the given rolled damage and damage reductions. Matches
+   * {@link Combat#process(java.util.Random)}.
+   */
+  private static int getFinalDamage(int damage, double percentageReduction, int flatReduction) {
+    return (int) Math.max(0, damage * Math.max(0, 1 - percentageReduction) - flatReduction);
+  }
+
+  /**
+   * Returns the counterattack damage bound for the given defender attack stat at the given health.
+   * Matches the counterattack range used by {@link Combat#process(java.util.Random)}.
+   */
+  private static int getCounterAttackBound(
+      int attack,
+      int health,
+      int maxHealth,
+      double classRatio,
+      double typeBonusRatio,
+      double counterAttackBonusRatio) {
+    int scaled = (int) (attack * ((double) health / (double) maxHealth));
+    return Math.max(0, (int) (scaled * classRatio * typeBonusRatio * counterAttackBonusRatio));
+  }
+
+  /**
+   * Computes the outcome for the given key values, in the order {@link #of(Combat, int, int)}
+   * creates them.
+   */
+  private CombatOutcome(double[] k) {
+    int minAttack = (int) k[0];
+    int maxAttack = (int) k[1];
+    double defenderPercentageReduction = k[2];
+    int defenderFlatReduction = (int) k[3];
+    int defenderHealth = (int) k[4];
+    boolean couldCounterAttack = k[5] != 0;
+
+    if (maxAttack < minAttack) {
+      throw new RuntimeException("Invalid attack range " + minAttack + " - " + maxAttack);
+    }
+
+    // Histogram of final attack damage. Distinct rolls often map to the same final damage.
+    int maxDamageDealt =
+        getFinalDamage(maxAttack, defenderPercentageReduction, defenderFlatReduction);
+    double rollProbability = 1.0 / (maxAttack - minAttack + 1);
+    damageDealtProbabilities = new double[maxDamageDealt + 1];
+    for (int roll = minAttack; roll <= maxAttack; roll++) {
+      int dealt = getFinalDamage(roll, defenderPercentageReduction, defenderFlatReduction);
+      damageDealtProbabilities[dealt] += rollProbability;
+    }
+
+    double defenderDies = 0;
+    double counterAttack = 0;
+    double attackerDies = 0;
+    double damageDealt = 0;
+    double damageTaken = 0;
+    double damageDealtIfDefenderSurvives = 0;
+    double damageTakenIfBothSurvive = 0;
+    double[] taken = new double[1];
+    for (int dealt = 0; dealt <= maxDamageDealt; dealt++) {
+      double p = damageDealtProbabilities[dealt];
+      if (p == 0) {
+        continue;
+      }
+      damageDealt += dealt * p;
+      if (dealt >= defenderHealth) {
+        defenderDies += p;
+        continue;
+      }
+      damageDealtIfDefenderSurvives += dealt * p;
+      if (!couldCounterAttack) {
+        continue;
+      }
+      counterAttack += p;
+
+      // Counterattack range depends on the defender's health after the attack.
+      int remainingHealth = defenderHealth - dealt;
+      int minCounter =
+          getCounterAttackBound((int) k[6], remainingHealth, (int) k[8], k[9], k[10], k[11]);
+      int maxCounter =
+          getCounterAttackBound((int) k[7], remainingHealth, (int) k[8], k[9], k[10], k[11]);
+      if (maxCounter < minCounter) {
+        throw new RuntimeException(
+            "Invalid counterattack range " + minCounter + " - " + maxCounter);
+      }
+      double counterRollProbability = p / (maxCounter - minCounter + 1);
+      for (int roll = minCounter; roll <= maxCounter; roll++) {
+        int finalCounter = getFinalDamage(roll, k[12], (int) k[13]);
+        if (finalCounter >= taken.length) {
+          taken = Arrays.copyOf(taken, finalCounter + 1);
+        }
+        taken[finalCounter] += counterRollProbability;
+        damageTaken += finalCounter * counterRollProbability;
+        if (finalCounter >= (int) k[14]) {
+          attackerDies += counterRollProbability;
+        } else {
+          damageTakenIfBothSurvive += finalCounter * counterRollProbability;
+        }
+      }
+    }
+    damageTakenProbabilities = couldCounterAttack ? taken : new double[0];
+    chanceDefenderDies = defenderDies;
+    chanceCounterAttack = counterAttack;
+    chanceAttackerDies = attackerDies;
+    expectedDamageDealt = damageDealt;
+    expectedDamageTaken = damageTaken;
+    double chanceDefenderSurvives = 1 - defenderDies;
+    double chanceBothSurvive = chanceDefenderSurvives - attackerDies;
+    expectedDamageDealtIfDefenderSurvives =
+        chanceDefenderSurvives > 0 ? damageDealtIfDefenderSurvives / chanceDefenderSurvives : 0;
+    expectedDamageTakenIfBothSurvive =
+        chanceBothSurvive > 0 ? damageTakenIfBothSurvive / chanceBothSurvive : 0;
+  }
+
+  /**
+   * Returns the chance the attack deals exactly the given final damage.
+   */
+  public double getChanceOfDamageDealt(int damage) {
+    return damage >= 0 && damage < damageDealtProbabilities.length
+        ? damageDealtProbabilities[damage]
+        : 0;
+  }
+
+  /**
+   * Returns the chance a counterattack happens and deals exactly the given final damage.
+   */
+  public double getChanceOfDamageTaken(int damage) {
+    return damage >= 0 && damage < damageTakenProbabilities.length
+        ? damageTakenProbabilities[damage]
+        : 0;
+  }
+
+  /**
+   * Returns the largest final damage the attack can deal.
+   */
+  public int getMaxDamageDealt() {
+    return damageDealtProbabilities.length - 1;
+  }
+
+  /**
+   * Returns the largest final damage the counterattack can deal, or -1 if there can't be one.
+   */
+  public int getMaxDamageTaken() {
+    return damageTakenProbabilities.length - 1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "Defender dies %.3f, counterattack %.3f, attacker dies %.3f,"
+            + " expected damage dealt %.2f, taken %.2f",
+        chanceDefenderDies,
+        chanceCounterAttack,
+        chanceAttackerDies,
+        expectedDamageDealt,
+        expectedDamageTaken);
+  }
+}
@@ -0,0 +1,226 @@
+package model.unit.combatant;
+
+import model.unit.Unit;
+
+/**
+ * The projected outcome of a {@link Combat}, computed once from the state of the attacker and
+ * defender when it was created. Holds every projected number an evaluator might want, so scoring a
+ * prospective attack several ways doesn't redo the class bonus, modifier and visibility checks for
+ * each number. Immutable - if either unit changes (moves, takes damage, gains modifiers), a new
+ * projection has to be made to reflect that.
+ *
+ * <p>The exact {@link CombatOutcome} is only computed when first asked for (by {@link
+ * #getOutcome()} or {@link #getChanceAttackerDies()}), so scoring by damage ranges or the chance of
+ * a kill doesn't pay for the counterattack distribution. Like the numbers computed up front, it
+ * reflects the units as they were when this was created, so a projection should not be kept past a
+ * change to either unit - the AI keeps projections in a query context dropped on every action.
+ */
+public final class CombatProjection {
+
+  /**
+   * The Combatant that would attack.
+   */
+  public final Combatant attacker;
+
+  /**
+   * The defending unit.
+   */
+  public final Unit defender;
+
+  /**
+   * The minimum damage the attacker could do after scaling by combat classes and modifiers, before
+   * the defender's damage reduction.
+   */
+  public final int minAttack;
+
+  /**
+   * The maximum damage the attacker could do after scaling by combat classes and modifiers, before
+   * the defender's damage reduction.
+   */
+  public final int maxAttack;
+
+  /**
+   * The projected minimum damage the attacker would do, after the defender's damage reduction.
+   */
+  public final int projectedMinAttack;
+
+  /**
+   * The projected maximum damage the attacker would do, after the defender's damage reduction.
+   */
+  public final int projectedMaxAttack;
+
+  /**
+   * {@link #projectedMinAttack} as a fraction of the defender's max health.
+   */
+  public final double projectedMinAttackPercent;
+
+  /**
+   * {@link #maxAttack} as a fraction of the defender's max health.
+   */
+  public final double projectedMaxAttackPercent;
+
+  /**
+   * True iff the defender could counterattack if it has health left after the attack.
+   */
+  public final boolean defenderCouldCounterAttack;
+
+  /**
+   * The projected minimum counterattack damage, accounting for the defender's health after the
+   * attack. 0 if the defender couldn't counterattack.
+   */
+  public final int projectedMinCounterAttack;
+
+  /**
+   * The projected maximum counterattack damage, accounting for the defender's health after the
+   * attack. 0 if the defender couldn't counterattack.
+   */
+  public final int projectedMaxCounterAttack;
+
+  /**
+   * {@link #projectedMinCounterAttack} as a fraction of the attacker's max health.
+   */
+  public final double projectedMinCounterAttackPercent;
+
+  /**
+   * {@link #projectedMaxCounterAttack} as a fraction of the attacker's max health.
+   */
+  public final double projectedMaxCounterAttackPercent;
+
+  /**
+   * The exact chance the defender dies from the attack, in [0,1].
+   */
+  public final double chanceDefenderDies;
+
+  /**
+   * The projected combat, for computing its outcome on first access.
+   */
+  private final Combat combat;
+
+  /**
+   * The health of the attacker and defender when this was created.
+   */
+  private final int attackerHealth;
+
+  private final int defenderHealth;
+
+  /**
+   * The exact distribution of outcomes of the combat, or null until first asked for. Computing it
+   * twice on racing threads is harmless, since outcomes are cached by their inputs.
+   */
+  private volatile CombatOutcome outcome;
+
+  /**
+   * Computes the projection of the given combat. The combat should not have been processed yet.
+   */
+  CombatProjection(Combat combat) {
+    attacker = combat.attacker;
+    defender = combat.defender;
+
+    minAttack = combat.getMinAttack();
+    maxAttack = combat.getMaxAttack();
+    double defenderPercentageDamageReduction = combat.getDefenderPercentageDamageReduction();
+    int defenderFlatDamageReduction = combat.getDefenderFlatDamageReduction();
+    projectedMinAttack =
+        (int)
+            Math.max(
+                0,
+                minAttack * Math.max(0, 1 - defenderPercentageDamageReduction)
+                    - defenderFlatDamageReduction);
+    projectedMaxAttack =
+        (int)
+            Math.max(
+                0,
+                maxAttack * Math.max(0, 1 - defenderPercentageDamageReduction)
+                    - defenderFlatDamageReduction);
+    projectedMinAttackPercent = (double) projectedMinAttack / defender.getMaxHealth();
+    projectedMaxAttackPercent = (double) maxAttack / defender.getMaxHealth();
+
+    defenderCouldCounterAttack = combat.defenderCouldCounterAttack();
+    if (defenderCouldCounterAttack) {
+      double classRatio = 1 - Combat.COMBAT_CLASS_BONUS * combat.getClassBonus();
+      double counterAttackBonusRatio = combat.getDefenderCounterAttackBonusRatio();
+      double minProjectedHealthPercentage =
+          ((double) defender.getHealth() + defenderFlatDamageReduction - maxAttack)
+              / defender.getMaxHealth();
+      double maxProjectedHealthPercentage =
+          ((double) defender.getHealth() + defenderFlatDamageReduction - minAttack)
+              / defender.getMaxHealth();
+      projectedMinCounterAttack =
+          (int)
+              (defender.getMinAttack()
+                  * minProjectedHealthPercentage
+                  * classRatio
+                  * counterAttackBonusRatio);
+      projectedMaxCounterAttack =
+          (int)
+              (defender.getMaxAttack()
+                  * maxProjectedHealthPercentage
+                  * classRatio
+                  * counterAttackBonusRatio);
+    } else {
+      projectedMinCounterAttack = 0;
+      projectedMaxCounterAttack = 0;
+    }
+    projectedMinCounterAttackPercent =
+        (double) projectedMinCounterAttack / attacker.getMaxHealth();
+    projectedMaxCounterAttackPercent =
+        (double) projectedMaxCounterAttack / attacker.getMaxHealth();
+
+    // The attack roll is uniform over [minAttack, maxAttack], and the defender dies on every roll
+    // whose final damage reaches its health. Matches CombatOutcome#chanceDefenderDies.
+    int killingRolls = 0;
+    for (int roll = minAttack; roll <= maxAttack; roll++) {
+      int damage =
+          (int)
+              Math.max(
+                  0,
+                  roll * Math.max(0, 1 - defenderPercentageDamageReduction)
+                      - defenderFlatDamageReduction);
+      if (damage >= defender.getHealth()) {
+        killingRolls++;
+      }
+    }
+    chanceDefenderDies = (double) killingRolls / (maxAttack - minAttack + 1);
+
+    this.combat = combat;
+    attackerHealth = attacker.getHealth();
+    defenderHealth = defender.getHealth();
+  }
+
+  /**
+   * Returns the exact distribution of outcomes of the combat, computing it on first call.
+   */
+  public CombatOutcome getOutcome() {
+    CombatOutcome o = outcome;
+    if (o == null) {
+      o = combat.getOutcome(attackerHealth, defenderHealth);
+      outcome = o;
+    }
+    return o;
+  }
+
+  /**
+   * Returns the exact chance the attacker dies from the counterattack, in [0,1]. Computes the
+   * outcome of the combat if it hasn't been yet.
+   */
+  public double getChanceAttackerDies() {
+    return getOutcome().chanceAttackerDies;
+  }
+
+  @Override
+  public String toString() {
+    return "Projection of "
+        + attacker
+        + " attacking "
+        + defender
+        + ": "
+        + projectedMinAttack
+        + "-"
+        + projectedMaxAttack
+        + " damage, "
+        + projectedMinCounterAttack
+        + "-"
+        + projectedMaxCounterAttack
+        + " counter damage";
+  }
+}
@@ -1,5 +1,7 @@
 package model.unit.combatant;
 
+import model.board.Board;
+import model.board.MovementCloud;
 import model.board.Tile;
 import model.game.Player;
 import model.unit.MovingUnit;
@@ -10,11 +12,12 @@ import model.unit.modifier.Modifiers;
 import model.unit.modifier.StatModifier;
 import model.unit.stat.StatType;
 import model.unit.stat.Stats;
-import model.util.ExpandableCloud;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -153,8 +156,8 @@ public abstract class Combatant extends MovingUnit {
 
     combatantClasses = Collections.unmodifiableList(classes);
 
-    if ((int) stats.getStat(StatType.MIN_ATTACK) <= 0
-        || (int) stats.getStat(StatType.MAX_ATTACK) <= 0)
+    if (stats.getStatValue(StatType.MIN_ATTACK) <= 0
+        || stats.getStatValue(StatType.MAX_ATTACK) <= 0)
       throw new IllegalArgumentException("Combatant " + this + " can't have non-positive attack.");
   }
 
@@ -215,7 +218,7 @@ public abstract class Combatant extends MovingUnit {
    */
   @Override
   public int getMovement() {
-    if (hasModifierByName(Modifiers.disappearance())) {
+    if (hasModifierByName(Modifiers.DISAPPEARANCE)) {
       return super.getMovement();
     } else {
       return canFight() ? super.getMovement() : 0;
@@ -251,12 +254,8 @@ public abstract class Combatant extends MovingUnit {
    * Returns the list of tiles this can attack from the given tile.
    */
   public List<Tile> getAttackableTilesFrom(Tile tile) {
-    return ExpandableCloud.create(
-        ExpandableCloud.ExpandableCloudType.CIRCLE, getMaxAttackRange() + 1)
-        .difference(
-            ExpandableCloud.create(ExpandableCloud.ExpandableCloudType.CIRCLE, getMinAttackRange()))
-        .translate(tile.getPoint())
-        .toTileSet(owner.game.board);
+    return owner.game.board.getTilesInRange(
+        tile, getMinAttackRange() + 1, getMaxAttackRange() + 1);
   }
 
   /**
@@ -296,14 +295,24 @@ public abstract class Combatant extends MovingUnit {
    * of current movement.
    */
   public Set<Tile> getDangerRadiusFromTile(Tile tile, boolean useMaxMovement) {
-    return owner
-        .game
-        .board
-        .getMovementCloud(this, tile, useMaxMovement)
-        .stream()
-        .map(this::getAttackableTilesFrom)
-        .flatMap(List::stream)
-        .collect(Collectors.toSet());
+    Set<Tile> dangerRadius = new HashSet<>();
+    forEachTileInDangerRadius(
+        owner.game.board.getMovementCloud(this, tile, useMaxMovement), dangerRadius::add);
+    return dangerRadius;
+  }
+
+  /**
+   * Calls the given action on every tile this could attack from a tile of the given movement cloud
+   * - the danger radius for that cloud. Tiles attackable from several tiles of the cloud are
+   * visited once for each. Doesn't allocate beyond iterating the cloud.
+   */
+  public void forEachTileInDangerRadius(MovementCloud cloud, Consumer<? super Tile> action) {
+    Board board = owner.game.board;
+    int minDistance = getMinAttackRange() + 1;
+    int maxDistance = getMaxAttackRange() + 1;
+    for (Tile t : cloud) {
+      board.forEachTileInRange(t, minDistance, maxDistance, action);
+    }
   }
 
   @Override
@@ -328,9 +337,8 @@ public abstract class Combatant extends MovingUnit {
   @Override
   public void postCounterFight(int damageDealt, Combatant other, int damageTaken) {
     if (damageDealt > 0) {
-      for (Modifier m : getModifiersByName(Modifiers.bornToFight(0))) {
-        CustomModifier customModifier = (CustomModifier) m;
-        changeHealth(customModifier.val.intValue(), this);
+      if (hasModifierByName(Modifiers.BORN_TO_FIGHT)) {
+        changeHealth(getModifierIntSumByName(Modifiers.BORN_TO_FIGHT), this);
       }
     }
   }
@@ -348,9 +356,8 @@ public abstract class Combatant extends MovingUnit {
    */
   public void postFight(int damageDealt, Unit other, int damageTaken) {
     if (damageDealt > 0) {
-      for (Modifier m : getModifiersByName(Modifiers.bornToFight(0))) {
-        CustomModifier customModifier = (CustomModifier) m;
-        changeHealth(customModifier.val.intValue(), this);
+      if (hasModifierByName(Modifiers.BORN_TO_FIGHT)) {
+        changeHealth(getModifierIntSumByName(Modifiers.BORN_TO_FIGHT), this);
       }
     }
     if (owner != null) {
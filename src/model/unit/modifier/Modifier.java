@@ -199,8 +199,8 @@ public abstract class Modifier implements Stringable {
     boolean ok = unit.addModifier(this);
     if (ok) {
       source.addGrantedModifier(this);
-      if (unit.owner != null && unit.owner.game.getController().hasFrame()) {
-        unit.owner.game.getController().frame.getGamePanel().refreshModifierIconFor(unit);
+      if (unit.owner != null) {
+        unit.owner.game.getController().getEvents().modifiersChanged(unit);
       }
     }
   }
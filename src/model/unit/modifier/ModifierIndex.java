@@ -0,0 +1,149 @@
+package model.unit.modifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index over the modifiers affecting a single unit, grouped by modifier name. Keeps the sum of
+ * {@link CustomModifier#val} for each name up to date as modifiers are added and removed, so
+ * behavior that depends on the total magnitude of a kind of modifier (combat damage reduction,
+ * start of turn healing, etc) is a single lookup instead of a scan over every modifier.
+ */
+public final class ModifierIndex {
+
+  /**
+   * The modifiers and aggregates for a single modifier name.
+   */
+  private static final class Entry {
+    /**
+     * The modifiers with this name, in the order they were added.
+     */
+    private final List<Modifier> modifiers = new ArrayList<>(2);
+
+    /**
+     * The sum of the double values of the modifiers with this name.
+     */
+    private double sum;
+
+    /**
+     * The sum of the int values of the modifiers with this name.
+     */
+    private int intSum;
+
+    /**
+     * Recomputes the sums in insertion order, so they match a fresh scan exactly.
+     */
+    private void recomputeSums() {
+      sum = 0;
+      intSum = 0;
+      for (Modifier m : modifiers) {
+        sum += doubleValueOf(m);
+        intSum += intValueOf(m);
+      }
+    }
+  }
+
+  /**
+   * The entries in this index, by modifier name. Names with no modifiers have no entry.
+   */
+  private final Map<String, Entry> entries;
+
+  /**
+   * Constructs a new, empty ModifierIndex.
+   */
+  public ModifierIndex() {
+    entries = new HashMap<>();
+  }
+
+  /**
+   * Returns the double value of the given modifier, 0 if it has none.
+   */
+  private static double doubleValueOf(Modifier m) {
+    if (m instanceof CustomModifier && ((CustomModifier) m).val != null) {
+      return ((CustomModifier) m).val.doubleValue();
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the int value of the given modifier, 0 if it has none.
+   */
+  private static int intValueOf(Modifier m) {
+    if (m instanceof CustomModifier && ((CustomModifier) m).val != null) {
+      return ((CustomModifier) m).val.intValue();
+    }
+    return 0;
+  }
+
+  /**
+   * Adds the given modifier to this index.
+   */
+  public void add(Modifier m) {
+    Entry e = entries.computeIfAbsent(m.name, k -> new Entry());
+    e.modifiers.add(m);
+    e.sum += doubleValueOf(m);
+    e.intSum += intValueOf(m);
+  }
+
+  /**
+   * Removes the given modifier from this index. Does nothing if it isn't in this index.
+   */
+  public void remove(Modifier m) {
+    Entry e = entries.get(m.name);
+    if (e == null || !e.modifiers.remove(m)) {
+      return;
+    }
+    if (e.modifiers.isEmpty()) {
+      entries.remove(m.name);
+    } else {
+      e.recomputeSums();
+    }
+  }
+
+  /**
+   * Returns true iff there is at least one modifier with the given name in this index.
+   */
+  public boolean contains(String name) {
+    return entries.containsKey(name);
+  }
+
+  /**
+   * Returns the first modifier added with the given name, null if there is none.
+   */
+  public Modifier getFirst(String name) {
+    Entry e = entries.get(name);
+    return e == null ? null : e.modifiers.get(0);
+  }
+
+  /**
+   * Returns the modifiers with the given name, in the order they were added. Unmodifiable.
+   */
+  public List<Modifier> get(String name) {
+    Entry e = entries.get(name);
+    return e == null ? Collections.emptyList() : Collections.unmodifiableList(e.modifiers);
+  }
+
+  /**
+   * Returns the sum of the double values of the modifiers with the given name, 0 if there are none.
+   */
+  public double getSum(String name) {
+    Entry e = entries.get(name);
+    return e == null ? 0 : e.sum;
+  }
+
+  /**
+   * Returns the sum of the int values of the modifiers with the given name, 0 if there are none.
+   */
+  public int getIntSum(String name) {
+    Entry e = entries.get(name);
+    return e == null ? 0 : e.intSum;
+  }
+
+  @Override
+  public String toString() {
+    return "Modifier index of " + entries.keySet();
+  }
+}
@@ -19,6 +19,66 @@ public final class Modifiers {
   private Modifiers() {
   }
 
+  /**
+   * Name of the {@link #elusive} modifier.
+   */
+  public static final String ELUSIVE = "Elusive";
+
+  /**
+   * Name of the {@link #armored} modifier.
+   */
+  public static final String ARMORED = "Armored";
+
+  /**
+   * Name of the {@link #toughness} modifier.
+   */
+  public static final String TOUGHNESS = "Toughness";
+
+  /**
+   * Name of the {@link #solid} modifier.
+   */
+  public static final String SOLID = "Solid";
+
+  /**
+   * Name of the {@link #patience} modifier.
+   */
+  public static final String PATIENCE = "Patience";
+
+  /**
+   * Name of the {@link #siege} modifier.
+   */
+  public static final String SIEGE = "Siege";
+
+  /**
+   * Name of the {@link #bloodlust} modifier.
+   */
+  public static final String BLOODLUST = "Bloodlust";
+
+  /**
+   * Name of the {@link #tenacity} modifier.
+   */
+  public static final String TENACITY = "Tenacity";
+
+  /**
+   * Name of the {@link #hexproof} modifier.
+   */
+  public static final String HEXPROOF = "Hexproof";
+
+  /**
+   * Name of the {@link #bornToFight} modifier.
+   */
+  public static final String BORN_TO_FIGHT = "Born to Fight";
+
+  /**
+   * Name of the {@link #eagleEye} modifier.
+   */
+  public static final String EAGLE_EYE = "Eagle Eye";
+
+  /**
+   * Name of the {@link #disappearance} modifier.
+   */
+  public static final String DISAPPEARANCE = "Disappearance";
+
   /**
    * A description of a modifier or bundle, for showing in UI.
    */
@@ -165,7 +225,7 @@ public final class Modifiers {
    */
   public static Modifier armored(double damageReduction) {
     return new CustomModifier(
-        "Armored",
+        ARMORED,
         "spell_10_10.png",
         "This unit takes -x%- less damage from melee attacks",
         damageReduction,
@@ -196,7 +256,7 @@ public final class Modifiers {
    */
   public static Modifier bloodlust(double bonusDamageToCommanderPercent) {
     return new CustomModifier(
-        "Bloodlust",
+        BLOODLUST,
         "spell_32_5.png",
         "This unit deals -x%- more damage to commanders",
         bonusDamageToCommanderPercent,
@@ -213,7 +273,7 @@ public final class Modifiers {
    */
   public static Modifier bornToFight(int healthGainedPerAttack) {
     return new CustomModifier(
-        "Born to Fight",
+        BORN_TO_FIGHT,
         "spell_30_11.png",
         "After dealing damage, this unit gains -x- health",
         healthGainedPerAttack,
@@ -249,7 +309,7 @@ public final class Modifiers {
    */
   public static Modifier disappearance() {
     return new CustomModifier(
-        "Disappearance",
+        DISAPPEARANCE,
         "spell_29_2.png",
         "This unit can move after attacking",
         null,
@@ -266,7 +326,7 @@ public final class Modifiers {
    */
   public static Modifier eagleEye() {
     return new CustomModifier(
-        "Eagle Eye",
+        EAGLE_EYE,
         "spell_17_14.png",
         "This unit can see into woods and past mountains.",
         null,
@@ -283,7 +343,7 @@ public final class Modifiers {
    */
   public static Modifier elusive(double damageReductionPercent) {
     return new CustomModifier(
-        "Elusive",
+        ELUSIVE,
         "spell_11_7.png",
         "This unit takes -x%- less damage from ranged attacks",
         damageReductionPercent,
@@ -334,7 +394,7 @@ public final class Modifiers {
    */
   public static Modifier hexproof(double spellDamageReductionPercent) {
     return new CustomModifier(
-        "Hexproof",
+        HEXPROOF,
         "spell_28_3.png",
         "This unit takes -x%- less damage from commander spells",
         spellDamageReductionPercent,
@@ -365,7 +425,7 @@ public final class Modifiers {
    */
   public static Modifier patience(double bonusCounterAttackDamagePercent) {
     return new CustomModifier(
-        "Patience",
+        PATIENCE,
         "spell_30_14.png",
         "This unit deals -x%- more damage when counter attacking",
         bonusCounterAttackDamagePercent,
@@ -396,7 +456,7 @@ public final class Modifiers {
    */
   public static Modifier siege(double bonusDamageToBuildingPercent) {
     return new CustomModifier(
-        "Siege",
+        SIEGE,
         "spell_28_11.png",
         "This unit deals -x%- more damage to buildings",
         bonusDamageToBuildingPercent,
@@ -427,7 +487,7 @@ public final class Modifiers {
    */
   public static Modifier solid(double damageReductionPercent) {
     return new CustomModifier(
-        "Solid",
+        SOLID,
         "spell_6_4.png",
         "This unit takes -x%- less damage from ranged attacks from units without Siege",
         damageReductionPercent,
@@ -468,7 +528,7 @@ public final class Modifiers {
    */
   public static Modifier tenacity(int healthGainedPerTurn) {
     return new CustomModifier(
-        "Tenacity",
+        TENACITY,
         "spell_32_3.png",
         "This unit gains -x- health each turn",
         healthGainedPerTurn,
@@ -485,7 +545,7 @@ public final class Modifiers {
    */
   public static Modifier toughness(int damageReduction) {
     return new CustomModifier(
-        "Toughness",
+        TOUGHNESS,
         "spell_0_13.png",
         "This unit takes -x- less damage from all sources",
         damageReduction,
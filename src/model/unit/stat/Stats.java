@@ -2,12 +2,11 @@ package model.unit.stat;
 
 import model.unit.modifier.Modifier;
 import model.unit.modifier.StatModifier;
-import util.Mth;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -16,36 +15,23 @@ import java.util.stream.Collectors;
 
 /**
  * Holder for the stats for a model.unit. Unless otherwise noted, all stats are non-negative.
+ *
+ * <p>Stat values are ints stored in an array indexed by {@link StatType#ordinal()}. Non-base stats
+ * also keep the stat modifiers applied to each stat, in application order. A stat's value is its
+ * base value folded through its own modifiers, so adding or removing a modifier only re-folds the
+ * one stat it modifies. Instances are immutable.
  */
 public class Stats implements Iterable<Stat> {
 
   /**
-   * Base stats for everything, to be overridden as template. Initializes all stats to their base
-   * 0-ish vals.
-   *
-   * <p>//TODO - use?
+   * Number of stat types, including BASE.
    */
-  private static final HashMap<StatType, Object> TEMPLATE;
-
-  static {
-    TEMPLATE = new HashMap<>();
-    // Base -> Null
-    TEMPLATE.put(StatType.MAX_HEALTH, 0);
-    TEMPLATE.put(StatType.MANA_PER_TURN, 0);
-    TEMPLATE.put(StatType.ACTIONS_PER_TURN, 0);
-    TEMPLATE.put(StatType.MIN_ATTACK, 0);
-    TEMPLATE.put(StatType.MAX_ATTACK, 0);
-    TEMPLATE.put(StatType.DAMAGE_REDUCTION, 0);
-    TEMPLATE.put(StatType.MIN_ATTACK_RANGE, 0);
-    TEMPLATE.put(StatType.MAX_ATTACK_RANGE, 0);
-    TEMPLATE.put(StatType.SUMMON_RANGE, 0);
-    TEMPLATE.put(StatType.VISION_RANGE, 0);
-    TEMPLATE.put(StatType.MOVEMENT_TOTAL, 0);
-    TEMPLATE.put(StatType.GRASS_COST, 0);
-    TEMPLATE.put(StatType.WOODS_COST, 0);
-    TEMPLATE.put(StatType.MOUNTAIN_COST, 0);
-    TEMPLATE.put(StatType.SEA_COST, 0);
-  }
+  private static final int STAT_COUNT = StatType.values().length;
+
+  /**
+   * Modifier pipeline for a stat with no modifiers.
+   */
+  private static final StatModifier[] NO_MODIFIERS = new StatModifier[0];
 
   /**
    * Utility class for a pair of stats.
@@ -61,18 +47,32 @@ public class Stats implements Iterable<Stat> {
   }
 
   /**
-   * The stats maintained by this unitstats
+   * The stat values maintained by this, by stat ordinal. The BASE slot is unused. Stats not set
+   * are 0.
+   */
+  private final int[] values;
+
+  /**
+   * The base (pre-modification) stats this was calculated from. Null if this is a base.
    */
-  private final HashMap<StatType, Object> stats;
+  private final Stats base;
+
+  /**
+   * The stat modifiers applied to each stat, in application order, by stat ordinal. Null if this
+   * is a base. Inner arrays are shared between instances, so must never be modified.
+   */
+  private final StatModifier[][] modifiersByStat;
 
   /**
    * Constructor for Stats with base zero stats. Input stats must not have no duplicates among type
    * - will overwrite arbitrarily.
    */
   public Stats(Stat... stats) {
-    this.stats = new HashMap<>(TEMPLATE);
+    values = new int[STAT_COUNT];
+    base = null;
+    modifiersByStat = null;
     for (Stat s : stats) {
-      this.stats.put(s.name, s.val);
+      values[s.name.ordinal()] = toInt(s);
     }
   }
 
@@ -81,10 +81,11 @@ public class Stats implements Iterable<Stat> {
    * duplicates among type - will overwrite arbitrarily.
    */
   public Stats(Stats baseStats, Stat... stats) {
-    this.stats = new HashMap<>(baseStats.stats);
-    this.stats.put(StatType.BASE, baseStats);
+    values = Arrays.copyOf(baseStats.values, STAT_COUNT);
+    base = baseStats;
+    modifiersByStat = emptyPipeline();
     for (Stat s : stats) {
-      this.stats.put(s.name, s.val);
+      values[s.name.ordinal()] = toInt(s);
     }
   }
 
@@ -92,71 +93,114 @@ public class Stats implements Iterable<Stat> {
    * Constructor for Stats from a base stats and a collection of modifiers.
    */
   public Stats(Stats base, Collection<Modifier> modifiers) throws IllegalArgumentException {
-    this.stats = new HashMap<>(base.stats);
-    stats.put(StatType.BASE, base);
+    values = Arrays.copyOf(base.values, STAT_COUNT);
+    this.base = base;
 
     // Process modifiers - ignore non stat modifiers
+    List<List<StatModifier>> pipeline = new ArrayList<>(STAT_COUNT);
+    for (int i = 0; i < STAT_COUNT; i++) {
+      pipeline.add(new ArrayList<>());
+    }
     if (modifiers != null) {
       for (Modifier m : modifiers) {
         if (m instanceof StatModifier) {
           StatModifier s = (StatModifier) m;
-          Object newVal = stats.get(s.modifiedStat);
-          if (newVal instanceof Integer
-              && (s.getModVal() instanceof Integer || s.getModVal() instanceof Double)) {
-            switch (s.modType) {
-              case SET_MIN:
-                newVal = Math.min((int) newVal, (int) s.getModVal());
-                break;
-              case SET_MAX:
-                newVal = Math.max((int) newVal, (int) s.getModVal());
-                break;
-              case ADD:
-                newVal = (int) newVal + (int) s.getModVal();
-                break;
-              case MULTIPLY:
-                newVal = (int) ((int) newVal * (double) s.getModVal());
-                break;
-            }
-          } else if (s.getModVal() instanceof Double) {
-            switch (s.modType) {
-              case SET_MIN:
-                newVal = Math.min((double) newVal, (double) s.getModVal());
-                break;
-              case SET_MAX:
-                newVal = Math.max((double) newVal, (double) s.getModVal());
-                break;
-              case ADD:
-                newVal = Mth.roundTo(((Double) newVal + (double) s.getModVal()), -2);
-                break;
-              case MULTIPLY:
-                newVal = Mth.roundTo(((Double) newVal * (double) s.getModVal()), -2);
-                break;
-            }
-          } else {
-            throw new RuntimeException(
-                "Unhandled stat value type / mod type pair "
-                    + newVal.getClass()
-                    + ", "
-                    + s.getModVal().getClass());
-          }
-          stats.put(s.modifiedStat, newVal);
+          pipeline.get(s.modifiedStat.ordinal()).add(s);
+          values[s.modifiedStat.ordinal()] = apply(values[s.modifiedStat.ordinal()], s);
         }
       }
     }
+    modifiersByStat = new StatModifier[STAT_COUNT][];
+    for (int i = 0; i < STAT_COUNT; i++) {
+      modifiersByStat[i] =
+          pipeline.get(i).isEmpty() ? NO_MODIFIERS : pipeline.get(i).toArray(NO_MODIFIERS);
+    }
+  }
+
+  /**
+   * Constructor for a copy of other with the given modifier pipeline for the given stat. Only
+   * re-folds that stat.
+   */
+  private Stats(Stats other, StatType stat, StatModifier[] statModifiers) {
+    values = Arrays.copyOf(other.values, STAT_COUNT);
+    base = other.base;
+    modifiersByStat = Arrays.copyOf(other.modifiersByStat, STAT_COUNT);
+    modifiersByStat[stat.ordinal()] = statModifiers;
+    int val = base.values[stat.ordinal()];
+    for (StatModifier s : statModifiers) {
+      val = apply(val, s);
+    }
+    values[stat.ordinal()] = val;
+  }
+
+  /**
+   * Returns a modifier pipeline with no modifiers on any stat.
+   */
+  private static StatModifier[][] emptyPipeline() {
+    StatModifier[][] pipeline = new StatModifier[STAT_COUNT][];
+    Arrays.fill(pipeline, NO_MODIFIERS);
+    return pipeline;
+  }
+
+  /**
+   * Returns the int value of the given stat. Throws an exception if it isn't an int stat.
+   */
+  private static int toInt(Stat s) {
+    if (!(s.val instanceof Integer)) {
+      throw new RuntimeException("Unhandled stat value type for " + s);
+    }
+    return (Integer) s.val;
+  }
+
+  /**
+   * Returns the result of applying the given stat modifier to the given stat value.
+   */
+  private static int apply(int val, StatModifier s) {
+    if (!(s.getModVal() instanceof Integer || s.getModVal() instanceof Double)) {
+      throw new RuntimeException(
+          "Unhandled stat value type / mod type pair Integer, " + s.getModVal().getClass());
+    }
+    Number modVal = (Number) s.getModVal();
+    switch (s.modType) {
+      case SET_MIN:
+        return Math.min(val, modVal.intValue());
+      case SET_MAX:
+        return Math.max(val, modVal.intValue());
+      case ADD:
+        return val + modVal.intValue();
+      case MULTIPLY:
+        return (int) (val * modVal.doubleValue());
+      default:
+        throw new RuntimeException("Unhandled mod type " + s.modType);
+    }
   }
 
   /**
    * Returns true if this is a base (has no base stat), false otherwise
    */
   private boolean isBase() {
-    return !stats.containsKey(StatType.BASE);
+    return base == null;
   }
 
   /**
-   * Returns the requested stat
+   * Returns the requested stat. Returns an Integer for all stats except BASE, which returns the base
+   * Stats (or null if this is a base).
    */
   public Object getStat(StatType type) {
-    return stats.get(type);
+    if (type == StatType.BASE) {
+      return base;
+    }
+    return values[type.ordinal()];
+  }
+
+  /**
+   * Returns the value of the requested stat, without boxing. Throws an exception for BASE.
+   */
+  public int getStatValue(StatType type) {
+    if (type == StatType.BASE) {
+      throw new RuntimeException("BASE isn't an int stat");
+    }
+    return values[type.ordinal()];
   }
 
   /**
@@ -166,10 +210,8 @@ public class Stats implements Iterable<Stat> {
   private ArrayList<Stat> getStatsList(StatType[] t, boolean filterOmittableZeroes) {
     ArrayList<Stat> s = new ArrayList<Stat>();
     for (StatType p : t) {
-      if (!filterOmittableZeroes
-          || (stats.get(p) instanceof Integer && ((Integer) stats.get(p)) > 0)
-          || (stats.get(p) instanceof Double && ((Double) stats.get(p)) > 0)) {
-        s.add(new Stat(p, stats.get(p)));
+      if (!filterOmittableZeroes || values[p.ordinal()] > 0) {
+        s.add(new Stat(p, values[p.ordinal()]));
       }
     }
     return s;
@@ -229,7 +271,37 @@ public class Stats implements Iterable<Stat> {
    */
   public Stats modifiedWith(Collection<Modifier> modifiers) {
     if (isBase()) return new Stats(this, modifiers);
-    else return new Stats((Stats) getStat(StatType.BASE), modifiers);
+    else return new Stats(base, modifiers);
+  }
+
+  /**
+   * Returns a new Stats with the given stat modifier applied after the current modifiers on its
+   * stat. Only re-folds the modified stat.
+   */
+  public Stats withModifier(StatModifier modifier) {
+    if (isBase()) return new Stats(this, Collections.singletonList(modifier));
+    StatModifier[] current = modifiersByStat[modifier.modifiedStat.ordinal()];
+    StatModifier[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = modifier;
+    return new Stats(this, modifier.modifiedStat, updated);
+  }
+
+  /**
+   * Returns a new Stats without the given stat modifier. Only re-folds the modified stat. Returns
+   * this if the given modifier isn't applied to this.
+   */
+  public Stats withoutModifier(StatModifier modifier) {
+    if (isBase()) return this;
+    StatModifier[] current = modifiersByStat[modifier.modifiedStat.ordinal()];
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == modifier) {
+        StatModifier[] updated = new StatModifier[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+        return new Stats(this, modifier.modifiedStat, updated);
+      }
+    }
+    return this;
   }
 
   /**
@@ -266,10 +338,11 @@ public class Stats implements Iterable<Stat> {
     private StatIterator() {
       index = 0;
       statArr = new ArrayList<Stat>();
-      for (Map.Entry<StatType, Object> e : stats.entrySet()) {
-        statArr.add(new Stat(e.getKey(), e.getValue()));
+      for (StatType t : StatType.values()) {
+        if (t != StatType.BASE || !isBase()) {
+          statArr.add(new Stat(t, getStat(t)));
+        }
       }
-      Collections.sort(statArr);
     }
 
     /**
@@ -1,9 +1,11 @@
 package model.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import model.board.Board;
 import model.board.Tile;
@@ -12,41 +14,122 @@ import model.board.Tile;
  * A set of points representing a cloud for use when selecting an ability target or any cloud
  * selection. Extended to give additional functionality.
  *
+ * <p>Points are stored packed as {@code row * 2^32 + col} in a sorted long array, which orders
+ * them by row then column. Translating adds the same value to every entry, so it keeps the array
+ * sorted and never needs to box or intern points. Clouds are immutable, so instances can be freely
+ * shared.
+ *
  * @author Mshnik
  */
 public class Cloud {
 
   /**
-   * The points in this cloud. May or may not contain (0,0).
+   * The points in this cloud, packed by {@link #pack(int, int)}. Sorted ascending with no
+   * duplicates. May or may not contain (0,0).
+   */
+  private final long[] points;
+
+  /**
+   * The points in this cloud as MPoints. Only created if requested.
    */
-  private final Set<MPoint> points;
+  private volatile Set<MPoint> pointSet;
 
   /**
    * Constructs a new cloud. Up to the constructor to enforce that the points set is correct.
    */
   Cloud(Set<MPoint> points) {
+    long[] packed = new long[points.size()];
+    int i = 0;
+    for (MPoint p : points) {
+      packed[i++] = pack(p.row, p.col);
+    }
+    Arrays.sort(packed);
+    this.points = packed;
+  }
+
+  /**
+   * Constructs a new cloud from the given packed points, which must be sorted with no duplicates.
+   */
+  private Cloud(long[] points) {
     this.points = points;
   }
 
+  /**
+   * Packs the given row and col into a single long. Ordering of packed points is row, then col.
+   */
+  private static long pack(int row, int col) {
+    return ((long) row << 32) + col;
+  }
+
+  /**
+   * Returns the column of the given packed point.
+   */
+  private static int unpackCol(long point) {
+    return (int) point;
+  }
+
+  /**
+   * Returns the row of the given packed point.
+   */
+  private static int unpackRow(long point) {
+    return (int) ((point - unpackCol(point)) >> 32);
+  }
+
+  /**
+   * Sorts and returns the given packed points, for after transforms that don't preserve order.
+   */
+  private static long[] sorted(long[] points) {
+    Arrays.sort(points);
+    return points;
+  }
+
   /**
    * Returns the number of points in this cloud.
    */
   public int getSize() {
-    return points.size();
+    return points.length;
+  }
+
+  /**
+   * Returns the row of the i-th point in this cloud, in row then column order.
+   */
+  public int getRow(int i) {
+    return unpackRow(points[i]);
+  }
+
+  /**
+   * Returns the column of the i-th point in this cloud, in row then column order.
+   */
+  public int getCol(int i) {
+    return unpackCol(points[i]);
   }
 
   /**
    * Returns the set of points in this cloud.
    */
   public Set<MPoint> getPoints() {
-    return Collections.unmodifiableSet(points);
+    if (pointSet == null) {
+      Set<MPoint> set = new HashSet<>();
+      for (long p : points) {
+        set.add(MPoint.get(unpackRow(p), unpackCol(p)));
+      }
+      pointSet = Collections.unmodifiableSet(set);
+    }
+    return pointSet;
   }
 
   /**
    * Returns true iff this cloud contains the given point.
    */
   public boolean contains(MPoint point) {
-    return points.contains(point);
+    return contains(point.row, point.col);
+  }
+
+  /**
+   * Returns true iff this cloud contains the point at the given row and col.
+   */
+  public boolean contains(int row, int col) {
+    return Arrays.binarySearch(points, pack(row, col)) >= 0;
   }
 
   /**
@@ -54,46 +137,84 @@ public class Cloud {
    * board.
    */
   public List<Tile> toTileSet(Board board) {
-    // TODO - optimize.
-    return points
-        .stream()
-        .filter(board::isOnBoard)
-        .map(board::getTileAt)
-        .collect(Collectors.toList());
+    return toTileSet(board, 0, 0);
+  }
+
+  /**
+   * Returns the tiles this cloud corresponds to on the given board after translating it to have the
+   * given center. Omits tiles that are off board. Equivalent to translating then calling {@link
+   * #toTileSet(Board)}, without creating the translated cloud.
+   */
+  public List<Tile> toTileSet(Board board, int centerRow, int centerCol) {
+    List<Tile> tiles = new ArrayList<>(points.length);
+    for (long p : points) {
+      int row = unpackRow(p) + centerRow;
+      int col = unpackCol(p) + centerCol;
+      if (board.isOnBoard(row, col)) {
+        tiles.add(board.getTileAt(row, col));
+      }
+    }
+    return tiles;
   }
 
   /**
    * Returns a cloud translated to have the new center point.
    */
   public Cloud translate(MPoint center) {
-    // TODO - optimize.
-    return new Cloud(points.stream().map(p -> p.add(center)).collect(Collectors.toSet()));
+    return translate(center.row, center.col);
+  }
+
+  /**
+   * Returns a cloud translated to have the new center point.
+   */
+  public Cloud translate(int centerRow, int centerCol) {
+    long delta = pack(centerRow, centerCol);
+    long[] translated = new long[points.length];
+    for (int i = 0; i < points.length; i++) {
+      translated[i] = points[i] + delta;
+    }
+    return new Cloud(translated);
   }
 
   /**
    * Returns a cloud reflected over y=x by reversing coordinates.
    */
   public Cloud reflect() {
-    return new Cloud(
-        points.stream().map(p -> MPoint.get(p.col, p.row)).collect(Collectors.toSet()));
+    long[] reflected = new long[points.length];
+    for (int i = 0; i < points.length; i++) {
+      reflected[i] = pack(unpackCol(points[i]), unpackRow(points[i]));
+    }
+    return new Cloud(sorted(reflected));
   }
 
   /**
    * Returns a cloud rotated 90 degrees clockwise/counter clockwise about (0,0).
    */
   public Cloud rotate(boolean clockwise) {
-    return new Cloud(
-        points
-            .stream()
-            .map(p -> clockwise ? MPoint.get(p.col, -p.row) : MPoint.get(-p.col, p.row))
-            .collect(Collectors.toSet()));
+    long[] rotated = new long[points.length];
+    for (int i = 0; i < points.length; i++) {
+      int row = unpackRow(points[i]);
+      int col = unpackCol(points[i]);
+      rotated[i] = clockwise ? pack(col, -row) : pack(-col, row);
+    }
+    return new Cloud(sorted(rotated));
   }
 
   /**
    * Returns a cloud with the points of this minus the points in other.
    */
   public Cloud difference(Cloud other) {
-    // TODO - optimize.
-    return new Cloud(points.stream().filter(p -> !other.contains(p)).collect(Collectors.toSet()));
+    long[] remaining = new long[points.length];
+    int count = 0;
+    int j = 0;
+    for (long p : points) {
+      while (j < other.points.length && other.points[j] < p) {
+        j++;
+      }
+      if (j == other.points.length || other.points[j] != p) {
+        remaining[count++] = p;
+      }
+    }
+    return new Cloud(Arrays.copyOf(remaining, count));
   }
 }
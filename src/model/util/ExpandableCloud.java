@@ -1,10 +1,10 @@
 package model.util;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a cloud created via formula for a given side length. This allows it to be expanded or
@@ -113,14 +113,12 @@ public final class ExpandableCloud extends Cloud {
    * Map of clouds created so far.
    */
   private static final Map<ExpandableCloudType, Map<Integer, ExpandableCloud>> CLOUDS =
-      Collections.synchronizedMap(new HashMap<>());
+      new EnumMap<>(ExpandableCloudType.class);
 
-  /* Setup default clouds map. */
+  /* Setup default clouds map. Never modified after this, so only the inner maps are concurrent. */
   static {
-    synchronized (CLOUDS) {
-      for (ExpandableCloudType type : ExpandableCloudType.values()) {
-        CLOUDS.put(type, new HashMap<>());
-      }
+    for (ExpandableCloudType type : ExpandableCloudType.values()) {
+      CLOUDS.put(type, new ConcurrentHashMap<>());
     }
   }
 
@@ -131,14 +129,9 @@ public final class ExpandableCloud extends Cloud {
     if (size < 0) {
       throw new RuntimeException("Expected size >= 0, got " + size);
     }
-    synchronized (CLOUDS) {
-      if (CLOUDS.get(type).containsKey(size)) {
-        return CLOUDS.get(type).get(size);
-      }
-      ExpandableCloud cloud = new ExpandableCloud(type.createCloud(size), size, type);
-      CLOUDS.get(type).put(size, cloud);
-      return cloud;
-    }
+    return CLOUDS
+        .get(type)
+        .computeIfAbsent(size, s -> new ExpandableCloud(type.createCloud(s), s, type));
   }
 
   /**
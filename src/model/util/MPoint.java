@@ -5,22 +5,56 @@ import model.util.ExpandableCloud.ExpandableCloudType;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class representing a point on a matrix, with row-col notation. Instances are kept by row-col
- * and returned as needed. New instances are only constructed as needed.
+ * and returned as needed. Points near the origin are preallocated, others are only constructed as
+ * needed.
  */
 public final class MPoint {
 
   /**
-   * A map of all points, indexed by row, then column.
+   * System property that sets {@link #WINDOW}.
    */
-  private static final Map<Integer, Map<Integer, MPoint>> points =
-      Collections.synchronizedMap(new HashMap<>());
+  public static final String WINDOW_PROPERTY = "mpoint.window";
+
+  /**
+   * Points with both row and col in [-WINDOW, WINDOW] are preallocated in {@link #DENSE}. Defaults
+   * to 64, which covers every board and cloud offset in the game. Configurable via the {@link
+   * #WINDOW_PROPERTY} system property.
+   */
+  private static final int WINDOW = Math.max(0, Integer.getInteger(WINDOW_PROPERTY, 64));
+
+  /**
+   * Side length of the dense window.
+   */
+  private static final int WINDOW_SIZE = 2 * WINDOW + 1;
+
+  /**
+   * All points in the window, indexed by (row + WINDOW) * WINDOW_SIZE + (col + WINDOW). Filled
+   * once at class load and never modified, so reads need no synchronization.
+   */
+  private static final MPoint[] DENSE;
+
+  /* Preallocate the dense window. */
+  static {
+    DENSE = new MPoint[WINDOW_SIZE * WINDOW_SIZE];
+    for (int r = -WINDOW; r <= WINDOW; r++) {
+      for (int c = -WINDOW; c <= WINDOW; c++) {
+        DENSE[(r + WINDOW) * WINDOW_SIZE + (c + WINDOW)] = new MPoint(r, c);
+      }
+    }
+  }
+
+  /**
+   * Points outside of the dense window, keyed by row in the high 32 bits and col in the low 32
+   * bits. Created on demand.
+   */
+  private static final Map<Long, MPoint> SPARSE = new ConcurrentHashMap<>();
 
   /**
    * A point representing (0,0)
@@ -38,7 +72,7 @@ public final class MPoint {
   public final int col;
 
   /**
-   * Constructor for MPoint. Creates a point and adds it to points.
+   * Constructor for MPoint. Only called when interning a new point.
    *
    * @param r - row of point
    * @param c - col of point
@@ -46,29 +80,20 @@ public final class MPoint {
   private MPoint(int r, int c) {
     row = r;
     col = c;
-
-    synchronized (points) {
-      if (!points.containsKey(r)) {
-        points.put(r, new HashMap<>());
-      }
-      points.get(r).put(c, this);
-    }
   }
 
   /**
-   * Returns a point for the given r, c, creating a new one only if necessary.
+   * Returns a point for the given r, c, creating a new one only if necessary. Never blocks for
+   * points in the dense window.
    *
    * @param r - row of point
    * @param c - col of point
    */
   public static MPoint get(int r, int c) {
-    synchronized (points) {
-      if (points.containsKey(r) && points.get(r).containsKey(c)) {
-        return points.get(r).get(c);
-      } else {
-        return new MPoint(r, c);
-      }
+    if (r >= -WINDOW && r <= WINDOW && c >= -WINDOW && c <= WINDOW) {
+      return DENSE[(r + WINDOW) * WINDOW_SIZE + (c + WINDOW)];
     }
+    return SPARSE.computeIfAbsent(((long) r << 32) | (c & 0xFFFFFFFFL), k -> new MPoint(r, c));
   }
 
   /**
@@ -0,0 +1,89 @@
+package util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The seeded source of every random a game uses. Each part of the game that needs randomness -
+ * start locations, combat, each player's decisions - draws from its own named stream, seeded from
+ * the game's seed and the stream's name and index. So a game played again with the same seed
+ * gets the same random numbers in each part, however the parts interleave. That only replays the
+ * game if every player also decides the same way given the same numbers - AIs must not let hash
+ * order of identity-hashed objects decide between equally good actions (see {@link
+ * ai.AIAction#CONTENT_ORDER}).
+ */
+public final class RandomStreams {
+
+  /**
+   * Stream for shuffling player start locations.
+   */
+  public static final String START_LOCATIONS = "start locations";
+
+  /**
+   * Stream for combat damage and spell effects.
+   */
+  public static final String COMBAT = "combat";
+
+  /**
+   * Stream for a player's decisions, indexed by player index.
+   */
+  public static final String PLAYER = "player";
+
+  /**
+   * Stream for generating a player's AI weights, indexed by player index.
+   */
+  public static final String AI_WEIGHTS = "ai weights";
+
+  /**
+   * Source of unseeded seeds, so seeds picked at the same time differ.
+   */
+  private static final AtomicLong seedUniquifier = new AtomicLong(System.nanoTime());
+
+  /**
+   * The seed every stream is derived from.
+   */
+  public final long seed;
+
+  /**
+   * Constructs a new RandomStreams derived from the given seed.
+   */
+  public RandomStreams(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Returns a new seed for a game that wasn't given one. Different on every call.
+   */
+  public static long newSeed() {
+    return mix(seedUniquifier.addAndGet(0x9E3779B97F4A7C15L) ^ System.nanoTime());
+  }
+
+  /**
+   * Returns the seed of the given stream with the given index.
+   */
+  public long getSeed(String stream, int index) {
+    return mix(seed ^ mix(stream.hashCode() * 0x100000001B3L + index));
+  }
+
+  /**
+   * Returns a new random for the given stream with the given index. Every call returns a random
+   * that starts at the beginning of the stream.
+   */
+  public Random newRandom(String stream, int index) {
+    return new Random(getSeed(stream, index));
+  }
+
+  /**
+   * The SplitMix64 finalizer, which spreads every bit of x over the result.
+   */
+  private static long mix(long x) {
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+
+  @Override
+  public String toString() {
+    return "Random streams from seed " + seed;
+  }
+}
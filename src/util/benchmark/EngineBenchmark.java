@@ -0,0 +1,287 @@
+package util.benchmark;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+
+import ai.delegating.DelegatingAIController;
+import ai.delegating.DelegatingAIControllerFactory;
+import ai.delegating.DelegatingAIControllers;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntToLongFunction;
+import java.util.stream.Collectors;
+
+import model.board.Board;
+import model.board.Tile;
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Unit;
+import model.unit.ability.Abilities;
+import model.unit.building.Buildings;
+import model.unit.combatant.Combat;
+import model.unit.combatant.CombatOutcome;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+
+/**
+ * A utility class (outside of the game) that measures the engine's hot paths on every board in
+ * {@link #BOARDS_DIRECTORY}, then whole headless games, so an optimization can be measured against
+ * the baseline recorded in the README. Each board is set up the same way every run: a game seeded
+ * with {@link #SEED} between default delegating AI players, with {@link #UNITS_PER_PLAYER} random
+ * age 1 combatants placed near their commander by a random with the same seed. Reports operations
+ * per second for:
+ *
+ * <ul>
+ *   <li>movementCloud - {@link Board#getMovementCloud(MovingUnit, boolean)} for a unit
+ *   <li>wholeBoardCloud - {@link Board#getMovementCloudWholeBoard(MovingUnit, Tile)} for a unit
+ *   <li>refreshVision - {@link Player#refreshVisionCloud} for a unit
+ *   <li>canSee - {@link Player#canSee(Tile)} for a tile
+ *   <li>dangerRadius - {@link Combatant#getDangerRadius(boolean)} for a combatant
+ *   <li>combatProjectionCached - {@link Combat#getOutcome()} for an attacker and an enemy, which
+ *       after the first pass over the pairs only looks up cached outcomes
+ *   <li>combatProjectionUncached - the same, but computing each outcome from scratch by clearing
+ *       the {@link CombatOutcome} cache first
+ *   <li>recomputeActions - {@link DelegatingAIController#turnStart(Player)}, which recomputes every
+ *       possible action without scoring any
+ *   <li>nextAction - a turn start and {@link DelegatingAIController#getNextAction(Player)}, which
+ *       scores every possible action
+ * </ul>
+ *
+ * <p>Args: [board filename (default: all)] [games (default: 0, to skip games)].
+ */
+public final class EngineBenchmark {
+
+  /**
+   * Directory the boards are read from.
+   */
+  private static final String BOARDS_DIRECTORY = "game/boards/";
+
+  /**
+   * Seed of each board's game and of the random used to place units on it.
+   */
+  private static final long SEED = 1234L;
+
+  /**
+   * Number of combatants placed for each player in addition to their commander.
+   */
+  private static final int UNITS_PER_PLAYER = 6;
+
+  /**
+   * Farthest a placed combatant can be from its commander.
+   */
+  private static final int PLACEMENT_RADIUS = 5;
+
+  /**
+   * Time each workload runs untimed before measuring, to let the JIT settle.
+   */
+  private static final long WARMUP_NANOS = 500_000_000L;
+
+  /**
+   * Time each workload is measured for.
+   */
+  private static final long MEASURED_NANOS = 2_000_000_000L;
+
+  private EngineBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+    List<String> boardFilenames;
+    if (args.length > 0 && !args[0].equals("all")) {
+      boardFilenames = Collections.singletonList(args[0]);
+    } else {
+      boardFilenames =
+          Arrays.stream(new File(BOARDS_DIRECTORY).list())
+              .filter(f -> f.endsWith(".csv") && !f.startsWith("sample"))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+
+    // Force unit, building, spell loading, so it isn't timed.
+    Combatants.getCombatantsForAge(1);
+    Buildings.getBuildingsForLevel(1);
+    Abilities.getAbilitiesForAge(1);
+
+    System.out.println("board\tworkload\tops/sec");
+    for (String boardFilename : boardFilenames) {
+      runBoard(boardFilename);
+    }
+    if (games > 0) {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        SimulationBenchmark.run(boardFilenames.get(0), 1, executor);
+        long start = System.nanoTime();
+        SimulationBenchmark.run(boardFilenames.get(0), games, executor);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        print(boardFilenames.get(0), "games", games / seconds);
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Sets up the given board and measures every workload on it.
+   */
+  private static void runBoard(String boardFilename) {
+    GameController controller =
+        GameController.loadHeadless(
+            BOARDS_DIRECTORY + boardFilename,
+            Arrays.asList(
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.REGULAR,
+            1,
+            SEED);
+    Board board = controller.game.board;
+    List<Player> players = controller.game.getRemainingPlayers();
+    Random random = new Random(SEED);
+    for (Player p : players) {
+      placeUnits(p, random);
+    }
+
+    Player player = players.get(0);
+    List<MovingUnit> movingUnits = new ArrayList<>(player.getMovingUnits());
+    List<Combatant> combatants = new ArrayList<>(player.getCombatants());
+    List<Tile> tiles = board.stream().collect(Collectors.toList());
+    List<Combatant> enemies = new ArrayList<>(players.get(1).getCombatants());
+    DelegatingAIController ai =
+        DelegatingAIControllerFactory.copyOf(
+                DelegatingAIControllers.defaultDelegatingAIController())
+            .setParallelScoring(false)
+            .build();
+
+    measure(
+        boardFilename,
+        "movementCloud",
+        i -> board.getMovementCloud(movingUnits.get(i % movingUnits.size()), true).size());
+    measure(
+        boardFilename,
+        "wholeBoardCloud",
+        i -> {
+          MovingUnit u = movingUnits.get(i % movingUnits.size());
+          return board.getMovementCloudWholeBoard(u, u.getLocation()).size();
+        });
+    measure(
+        boardFilename,
+        "refreshVision",
+        i -> {
+          player.refreshVisionCloud(movingUnits.get(i % movingUnits.size()));
+          return 1;
+        });
+    measure(
+        boardFilename, "canSee", i -> player.canSee(tiles.get(i % tiles.size())) ? 1 : 0);
+    measure(
+        boardFilename,
+        "dangerRadius",
+        i -> combatants.get(i % combatants.size()).getDangerRadius(true).size());
+    measure(
+        boardFilename,
+        "combatProjectionCached",
+        i -> {
+          Combatant attacker = combatants.get(i % combatants.size());
+          Combatant defender = enemies.get((i / combatants.size()) % enemies.size());
+          return new Combat(attacker, defender).getOutcome().hashCode();
+        });
+    measure(
+        boardFilename,
+        "combatProjectionUncached",
+        i -> {
+          Combatant attacker = combatants.get(i % combatants.size());
+          Combatant defender = enemies.get((i / combatants.size()) % enemies.size());
+          CombatOutcome.clearCache();
+          return new Combat(attacker, defender).getOutcome().hashCode();
+        });
+    measure(
+        boardFilename,
+        "recomputeActions",
+        i -> {
+          ai.turnStart(player);
+          return 1;
+        });
+    measure(
+        boardFilename,
+        "nextAction",
+        i -> {
+          ai.turnStart(player);
+          return ai.getNextAction(player) == null ? 0 : 1;
+        });
+  }
+
+  /**
+   * Places {@link #UNITS_PER_PLAYER} random age 1 combatants for the given player on random free
+   * tiles they can occupy near its commander, giving the player the mana to summon each. Then
+   * refreshes every unit of the player, as at the start of its turn.
+   */
+  private static void placeUnits(Player player, Random random) {
+    List<Combatant> templates = Combatants.getCombatantsForAge(1);
+    Tile commanderLocation = player.getCommander().getLocation();
+    for (int i = 0; i < UNITS_PER_PLAYER; i++) {
+      Combatant template = templates.get(random.nextInt(templates.size()));
+      List<Tile> free =
+          player
+              .game
+              .board
+              .stream()
+              .filter(
+                  t ->
+                      !t.isOccupied()
+                          && t.manhattanDistance(commanderLocation) <= PLACEMENT_RADIUS
+                          && template.canOccupy(t.terrain))
+              .collect(Collectors.toList());
+      if (free.isEmpty()) {
+        return;
+      }
+      player.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(player));
+      Combatant c =
+          (Combatant) template.clone(player, free.get(random.nextInt(free.size())));
+      player.refreshVisionCloud(c);
+    }
+    player.recalculateState();
+    player.getUnits().forEach(Unit::refreshForTurn);
+  }
+
+  /**
+   * Runs the given workload on the given board for the warmup time, then measures it. The workload
+   * is given the number of times it has been run, and returns a value derived from its result so
+   * the work can't be optimized away.
+   */
+  private static void measure(String boardFilename, String name, IntToLongFunction workload) {
+    run(workload, WARMUP_NANOS);
+    print(boardFilename, name, run(workload, MEASURED_NANOS));
+  }
+
+  /**
+   * Runs the given workload repeatedly for the given time, returning the operations per second.
+   */
+  private static double run(IntToLongFunction workload, long nanos) {
+    long sink = 0;
+    int ops = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      sink += workload.applyAsLong(ops++);
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < nanos);
+    if (sink == 42) {
+      System.out.println();
+    }
+    return ops / (elapsed / 1e9);
+  }
+
+  /**
+   * Prints a result row.
+   */
+  private static void print(String boardFilename, String name, double opsPerSecond) {
+    System.out.printf("%s\t%s\t%.1f%n", boardFilename, name, opsPerSecond);
+  }
+}
@@ -0,0 +1,119 @@
+package util.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.util.Cloud;
+import model.util.ExpandableCloud;
+import model.util.ExpandableCloud.ExpandableCloudType;
+import model.util.MPoint;
+
+/**
+ * A utility class (outside of the game) that measures MPoint interning throughput as the number of
+ * threads grows. Each thread repeatedly interns points over a board-sized area and translates a
+ * cloud, like vision and cast computations do. Reports operations per second for 1, 2, 4, ... up
+ * to the given thread count (default: available processors).
+ */
+public final class MPointBenchmark {
+
+  /**
+   * Number of untimed iterations per thread before measuring, to let the JIT settle.
+   */
+  private static final int WARMUP_ITERATIONS = 200_000;
+
+  /**
+   * Number of timed iterations per thread.
+   */
+  private static final int MEASURED_ITERATIONS = 2_000_000;
+
+  /**
+   * Side length of the area points are drawn from. Matches the largest board.
+   */
+  private static final int AREA = 42;
+
+  private MPointBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int maxThreads = args.length > 0
+        ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    System.out.println("threads\tops/sec\tspeedup");
+    double singleThreaded = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      double opsPerSecond = run(threads);
+      if (threads == 1) {
+        singleThreaded = opsPerSecond;
+      }
+      System.out.printf("%d\t%.0f\t%.2fx%n", threads, opsPerSecond, opsPerSecond / singleThreaded);
+    }
+  }
+
+  /**
+   * Runs the benchmark on the given number of threads, returning total operations per second.
+   */
+  private static double run(int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Long>> tasks = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        int seed = i;
+        tasks.add(() -> work(seed, WARMUP_ITERATIONS));
+      }
+      consume(executor.invokeAll(tasks));
+
+      tasks.clear();
+      for (int i = 0; i < threads; i++) {
+        int seed = i;
+        tasks.add(() -> work(seed, MEASURED_ITERATIONS));
+      }
+      long start = System.nanoTime();
+      consume(executor.invokeAll(tasks));
+      long elapsed = System.nanoTime() - start;
+      return (double) threads * MEASURED_ITERATIONS / (elapsed / 1e9);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Does the given number of operations, returning a value derived from every result so the work
+   * can't be optimized away.
+   */
+  private static long work(int seed, int iterations) {
+    Cloud cloud = ExpandableCloud.create(ExpandableCloudType.CIRCLE, 3);
+    long sink = 0;
+    int x = seed * 31 + 17;
+    for (int i = 0; i < iterations; i++) {
+      // Cheap xorshift, so random number generation doesn't dominate.
+      x ^= x << 13;
+      x ^= x >>> 17;
+      x ^= x << 5;
+      int r = Math.floorMod(x, AREA);
+      int c = Math.floorMod(x >> 8, AREA);
+      MPoint p = MPoint.get(r, c).add(1, -1);
+      sink += p.row + p.col;
+      if ((i & 63) == 0) {
+        sink += cloud.translate(p).getSize();
+      }
+    }
+    return sink;
+  }
+
+  /**
+   * Waits for and discards the given results.
+   */
+  private static void consume(List<Future<Long>> results) throws Exception {
+    long sink = 0;
+    for (Future<Long> f : results) {
+      sink += f.get();
+    }
+    if (sink == 42) {
+      System.out.println();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package util.benchmark;
+
+import ai.replay.ActionLogReader;
+import ai.replay.GameReplay;
+import controller.game.GameController;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import model.unit.ability.Abilities;
+import model.unit.building.Buildings;
+import model.unit.combatant.Combatants;
+
+/**
+ * A utility class (outside of the game) that replays recorded games as fixed workloads. Unlike
+ * playing new games, a replay takes exactly the same actions every run, so it measures the game
+ * engine alone, on the same work every time. Reports games and turns per second for each given
+ * action log (see {@link ai.replay.ActionLogWriter}).
+ *
+ * <p>Args: [action log filepath]...
+ */
+public final class ReplayBenchmark {
+
+  /**
+   * Number of untimed replays of each log before measuring, to let the JIT settle.
+   */
+  private static final int WARMUP_REPLAYS = 3;
+
+  /**
+   * Number of timed replays of each log.
+   */
+  private static final int MEASURED_REPLAYS = 10;
+
+  private ReplayBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    // Force unit, building, spell loading, so it isn't timed.
+    Combatants.getCombatantsForAge(1);
+    Buildings.getBuildingsForLevel(1);
+    Abilities.getAbilitiesForAge(1);
+
+    System.out.println("log\tturns\tgames/sec\tturns/sec");
+    for (String logFilepath : args) {
+      byte[] log = Files.readAllBytes(Paths.get(logFilepath));
+      for (int i = 0; i < WARMUP_REPLAYS; i++) {
+        replay(log);
+      }
+      long turns = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < MEASURED_REPLAYS; i++) {
+        turns += replay(log);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf(
+          "%s\t%d\t%.2f\t%.0f%n",
+          logFilepath, turns / MEASURED_REPLAYS, MEASURED_REPLAYS / seconds, turns / seconds);
+    }
+  }
+
+  /**
+   * Replays the given log on the calling thread, returning the number of turns played.
+   */
+  private static long replay(byte[] log) {
+    GameController controller =
+        GameReplay.load(new ActionLogReader(new ByteArrayInputStream(log)));
+    return controller.runOn(Runnable::run).join().game.getTurn();
+  }
+}
@@ -0,0 +1,100 @@
+package util.benchmark;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.game.Game.FogOfWar;
+import model.unit.ability.Abilities;
+import model.unit.building.Buildings;
+import model.unit.combatant.Combatants;
+
+/**
+ * A utility class (outside of the game) that measures how fast whole games simulate headless,
+ * with no view attached - the rate that bounds training and tournaments. Plays default delegating
+ * AIs against each other on the given board, on the given number of threads (default: available
+ * processors), and reports games and turns per second.
+ *
+ * <p>Args: [games] [threads] [board filename].
+ */
+public final class SimulationBenchmark {
+
+  /**
+   * Number of untimed games per thread before measuring, to let the JIT settle.
+   */
+  private static final int WARMUP_GAMES_PER_THREAD = 2;
+
+  /**
+   * Number of timed games, if not given.
+   */
+  private static final int DEFAULT_MEASURED_GAMES = 20;
+
+  /**
+   * Board to play on, if not given.
+   */
+  private static final String DEFAULT_BOARD_FILENAME = "Backyard.csv";
+
+  private SimulationBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEASURED_GAMES;
+    int threads = args.length > 1
+        ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    String boardFilename = args.length > 2 ? args[2] : DEFAULT_BOARD_FILENAME;
+
+    // Force unit, building, spell loading, so it isn't timed.
+    Combatants.getCombatantsForAge(1);
+    Buildings.getBuildingsForLevel(1);
+    Abilities.getAbilitiesForAge(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      run(boardFilename, threads * WARMUP_GAMES_PER_THREAD, executor);
+      long start = System.nanoTime();
+      long turns = run(boardFilename, games, executor);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println("board\tthreads\tgames\tgames/sec\tturns/sec");
+      System.out.printf(
+          "%s\t%d\t%d\t%.2f\t%.0f%n",
+          boardFilename, threads, games, games / seconds, turns / seconds);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Plays the given number of games on the given board on the given executor, waiting for all of
+   * them to finish. Game i is seeded with i, so every run plays the same games. Returns the total
+   * number of turns played.
+   */
+  static long run(String boardFilename, int games, ExecutorService executor) {
+    List<CompletableFuture<GameController>> futures = new ArrayList<>();
+    for (int i = 0; i < games; i++) {
+      futures.add(
+          GameController.loadHeadless(
+                  "game/boards/" + boardFilename,
+                  Arrays.asList(
+                      new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                      new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+                  FogOfWar.REGULAR,
+                  1,
+                  i)
+              .runOn(executor));
+    }
+    long turns = 0;
+    for (CompletableFuture<GameController> f : futures) {
+      turns += f.join().game.getTurn();
+    }
+    return turns;
+  }
+}
@@ -3,6 +3,7 @@ package view.gui;
 import ai.AIController;
 import ai.delegating.DelegatingAIControllers;
 import ai.dummy.FullRandomAIController;
+import ai.search.SearchAIController;
 import controller.game.BoardReader;
 import model.board.Board;
 import model.board.Terrain;
@@ -127,6 +128,7 @@ final class NewGameSelector {
         FullRandomAIController.FULL_RANDOM_AI_TYPE,
         // DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE,
         DelegatingAIControllers.DELEGATING_RANDOM_AI_TYPE,
+        SearchAIController.SEARCH_DEFAULT_AI_TYPE,
         AIController.PROVIDED_AI_TYPE
     };
     private final List<JComboBox<String>> playerTypeSelectorsList;
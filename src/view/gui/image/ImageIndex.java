@@ -464,12 +464,8 @@ public final class ImageIndex {
   public static void trace(Collection<Tile> tiles, GamePanel gp, Graphics2D g2d) {
     for (Tile t : tiles) {
       for (Direction d : Direction.values()) {
-        boolean paint = true;
-        if (t.board.isOnBoard(t.row + d.dRow(), t.col + d.dCol())) {
-          Tile n = t.board.getTileAt(t.row + d.dRow(), t.col + d.dCol());
-          paint = !tiles.contains(n);
-        }
-        if (paint) drawLine(g2d, gp, t, d);
+        Tile n = t.board.getTileInDirection(t, d);
+        if (n == null || !tiles.contains(n)) drawLine(g2d, gp, t, d);
       }
     }
   }
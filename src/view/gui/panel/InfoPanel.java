@@ -28,6 +28,7 @@ import model.unit.building.StartOfTurnEffectBuilding;
 import model.unit.building.SummonerBuilding;
 import model.unit.combatant.Combat;
 import model.unit.combatant.Combat.CombatantClassPair;
+import model.unit.combatant.CombatProjection;
 import model.unit.combatant.Combatant;
 import model.unit.combatant.Combatant.CombatantClass;
 import model.unit.commander.Commander;
@@ -116,6 +117,11 @@ public final class InfoPanel extends JPanel {
    */
   private Combat combat;
 
+  /**
+   * The projection of combat, computed once when combat is set rather than on every repaint.
+   */
+  private CombatProjection combatProjection;
+
   /**
    * True iff the player is currently looking at a menu, false otherwise (looking at board).
    */
@@ -208,6 +214,7 @@ public final class InfoPanel extends JPanel {
     ability = null;
     tile = null;
     combat = c;
+    combatProjection = c == null ? null : c.getProjection();
     isMenu = true;
     repaint();
   }
@@ -239,6 +246,7 @@ public final class InfoPanel extends JPanel {
     Ability ability;
     Tile tile;
     Combat combat;
+    CombatProjection combatProjection;
 
     // Assign local copies to avoid resetting to null during painting.
     synchronized (this) {
@@ -248,6 +256,7 @@ public final class InfoPanel extends JPanel {
       ability = this.ability;
       tile = this.tile;
       combat = this.combat;
+      combatProjection = this.combatProjection;
     }
 
     if (unit != null && modifierDescription != null) {
@@ -261,7 +270,7 @@ public final class InfoPanel extends JPanel {
     } else if (tile != null) {
       drawTerrain(g2d, frame, tile);
     } else if (combat != null) {
-      drawCombat(g2d, combat);
+      drawCombat(g2d, combat, combatProjection);
     }
   }
 
@@ -593,7 +602,7 @@ public final class InfoPanel extends JPanel {
   /**
    * Draws combat on this info panel.
    */
-  private static void drawCombat(Graphics2D g2d, Combat combat) {
+  private static void drawCombat(Graphics2D g2d, Combat combat, CombatProjection projection) {
     int x = XMARGIN;
     int y = YMARGIN;
     final int xInc = 225;
@@ -672,18 +681,21 @@ public final class InfoPanel extends JPanel {
     g2d.drawString(
         String.format(
             "%d - %d  (%d%% - %d%%)",
-            combat.getProjectedMinAttack(),
-            combat.getProjectedMaxAttack(),
-            (int) (combat.getProjectedMinAttackPercent() * 100),
-            (int) (combat.getProjectedMaxAttackPercent() * 100)),
+            projection.projectedMinAttack,
+            projection.projectedMaxAttack,
+            (int) (projection.projectedMinAttackPercent * 100),
+            (int) (projection.projectedMaxAttackPercent * 100)),
         x,
         y);
 
     y += smallFontSizeWithMargin;
     String willCounterAttack;
-    if (combat.defenderCouldCounterAttack()) {
+    if (projection.defenderCouldCounterAttack) {
       willCounterAttack =
-          combat.getProjectedMaxAttack() >= combat.defender.getHealth() ? "Maybe" : "Yes";
+          projection.chanceDefenderDies > 0
+              ? String.format(
+                  "Maybe (%d%%)", Math.round(projection.getOutcome().chanceCounterAttack * 100))
+              : "Yes";
     } else {
       willCounterAttack = "No";
     }
@@ -693,10 +705,10 @@ public final class InfoPanel extends JPanel {
     g2d.drawString(
         String.format(
             "%d - %d  (%d%% - %d%%)",
-            combat.getProjectedMinCounterAttack(),
-            combat.getProjectedMaxCounterAttack(),
-            (int) (combat.getProjectedMinCounterAttackPercent() * 100),
-            (int) (combat.getProjectedMaxCounterAttackPercent() * 100)),
+            projection.projectedMinCounterAttack,
+            projection.projectedMaxCounterAttack,
+            (int) (projection.projectedMinCounterAttackPercent * 100),
+            (int) (projection.projectedMaxCounterAttackPercent * 100)),
         x,
         y);
   }
@@ -0,0 +1,310 @@
+package ai.delegating;
+
+import static helpers.Asserts.assertThat;
+
+import ai.AIAction;
+import ai.AIController;
+import ai.delegates.ByNameDelegate;
+import ai.delegates.Delegate;
+import ai.replay.ActionLogWriter;
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class DelegatingAIControllerTest {
+
+  /**
+   * An AI controller that plays as the given delegating controller, but before each action checks
+   * that the scores it kept match the scores of a copy of it that computed everything from scratch,
+   * scoring by feature matrix or not as given.
+   */
+  private static final class RescoreCheckingAIController implements AIController {
+    private final DelegatingAIController controller;
+    private final boolean freshFeatureScoring;
+    private int checkedActions;
+
+    private RescoreCheckingAIController(
+        DelegatingAIController controller, boolean freshFeatureScoring) {
+      this.controller = controller;
+      this.freshFeatureScoring = freshFeatureScoring;
+    }
+
+    private RescoreCheckingAIController(DelegatingAIController controller) {
+      this(controller, controller.isFeatureScoring());
+    }
+
+    @Override
+    public void turnStart(Player player) {
+      controller.turnStart(player);
+    }
+
+    @Override
+    public AIAction getNextAction(Player player) {
+      if (!player.game.isGameOver()) {
+        SortedMap<AIAction, Double> kept = controller.getAllScores();
+        DelegatingAIController fresh =
+            DelegatingAIControllerFactory.copyOf(controller)
+                .setFeatureScoring(freshFeatureScoring)
+                .build();
+        fresh.turnStart(player);
+        SortedMap<AIAction, Double> recomputed = fresh.getAllScores();
+        assertThat(kept.keySet()).containsExactlyElementsIn(recomputed.keySet());
+        for (Map.Entry<AIAction, Double> e : recomputed.entrySet()) {
+          assertThat(isCloseTo(kept.get(e.getKey()), e.getValue())).isTrue();
+        }
+        checkedActions++;
+      }
+      return controller.getNextAction(player);
+    }
+
+    @Override
+    public void actionFailed(Exception e, AIAction action) {
+      controller.actionFailed(e, action);
+    }
+
+    @Override
+    public void actionExecuted(AIAction action) {
+      controller.actionExecuted(action);
+    }
+
+    @Override
+    public String getConfigString() {
+      return controller.getConfigString();
+    }
+  }
+
+  /**
+   * Returns true iff the given scores are equal up to floating point rounding, or both NaN.
+   */
+  private static boolean isCloseTo(Double score, Double expected) {
+    return score.equals(expected) || Math.abs(score - expected) < 1e-9;
+  }
+
+  /**
+   * Plays a headless game on the given board with the given seed between two controllers with
+   * random weights, checking the kept scores before every action.
+   */
+  private static void playCheckingScores(String boardFilename, long seed) {
+    Random random = new Random(seed);
+    playCheckingScores(
+        boardFilename,
+        seed,
+        new RescoreCheckingAIController(
+            DelegatingAIControllers.randomWeightsDelegatingAIController(random)),
+        new RescoreCheckingAIController(
+            DelegatingAIControllers.randomWeightsDelegatingAIController(random)));
+  }
+
+  /**
+   * Plays a headless game on the given board with the given seed between the given checking
+   * controllers, and checks that both of them checked some actions.
+   */
+  private static void playCheckingScores(
+      String boardFilename,
+      long seed,
+      RescoreCheckingAIController first,
+      RescoreCheckingAIController second) {
+    GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + boardFilename,
+            Arrays.asList(
+                new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, first),
+                new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, second)),
+            FogOfWar.REGULAR,
+            1,
+            seed)
+        .runOn(Runnable::run)
+        .join();
+    assertThat(first.checkedActions > 0 && second.checkedActions > 0).isTrue();
+  }
+
+  /**
+   * Returns a copy of the given controller with feature scoring on or off as given, whose by-name
+   * delegates only know every other name they knew, with new subweights and fallback subweight
+   * drawn from the given random. The names they no longer know are scored by the fallback.
+   */
+  private static DelegatingAIController withUnknownNames(
+      DelegatingAIController controller, boolean featureScoring, Random random) {
+    DelegatingAIControllerFactory factory =
+        DelegatingAIControllerFactory.newBuilder().setFeatureScoring(featureScoring);
+    for (Delegate delegate : controller.getDelegates()) {
+      if (!(delegate instanceof ByNameDelegate)) {
+        factory.addDelegate(delegate.copy());
+        continue;
+      }
+      List<String> names = delegate.getSubweightsHeaders();
+      ByNameDelegate byName;
+      try {
+        byName = (ByNameDelegate) delegate.getClass().getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+      double[] subweights = new double[(names.size() + 1) / 2];
+      for (int i = 0; i < subweights.length; i++) {
+        byName.withNameToSubweightIndex(names.get(2 * i), i);
+        subweights[i] = 0.5 + random.nextDouble();
+      }
+      factory.addDelegate(
+          byName
+              .withWeight(delegate.getWeight())
+              .withSubweights(subweights)
+              .withFallbackSubweight(0.5 + random.nextDouble()));
+    }
+    return factory.build();
+  }
+
+  @Test
+  public void featureScoresMatchDelegateScores() {
+    // One player scores by feature matrix and checks against delegate scores, the other the
+    // reverse.
+    for (long seed : new long[] {1, 2}) {
+      Random random = new Random(seed);
+      DelegatingAIController first =
+          withUnknownNames(
+              DelegatingAIControllers.randomWeightsDelegatingAIController(random), true, random);
+      DelegatingAIController second =
+          withUnknownNames(
+              DelegatingAIControllers.randomWeightsDelegatingAIController(random), false, random);
+      playCheckingScores(
+          "Cage.csv",
+          seed,
+          new RescoreCheckingAIController(first, false),
+          new RescoreCheckingAIController(second, true));
+    }
+  }
+
+  @Test
+  public void keptScoresMatchScoringFromScratch() {
+    playCheckingScores("Crater.csv", 2);
+  }
+
+  /**
+   * Puts a copy of the combatant with the given name on the given tile for the given player, with
+   * its vision applied and ready to act.
+   */
+  private static Combatant place(Player player, String name, int row, int col) {
+    Combatant template =
+        Combatants.getCombatants().stream().filter(c -> c.name.equals(name)).findAny().get();
+    player.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(player));
+    Combatant combatant =
+        (Combatant) template.clone(player, player.game.board.getTileAt(row, col));
+    player.refreshVisionCloud(combatant);
+    combatant.refreshForTurn();
+    return combatant;
+  }
+
+  @Test
+  public void attacksAreRescoredWhenEnemyVisionOfAttackerChanges() {
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.REGULAR,
+            1,
+            1);
+    Player player = gameController.game.getRemainingPlayers().get(0);
+    Player enemy = gameController.game.getRemainingPlayers().get(1);
+    // The enemy apprentice can counterattack the attacker, but can't see it without the brawler.
+    // The scout lets the player see the enemy apprentice.
+    Combatant attacker = place(player, "Apprentice", 4, 4);
+    place(player, "Scout", 2, 3);
+    Combatant apprentice = place(enemy, "Apprentice", 1, 4);
+    Combatant brawler = place(enemy, "Brawler", 5, 4);
+    assertThat(enemy.canSee(attacker)).isTrue();
+
+    DelegatingAIController controller =
+        DelegatingAIControllers.randomWeightsDelegatingAIController(new Random(1));
+    controller.turnStart(player);
+    AIAction attack = AIAction.attack(player, attacker, apprentice.getLocation());
+    double keptBefore = controller.getAllScores().get(attack);
+
+    brawler.changeHealth(-brawler.getHealth(), brawler);
+    assertThat(enemy.canSee(attacker)).isFalse();
+    controller.actionExecuted(attack);
+
+    DelegatingAIController fresh = DelegatingAIControllerFactory.copyOf(controller).build();
+    fresh.turnStart(player);
+    double recomputed = fresh.getAllScores().get(attack);
+    assertThat(isCloseTo(keptBefore, recomputed)).isFalse();
+    assertThat(isCloseTo(controller.getAllScores().get(attack), recomputed)).isTrue();
+  }
+
+  @Test
+  public void keptScoresMatchScoringFromScratchOnOtherBoardsAndSeeds() {
+    playCheckingScores("Cage.csv", 10);
+    playCheckingScores("Cage.csv", 3);
+    playCheckingScores("Backyard.csv", 7);
+    playCheckingScores("Crater.csv", 11);
+  }
+
+  /**
+   * Plays a headless game on the given board with the given seed between two controllers with
+   * random weights drawn from the seed, scoring in parallel or not, and returns the action log it
+   * recorded.
+   */
+  private static String playAndRecord(String boardFilename, long seed, boolean parallelScoring)
+      throws IOException {
+    Random random = new Random(seed);
+    DelegatingAIController first =
+        DelegatingAIControllerFactory.copyOf(
+                DelegatingAIControllers.randomWeightsDelegatingAIController(random))
+            .setParallelScoring(parallelScoring)
+            .build();
+    DelegatingAIController second =
+        DelegatingAIControllerFactory.copyOf(
+                DelegatingAIControllers.randomWeightsDelegatingAIController(random))
+            .setParallelScoring(parallelScoring)
+            .build();
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + boardFilename,
+            Arrays.asList(
+                new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, first),
+                new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, second)),
+            FogOfWar.REGULAR,
+            1,
+            seed);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ActionLogWriter actionLog = new ActionLogWriter(bytes, gameController);
+    gameController.setActionLog(actionLog);
+    gameController.runOn(Runnable::run).join();
+    actionLog.close();
+    return Arrays.toString(bytes.toByteArray());
+  }
+
+  @Test
+  public void parallelScoringRecordsSameActionsForSameSeed() throws IOException {
+    for (long seed = 1; seed <= 3; seed++) {
+      String expected = playAndRecord("Cage.csv", seed, true);
+      for (int i = 0; i < 3; i++) {
+        assertThat(playAndRecord("Cage.csv", seed, true)).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void parallelScoringRecordsSameActionsAsSequentialScoring() throws IOException {
+    for (long seed = 1; seed <= 3; seed++) {
+      assertThat(playAndRecord("Cage.csv", seed, true))
+          .isEqualTo(playAndRecord("Cage.csv", seed, false));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package ai.delegating;
+
+import static helpers.Asserts.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class IndexedMaxHeapTest {
+
+  private static final class Node extends IndexedMaxHeap.Element {
+    private double priority;
+    private final int key;
+
+    private Node(double priority) {
+      this(priority, 0);
+    }
+
+    private Node(double priority, int key) {
+      this.priority = priority;
+      this.key = key;
+    }
+
+    @Override
+    double getPriority() {
+      return priority;
+    }
+  }
+
+  @Test
+  public void peekReturnsHighestPriority() {
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>();
+    assertThat(heap.peek()).isNull();
+
+    Node low = new Node(1);
+    Node high = new Node(5);
+    Node mid = new Node(3);
+    heap.add(low);
+    heap.add(high);
+    heap.add(mid);
+    assertThat(heap.size()).isEqualTo(3);
+    assertThat(heap.peek()).isEqualTo(high);
+
+    heap.remove(high);
+    assertThat(heap.peek()).isEqualTo(mid);
+    assertThat(high.isInHeap()).isFalse();
+  }
+
+  @Test
+  public void tiesBreakByInsertionOrder() {
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>();
+    Node first = new Node(2);
+    Node second = new Node(2);
+    heap.add(new Node(1));
+    heap.add(first);
+    heap.add(second);
+    assertThat(heap.peek()).isEqualTo(first);
+
+    heap.remove(first);
+    assertThat(heap.peek()).isEqualTo(second);
+  }
+
+  @Test
+  public void tiesBreakByComparatorBeforeInsertionOrder() {
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>(Comparator.comparingInt(n -> n.key));
+    Node first = new Node(2, 3);
+    Node second = new Node(2, 1);
+    Node third = new Node(2, 1);
+    heap.add(first);
+    heap.add(second);
+    heap.add(third);
+    heap.add(new Node(1, 0));
+    assertThat(heap.peek()).isEqualTo(second);
+
+    heap.remove(second);
+    assertThat(heap.peek()).isEqualTo(third);
+    heap.remove(third);
+    assertThat(heap.peek()).isEqualTo(first);
+  }
+
+  @Test
+  public void updateRepositionsChangedElements() {
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>();
+    Node a = new Node(Double.POSITIVE_INFINITY);
+    Node b = new Node(4);
+    heap.add(a);
+    heap.add(b);
+    assertThat(heap.peek()).isEqualTo(a);
+
+    a.priority = 1;
+    heap.update(a);
+    assertThat(heap.peek()).isEqualTo(b);
+  }
+
+  @Test
+  public void matchesSortedOrderUnderRandomOperations() {
+    Random random = new Random(17);
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>();
+    List<Node> present = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int op = random.nextInt(3);
+      if (op == 0 || present.isEmpty()) {
+        Node n = new Node(random.nextInt(50));
+        heap.add(n);
+        present.add(n);
+      } else if (op == 1) {
+        heap.remove(present.remove(random.nextInt(present.size())));
+      } else {
+        Node n = present.get(random.nextInt(present.size()));
+        n.priority = random.nextInt(50);
+        heap.update(n);
+      }
+
+      // Scanning in insertion order and keeping the first strict max gives the expected top.
+      Node expected = null;
+      for (Node n : present) {
+        if (expected == null || n.priority > expected.priority) {
+          expected = n;
+        }
+      }
+      assertThat(heap.size()).isEqualTo(present.size());
+      assertThat(heap.peek()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void addingTwiceThrows() {
+    IndexedMaxHeap<Node> heap = new IndexedMaxHeap<>();
+    Node n = new Node(1);
+    heap.add(n);
+    assertThat((Runnable) () -> heap.add(n))
+        .throwsExceptionThat(RuntimeException.class)
+        .hasMessageThat()
+        .isEqualTo("Can't add " + n + ", already in a heap");
+  }
+}
@@ -0,0 +1,197 @@
+package ai.search;
+
+import static helpers.Asserts.assertThat;
+
+import ai.AIAction;
+import ai.AIAction.AIActionType;
+import ai.AIController;
+import ai.delegating.DelegatingAIController;
+import ai.delegating.DelegatingAIControllers;
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.Arrays;
+
+import model.board.Tile;
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.Unit;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class SearchAIControllerTest {
+
+  /**
+   * A game on Backyard without fog of war, whose first player is played by a search controller with
+   * the given budgets. The first player has a brawler next to an enemy scout with 1 health left, so
+   * attacking the scout is a sure kill.
+   */
+  private static final class Arena {
+    private final DelegatingAIController delegatingController;
+    private final SearchAIController controller;
+    private final Player player;
+    private final Combatant brawler;
+    private final Tile scoutTile;
+
+    private Arena(long turnBudgetMillis, long actionBudgetMillis) {
+      delegatingController = DelegatingAIControllers.defaultDelegatingAIController();
+      controller =
+          new SearchAIController(
+              delegatingController,
+              turnBudgetMillis,
+              actionBudgetMillis,
+              SearchAIController.DEFAULT_MAX_DEPTH,
+              SearchAIController.DEFAULT_CANDIDATE_COUNT,
+              SearchAIController.DEFAULT_SEARCH_WEIGHT);
+      GameController gameController =
+          GameController.loadHeadless(
+              BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+              Arrays.asList(
+                  new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, controller),
+                  new CreatePlayerOptions(DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE)),
+              FogOfWar.NONE,
+              1,
+              1);
+      player = gameController.game.getRemainingPlayers().get(0);
+      Player enemy = gameController.game.getRemainingPlayers().get(1);
+      brawler = place(player, "Brawler", 5, 4);
+      Combatant scout = place(enemy, "Scout", 5, 5);
+      scout.changeHealth(1 - scout.getHealth(), scout);
+      scoutTile = scout.getLocation();
+      for (Player p : Arrays.asList(player, enemy)) {
+        p.recalculateState();
+        p.getUnits().forEach(Unit::refreshForTurn);
+      }
+    }
+
+    /**
+     * Puts a copy of the combatant with the given name on the given tile for the given player.
+     */
+    private static Combatant place(Player player, String name, int row, int col) {
+      Combatant template =
+          Combatants.getCombatants().stream().filter(c -> c.name.equals(name)).findAny().get();
+      player.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(player));
+      Combatant combatant =
+          (Combatant) template.clone(player, player.game.board.getTileAt(row, col));
+      player.refreshVisionCloud(combatant);
+      return combatant;
+    }
+
+    /**
+     * Returns true iff the given action is one of the delegating controller's current candidates,
+     * all of which are legal in the current game state.
+     */
+    private boolean isCandidate(AIAction action) {
+      return delegatingController
+          .getBestActions(player, SearchAIController.DEFAULT_CANDIDATE_COUNT)
+          .containsKey(action);
+    }
+  }
+
+  /**
+   * A controller that plays a search controller's actions, counting the ones that were executed and
+   * the ones that failed.
+   */
+  private static final class CountingAIController implements AIController {
+    private final SearchAIController controller;
+    private int executedActions;
+    private int failedActions;
+
+    private CountingAIController(SearchAIController controller) {
+      this.controller = controller;
+    }
+
+    @Override
+    public void turnStart(Player player) {
+      controller.turnStart(player);
+    }
+
+    @Override
+    public AIAction getNextAction(Player player) {
+      return controller.getNextAction(player);
+    }
+
+    @Override
+    public void actionFailed(Exception e, AIAction action) {
+      failedActions++;
+      controller.actionFailed(e, action);
+    }
+
+    @Override
+    public void actionExecuted(AIAction action) {
+      executedActions++;
+      controller.actionExecuted(action);
+    }
+
+    @Override
+    public String getConfigString() {
+      return controller.getConfigString();
+    }
+  }
+
+  @Test
+  public void everyActionOfAGameIsLegal() {
+    CountingAIController counting =
+        new CountingAIController(
+            new SearchAIController(
+                DelegatingAIControllers.defaultDelegatingAIController(),
+                100,
+                20,
+                SearchAIController.DEFAULT_MAX_DEPTH,
+                SearchAIController.DEFAULT_CANDIDATE_COUNT,
+                SearchAIController.DEFAULT_SEARCH_WEIGHT));
+    GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(AIController.PROVIDED_AI_TYPE, counting),
+                new CreatePlayerOptions(DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.REGULAR,
+            1,
+            1)
+        .runOn(Runnable::run)
+        .join();
+
+    assertThat(counting.executedActions > 0).isTrue();
+    assertThat(counting.failedActions).isEqualTo(0);
+  }
+
+  @Test
+  public void generousBudgetKillsAdjacentEnemy() {
+    Arena arena = new Arena(10_000, 5_000);
+    arena.controller.turnStart(arena.player);
+    AIAction action = arena.controller.getNextAction(arena.player);
+
+    assertThat(action).isNonNull();
+    assertThat(arena.isCandidate(action)).isTrue();
+    assertThat(action.actionType).isEqualTo(AIActionType.ATTACK);
+    assertThat(action.actingUnit).isSameInstanceAs(arena.brawler);
+    assertThat(action.targetedTile).isSameInstanceAs(arena.scoutTile);
+    assertThat(arena.controller.getLastSearchDepth())
+        .isEqualTo(SearchAIController.DEFAULT_MAX_DEPTH);
+  }
+
+  @Test
+  public void spentBudgetReturnsBestDelegateActionWithoutThrowing() throws InterruptedException {
+    // Budgets must be positive, so the smallest one is spent before asking for an action.
+    Arena arena = new Arena(1, 1);
+    arena.controller.turnStart(arena.player);
+    Thread.sleep(5);
+    AIAction action = arena.controller.getNextAction(arena.player);
+    AIAction expected =
+        arena
+            .delegatingController
+            .getBestActions(arena.player, 1)
+            .keySet()
+            .iterator()
+            .next();
+
+    assertThat(action).isSameInstanceAs(expected);
+    assertThat(arena.isCandidate(action)).isTrue();
+    assertThat(arena.controller.getLastSearchDepth()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,149 @@
+package ai.search;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+import static helpers.Asserts.assertThat;
+
+import ai.AIAction;
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import model.board.MovementCloud;
+import model.board.Tile;
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.Unit;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+import model.unit.commander.Commander;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class SearchStateTest {
+
+  /**
+   * Loads a game without starting it, and returns its first player, given a combatant next to its
+   * commander and enough mana to summon another, with all of its units ready to act.
+   */
+  private static Player createPlayer() {
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.NONE,
+            1,
+            1);
+    Player player = gameController.game.getRemainingPlayers().get(0);
+    Commander commander = player.getCommander();
+    Combatant template = Combatants.getCombatantsForAge(1).get(0);
+    commander.addMana(2 * template.getManaCostWithScalingAndDiscountsForPlayer(player));
+    Tile location = gameController.game.board.getSummonCloud(commander, template).get(0);
+    player.refreshVisionCloud(template.clone(player, location));
+    player.recalculateState();
+    player.getUnits().forEach(Unit::refreshForTurn);
+    return player;
+  }
+
+  /**
+   * Returns the combatant of the given player from {@link #createPlayer()}.
+   */
+  private static Combatant getCombatant(Player player) {
+    return player.getCombatants().iterator().next();
+  }
+
+  /**
+   * Returns an action of the given player moving the given unit to the first free tile it can
+   * reach, other than the given tiles.
+   */
+  private static AIAction move(Player player, MovingUnit unit, Tile... excluded) {
+    MovementCloud cloud = player.game.board.getMovementCloud(unit, false);
+    List<Tile> excludedTiles = Arrays.asList(excluded);
+    Tile target =
+        cloud
+            .stream()
+            .filter(t -> !t.isOccupied() && !excludedTiles.contains(t))
+            .findFirst()
+            .get();
+    return AIAction.moveUnit(player, unit, target, cloud.getPath(target));
+  }
+
+  /**
+   * Returns an action of the given player summoning another of its combatant on the first free tile
+   * its commander can summon it on, other than the given tiles.
+   */
+  private static AIAction summon(Player player, Tile... excluded) {
+    List<Tile> excludedTiles = Arrays.asList(excluded);
+    List<Tile> summonCloud =
+        player
+            .game
+            .board
+            .getSummonCloud(player.getCommander(), getCombatant(player))
+            .stream()
+            .filter(t -> !excludedTiles.contains(t))
+            .collect(Collectors.toList());
+    return AIAction.summonCombatantOrBuildBuilding(
+        player, player.getCommander(), summonCloud.get(0), getCombatant(player));
+  }
+
+  @Test
+  public void undoRestoresHashAndEvaluation() {
+    Player player = createPlayer();
+    Combatant combatant = getCombatant(player);
+    SearchState state = new SearchState(player);
+    long hash = state.getHash();
+    double evaluation = state.evaluate();
+    AIAction move = move(player, combatant);
+    AIAction summon = summon(player, move.targetedTile);
+
+    int mark = state.mark();
+    state.apply(move);
+    state.apply(summon);
+    assertThat(state.getHash()).isNotEqualTo(hash);
+    assertThat(state.evaluate()).isNotEqualTo(evaluation);
+
+    state.undo(mark);
+    assertThat(state.getHash()).isEqualTo(hash);
+    assertThat(state.evaluate()).isEqualTo(evaluation);
+    assertThat(state.getLocation(state.indexOf(combatant))).isEqualTo(combatant.getLocation());
+  }
+
+  @Test
+  public void copyHasSameHash() {
+    Player player = createPlayer();
+    SearchState state = new SearchState(player);
+    assertThat(state.copy().getHash()).isEqualTo(state.getHash());
+
+    state.apply(move(player, player.getCommander()));
+    SearchState copy = state.copy();
+    assertThat(copy.getHash()).isEqualTo(state.getHash());
+    assertThat(copy.evaluate()).isEqualTo(state.evaluate());
+  }
+
+  @Test
+  public void independentMovesInEitherOrderReachSameHash() {
+    Player player = createPlayer();
+    AIAction moveCommander = move(player, player.getCommander());
+    AIAction moveCombatant = move(player, getCombatant(player), moveCommander.targetedTile);
+
+    SearchState commanderFirst = new SearchState(player);
+    long initialHash = commanderFirst.getHash();
+    commanderFirst.apply(moveCommander);
+    commanderFirst.apply(moveCombatant);
+
+    SearchState combatantFirst = new SearchState(player);
+    combatantFirst.apply(moveCombatant);
+    combatantFirst.apply(moveCommander);
+
+    assertThat(commanderFirst.getHash()).isNotEqualTo(initialHash);
+    assertThat(combatantFirst.getHash()).isEqualTo(commanderFirst.getHash());
+  }
+}
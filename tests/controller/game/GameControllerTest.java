@@ -0,0 +1,46 @@
+package controller.game;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+import static helpers.Asserts.assertThat;
+
+import ai.replay.ActionLogWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import model.game.Game.FogOfWar;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class GameControllerTest {
+
+  /**
+   * Plays a headless game between two default delegating AIs with the given seed, and returns the
+   * action log it recorded.
+   */
+  private static String playAndRecord(long seed) throws IOException {
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.REGULAR,
+            1,
+            seed);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ActionLogWriter actionLog = new ActionLogWriter(bytes, gameController);
+    gameController.setActionLog(actionLog);
+    gameController.runOn(Runnable::run).join();
+    actionLog.close();
+    return Arrays.toString(bytes.toByteArray());
+  }
+
+  @Test
+  public void sameSeedRecordsSameActions() throws IOException {
+    assertThat(playAndRecord(5)).isEqualTo(playAndRecord(5));
+  }
+}
@@ -0,0 +1,97 @@
+package model.board;
+
+import static helpers.Asserts.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import model.util.MPoint;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BoardTemplateTest {
+
+  private static final Terrain G = Terrain.GRASS;
+  private static final Terrain M = Terrain.MOUNTAIN;
+  private static final Terrain S = Terrain.SEA;
+
+  private static BoardTemplate create(Terrain[][] terrain) {
+    int[][] seaTerrainIndices = new int[terrain.length][];
+    for (int r = 0; r < terrain.length; r++) {
+      seaTerrainIndices[r] = new int[terrain[r].length];
+      for (int c = 0; c < terrain[r].length; c++) {
+        seaTerrainIndices[r][c] = terrain[r][c] == S ? r + c : BoardTemplate.NO_SEA_TERRAIN_INDEX;
+      }
+    }
+    return BoardTemplate.create(
+        "test", terrain, seaTerrainIndices, Arrays.asList(MPoint.get(1, 2), MPoint.get(0, 0)));
+  }
+
+  @Test
+  public void createStoresTilesInRowMajorOrder() {
+    BoardTemplate template = create(new Terrain[][]{{G, M, S}, {S, G, G}});
+    assertThat(template.getHeight()).isEqualTo(2);
+    assertThat(template.getWidth()).isEqualTo(3);
+    assertThat(template.getTerrain(1)).isEqualTo(M);
+    assertThat(template.getTerrain(3)).isEqualTo(S);
+    assertThat(template.getSeaTerrainIndex(2)).isEqualTo(2);
+    assertThat(template.getSeaTerrainIndex(3)).isEqualTo(1);
+    assertThat(template.getSeaTerrainIndex(0)).isEqualTo(BoardTemplate.NO_SEA_TERRAIN_INDEX);
+  }
+
+  @Test
+  public void createKeepsCommanderStartLocationOrder() {
+    BoardTemplate template = create(new Terrain[][]{{G, G, G}, {G, G, G}});
+    assertThat(template.getCommanderStartLocations())
+        .containsExactly(MPoint.get(1, 2), MPoint.get(0, 0));
+    assertThat(template.getCommanderStartLocationIndex(0)).isEqualTo(5);
+  }
+
+  @Test
+  public void mountainRangesDontConnectDiagonally() {
+    BoardTemplate template = create(new Terrain[][]{{M, M, G}, {G, G, M}, {G, M, M}});
+    assertThat(template.getMountainRangeCount()).isEqualTo(2);
+    assertThat(template.getMountainRangeId(0)).isEqualTo(0);
+    assertThat(template.getMountainRangeId(1)).isEqualTo(0);
+    assertThat(template.getMountainRangeId(5)).isEqualTo(1);
+    assertThat(template.getMountainRangeId(2)).isEqualTo(BoardTemplate.NO_MOUNTAIN_RANGE);
+    assertThat(Arrays.toString(template.getMountainRange(1))).isEqualTo("[5, 7, 8]");
+  }
+
+  @Test
+  public void createThrowsForJaggedTerrain() {
+    assertThat((Runnable) () -> create(new Terrain[][]{{G, G}, {G}}))
+        .throwsException(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void constructorThrowsForMountainWithoutRange() {
+    assertThat(
+            (Runnable)
+                () ->
+                    new BoardTemplate(
+                        "test",
+                        1,
+                        1,
+                        new byte[]{(byte) M.ordinal()},
+                        new short[]{-1},
+                        new int[0],
+                        new int[]{BoardTemplate.NO_MOUNTAIN_RANGE}))
+        .throwsException(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void constructorThrowsForOffBoardStartLocation() {
+    assertThat(
+            (Runnable)
+                () ->
+                    BoardTemplate.create(
+                        "test",
+                        new Terrain[][]{{G}},
+                        new int[][]{{-1}},
+                        Collections.singletonList(MPoint.get(0, 1))))
+        .throwsException(IllegalArgumentException.class);
+  }
+}
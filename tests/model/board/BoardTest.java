@@ -1,5 +1,24 @@
 package model.board;
 
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+import static helpers.Asserts.assertThat;
+
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import model.unit.MovingUnit;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+import model.util.MPoint;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -7,6 +26,142 @@ import org.junit.runners.JUnit4;
 @RunWith(JUnit4.class)
 public final class BoardTest {
 
+  private static final Terrain G = Terrain.GRASS;
+  private static final Terrain W = Terrain.WOODS;
+
+  /**
+   * Returns a board of the given terrain, with no sea and no commander start locations.
+   */
+  private static Board create(Terrain[][] terrain) {
+    int[][] seaTerrainIndices = new int[terrain.length][terrain[0].length];
+    for (int[] row : seaTerrainIndices) {
+      Arrays.fill(row, BoardTemplate.NO_SEA_TERRAIN_INDEX);
+    }
+    BoardTemplate template =
+        BoardTemplate.create("test", terrain, seaTerrainIndices, Collections.emptyList());
+    return new Board("test", template, Collections.emptyList());
+  }
+
+  /**
+   * Returns a board of only grass with the given size.
+   */
+  private static Board createGrass(int height, int width) {
+    Terrain[][] terrain = new Terrain[height][width];
+    for (Terrain[] row : terrain) {
+      Arrays.fill(row, G);
+    }
+    return create(terrain);
+  }
+
+  /**
+   * Returns the points of the given tiles, in order.
+   */
+  private static List<MPoint> points(List<Tile> tiles) {
+    return tiles.stream().map(Tile::getPoint).collect(Collectors.toList());
+  }
+
   @Test
   public void test() {}
+
+  @Test
+  public void getTilesInRangeIsRowMajorDiamond() {
+    Board board = createGrass(5, 5);
+    assertThat(points(board.getTilesInRange(board.getTileAt(2, 2), 0, 1)))
+        .isEqualTo(
+            Arrays.asList(
+                MPoint.get(1, 2),
+                MPoint.get(2, 1),
+                MPoint.get(2, 2),
+                MPoint.get(2, 3),
+                MPoint.get(3, 2)));
+  }
+
+  @Test
+  public void getTilesInRangeSkipsTilesCloserThanMinDistance() {
+    Board board = createGrass(5, 5);
+    assertThat(points(board.getTilesInRange(board.getTileAt(2, 2), 2, 2)))
+        .isEqualTo(
+            Arrays.asList(
+                MPoint.get(0, 2),
+                MPoint.get(1, 1),
+                MPoint.get(1, 3),
+                MPoint.get(2, 0),
+                MPoint.get(2, 4),
+                MPoint.get(3, 1),
+                MPoint.get(3, 3),
+                MPoint.get(4, 2)));
+  }
+
+  @Test
+  public void getTilesInRangeIsClippedToBoard() {
+    Board board = createGrass(3, 4);
+    assertThat(points(board.getTilesInRange(board.getTileAt(0, 0), 1, 2)))
+        .isEqualTo(
+            Arrays.asList(
+                MPoint.get(0, 1),
+                MPoint.get(0, 2),
+                MPoint.get(1, 0),
+                MPoint.get(1, 1),
+                MPoint.get(2, 0)));
+  }
+
+  @Test
+  public void getTilesWithTerrainType() {
+    Board board = create(new Terrain[][]{{G, W}, {W, G}});
+    assertThat(board.getTilesWithTerrainType(W))
+        .containsExactly(board.getTileAt(0, 1), board.getTileAt(1, 0));
+  }
+
+  @Test
+  public void getTileInDirectionIsNullOffBoard() {
+    Board board = createGrass(2, 2);
+    assertThat(board.getTileInDirection(board.getTileAt(0, 0), Direction.RIGHT))
+        .isEqualTo(board.getTileAt(0, 1));
+    assertThat(board.getTileInDirection(board.getTileAt(0, 0), Direction.UP)).isNull();
+  }
+
+  @Test
+  public void streamsAreRowMajorAndSplit() {
+    Board board = createGrass(4, 3);
+    List<Tile> iterated = new ArrayList<>();
+    board.forEach(iterated::add);
+    assertThat(iterated).hasSize(12);
+    assertThat(board.stream().collect(Collectors.toList())).isEqualTo(iterated);
+    assertThat(board.parallelStream().collect(Collectors.toList())).isEqualTo(iterated);
+    assertThat(board.spliterator().trySplit()).isNonNull();
+  }
+
+  @Test
+  public void getWholeBoardDistanceGoesAroundVisibleEnemies() {
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.NONE,
+            1,
+            1);
+    Board board = gameController.game.board;
+    Tile start = board.getTileAt(6, 1);
+    Tile end = board.getTileAt(6, 3);
+    MovingUnit commander = (MovingUnit) start.getOccupyingUnit();
+    assertThat(board.getWholeBoardDistance(commander, start, start)).isEqualTo(0);
+    assertThat(board.getWholeBoardDistance(commander, start, end)).isEqualTo(2);
+
+    // The only shortest path is through (6, 2), so an enemy there forces the commander around it.
+    Player enemy =
+        gameController
+            .game
+            .getRemainingPlayers()
+            .stream()
+            .filter(p -> p != commander.owner)
+            .findAny()
+            .get();
+    Combatant template =
+        Combatants.getCombatants().stream().filter(c -> c.name.equals("Brawler")).findAny().get();
+    enemy.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(enemy));
+    template.clone(enemy, board.getTileAt(6, 2));
+    assertThat(board.getWholeBoardDistance(commander, start, end)).isEqualTo(4);
+  }
 }
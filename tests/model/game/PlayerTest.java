@@ -0,0 +1,82 @@
+package model.game;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+import static helpers.Asserts.assertThat;
+
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import model.board.Tile;
+import model.game.Game.FogOfWar;
+import model.unit.combatant.Combatant;
+import model.unit.combatant.Combatants;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class PlayerTest {
+
+  /**
+   * Puts a copy of the combatant with the given name on the given tile for the given player.
+   */
+  private static Combatant place(Player player, String name, int row, int col) {
+    Combatant template =
+        Combatants.getCombatants().stream().filter(c -> c.name.equals(name)).findAny().get();
+    player.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(player));
+    return (Combatant) template.clone(player, player.game.board.getTileAt(row, col));
+  }
+
+  /**
+   * Returns a player of a new game on Backyard with a few overlapping combatants.
+   */
+  private static Player playerWithCombatants() {
+    GameController gameController =
+        GameController.loadHeadless(
+            BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+            Arrays.asList(
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+            FogOfWar.NONE,
+            1,
+            1);
+    Player player = gameController.game.getRemainingPlayers().get(0);
+    place(player, "Apprentice", 4, 4);
+    place(player, "Scout", 5, 3);
+    place(player, "Brawler", 2, 3);
+    return player;
+  }
+
+  @Test
+  public void dangerRadiusMatchesEachCombatantsDangerRadius() {
+    Player player = playerWithCombatants();
+    Set<Tile> flattened = new HashSet<>();
+    for (Combatant c : player.getCombatants()) {
+      assertThat(player.getDangerRadius().get(c)).isEqualTo(c.getDangerRadius(true));
+      flattened.addAll(c.getDangerRadius(true));
+    }
+    assertThat(player.getDangerRadiusFlattened()).isEqualTo(flattened);
+    assertThat(player.getDangerRadiusSize()).isEqualTo(flattened.size());
+  }
+
+  @Test
+  public void dangerRadiusGrowthMatchesMovingTheDangerRadius() {
+    Player player = playerWithCombatants();
+    for (Combatant c : player.getCombatants()) {
+      for (Tile t : player.game.board.getMovementCloud(c, true)) {
+        Set<Tile> moved = new HashSet<>();
+        for (Combatant other : player.getCombatants()) {
+          moved.addAll(
+              other == c ? c.getDangerRadiusFromTile(t, true) : other.getDangerRadius(true));
+        }
+        assertThat(player.getDangerRadiusGrowth(c, t))
+            .isEqualTo(moved.size() - player.getDangerRadiusSize());
+      }
+    }
+  }
+}
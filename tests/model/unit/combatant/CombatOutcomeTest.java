@@ -0,0 +1,329 @@
+package model.unit.combatant;
+
+import static ai.delegating.DelegatingAIControllers.DELEGATING_DEFAULT_AI_TYPE;
+import static helpers.Asserts.assertThat;
+
+import controller.game.BoardReader;
+import controller.game.CreatePlayerOptions;
+import controller.game.GameController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import model.game.Game.FogOfWar;
+import model.game.Player;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CombatOutcomeTest {
+
+  /**
+   * A random whose nextInt returns the given rolls in order, then 0, and records the bound of each
+   * call.
+   */
+  private static final class ScriptedRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] rolls;
+    private final List<Integer> bounds = new ArrayList<>();
+
+    private ScriptedRandom(int... rolls) {
+      this.rolls = rolls;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+      int roll = bounds.size() < rolls.length ? rolls[bounds.size()] : 0;
+      if (roll >= bound) {
+        throw new RuntimeException("Can't roll " + roll + " below " + bound);
+      }
+      bounds.add(bound);
+      return roll;
+    }
+  }
+
+  /**
+   * The result of processing one combat with scripted rolls.
+   */
+  private static final class ProcessedCombat {
+    private final List<Integer> bounds;
+    private final int damageDealt;
+    private final int damageTaken;
+    private final boolean defenderDied;
+    private final boolean attackerDied;
+
+    private ProcessedCombat(
+        List<Integer> bounds,
+        int damageDealt,
+        int damageTaken,
+        boolean defenderDied,
+        boolean attackerDied) {
+      this.bounds = bounds;
+      this.damageDealt = damageDealt;
+      this.damageTaken = damageTaken;
+      this.defenderDied = defenderDied;
+      this.attackerDied = attackerDied;
+    }
+  }
+
+  /**
+   * A game with two players, without fog of war, to place fighting units in.
+   */
+  private static final class Arena {
+    private final Player player;
+    private final Player enemy;
+    private final String attackerName;
+    private final String defenderName;
+    private final int attackerHealth;
+    private final int defenderHealth;
+
+    /**
+     * Constructs an arena for the named attacker at the given health attacking the adjacent named
+     * defender at the given health.
+     */
+    private Arena(String attackerName, int attackerHealth, String defenderName, int defenderHealth) {
+      GameController gameController =
+          GameController.loadHeadless(
+              BoardReader.BOARDS_ROOT_FILEPATH + "Backyard.csv",
+              Arrays.asList(
+                  new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE),
+                  new CreatePlayerOptions(DELEGATING_DEFAULT_AI_TYPE)),
+              FogOfWar.NONE,
+              1,
+              1);
+      player = gameController.game.getRemainingPlayers().get(0);
+      enemy = gameController.game.getRemainingPlayers().get(1);
+      this.attackerName = attackerName;
+      this.defenderName = defenderName;
+      this.attackerHealth = attackerHealth;
+      this.defenderHealth = defenderHealth;
+    }
+
+    /**
+     * Puts a copy of the named combatant for the given player on the given tile at the given
+     * health, ready to fight.
+     */
+    private static Combatant place(Player player, String name, int row, int col, int health) {
+      Combatant template =
+          Combatants.getCombatants().stream().filter(c -> c.name.equals(name)).findAny().get();
+      player.getCommander().addMana(template.getManaCostWithScalingAndDiscountsForPlayer(player));
+      Combatant combatant =
+          (Combatant) template.clone(player, player.game.board.getTileAt(row, col));
+      combatant.changeHealth(health - combatant.getHealth(), combatant);
+      combatant.refreshForTurn();
+      return combatant;
+    }
+
+    /**
+     * Returns a new combat between freshly placed copies of the attacker and defender.
+     */
+    private Combat newCombat() {
+      Combatant attacker = place(player, attackerName, 5, 4, attackerHealth);
+      Combatant defender = place(enemy, defenderName, 5, 5, defenderHealth);
+      return new Combat(attacker, defender);
+    }
+
+    /**
+     * Removes the units of the given combat that are still alive.
+     */
+    private static void clear(Combat combat) {
+      for (Combatant c : Arrays.asList(combat.attacker, (Combatant) combat.defender)) {
+        if (c.isAlive()) {
+          c.changeHealth(-c.getHealth(), c);
+        }
+      }
+    }
+
+    /**
+     * Returns the outcome of a combat between fresh copies of the attacker and defender.
+     */
+    private CombatOutcome getOutcome() {
+      Combat combat = newCombat();
+      CombatOutcome outcome = combat.getOutcome();
+      clear(combat);
+      return outcome;
+    }
+
+    /**
+     * Processes a combat between fresh copies of the attacker and defender with the given rolls.
+     */
+    private ProcessedCombat process(int... rolls) {
+      Combat combat = newCombat();
+      ScriptedRandom random = new ScriptedRandom(rolls);
+      combat.process(random);
+      ProcessedCombat processed =
+          new ProcessedCombat(
+              random.bounds,
+              defenderHealth - combat.defender.getHealth(),
+              attackerHealth - combat.attacker.getHealth(),
+              !combat.defender.isAlive(),
+              !combat.attacker.isAlive());
+      clear(combat);
+      return processed;
+    }
+  }
+
+  /**
+   * Returns true iff the given probabilities are equal up to floating point rounding.
+   */
+  private static boolean isCloseTo(double probability, double expected) {
+    return Math.abs(probability - expected) < 1e-9;
+  }
+
+  /**
+   * Processes the arena's combat with every possible attack roll and, for each, every possible
+   * counterattack roll, and checks that the outcome matches the resulting distribution.
+   */
+  private static void assertMatchesEveryRoll(Arena arena) {
+    CombatOutcome outcome = arena.getOutcome();
+    double[] damageDealt = new double[outcome.getMaxDamageDealt() + 1];
+    double[] damageTaken = new double[Math.max(0, outcome.getMaxDamageTaken() + 1)];
+    double defenderDies = 0;
+    double counterAttack = 0;
+    double attackerDies = 0;
+
+    int attackRolls = arena.process().bounds.get(0);
+    for (int attackRoll = 0; attackRoll < attackRolls; attackRoll++) {
+      double attackProbability = 1.0 / attackRolls;
+      ProcessedCombat attack = arena.process(attackRoll);
+      damageDealt[attack.damageDealt] += attackProbability;
+      if (attack.defenderDied) {
+        defenderDies += attackProbability;
+      }
+      if (attack.bounds.size() < 2) {
+        continue;
+      }
+      counterAttack += attackProbability;
+      int counterRolls = attack.bounds.get(1);
+      for (int counterRoll = 0; counterRoll < counterRolls; counterRoll++) {
+        double counterProbability = attackProbability / counterRolls;
+        ProcessedCombat counter = arena.process(attackRoll, counterRoll);
+        assertThat(counter.damageDealt).isEqualTo(attack.damageDealt);
+        damageTaken[counter.damageTaken] += counterProbability;
+        if (counter.attackerDied) {
+          attackerDies += counterProbability;
+        }
+      }
+    }
+
+    for (int i = 0; i < damageDealt.length; i++) {
+      assertThat(isCloseTo(outcome.getChanceOfDamageDealt(i), damageDealt[i])).isTrue();
+    }
+    for (int i = 0; i < damageTaken.length; i++) {
+      assertThat(isCloseTo(outcome.getChanceOfDamageTaken(i), damageTaken[i])).isTrue();
+    }
+    assertThat(isCloseTo(outcome.chanceDefenderDies, defenderDies)).isTrue();
+    assertThat(isCloseTo(outcome.chanceCounterAttack, counterAttack)).isTrue();
+    assertThat(isCloseTo(outcome.chanceAttackerDies, attackerDies)).isTrue();
+  }
+
+  @Test
+  public void probabilitiesSumToOne() {
+    CombatOutcome outcome = new Arena("Scout", 45, "Brawler", 20).getOutcome();
+    double dealt = 0;
+    for (int i = 0; i <= outcome.getMaxDamageDealt(); i++) {
+      dealt += outcome.getChanceOfDamageDealt(i);
+    }
+    double taken = 0;
+    for (int i = 0; i <= outcome.getMaxDamageTaken(); i++) {
+      taken += outcome.getChanceOfDamageTaken(i);
+    }
+    assertThat(isCloseTo(dealt, 1)).isTrue();
+    assertThat(isCloseTo(taken, outcome.chanceCounterAttack)).isTrue();
+    assertThat(isCloseTo(outcome.chanceDefenderDies + outcome.chanceCounterAttack, 1)).isTrue();
+    assertThat(outcome.chanceDefenderDies > 0 && outcome.chanceCounterAttack > 0).isTrue();
+  }
+
+  @Test
+  public void matchesEveryRollAtFullHealth() {
+    assertMatchesEveryRoll(new Arena("Scout", 110, "Guardian", 160));
+  }
+
+  @Test
+  public void matchesEveryRollWhenDefenderCanDie() {
+    assertMatchesEveryRoll(new Arena("Scout", 45, "Brawler", 20));
+  }
+
+  @Test
+  public void matchesEveryRollWhenAttackerCanDie() {
+    assertMatchesEveryRoll(new Arena("Scout", 20, "Brawler", 70));
+  }
+
+  @Test
+  public void counterAttackUsesDefenderHealthAfterAttack() {
+    // Both units are scouts, so the counterattack range at a given health is the range the defender
+    // would attack with at that health.
+    Arena arena = new Arena("Scout", 110, "Scout", 110);
+    Combat combat = arena.newCombat();
+    CombatOutcome outcome = combat.getOutcome();
+    int minDamageDealt = 0;
+    while (outcome.getChanceOfDamageDealt(minDamageDealt) == 0) {
+      minDamageDealt++;
+    }
+    Combat counter = new Combat((Combatant) combat.defender, combat.attacker);
+    int maxCounterBeforeAttack = counter.getMaxAttack();
+    combat.defender.changeHealth(-minDamageDealt, combat.defender);
+    int maxCounterAfterAttack = counter.getMaxAttack();
+
+    assertThat(minDamageDealt > 0).isTrue();
+    assertThat(outcome.getMaxDamageTaken()).isEqualTo(maxCounterAfterAttack);
+    assertThat(maxCounterAfterAttack < maxCounterBeforeAttack).isTrue();
+  }
+
+  @Test
+  public void outcomeAtGivenHealthMatchesUnitsAtThatHealth() {
+    Combat combat = new Arena("Scout", 110, "Brawler", 120).newCombat();
+    CombatOutcome projected = combat.getOutcome(20, 70);
+    CombatOutcome actual = new Arena("Scout", 20, "Brawler", 70).getOutcome();
+
+    assertThat(projected).isSameInstanceAs(actual);
+    assertThat(projected.getMaxDamageDealt() < combat.getOutcome().getMaxDamageDealt()).isTrue();
+  }
+
+  @Test
+  public void projectionMatchesOutcome() {
+    for (Arena arena :
+        Arrays.asList(
+            new Arena("Scout", 110, "Guardian", 160),
+            new Arena("Scout", 45, "Brawler", 20),
+            new Arena("Scout", 20, "Brawler", 70))) {
+      Combat combat = arena.newCombat();
+      CombatProjection projection = combat.getProjection();
+      CombatOutcome outcome = combat.getOutcome();
+
+      assertThat(isCloseTo(projection.chanceDefenderDies, outcome.chanceDefenderDies)).isTrue();
+      assertThat(projection.getOutcome()).isSameInstanceAs(outcome);
+      assertThat(projection.getChanceAttackerDies()).isEqualTo(outcome.chanceAttackerDies);
+      Arena.clear(combat);
+    }
+  }
+
+  @Test
+  public void cachedOutcomeMatchesFreshComputation() {
+    Arena arena = new Arena("Scout", 60, "Guardian", 90);
+    Combat combat = arena.newCombat();
+    CombatOutcome cached = combat.getOutcome();
+    assertThat(combat.getOutcome()).isSameInstanceAs(cached);
+
+    CombatOutcome.clearCache();
+    CombatOutcome fresh = combat.getOutcome();
+    assertThat(fresh).isNotSameInstanceAs(cached);
+    assertThat(fresh.chanceDefenderDies).isEqualTo(cached.chanceDefenderDies);
+    assertThat(fresh.chanceCounterAttack).isEqualTo(cached.chanceCounterAttack);
+    assertThat(fresh.chanceAttackerDies).isEqualTo(cached.chanceAttackerDies);
+    assertThat(fresh.expectedDamageDealt).isEqualTo(cached.expectedDamageDealt);
+    assertThat(fresh.expectedDamageTaken).isEqualTo(cached.expectedDamageTaken);
+    assertThat(fresh.getMaxDamageDealt()).isEqualTo(cached.getMaxDamageDealt());
+    assertThat(fresh.getMaxDamageTaken()).isEqualTo(cached.getMaxDamageTaken());
+    for (int i = 0; i <= fresh.getMaxDamageDealt(); i++) {
+      assertThat(fresh.getChanceOfDamageDealt(i)).isEqualTo(cached.getChanceOfDamageDealt(i));
+    }
+    for (int i = 0; i <= fresh.getMaxDamageTaken(); i++) {
+      assertThat(fresh.getChanceOfDamageTaken(i)).isEqualTo(cached.getChanceOfDamageTaken(i));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package model.unit.modifier;
+
+import static helpers.Asserts.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ModifierIndexTest {
+
+  @Test
+  public void emptyIndexHasNoModifiers() {
+    ModifierIndex index = new ModifierIndex();
+    assertThat(index.contains(Modifiers.TOUGHNESS)).isFalse();
+    assertThat(index.getFirst(Modifiers.TOUGHNESS)).isNull();
+    assertThat(index.get(Modifiers.TOUGHNESS)).hasSize(0);
+    assertThat(index.getSum(Modifiers.TOUGHNESS)).isEqualTo(0.0);
+    assertThat(index.getIntSum(Modifiers.TOUGHNESS)).isEqualTo(0);
+  }
+
+  @Test
+  public void sumsTrackAddedModifiersByName() {
+    ModifierIndex index = new ModifierIndex();
+    Modifier first = Modifiers.armored(0.25);
+    Modifier second = Modifiers.armored(0.5);
+    index.add(first);
+    index.add(second);
+    index.add(Modifiers.toughness(3));
+
+    assertThat(index.contains(Modifiers.ARMORED)).isTrue();
+    assertThat(index.getFirst(Modifiers.ARMORED)).isEqualTo(first);
+    assertThat(index.get(Modifiers.ARMORED)).containsExactly(first, second);
+    assertThat(index.getSum(Modifiers.ARMORED)).isEqualTo(0.75);
+    assertThat(index.getIntSum(Modifiers.TOUGHNESS)).isEqualTo(3);
+    assertThat(index.contains(Modifiers.ELUSIVE)).isFalse();
+  }
+
+  @Test
+  public void removingModifiersUpdatesSums() {
+    ModifierIndex index = new ModifierIndex();
+    Modifier first = Modifiers.toughness(3);
+    Modifier second = Modifiers.toughness(4);
+    index.add(first);
+    index.add(second);
+
+    index.remove(first);
+    assertThat(index.getIntSum(Modifiers.TOUGHNESS)).isEqualTo(4);
+    assertThat(index.getFirst(Modifiers.TOUGHNESS)).isEqualTo(second);
+
+    index.remove(second);
+    assertThat(index.contains(Modifiers.TOUGHNESS)).isFalse();
+    assertThat(index.getIntSum(Modifiers.TOUGHNESS)).isEqualTo(0);
+
+    // Removing a modifier that isn't present is a no-op.
+    index.remove(first);
+    assertThat(index.contains(Modifiers.TOUGHNESS)).isFalse();
+  }
+}
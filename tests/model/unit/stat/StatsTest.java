@@ -0,0 +1,86 @@
+package model.unit.stat;
+
+import static helpers.Asserts.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import model.unit.modifier.Modifier;
+import model.unit.modifier.Modifier.StackMode;
+import model.unit.modifier.StatModifier;
+import model.unit.modifier.StatModifier.ModificationType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class StatsTest {
+
+  private static final Stats BASE =
+      new Stats(new Stat(StatType.MAX_HEALTH, 100), new Stat(StatType.MAX_ATTACK, 10));
+
+  private static StatModifier modifier(StatType stat, ModificationType type, Object val) {
+    return new StatModifier("test", 1, StackMode.STACKABLE, stat, type, val);
+  }
+
+  @Test
+  public void unsetStatsAreZero() {
+    assertThat(BASE.getStatValue(StatType.VISION_RANGE)).isEqualTo(0);
+    assertThat(BASE.getStat(StatType.VISION_RANGE)).isEqualTo(0);
+  }
+
+  @Test
+  public void constructorSetsStats() {
+    assertThat(BASE.getStatValue(StatType.MAX_HEALTH)).isEqualTo(100);
+    assertThat(BASE.getStat(StatType.MAX_ATTACK)).isEqualTo(10);
+    assertThat(BASE.getStat(StatType.BASE)).isNull();
+  }
+
+  @Test
+  public void modifiersApplyInOrder() {
+    Stats stats =
+        BASE.modifiedWith(
+            Arrays.asList(
+                modifier(StatType.MAX_HEALTH, ModificationType.ADD, 20),
+                modifier(StatType.MAX_HEALTH, ModificationType.MULTIPLY, 0.5)));
+    assertThat(stats.getStatValue(StatType.MAX_HEALTH)).isEqualTo(60);
+    assertThat(stats.getStatValue(StatType.MAX_ATTACK)).isEqualTo(10);
+    assertThat(stats.getStat(StatType.BASE)).isSameInstanceAs(BASE);
+  }
+
+  @Test
+  public void withModifierMatchesModifiedWith() {
+    Modifier add = modifier(StatType.MAX_HEALTH, ModificationType.ADD, 20);
+    Modifier setMin = modifier(StatType.MAX_HEALTH, ModificationType.SET_MIN, 110);
+    Modifier attack = modifier(StatType.MAX_ATTACK, ModificationType.SET_MAX, 15);
+    Stats incremental =
+        BASE.modifiedWith(Collections.emptyList())
+            .withModifier((StatModifier) add)
+            .withModifier((StatModifier) attack)
+            .withModifier((StatModifier) setMin);
+    Stats full = BASE.modifiedWith(Arrays.asList(add, attack, setMin));
+    for (StatType t : StatType.values()) {
+      if (t != StatType.BASE) {
+        assertThat(incremental.getStatValue(t)).isEqualTo(full.getStatValue(t));
+      }
+    }
+    assertThat(incremental.getStatValue(StatType.MAX_HEALTH)).isEqualTo(110);
+    assertThat(incremental.getStatValue(StatType.MAX_ATTACK)).isEqualTo(15);
+  }
+
+  @Test
+  public void withoutModifierRefoldsStat() {
+    StatModifier add = modifier(StatType.MAX_HEALTH, ModificationType.ADD, 20);
+    StatModifier multiply = modifier(StatType.MAX_HEALTH, ModificationType.MULTIPLY, 2.0);
+    Stats stats = BASE.modifiedWith(Arrays.asList(add, multiply));
+    assertThat(stats.getStatValue(StatType.MAX_HEALTH)).isEqualTo(240);
+    assertThat(stats.withoutModifier(add).getStatValue(StatType.MAX_HEALTH)).isEqualTo(200);
+    assertThat(stats.withoutModifier(multiply).getStatValue(StatType.MAX_HEALTH)).isEqualTo(120);
+  }
+
+  @Test
+  public void withoutMissingModifierReturnsSameStats() {
+    Stats stats = BASE.modifiedWith(Collections.emptyList());
+    StatModifier add = modifier(StatType.MAX_HEALTH, ModificationType.ADD, 20);
+    assertThat(stats.withoutModifier(add)).isSameInstanceAs(stats);
+  }
+}
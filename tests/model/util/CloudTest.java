@@ -82,6 +82,39 @@ public final class CloudTest {
         .containsExactlyElementsIn(remainingPoints);
   }
 
+  @Test
+  public void translateAcrossOriginKeepsPoints() {
+    List<MPoint> points =
+        Arrays.asList(MPoint.get(0, 0), MPoint.get(1, -1), MPoint.get(-2, 3), MPoint.get(2, 4));
+    MPoint delta = MPoint.get(-3, -2);
+    List<MPoint> translatedPoints = points.stream().map(delta::add).collect(Collectors.toList());
+    assertThat(createCloud(points).translate(delta).getPoints())
+        .containsExactlyElementsIn(translatedPoints);
+  }
+
+  @Test
+  public void getRowAndColAreInRowThenColOrder() {
+    List<MPoint> points =
+        Arrays.asList(MPoint.get(1, -1), MPoint.get(-2, 3), MPoint.get(1, -4), MPoint.get(0, 0));
+    Cloud cloud = createCloud(points);
+    assertThat(cloud.getRow(0)).isEqualTo(-2);
+    assertThat(cloud.getCol(0)).isEqualTo(3);
+    assertThat(cloud.getRow(1)).isEqualTo(0);
+    assertThat(cloud.getCol(1)).isEqualTo(0);
+    assertThat(cloud.getRow(2)).isEqualTo(1);
+    assertThat(cloud.getCol(2)).isEqualTo(-4);
+    assertThat(cloud.getRow(3)).isEqualTo(1);
+    assertThat(cloud.getCol(3)).isEqualTo(-1);
+  }
+
+  @Test
+  public void containsWorksForNegativeCoordinates() {
+    Cloud cloud = createCloud(Arrays.asList(MPoint.get(-1, -1), MPoint.get(-1, 2)));
+    assertThat(cloud.contains(-1, -1)).isTrue();
+    assertThat(cloud.contains(-1, 2)).isTrue();
+    assertThat(cloud.contains(0, -1)).isFalse();
+  }
+
   // TODO - to test:
   // - toTileSet
 }
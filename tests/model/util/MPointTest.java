@@ -51,6 +51,15 @@ public final class MPointTest {
     assertThat(p1).isSameInstanceAs(p2);
   }
 
+  @Test
+  public void pointsFarFromOriginArePooled() {
+    MPoint p1 = MPoint.get(10000, -20000);
+    MPoint p2 = MPoint.get(10000, -20000);
+    assertThat(p1).isSameInstanceAs(p2);
+    assertThat(p1.row).isEqualTo(10000);
+    assertThat(p1.col).isEqualTo(-20000);
+  }
+
   @Test
   public void emptyGetReturnsOrigin() {
     assertThat(MPoint.get()).isEqualTo(MPoint.ORIGIN);
@@ -0,0 +1,43 @@
+package util;
+
+import static helpers.Asserts.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class RandomStreamsTest {
+
+  @Test
+  public void sameSeedGivesSameStreams() {
+    Random first = new RandomStreams(17).newRandom(RandomStreams.COMBAT, 0);
+    Random second = new RandomStreams(17).newRandom(RandomStreams.COMBAT, 0);
+    for (int i = 0; i < 100; i++) {
+      assertThat(first.nextLong()).isEqualTo(second.nextLong());
+    }
+  }
+
+  @Test
+  public void newRandomStartsAtBeginningOfStream() {
+    RandomStreams randoms = new RandomStreams(17);
+    long firstValue = randoms.newRandom(RandomStreams.PLAYER, 1).nextLong();
+    assertThat(randoms.newRandom(RandomStreams.PLAYER, 1).nextLong()).isEqualTo(firstValue);
+  }
+
+  @Test
+  public void streamsDiffer() {
+    RandomStreams randoms = new RandomStreams(17);
+    long combat = randoms.getSeed(RandomStreams.COMBAT, 0);
+    assertThat(randoms.getSeed(RandomStreams.START_LOCATIONS, 0)).isNotEqualTo(combat);
+    assertThat(randoms.getSeed(RandomStreams.COMBAT, 1)).isNotEqualTo(combat);
+    assertThat(new RandomStreams(18).getSeed(RandomStreams.COMBAT, 0)).isNotEqualTo(combat);
+  }
+
+  @Test
+  public void newSeedDiffersEachCall() {
+    assertThat(RandomStreams.newSeed()).isNotEqualTo(RandomStreams.newSeed());
+  }
+}